@@ -20,6 +20,10 @@ android {
     testOptions {
         unitTests {
             isReturnDefaultValues = true
+            // Benchmarks.java is skipped unless the build is run with -Pbenchmarks
+            all {
+                it.systemProperty("benchmarks", project.hasProperty("benchmarks"))
+            }
             // If you ever use Robolectric:
             // isIncludeAndroidResources = true
         }
@@ -0,0 +1,112 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.chicksevent.misc.LotteryScheduler;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sweeps a seeded catalogue with {@link LotteryScheduler} against a local Realtime Database
+ * emulator.
+ * <p>
+ * The test only runs when the emulator host is passed as an instrumentation argument, so it
+ * never touches the real project. Start the emulator with {@code firebase emulators:start
+ * --only database} and run:
+ * </p>
+ * <pre>
+ * ./gradlew connectedAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.example.chicksevent.LotterySchedulerEmulatorTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.lotteryEmulatorHost=10.0.2.2 \
+ *     -Pandroid.testInstrumentationRunnerArguments.lotteryEvents=2000
+ * </pre>
+ *
+ * <p>Every seeded event closed registration yesterday, allows 2 entrants and has 5 waiting,
+ * so after one sweep each has exactly 2 invited; a second sweep draws nothing.</p>
+ *
+ * @author Jinn Kasai
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class LotterySchedulerEmulatorTest {
+
+    private static final String TAG = "LotterySweep";
+    private static final int LIMIT = 2;
+    private static final int WAITING = 5;
+
+    @Test
+    public void sweep_drawsEveryClosedEventOnce() throws Exception {
+        Bundle args = InstrumentationRegistry.getArguments();
+        String host = args.getString("lotteryEmulatorHost");
+        assumeTrue("No lotteryEmulatorHost argument; skipping emulator sweep", host != null);
+        int events = Integer.parseInt(args.getString("lotteryEvents", "200"));
+        int port = Integer.parseInt(args.getString("lotteryEmulatorPort", "9000"));
+
+        LotteryScheduler.useEmulator(host, port);
+        FirebaseDatabase db = FirebaseDatabase.getInstance();
+        Tasks.await(db.getReference().removeValue(), 30, TimeUnit.SECONDS);
+        Tasks.await(db.getReference().updateChildren(seed(events)), 120, TimeUnit.SECONDS);
+
+        LotteryScheduler.Report first = sweep();
+        Log.i(TAG, "First sweep: " + first);
+        assertEquals(events, first.candidates);
+        assertEquals(events, first.drawn);
+        assertTrue(first.failures.isEmpty());
+
+        for (int i = 0; i < events; i++) {
+            DataSnapshot invited = Tasks.await(db.getReference("WaitingList/E" + i + "/INVITED").get(),
+                    30, TimeUnit.SECONDS);
+            assertEquals(LIMIT, invited.getChildrenCount());
+        }
+
+        LotteryScheduler.Report second = sweep();
+        Log.i(TAG, "Second sweep: " + second);
+        assertEquals(0, second.drawn);
+        assertEquals(events, second.skipped);
+    }
+
+    /** Runs a sweep on the main thread and waits for its report. */
+    private static LotteryScheduler.Report sweep() throws Exception {
+        AtomicReference<Task<LotteryScheduler.Report>> task = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(
+                () -> task.set(new LotteryScheduler().sweep()));
+        return Tasks.await(task.get(), 10, TimeUnit.MINUTES);
+    }
+
+    private static Map<String, Object> seed(int events) {
+        Map<String, Object> updates = new HashMap<>();
+        for (int i = 0; i < events; i++) {
+            String id = "E" + i;
+            updates.put("Event/" + id + "/id", id);
+            updates.put("Event/" + id + "/name", "Sweep " + i);
+            updates.put("Event/" + id + "/registrationEndDate", "01-01-2000");
+            updates.put("Event/" + id + "/entrantLimit", LIMIT);
+            for (int u = 0; u < WAITING; u++) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put(" ", "");
+                updates.put("WaitingList/" + id + "/WAITING/u" + u, entry);
+                updates.put("Counters/" + id + "/WAITING", WAITING);
+            }
+        }
+        return updates;
+    }
+}
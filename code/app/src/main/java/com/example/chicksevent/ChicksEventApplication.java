@@ -0,0 +1,54 @@
+package com.example.chicksevent;
+
+import android.app.Application;
+import android.provider.Settings;
+import android.util.Log;
+
+import com.example.chicksevent.misc.NotificationInbox;
+import com.example.chicksevent.misc.UserEventsIndex;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * Application entry point; configures Firebase before any screen touches it.
+ * <p>
+ * Realtime Database disk persistence is enabled here, because it must be set before the first
+ * database reference is created. With it on, reads are answered from the local cache while the
+ * network catches up, and queued writes survive a restart. The current user's own nodes are
+ * additionally kept synced so their profile, joined events and unread counter are always warm.
+ * The inbox itself is not: it is read one page at a time, see {@link NotificationInbox}.
+ * </p>
+ *
+ * @author Jordan Kwan
+ */
+public class ChicksEventApplication extends Application {
+
+    private static final String TAG = ChicksEventApplication.class.getSimpleName();
+
+    /** Disk cache budget for the Realtime Database (bytes). */
+    private static final long CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+
+    /** Roots under which the current user has a node of their own. */
+    private static final String[] USER_ROOTS = { "User", UserEventsIndex.ROOT, NotificationInbox.UNREAD_ROOT };
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        try {
+            database.setPersistenceEnabled(true);
+            database.setPersistenceCacheSizeBytes(CACHE_SIZE_BYTES);
+        } catch (DatabaseException e) {
+            // Already configured (e.g. the process was restarted by instrumentation)
+            Log.w(TAG, "Database persistence could not be configured", e);
+        }
+
+        String userId = Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
+        if (userId != null) {
+            for (String root : USER_ROOTS) {
+                database.getReference(root).child(userId).keepSynced(true);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.chicksevent;
 
 import android.os.Bundle;
+import android.provider.Settings;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -13,6 +14,7 @@ import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 
 import com.example.chicksevent.databinding.ActivityMainBinding;
+import com.example.chicksevent.misc.NotificationInbox;
 
 /**
  * The main entry point of the ChicksEvent application.
@@ -27,6 +29,7 @@ import com.example.chicksevent.databinding.ActivityMainBinding;
  *   <li>Inflate and initialize the main activity layout.</li>
  *   <li>Configure the app bar and navigation graph integration.</li>
  *   <li>Handle menu inflation and navigation-up events.</li>
+ *   <li>Show the unread notification count on the notification button.</li>
  * </ul>
  *
  * @author Jordan Kwan
@@ -89,6 +92,15 @@ public class MainActivity extends AppCompatActivity {
             navController.navigate(R.id.ProfileFragment);
 
         });
+
+        String androidId = Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
+        if (androidId != null) {
+            NotificationInbox inbox = new NotificationInbox(androidId);
+            // One integer read per screen change keeps the badge current without loading the inbox
+            navController.addOnDestinationChangedListener((controller, destination, arguments) ->
+                    inbox.getUnreadCount().addOnSuccessListener(count ->
+                            notificationButton.setText(count > 0 ? String.valueOf(count) : "")));
+        }
     }
 
     /**
@@ -13,6 +13,8 @@ import android.widget.Toast;
 import com.example.chicksevent.R;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusTransition;
 import com.example.chicksevent.misc.User;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
@@ -40,6 +42,10 @@ import java.util.ArrayList;
  * @author Jordan and Hanh &lt;/3
  */
 public class EntrantAdapter extends ArrayAdapter<Entrant> {
+
+    /** Firebase service for the "WaitingList" root. */
+    private final FirebaseService waitingListService = new FirebaseService("WaitingList");
+
     /**
      * Constructs a new adapter for displaying user information.
      *
@@ -137,12 +143,7 @@ public class EntrantAdapter extends ArrayAdapter<Entrant> {
                     .setTitle("Cancel Entrant")
                     .setMessage("Are you sure you want to cancel " + userName.getText() + "?")
                     .setPositiveButton("Yes", (dialog, which) -> {
-                        DatabaseReference root = FirebaseDatabase.getInstance()
-                                .getReference("WaitingList")
-                                .child(eventId);
-
-                        root.child("INVITED").child(uid).removeValue();
-                        root.child("CANCELLED").child(uid).setValue(true);
+                        cancelEntrant(entrant);
 
                         Toast.makeText(getContext(),
                                 "Cancelled " + uid,
@@ -153,14 +154,22 @@ public class EntrantAdapter extends ArrayAdapter<Entrant> {
         });
     }
 
+    /**
+     * Moves an invited entrant to CANCELLED in one multi-path update that also keeps the
+     * entrant's {@code UserEvents} index entry and the event's bucket counters in step. The
+     * entrant's entry (e.g. their join location) is carried into CANCELLED.
+     *
+     * @param e the entrant to cancel
+     */
+    private void cancelEntrant(Entrant e) {
+        new StatusTransition(e.getEventId())
+                .move(e.getEntrantId(), EntrantStatus.INVITED, EntrantStatus.CANCELLED)
+                .commit(waitingListService);
+    }
+
     // Test helper (ignored by app)
     public void cancelEntrantForTest(Entrant e) {
-        DatabaseReference root = FirebaseDatabase.getInstance()
-                .getReference("WaitingList")
-                .child(e.getEventId());
-
-        root.child("INVITED").child(e.getEntrantId()).removeValue();
-        root.child("CANCELLED").child(e.getEntrantId()).setValue(true);
+        cancelEntrant(e);
     }
 
 }
@@ -9,10 +9,10 @@ import android.widget.ArrayAdapter;
 import android.widget.ImageButton;
 import android.widget.TextView;
 
+import com.example.chicksevent.misc.EventSummaryResolver;
 import com.example.chicksevent.misc.Notification;
 import com.example.chicksevent.enums.NotificationType;
 import com.example.chicksevent.R;
-import com.google.firebase.database.FirebaseDatabase;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -31,6 +31,8 @@ import java.util.Locale;
  * <ul>
  *     <li>Inflate and recycle views for efficient list rendering.</li>
  *     <li>Bind notification data to text views within each item layout.</li>
+ *     <li>Take event names and dates from an {@link EventSummaryResolver}, so rows that share an
+ *     event (and rebinds while scrolling) cost no extra reads.</li>
  * </ul>
  *
  * @author Jordan Kwan
@@ -39,6 +41,7 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
     private static final String TAG = NotificationAdapter.class.getSimpleName();
     OnItemButtonClickListener listener;
     OnItemButtonClickListener listener2;
+    private final EventSummaryResolver summaries;
 
     public interface OnItemButtonClickListener {
         void onItemButtonClick(Notification notification);
@@ -50,9 +53,21 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
      * @param notifArray the list of {@link Notification} objects to display
      */
     public NotificationAdapter(Context context, ArrayList<Notification> notifArray, OnItemButtonClickListener listener, OnItemButtonClickListener listener2) {
+        this(context, notifArray, listener, listener2, EventSummaryResolver.getInstance());
+    }
+
+    /**
+     * Constructs a new adapter that resolves event names and dates through {@code summaries}.
+     *
+     * @param context the current context used to inflate the layout
+     * @param notifArray the list of {@link Notification} objects to display
+     * @param summaries resolver for the event name and start date of each row
+     */
+    public NotificationAdapter(Context context, ArrayList<Notification> notifArray, OnItemButtonClickListener listener, OnItemButtonClickListener listener2, EventSummaryResolver summaries) {
         super(context, 0, notifArray);
         this.listener = listener;
         this.listener2 = listener2;
+        this.summaries = summaries;
     }
 
     /**
@@ -85,26 +100,24 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
         ImageButton btnArrow = view.findViewById(R.id.btn_arrow);
         TextView tv_date = view.findViewById(R.id.tv_date);
 
-        notification.getEventName().addOnCompleteListener(t -> {
-            eventName.setText(t.getResult());
-        });
-
         time.setText(notification.getMessage());
 
         String eventId = notification.getEventId();
+        view.setTag(eventId);
 
-        FirebaseDatabase.getInstance()
-                .getReference("Event")
-                .child(eventId)
-                .child("eventStartDate")
-                .get()
-                .addOnCompleteListener(task -> {
-                    String startDateStr = task.getResult().getValue(String.class);
-                    bindDate(startDateStr, tv_date);
-                });
-
-
-
+        EventSummaryResolver.Summary summary = summaries.peek(eventId);
+        if (summary != null) {
+            bindSummary(summary, eventName, tv_date);
+        } else {
+            eventName.setText("");
+            tv_date.setText("");
+            summaries.get(eventId).addOnSuccessListener(s -> {
+                // The row may have been recycled for another event while we waited
+                if (eventId != null && eventId.equals(view.getTag())) {
+                    bindSummary(s, eventName, tv_date);
+                }
+            });
+        }
 
         status.setText(notification.getNotificationType() == NotificationType.WAITING ? "WAITING" : notification.getNotificationType() == NotificationType.INVITED ? "INVITED": notification.getNotificationType() == NotificationType.ACCEPTED ? "ACCEPTED" : notification.getNotificationType() == NotificationType.CANCELLED ? "CANCELLED" : notification.getNotificationType() == NotificationType.SYSTEM ? "SYSTEM" : "NOT CHOSEN");
         btnDelete.setOnClickListener(v -> {
@@ -118,6 +131,11 @@ public class NotificationAdapter extends ArrayAdapter<Notification> {
         return view;
     }
 
+    private void bindSummary(EventSummaryResolver.Summary summary, TextView eventName, TextView tv_date) {
+        eventName.setText(summary.getName());
+        bindDate(summary.getStartDate(), tv_date);
+    }
+
     private void bindDate(String startDateStr, TextView tv_date) {
         if (startDateStr != null) {
             try {
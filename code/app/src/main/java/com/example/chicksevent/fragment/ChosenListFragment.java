@@ -23,9 +23,11 @@ import com.example.chicksevent.databinding.FragmentChosenListBinding;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.NotificationFanout;
 import com.example.chicksevent.misc.Organizer;
 import com.example.chicksevent.misc.User;
 import com.example.chicksevent.util.StringUtils;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.ValueEventListener;
@@ -157,7 +159,8 @@ public class ChosenListFragment extends Fragment {
                             "You entered: " + userInput,
                             Toast.LENGTH_SHORT).show();
 
-                    organizer.sendWaitingListNotification(EntrantStatus.INVITED, userInput);
+                    organizer.sendWaitingListNotification(EntrantStatus.INVITED, userInput)
+                            .addOnCompleteListener(sent -> reportDelivery(sent));
 //                    organizer.sendWaitingListNotification(EntrantStatus.UNINVITED, "NOT chosen list notification");
                 }
             });
@@ -255,4 +258,22 @@ public class ChosenListFragment extends Fragment {
         }
         binding = null;
     }
+
+    /**
+     * Tells the organizer when a broadcast did not reach every opted-in entrant.
+     *
+     * @param sent the finished send
+     */
+    private void reportDelivery(Task<NotificationFanout.Delivery> sent) {
+        if (getContext() == null) return;
+        if (!sent.isSuccessful()) {
+            Toast.makeText(getContext(), "Notification could not be sent", Toast.LENGTH_LONG).show();
+            return;
+        }
+        NotificationFanout.Delivery delivery = sent.getResult();
+        if (!delivery.isComplete()) {
+            Toast.makeText(getContext(), "Notification reached only " + delivery.getDelivered()
+                    + " of " + delivery.getRecipients() + " entrants", Toast.LENGTH_LONG).show();
+        }
+    }
 }
\ No newline at end of file
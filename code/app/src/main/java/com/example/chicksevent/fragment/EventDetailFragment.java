@@ -36,8 +36,13 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentEventDetailBinding;
+import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
+import com.example.chicksevent.misc.EntrantStatusWatcher;
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventLookup;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusCounters;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
@@ -67,6 +72,12 @@ import java.util.Locale;
  * {@link Entrant#joinWaitingList()}. Users must have a profile in Firebase to join.
  * </p>
  *
+ * <p>
+ * The user's waiting-list status and the entrant count are pushed by an
+ * {@link EntrantStatusWatcher} bound to the view lifecycle, so the screen only redraws when
+ * something changes and stops listening when the view goes away.
+ * </p>
+ *
  * @author Jordan Kwan
  */
 public class EventDetailFragment extends Fragment {
@@ -88,9 +99,16 @@ public class EventDetailFragment extends Fragment {
 
     private FirebaseService waitingListService;
 
+    /** Reader for the denormalized {@code Counters/{eventId}} bucket counts. */
+    private StatusCounters statusCounters;
+
+    /** Live subscription to this user's waiting-list standing; bound to the view lifecycle. */
+    private EntrantStatusWatcher statusWatcher;
+
     private Integer waitingListCount;
     private boolean geolocationRequired = false;
     private boolean eventOnHold = false;
+    private static final String TAG = EventDetailFragment.class.getSimpleName();
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
     private static final long LOCATION_TIMEOUT_MS = 30000; // 30 seconds
     private LocationManager locationManager;
@@ -139,6 +157,7 @@ public class EventDetailFragment extends Fragment {
         eventService = new FirebaseService("Event");
         waitingListService = new FirebaseService("WaitingList");
         imageService = new FirebaseService("Image");
+        statusCounters = new StatusCounters();
 
 //        eventNameReal = view.findViewById(R.id.tv_event_name);
         
@@ -203,27 +222,19 @@ public class EventDetailFragment extends Fragment {
         if (qrCodeButton != null) {
 //            Log.i("checking event");
             qrCodeButton.setOnClickListener(v -> {
-                // Get eventId from Firebase
-                eventService.getReference().get().addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DataSnapshot ds : task.getResult().getChildren()) {
-                            if (ds.getKey().equals(eventIdString)) {
-                                Object idObj = ds.child("id").getValue();
-                                Object nameObj = ds.child("name").getValue();
-
-                                String eventId = idObj != null ? idObj.toString() : eventIdString;
-                                String eventNameValue = nameObj != null ? nameObj.toString() : eventIdString;
-
-                                Bundle bundle = new Bundle();
-                                bundle.putString("eventId", eventId);
-                                bundle.putString("eventName", eventNameValue);
-
-                                NavHostFragment.findNavController(EventDetailFragment.this)
-                                        .navigate(R.id.action_EventDetailFragment_to_QRCodeDisplayFragment, bundle);
-                                break;
-                            }
-                        }
-                    }
+                // One keyed read at most; repeated taps are served from the lookup cache
+                EventLookup.getInstance().get(eventIdString).addOnSuccessListener(event -> {
+                    if (event == null || binding == null) return;
+
+                    String eventId = event.getId() != null ? event.getId() : eventIdString;
+                    String eventNameValue = event.getName() != null ? event.getName() : eventIdString;
+
+                    Bundle bundle = new Bundle();
+                    bundle.putString("eventId", eventId);
+                    bundle.putString("eventName", eventNameValue);
+
+                    NavHostFragment.findNavController(EventDetailFragment.this)
+                            .navigate(R.id.action_EventDetailFragment_to_QRCodeDisplayFragment, bundle);
                 });
             });
         }
@@ -232,75 +243,36 @@ public class EventDetailFragment extends Fragment {
 
 
 
-        getWaitingCount().continueWithTask(wc -> getEventDetail()).addOnCompleteListener(t -> {
-//            Log.i("browaiting", t.getResult().toString());
-//            if (!t.isSuccessful()) return;
-            if (t.getResult()==1) {
-                waitingStatus.setVisibility(View.VISIBLE);
-                waitingCount.setText("Number of Entrants: " + waitingListCount);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            if (t.getResult()==2) {
-                invitedStatus.setVisibility(View.VISIBLE);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            if (t.getResult()==3) {
-                uninvitedStatus.setVisibility(View.VISIBLE);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            if (t.getResult()==4) {
-                acceptedStatus.setVisibility(View.VISIBLE);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            if (t.getResult()==5) {
-                declinedStatus.setVisibility(View.VISIBLE);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            if (t.getResult()==6) {
-                cancelledStatus.setVisibility(View.VISIBLE);
-                joinButton.setVisibility(View.INVISIBLE);
-            }
-            waitingCount.setText("Number of Entrants: " + waitingListCount);
-        });
+        getEventDetail();
 
-        final Handler handler = new Handler();
-        final int delay = 5000;
+        // Push-based status: listeners on this user's key in each bucket plus the WAITING
+        // counter, attached while the view is started and removed when it stops.
+        LinearLayout[] statusLayouts = {
+                waitingStatus, invitedStatus, uninvitedStatus,
+                acceptedStatus, declinedStatus, cancelledStatus
+        };
+        EntrantStatus[] layoutStatuses = {
+                EntrantStatus.WAITING, EntrantStatus.INVITED, EntrantStatus.UNINVITED,
+                EntrantStatus.ACCEPTED, EntrantStatus.DECLINED, EntrantStatus.CANCELLED
+        };
+        statusWatcher = new EntrantStatusWatcher(eventIdString, userId, new EntrantStatusWatcher.Listener() {
+            @Override
+            public void onStatusChanged(EntrantStatus status) {
+                if (binding == null) return;
+                for (int i = 0; i < statusLayouts.length; i++) {
+                    statusLayouts[i].setVisibility(layoutStatuses[i] == status ? View.VISIBLE : View.GONE);
+                }
+                joinButton.setVisibility(status == null ? View.VISIBLE : View.INVISIBLE);
+            }
 
-        handler.postDelayed(new Runnable() {
-            public void run() {
-                getWaitingCount().continueWithTask(wc -> getEventDetail()).addOnCompleteListener(t -> {
-//            Log.i("browaiting", t.getResult().toString());
-//            if (!t.isSuccessful()) return;
-                    if (t.getResult()==1) {
-                        waitingStatus.setVisibility(View.VISIBLE);
-                        waitingCount.setText("Number of Entrants: " + waitingListCount);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    if (t.getResult()==2) {
-                        invitedStatus.setVisibility(View.VISIBLE);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    if (t.getResult()==3) {
-                        uninvitedStatus.setVisibility(View.VISIBLE);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    if (t.getResult()==4) {
-                        acceptedStatus.setVisibility(View.VISIBLE);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    if (t.getResult()==5) {
-                        declinedStatus.setVisibility(View.VISIBLE);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    if (t.getResult()==6) {
-                        cancelledStatus.setVisibility(View.VISIBLE);
-                        joinButton.setVisibility(View.INVISIBLE);
-                    }
-                    waitingCount.setText("Number of Entrants: " + waitingListCount);
-                });
-                handler.postDelayed(this, delay);
+            @Override
+            public void onWaitingCountChanged(int count) {
+                if (binding == null) return;
+                waitingListCount = count;
+                waitingCount.setText("Number of Entrants: " + count);
             }
-        }, delay);
+        });
+        getViewLifecycleOwner().getLifecycle().addObserver(statusWatcher);
 
 
         joinButton.setOnClickListener(v -> {
@@ -312,7 +284,7 @@ public class EventDetailFragment extends Fragment {
                 return;
             }
             
-            userExists().continueWithTask(boole -> {
+            userExists().addOnCompleteListener(boole -> {
                 if (boole.getResult()) {
                     // Check if geolocation is required
                     if (geolocationRequired) {
@@ -332,11 +304,7 @@ public class EventDetailFragment extends Fragment {
                             "You need to a create profile to join the waiting list.",
                             Toast.LENGTH_SHORT).show();
                 }
-
-                return getWaitingCount();
-            }).addOnCompleteListener(t -> {
-                Log.i("RTD9", "" + t.getResult());
-                waitingCount.setText("Number of Entrants: " + t.getResult());
+                // The status watcher pushes the new count; no re-read needed
             });
         });
 
@@ -402,8 +370,9 @@ public class EventDetailFragment extends Fragment {
         rejoinButton.setOnClickListener(v -> {
             Entrant e = new Entrant(userId, args.getString("eventId"));
 
-            e.joinWaitingList();
-            waitingListService.deleteSubCollectionEntry(eventId, "UNINVITED", e.getEntrantId());
+            // Move UNINVITED -> WAITING in one write so the bucket counters stay in step
+            e.setStatus(EntrantStatus.UNINVITED);
+            e.swapStatus(EntrantStatus.WAITING);
             Toast.makeText(getContext(),
                     "You rejoin the waiting list.",
                     Toast.LENGTH_SHORT).show();
@@ -503,101 +472,56 @@ public class EventDetailFragment extends Fragment {
 
 
 
+    /**
+     * Reads the number of entrants in the WAITING bucket from the event's counter node.
+     *
+     * @return a task resolving to the waiting count
+     */
     public Task<Integer> getWaitingCount() {
         if (eventId == null) {
             return Tasks.forResult(0);
         }
 
-        return waitingListService.getReference().child(eventId).get()
-                .continueWith(task -> {
-                    int total = 0;
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DataSnapshot obj : task.getResult().getChildren()) {
-                            if ("WAITING".equals(obj.getKey())) {
-                                total += ((HashMap<String, Object>) obj.getValue()).values().size();
-                            }
-                        }
-                    }
-                    Log.i("whatistotal", ""+total);
-                    waitingListCount = total;
-                    return total;
-                });
+        return statusCounters.read(eventId, "WAITING").continueWith(task -> {
+            int total = task.isSuccessful() ? task.getResult() : 0;
+            waitingListCount = total;
+            return total;
+        });
     }
 
+    /**
+     * Reads the number of entrants in the ACCEPTED bucket from the event's counter node.
+     *
+     * @return a task resolving to the accepted count
+     */
     public Task<Integer> getFinalCount() {
-        Log.i("RTD10", "calling");
-
         if (eventIdString == null) {
-            Log.i("RTD10", "calling3");
-
             return Tasks.forResult(0);
         }
 
-        return waitingListService.getReference().child(eventIdString).get()
-                .continueWith(task -> {
-                    int total = 0;
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DataSnapshot obj : task.getResult().getChildren()) {
-                            Log.i("RTD10", "we out here");
-                            if ("ACCEPTED".equals(obj.getKey())) {
-                                total++;
-                            }
-                        }
-                    }
-//                    waitingListCount = total;
-                    return total;
-                });
+        return statusCounters.read(eventIdString, "ACCEPTED");
     }
 
-    public Task<Integer> getEventDetail() {
-        return eventService.getReference().get().continueWithTask(task -> {
-            for (DataSnapshot ds : task.getResult().getChildren()) {
-
-                Log.i("browaiting", ds.getKey() + " : " + eventIdString + " ");
-                if (ds.getKey().equals(eventIdString)) {
-                    HashMap<String, Object> hash = (HashMap<String, Object>) ds.getValue();
-                    eventId = (String) hash.get("id");
-
-                    // Check if geolocation is required
-                    Object geoRequired = hash.get("geolocationRequired");
-                    if (geoRequired instanceof Boolean) {
-                        geolocationRequired = (Boolean) geoRequired;
-                    } else {
-                        geolocationRequired = false; // Default to false if not set
-                    }
-
-                    // Check if event is on hold
-                    Object onHoldObj = hash.get("onHold");
-                    if (onHoldObj instanceof Boolean) {
-                        eventOnHold = (Boolean) onHoldObj;
-                    } else {
-                        eventOnHold = false; // Default to false if not set
-                    }
-
-                    getWaitingCount();
-
-                    // Return Task<Boolean> directly (no extra wrapping)
-                    return lookWaitingList();
-                }
+    /**
+     * Resolves the displayed event through {@link EventLookup#getFresh} (a keyed read, or none if
+     * the event is in the synced repository) and records the flags the action buttons depend on.
+     * The lookup's cache is skipped so a stale {@code onHold} or {@code geolocationRequired}
+     * cannot gate joining. Waiting-list standing is not read here; it is pushed by
+     * the {@link EntrantStatusWatcher}.
+     *
+     * @return a task resolving to the event, or {@code null} if it does not exist
+     */
+    public Task<Event> getEventDetail() {
+        return EventLookup.getInstance().getFresh(eventIdString).continueWith(task -> {
+            Event event = task.isSuccessful() ? task.getResult() : null;
+            if (event == null) {
+                return null;
             }
 
-            // No matching event found, return a completed Task with 'false'
-            return Tasks.forResult(0);
-        });
-    }
-
-    public Task<Integer> lookWaitingList() {
-        return waitingListService.getReference().child(eventId).get().continueWith(task -> {
-            DataSnapshot root = task.getResult();
-
-            if (root.child("WAITING").hasChild(userId)) return 1;
-            if (root.child("INVITED").hasChild(userId)) return 2;
-            if (root.child("UNINVITED").hasChild(userId)) return 3;
-            if (root.child("ACCEPTED").hasChild(userId)) return 4;
-            if (root.child("DECLINED").hasChild(userId)) return 5;
-            if (root.child("CANCELLED").hasChild(userId)) return 6;
-
-            return 0;
+            eventId = event.getId();
+            geolocationRequired = event.isGeolocationRequired();
+            eventOnHold = event.isOnHold();
+            return event;
         });
     }
 
@@ -786,11 +710,6 @@ public class EventDetailFragment extends Fragment {
                         "Joined waiting list with location :)",
                         Toast.LENGTH_SHORT).show();
 
-                getWaitingCount().addOnCompleteListener(t -> {
-                    Log.i("RTD9", "" + t.getResult());
-                    ((TextView) getView().findViewById(R.id.tv_waiting_count)).setText("Number of Entrants: " + t.getResult());
-                });
-
                 // Update UI
                 LinearLayout waitingStatus = getView().findViewById(R.id.layout_waiting_status);
                 if (waitingStatus != null) {
@@ -6,6 +6,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.ListView;
@@ -19,17 +20,15 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.EventAdapter;
 import com.example.chicksevent.databinding.FragmentEventBinding;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
-import com.example.chicksevent.util.AppConstants;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.EventSnapshotStore;
+import com.example.chicksevent.misc.EventLookup;
+import com.example.chicksevent.misc.UserEventsIndex;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -42,8 +41,11 @@ import java.util.Set;
  *
  * <b>Firebase roots used:</b>
  * <ul>
- *   <li><code>Event</code> — source of event listings</li>
- *   <li><code>WaitingList</code> — used to compute "joined events" for the current device</li>
+ *   <li><code>Event</code> — source of event listings: the main feed is paged through
+ *   {@link EventPager}, filtered views read through {@link EventRepository} and joined events
+ *   through {@link EventLookup}</li>
+ *   <li><code>UserEvents</code> — per-user index used to compute "joined events" for the current
+ *   device, see {@link UserEventsIndex}</li>
  * </ul>
  *
  * <p><b>Arguments:</b> If a {@link Bundle} argument contains an <code>ArrayList String</code>
@@ -66,15 +68,15 @@ public class EventFragment extends Fragment {
     /** Whether a filter from arguments has been applied. */
     private Boolean filterApplied = false;
 
-    /** Firebase service for the "Event" root. */
-    private FirebaseService eventService;
-
-    /** Firebase service for the "WaitingList" root. */
-    private FirebaseService waitingListService;
-
     /** Log tag. */
     private static final String TAG = EventFragment.class.getSimpleName();
 
+    /** Rows from either end of the window at which the neighbouring page is requested. */
+    private static final int PREFETCH_ROWS = 5;
+
+    /** Pager backing the unfiltered feed, or {@code null} when showing a fixed list. */
+    private EventPager eventPager;
+
     /** The list view displaying events. */
     ListView eventView;
 
@@ -110,8 +112,6 @@ public class EventFragment extends Fragment {
      */
     public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
-        eventService = new FirebaseService("Event");
-        waitingListService = new FirebaseService("WaitingList");
 
         Bundle args = getArguments();
         if (args != null) {
@@ -171,244 +171,144 @@ public class EventFragment extends Fragment {
     }
 
     /**
-     * Displays only those events that the current device/user has joined, inferred by
-     * scanning the <code>WaitingList</code> root for entries matching {@link #androidId}.
-     * The method updates the list view with a new adapter instance containing the filtered set.
+     * Displays only those events that the current device/user has joined.
+     * <p>
+     * Joined events are read with a single keyed read of the <code>UserEvents/{androidId}</code>
+     * reverse index ({@link UserEventsIndex}), and each id is then resolved with a keyed read
+     * through {@link EventLookup}, so the cost follows the number of joined events rather than
+     * the size of the catalogue.
+     * </p>
      */
     public void showJoinedEvents() {
-        Set<String> eventIds = new HashSet<>();
-        waitingListService.getReference().get().continueWith(task -> {
-            for (DataSnapshot ds : task.getResult().getChildren()) {
-                try {
-                    HashMap<String, HashMap<String, Object>> waitingList = (HashMap<String, HashMap<String, Object>>) ds.getValue();
-                    for (Map.Entry<String, HashMap<String, Object>> entry : waitingList.entrySet()) {
-                        for (Map.Entry<String, Object> entry2 : ((HashMap<String, Object>) entry.getValue()).entrySet()) {
-                            String uid = entry2.getKey();
-//                        Log.i(uid, )
-                            if (androidId.equals(uid)) {
-                                arr.add(ds.getKey());
-                                Log.i("RTD10", "found event " + ds.getKey());
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    Log.i("RTD10" , e.toString());
-                }
-
+        UserEventsIndex.getInstance().eventIdsFor(androidId).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to read joined events", task.getException());
+                return;
             }
 
-            Log.i("RTD10", "hi");
-
-
-
-            // Convert to HashSet for O(1) lookups
-            Set<String> eventIdSet = new HashSet<>(eventIds);
-            
-            ArrayList<Event> newEventDataList = new ArrayList<>();
-            for (Event e : eventDataList) {
-                if (eventIdSet.contains(e.getId())) {  // O(1) lookup instead of O(n)
-                    newEventDataList.add(e);
+            EventLookup.getInstance().getAll(task.getResult()).addOnCompleteListener(events -> {
+                if (!events.isSuccessful()) {
+                    Log.e(TAG, "Error reading events", events.getException());
+                    return;
                 }
-            }
-
-            Log.i("RTD10", "" + newEventDataList.size());
-
-
-            EventAdapter eventAdapter = new EventAdapter(getContext(), newEventDataList, item -> {
-                NavController navController = NavHostFragment.findNavController(EventFragment.this);
-
-                Bundle bundle = new Bundle();
-                bundle.putString("eventId", item.getId());
-
-                navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
-
+                stopPaging();
+                showEvents(new ArrayList<>(events.getResult()));
             });
-
-            eventView.setAdapter(eventAdapter);
-
-            return null;
         });
     }
 
-
-
     /**
-     * Lists only the events whose ids are present in {@link #eventFilterSet}. Results are read
-     * in one shot from the <code>Event</code> root and bound to the list view.
+     * Lists only the events whose ids are present in {@link #eventFilterSet}. Events come from the
+     * shared {@link EventRepository} cache, so no additional read of the <code>Event</code> root is
+     * issued once the catalogue has been loaded.
      */
     public void listFilteredEvents() {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-//        Log.i("what is filter", filterAvailability);
-
-
-        eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    
-                    if (!eventFilterSet.contains(key)) {  // O(1) lookup with HashSet
-                        continue;
-                    }
-
-                    // Try Firebase deserialization first
-                    Event event = childSnapshot.getValue(Event.class);
-                    if (event != null) {
-                        // Ensure the ID is set from the snapshot key
-                        if (event.getId() == null || event.getId().isEmpty()) {
-                            event.setId(key);
-                        }
-                        eventDataList.add(event);
-                    } else {
-                        // Fallback: manual construction if deserialization fails
-                        Log.w(TAG, "Failed to deserialize event: " + key + ", using fallback");
-                        Object valueObj = childSnapshot.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> value = (HashMap<String, Object>) valueObj;
-                            String id = value.get("id") != null ? value.get("id").toString() : key;
-                            String name = value.get("name") != null ? value.get("name").toString() : "";
-                            String eventDetails = value.get("eventDetails") != null ? value.get("eventDetails").toString() : "";
-                            String eventStartTime = value.get("eventStartTime") != null ? value.get("eventStartTime").toString() : "";
-                            String eventEndTime = value.get("eventEndTime") != null ? value.get("eventEndTime").toString() : "";
-                            String eventStartDate = value.get("eventStartDate") != null ? value.get("eventStartDate").toString() : null;
-                            String eventEndDate = value.get("eventEndDate") != null ? value.get("eventEndDate").toString() : null;
-                            String registrationStartDate = value.get("registrationStartDate") != null ? value.get("registrationStartDate").toString() : null;
-                            String registrationEndDate = value.get("registrationEndDate") != null ? value.get("registrationEndDate").toString() : null;
-                            int entrantLimit = value.get("entrantLimit") instanceof Number ? ((Number) value.get("entrantLimit")).intValue() : AppConstants.UNLIMITED_ENTRANTS;
-                            String poster = value.get("poster") != null ? value.get("poster").toString() : null;
-                            String tag = value.get("tag") != null ? value.get("tag").toString() : null;
-                            Boolean geoRequired = value.get("geolocationRequired") instanceof Boolean ? (Boolean) value.get("geolocationRequired") : false;
-                            String entrantId = value.get("entrantId") != null ? value.get("entrantId").toString() : "";
-                            
-                            Event e = new Event(entrantId, id, name, eventDetails, eventStartTime, eventEndTime,
-                                    eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
-                                    entrantLimit, poster, tag, geoRequired);
-                            eventDataList.add(e);
-                        }
-                    }
-                }
-                EventAdapter eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {
-                    NavController navController = NavHostFragment.findNavController(EventFragment.this);
-
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
-
-                    navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
-
-                });
-
-                eventView.setAdapter(eventAdapter);
-
-
-
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
+        EventRepository.getInstance().getEvents().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Error reading events", task.getException());
+                return;
             }
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
+            eventDataList = new ArrayList<>();
+            for (Event event : task.getResult()) {
+                if (eventFilterSet.contains(event.getId())) {  // O(1) lookup with HashSet
+                    eventDataList.add(event);
+                }
             }
+            stopPaging();
+            showEvents(eventDataList);
         });
     }
 
     /**
-     * Lists all events from the <code>Event</code> root and binds them to the list view.
+     * Lists events that are not on hold, one page at a time.
+     * <p>
+     * The first page is drawn as soon as it arrives; further pages are requested as the user
+     * scrolls towards either end of the window, and {@link EventPager} drops pages that have
+     * scrolled far out of view so memory stays bounded by a few pages.
+     * </p>
+     *
+     * <p>Until the first page arrives, the rows saved by the previous session in
+     * {@link EventSnapshotStore} are shown, so a cold start draws content without waiting on
+     * the network; the live page then replaces them.</p>
      */
     public void listEvents() {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-        eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
+        eventPager = new EventPager(event -> !event.isOnHold());
+        eventDataList = new ArrayList<>(EventSnapshotStore.getInstance(requireContext()).load());
+        showEvents(eventDataList);
+
+        eventView.setOnScrollListener(new AbsListView.OnScrollListener() {
             @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    
-                    // Check onHold status first
-                    Event event = childSnapshot.getValue(Event.class);
-                    if (event != null && event.isOnHold()) {
-                        continue;
-                    }
-                    
-                    // If deserialization failed, check onHold manually
-                    if (event == null) {
-                        Object valueObj = childSnapshot.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> value = (HashMap<String, Object>) valueObj;
-                            Boolean onHold = value.get("onHold") instanceof Boolean ? (Boolean) value.get("onHold") : false;
-                            if (onHold) continue;
-                        }
-                    }
-
-                    // Try Firebase deserialization first
-                    if (event != null) {
-                        // Ensure the ID is set from the snapshot key
-                        if (event.getId() == null || event.getId().isEmpty()) {
-                            event.setId(key);
-                        }
-                        eventDataList.add(event);
-                    } else {
-                        // Fallback: manual construction if deserialization fails
-                        Log.w(TAG, "Failed to deserialize event: " + key + ", using fallback");
-                        Object valueObj = childSnapshot.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> value = (HashMap<String, Object>) valueObj;
-                            String id = value.get("id") != null ? value.get("id").toString() : key;
-                            String name = value.get("name") != null ? value.get("name").toString() : "";
-                            String eventDetails = value.get("eventDetails") != null ? value.get("eventDetails").toString() : "";
-                            String eventStartTime = value.get("eventStartTime") != null ? value.get("eventStartTime").toString() : "";
-                            String eventEndTime = value.get("eventEndTime") != null ? value.get("eventEndTime").toString() : "";
-                            String eventStartDate = value.get("eventStartDate") != null ? value.get("eventStartDate").toString() : null;
-                            String eventEndDate = value.get("eventEndDate") != null ? value.get("eventEndDate").toString() : null;
-                            String registrationStartDate = value.get("registrationStartDate") != null ? value.get("registrationStartDate").toString() : null;
-                            String registrationEndDate = value.get("registrationEndDate") != null ? value.get("registrationEndDate").toString() : null;
-                            int entrantLimit = value.get("entrantLimit") instanceof Number ? ((Number) value.get("entrantLimit")).intValue() : AppConstants.UNLIMITED_ENTRANTS;
-                            String poster = value.get("poster") != null ? value.get("poster").toString() : null;
-                            String tag = value.get("tag") != null ? value.get("tag").toString() : null;
-                            Boolean geoRequired = value.get("geolocationRequired") instanceof Boolean ? (Boolean) value.get("geolocationRequired") : false;
-                            String entrantId = value.get("entrantId") != null ? value.get("entrantId").toString() : "";
-                            
-                            Event e = new Event(entrantId, id, name, eventDetails, eventStartTime, eventEndTime,
-                                    eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
-                                    entrantLimit, poster, tag, geoRequired);
-                            eventDataList.add(e);
-                        }
-                    }
-                }
+            public void onScrollStateChanged(AbsListView view, int scrollState) { }
 
-                Log.i("im printing events", "" + eventDataList.size());
-                EventAdapter eventAdapter = new EventAdapter(getContext(), eventDataList, item -> {
-                    NavController navController = NavHostFragment.findNavController(EventFragment.this);
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (eventPager == null || eventPager.isLoading()) return;
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - PREFETCH_ROWS && eventPager.hasNext()) {
+                    eventPager.loadNext().addOnSuccessListener(shift -> applyWindow(shift));
+                } else if (firstVisibleItem <= PREFETCH_ROWS && eventPager.hasPrevious()) {
+                    eventPager.loadPrevious().addOnSuccessListener(shift -> applyWindow(shift));
+                }
+            }
+        });
 
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
+        eventPager.loadNext()
+                .addOnSuccessListener(shift -> applyWindow(shift))
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading events", e));
+    }
 
-                    navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
+    /**
+     * Replaces the adapter contents with the pager's window while keeping the rows on screen
+     * where they were.
+     *
+     * @param shift how many positions the previously loaded rows moved by
+     */
+    private void applyWindow(int shift) {
+        if (eventPager == null || eventAdapter == null || binding == null) return;
+
+        int first = eventView.getFirstVisiblePosition();
+        View top = eventView.getChildAt(0);
+        int offset = top == null ? 0 : top.getTop();
+
+        eventDataList.clear();
+        eventDataList.addAll(eventPager.getWindow());
+        eventAdapter.notifyDataSetChanged();
+        if (shift != 0) {
+            eventView.setSelectionFromTop(Math.max(0, first + shift), offset);
+        }
+        if (!eventPager.hasPrevious() && getContext() != null) {
+            // The window still starts at the top of the feed: remember it for the next launch
+            EventSnapshotStore.getInstance(getContext()).save(eventDataList);
+        }
+        Log.i(TAG, "showing " + eventDataList.size() + " events");
+    }
 
-                });
+    /**
+     * Detaches the paged feed so a fixed list (joined or filtered events) can replace it.
+     */
+    private void stopPaging() {
+        eventPager = null;
+        if (eventView != null) eventView.setOnScrollListener(null);
+    }
 
-                eventView.setAdapter(eventAdapter);
+    /**
+     * Binds the given events to the list view; tapping a row opens its detail screen.
+     *
+     * @param events the events to display
+     */
+    private void showEvents(ArrayList<Event> events) {
+        if (getContext() == null) return;
+        eventAdapter = new EventAdapter(getContext(), events, item -> {
+            NavController navController = NavHostFragment.findNavController(EventFragment.this);
 
+            Bundle bundle = new Bundle();
+            bundle.putString("eventId", item.getId());
 
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
-            }
+            navController.navigate(R.id.action_EventFragment_to_EventDetailFragment, bundle);
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
         });
+
+        eventView.setAdapter(eventAdapter);
     }
 
     /**
@@ -417,6 +317,7 @@ public class EventFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        eventPager = null;
         binding = null;
     }
 
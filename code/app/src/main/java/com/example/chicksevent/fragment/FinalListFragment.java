@@ -23,7 +23,9 @@ import com.example.chicksevent.databinding.FragmentFinalListBinding;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.NotificationFanout;
 import com.example.chicksevent.misc.Organizer;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.ValueEventListener;
@@ -144,7 +146,8 @@ public class FinalListFragment extends Fragment {
                             "You entered: " + userInput,
                             Toast.LENGTH_SHORT).show();
 
-                    organizer.sendWaitingListNotification(EntrantStatus.ACCEPTED, userInput);
+                    organizer.sendWaitingListNotification(EntrantStatus.ACCEPTED, userInput)
+                            .addOnCompleteListener(sent -> reportDelivery(sent));
 //                    organizer.sendWaitingListNotification(EntrantStatus.UNINVITED, "NOT chosen list notification");
                 }
             });
@@ -217,4 +220,22 @@ public class FinalListFragment extends Fragment {
         }
         binding = null;
     }
+
+    /**
+     * Tells the organizer when a broadcast did not reach every opted-in entrant.
+     *
+     * @param sent the finished send
+     */
+    private void reportDelivery(Task<NotificationFanout.Delivery> sent) {
+        if (getContext() == null) return;
+        if (!sent.isSuccessful()) {
+            Toast.makeText(getContext(), "Notification could not be sent", Toast.LENGTH_LONG).show();
+            return;
+        }
+        NotificationFanout.Delivery delivery = sent.getResult();
+        if (!delivery.isComplete()) {
+            Toast.makeText(getContext(), "Notification reached only " + delivery.getDelivered()
+                    + " of " + delivery.getRecipients() + " entrants", Toast.LENGTH_LONG).show();
+        }
+    }
 }
@@ -6,6 +6,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.ListView;
 
 import androidx.annotation.NonNull;
@@ -17,12 +18,16 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.NotificationAdapter;
 import com.example.chicksevent.databinding.FragmentNotificationBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventSummaryResolver;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Notification;
+import com.example.chicksevent.misc.NotificationInbox;
 import com.example.chicksevent.misc.User;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Objects;
 /**
  * Fragment that displays notifications addressed to the current user.
  * <p>
@@ -31,6 +36,14 @@ import java.util.HashMap;
  * Create Event flows.
  * </p>
  *
+ * <p>The inbox is read through a {@link NotificationInbox}: the newest page is shown first and
+ * older pages are requested as the list is scrolled towards its end. Opening the screen resets
+ * the unread counter.</p>
+ *
+ * <p>After the first page, the inbox is watched for changes: new, changed and deleted
+ * notifications are applied to the adapter one row at a time, matched by notification id,
+ * so the list stays current without being reloaded.</p>
+ *
  * <b>Responsibilities:</b>
  * <ul>
  *   <li>Resolve device Android ID and use it to fetch the user's notification list.</li>
@@ -40,7 +53,7 @@ import java.util.HashMap;
  *
  * @author Jordan Kwan
  */
-public class NotificationFragment extends Fragment {
+public class NotificationFragment extends Fragment implements NotificationInbox.Listener {
 
     /** View binding for the notification layout. */
     private FragmentNotificationBinding binding;
@@ -60,11 +73,18 @@ public class NotificationFragment extends Fragment {
     /** Log tag. */
     private static final String TAG = NotificationFragment.class.getSimpleName();
 
-    private FirebaseService notificationService;
-
     ListView notificationView;
     User userToUpdate;
 
+    /** Pages through the user's notifications, newest first. */
+    private NotificationInbox inbox;
+
+    /** Rows from the end of the list at which the next page is requested. */
+    private static final int PREFETCH_ROWS = 5;
+
+    /** Whether live updates have been started for {@link #inbox}. */
+    private boolean listening = false;
+
     /**
      * Inflates the fragment layout using ViewBinding.
      */
@@ -73,8 +93,6 @@ public class NotificationFragment extends Fragment {
             @NonNull LayoutInflater inflater, ViewGroup container,
             Bundle savedInstanceState
     ) {
-        notificationService = new FirebaseService("Notification");
-
         binding = FragmentNotificationBinding.inflate(inflater, container, false);
         return binding.getRoot();
 
@@ -114,31 +132,107 @@ public class NotificationFragment extends Fragment {
                         .navigate(R.id.action_NotificationFragment_to_AdminHomeFragment);
             } else {
                 Log.i("im admin", "no");
-                userToUpdate.getNotificationList().addOnCompleteListener(task -> {
-//            Log.i(TAG, "should i change");
-
-                    notificationDataList = task.getResult();
-
-
-
-                    notificationAdapter = new NotificationAdapter(requireContext(), notificationDataList, item -> {
-                        notificationDeleteListener(item);
-                    }, item -> notificationEventListener(item));
-
-
-
-                    notificationView.setAdapter(notificationAdapter);
-
-
-//            Log.i(TAG, String.valueOf(notificationDataList.size()));
+                listNotifications();
+            }
+        });
+    }
 
-                });
+    /**
+     * Shows the newest page of notifications and loads older pages as the user scrolls down.
+     */
+    private void listNotifications() {
+        inbox = new NotificationInbox(androidId);
+        inbox.markAllRead();
+
+        notificationDataList = new ArrayList<>();
+        notificationAdapter = new NotificationAdapter(requireContext(), notificationDataList, item -> {
+            notificationDeleteListener(item);
+        }, item -> notificationEventListener(item));
+        notificationView.setAdapter(notificationAdapter);
+
+        notificationView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) { }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (totalItemCount > 0 && firstVisibleItem + visibleItemCount >= totalItemCount - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
             }
         });
+        loadNextPage();
+    }
 
+    /**
+     * Appends the next-older page, if there is one and none is loading.
+     */
+    private void loadNextPage() {
+        if (inbox == null || inbox.isLoading() || !inbox.hasNext()) return;
+        inbox.loadNext()
+                .addOnSuccessListener(page -> {
+                    if (binding == null) return;
+                    if (!page.isEmpty()) {
+                        // Fetch each distinct event once up front; rows then bind from the shared cache
+                        EventSummaryResolver.getInstance().prefetchFor(page);
+                        notificationAdapter.addAll(page);
+                    }
+                    if (!listening) {
+                        listening = true;
+                        inbox.listen(this);
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading notifications", e));
+    }
 
+    /**
+     * Inserts a newly delivered notification at its place in the newest-first list, or replaces
+     * the row it updates.
+     */
+    @Override
+    public void onNotificationUpserted(Notification notification) {
+        if (binding == null) return;
+        String id = notification.getNotificationId();
+        int index = indexOf(id);
+        if (index >= 0) {
+            Notification shown = notificationAdapter.getItem(index);
+            // Rows already on screen are delivered again as the subscription starts
+            if (Objects.equals(shown.getMessage(), notification.getMessage())
+                    && shown.getNotificationType() == notification.getNotificationType()) return;
+            notificationAdapter.remove(shown);
+            notificationAdapter.insert(notification, index);
+            return;
+        }
 
+        int position = 0;
+        while (position < notificationAdapter.getCount()
+                && notificationAdapter.getItem(position).getNotificationId().compareTo(id) > 0) {
+            position++;
+        }
+        EventSummaryResolver.getInstance().prefetchFor(Collections.singletonList(notification));
+        notificationAdapter.insert(notification, position);
+        // The user is looking at it, so it is not unread
+        inbox.markAllRead();
+    }
 
+    /**
+     * Drops the row of a notification deleted elsewhere, e.g. by an event being removed.
+     */
+    @Override
+    public void onNotificationRemoved(String notificationId) {
+        if (binding == null) return;
+        int index = indexOf(notificationId);
+        if (index >= 0) notificationAdapter.remove(notificationAdapter.getItem(index));
+    }
+
+    /**
+     * @return the row showing {@code notificationId}, or -1
+     */
+    private int indexOf(String notificationId) {
+        for (int i = 0; i < notificationAdapter.getCount(); i++) {
+            if (notificationAdapter.getItem(i).getNotificationId().equals(notificationId)) return i;
+        }
+        return -1;
     }
 
     public void notificationEventListener(Notification item) {
@@ -151,24 +245,8 @@ public class NotificationFragment extends Fragment {
     }
 
     public void notificationDeleteListener(Notification item) {
-//        ArrayList<Notification> notifNewList = new ArrayList<>();
-        Log.i("WATTHE", notificationDataList.size() + " : " + item.getEventId() + " : " + item.getNotificationType().toString());
-        for (Notification notif : notificationDataList) {
-            Log.i("WATTHE", item.getEventId() + " : " + item.getNotificationType().toString());
-
-            if (item.getNotificationType() == notif.getNotificationType() && item.getEventId().equals(notif.getEventId())) {
-                notificationService.deleteSubCollectionEntry(userToUpdate.getUserId(), item.getEventId(), item.getNotificationType().toString());
-                notificationAdapter.remove(notif);
-                notificationAdapter.notifyDataSetChanged();
-            } else {
-//                notifNewList.add(notif);
-            }
-        }
-//        Log.i("WATTHE", "hi : " + notifNewList.size());
-//        notificationDataList = notifNewList;
-//        // DON'T DELETE THIS CUZ WE NEED TO RESET NOTIF
-//        notificationAdapter = new NotificationAdapter(getContext(), notificationDataList, b -> notificationDeleteListener(b));
-//        notificationView.setAdapter(notificationAdapter);
+        inbox.delete(item);
+        notificationAdapter.remove(item);
     }
 
     /**
@@ -202,6 +280,7 @@ public class NotificationFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (inbox != null) inbox.stopListening();
         binding = null;
     }
 
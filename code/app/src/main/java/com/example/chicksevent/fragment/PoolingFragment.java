@@ -20,10 +20,13 @@ import com.example.chicksevent.adapter.EntrantAdapter;
 import com.example.chicksevent.adapter.UserAdapter;
 import com.example.chicksevent.databinding.FragmentPoolingBinding;
 import com.example.chicksevent.enums.EntrantStatus;
+import com.example.chicksevent.misc.ChunkedStatusWriter;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Lottery;
+import com.example.chicksevent.misc.NotificationFanout;
 import com.example.chicksevent.misc.Organizer;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.ValueEventListener;
@@ -149,6 +152,24 @@ public class PoolingFragment extends Fragment {
         if (toPool <= 0) return; // nothing to pool
 
         Lottery lottery = new Lottery(eventId);
+        lottery.setProgressListener(new ChunkedStatusWriter.ProgressListener() {
+            @Override
+            public void onChunkWritten(int chunksDone, int chunksTotal, int entrantsDone, int entrantsTotal) {
+                if (binding == null) return;
+                binding.tvCurrentChosen.setText("Saving results: " + entrantsDone + " / " + entrantsTotal);
+            }
+
+            @Override
+            public void onFinished(Exception error) {
+                if (binding == null) return;
+                if (error != null) {
+                    Toast.makeText(getContext(), "Saving results failed, pool again to resume",
+                            Toast.LENGTH_SHORT).show();
+                }
+                listEntrants(EntrantStatus.INVITED);
+                updateCounters();
+            }
+        });
         lottery.drawOrPool();
 
         // Refresh list and counters after a small delay to allow Firebase update
@@ -159,8 +180,10 @@ public class PoolingFragment extends Fragment {
                     requireContext().getContentResolver(),
                     Settings.Secure.ANDROID_ID
             ), eventId);
-            organizer.sendWaitingListNotification(EntrantStatus.INVITED, "YOU are the CHOSEN one");
-            organizer.sendWaitingListNotification(EntrantStatus.UNINVITED, "you were NOT CHOSEN :(");
+            organizer.sendWaitingListNotification(EntrantStatus.INVITED, "YOU are the CHOSEN one")
+                    .addOnCompleteListener(sent -> reportDelivery(sent));
+            organizer.sendWaitingListNotification(EntrantStatus.UNINVITED, "you were NOT CHOSEN :(")
+                    .addOnCompleteListener(sent -> reportDelivery(sent));
         }, 500); // 500ms delay (adjust if needed)
 
         Log.i("notification", "sending notif");
@@ -285,4 +308,22 @@ public class PoolingFragment extends Fragment {
         }
         binding = null;
     }
+
+    /**
+     * Tells the organizer when a broadcast did not reach every opted-in entrant.
+     *
+     * @param sent the finished send
+     */
+    private void reportDelivery(Task<NotificationFanout.Delivery> sent) {
+        if (getContext() == null) return;
+        if (!sent.isSuccessful()) {
+            Toast.makeText(getContext(), "Notification could not be sent", Toast.LENGTH_LONG).show();
+            return;
+        }
+        NotificationFanout.Delivery delivery = sent.getResult();
+        if (!delivery.isComplete()) {
+            Toast.makeText(getContext(), "Notification reached only " + delivery.getDelivered()
+                    + " of " + delivery.getRecipients() + " entrants", Toast.LENGTH_LONG).show();
+        }
+    }
 }
\ No newline at end of file
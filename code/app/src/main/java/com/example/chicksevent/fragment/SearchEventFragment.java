@@ -1,12 +1,12 @@
 package com.example.chicksevent.fragment;
 
-import static android.content.ContentValues.TAG;
 import static android.view.View.INVISIBLE;
 import static android.view.View.VISIBLE;
 
 import android.os.Bundle;
 import android.provider.Settings;
-import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
@@ -25,21 +25,33 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.EventAdapter;
 import com.example.chicksevent.misc.Event;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.EventSearchIndex;
+import com.example.chicksevent.misc.SearchPipeline;
 import com.example.chicksevent.misc.User;
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.CancellationException;
 
 public class SearchEventFragment extends Fragment {
 
-    private ArrayList<Event> eventDataList = new ArrayList<>();
     private ArrayList<String> filters = new ArrayList<>();
     private String filterAvailability = null;
 
+    /** Ids passing the applied filters, computed once per apply; a {@code null} result means all. */
+    private Task<HashSet<String>> filteredIds;
+
+    /** Debounces typing and renders only the newest query's result. */
+    private SearchPipeline<ArrayList<Event>> pipeline;
+
     private ListView eventView;
+    private EditText searchBar;
     private User user;
-    private FirebaseService eventService;
 
     public SearchEventFragment() {
         super(R.layout.fragment_search_event);
@@ -49,11 +61,9 @@ public class SearchEventFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        eventService = new FirebaseService("Event");
-
         // UI references
         EditText etInterest = view.findViewById(R.id.search_interest);
-        EditText searchBar = view.findViewById(R.id.search_bar);
+        searchBar = view.findViewById(R.id.search_bar);
         Spinner spAvailability = view.findViewById(R.id.spinner_availability);
         Button btnApply = view.findViewById(R.id.btn_apply_filter);
         Button btnClear = view.findViewById(R.id.btn_clear_filter);
@@ -84,8 +94,23 @@ public class SearchEventFragment extends Fragment {
                 filterPanel.getVisibility() == VISIBLE ? INVISIBLE : VISIBLE
         ));
 
+        pipeline = new SearchPipeline<>(new SearchPipeline.Receiver<ArrayList<Event>>() {
+            @Override
+            public void onResult(ArrayList<Event> result) {
+                if (!isAdded()) return;
+                updateEventList(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (!isAdded()) return;
+                Toast.makeText(getContext(),
+                        "Filter error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+
         // Initial load: show all events
-        listEvents(null);
+        pipeline.submitNow(this::runQuery);
 
         // Clear fields
         btnClear.setOnClickListener(v -> {
@@ -114,102 +139,89 @@ public class SearchEventFragment extends Fragment {
             Toast.makeText(getContext(), "Filter applied", Toast.LENGTH_SHORT).show();
             filterPanel.setVisibility(INVISIBLE);
 
-            applyFilters();
+            filteredIds = null;
+            pipeline.submitNow(this::runQuery);
         });
 
-        // Search by name (respects current filters)
-        btnSave.setOnClickListener(v -> {
-            String searchText = searchBar.getText().toString().trim().toLowerCase();
-            if (!searchText.isEmpty()) {
-                ArrayList<Event> filtered = new ArrayList<>();
-                for (Event e : eventDataList) {
-                    if (e.getName().toLowerCase().contains(searchText)) {
-                        filtered.add(e);
-                    }
-                }
-                updateEventList(filtered);
-            } else {
-                // If search empty, re-apply current filters or show all
-                applyFilters();
+        // Full-text search over name, details and tags (respects current filters)
+        btnSave.setOnClickListener(v -> pipeline.submitNow(this::runQuery));
+
+        // Search as you type; bursts of keystrokes collapse into one query
+        searchBar.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                pipeline.submit(SearchEventFragment.this::runQuery);
             }
         });
     }
 
+    @Override
+    public void onDestroyView() {
+        if (pipeline != null) pipeline.cancel();
+        super.onDestroyView();
+    }
+
     // ---------------- Helper Methods ----------------
 
-    /** Show all events from Firebase or filtered IDs */
-    public void listEvents(@Nullable ArrayList<String> filterIds) {
-        Log.i(TAG, "Fetching events...");
-        eventDataList = new ArrayList<>();
+    /**
+     * One search: the applied filters (reused while only the text changes), the listed events,
+     * then the text ranking. Stops between steps once a newer query has superseded it.
+     */
+    private Task<ArrayList<Event>> runQuery(CancellationToken token) {
+        String searchText = searchBar.getText().toString().trim();
+        return filteredIds().continueWithTask(ids -> {
+            if (token.isCancellationRequested()) return Tasks.forCanceled();
+            if (!ids.isSuccessful()) {
+                filteredIds = null;
+                throw ids.getException();
+            }
+            HashSet<String> allowed = ids.getResult();
 
-        eventService.getReference().addListenerForSingleValueEvent(new com.google.firebase.database.ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull com.google.firebase.database.DataSnapshot dataSnapshot) {
-                for (com.google.firebase.database.DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    
-                    // Try Firebase deserialization first
-                    Event event = childSnapshot.getValue(Event.class);
-                    if (event != null) {
-                        // Check onHold
-                        if (event.isOnHold()) {
-                            continue;
-                        }
-                        
-                        // Ensure the ID is set from the snapshot key
-                        if (event.getId() == null || event.getId().isEmpty()) {
-                            event.setId(key);
-                        }
-                        
-                        // Apply filter if provided
-                        if (filterIds != null && !filterIds.contains(event.getId())) {
-                            continue;
-                        }
-                        
-                        eventDataList.add(event);
-                    } else {
-                        // Fallback: manual construction if deserialization fails
-                        Object valueObj = childSnapshot.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> value = (HashMap<String, Object>) valueObj;
-                            
-                            Boolean onHold = value.get("onHold") instanceof Boolean ? (Boolean) value.get("onHold") : false;
-                            if (onHold) continue;
-                            
-                            String eventId = value.get("id") != null ? value.get("id").toString() : key;
-                            if (filterIds != null && !filterIds.contains(eventId)) continue;
-                            
-                            String name = value.get("name") != null ? value.get("name").toString() : "";
-                            String eventDetails = value.get("eventDetails") != null ? value.get("eventDetails").toString() : "";
-                            String eventStartTime = value.get("eventStartTime") != null ? value.get("eventStartTime").toString() : "";
-                            String eventEndTime = value.get("eventEndTime") != null ? value.get("eventEndTime").toString() : "";
-                            String eventStartDate = value.get("eventStartDate") != null ? value.get("eventStartDate").toString() : null;
-                            String eventEndDate = value.get("eventEndDate") != null ? value.get("eventEndDate").toString() : null;
-                            String registrationStartDate = value.get("registrationStartDate") != null ? value.get("registrationStartDate").toString() : null;
-                            String registrationEndDate = value.get("registrationEndDate") != null ? value.get("registrationEndDate").toString() : null;
-                            int entrantLimit = value.get("entrantLimit") instanceof Number ? ((Number) value.get("entrantLimit")).intValue() : com.example.chicksevent.util.AppConstants.UNLIMITED_ENTRANTS;
-                            String poster = value.get("poster") != null ? value.get("poster").toString() : null;
-                            String tag = value.get("tag") != null ? value.get("tag").toString() : null;
-                            Boolean geoRequired = value.get("geolocationRequired") instanceof Boolean ? (Boolean) value.get("geolocationRequired") : false;
-                            String entrantId = value.get("entrantId") != null ? value.get("entrantId").toString() : "";
-                            
-                            Event e = new Event(entrantId, eventId, name, eventDetails, eventStartTime, eventEndTime,
-                                    eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
-                                    entrantLimit, poster, tag, geoRequired);
-                            eventDataList.add(e);
-                        }
-                    }
+            return EventRepository.getInstance().getEvents().continueWith(events -> {
+                if (token.isCancellationRequested()) throw new CancellationException();
+
+                ArrayList<Event> listed = new ArrayList<>();
+                for (Event event : events.getResult()) {
+                    if (event.isOnHold()) continue;
+                    if (allowed != null && !allowed.contains(event.getId())) continue;
+                    listed.add(event);
                 }
+                return searchText.isEmpty() ? listed : rank(listed, searchText);
+            });
+        });
+    }
 
-                updateEventList(eventDataList);
+    /** Ids passing the applied interest + availability filters, computed once per apply */
+    private Task<HashSet<String>> filteredIds() {
+        if (filteredIds == null) {
+            boolean anytime = filterAvailability == null || filterAvailability.equals("Anytime");
+            if (filters.isEmpty() && anytime) {
+                filteredIds = Tasks.forResult(null);
+            } else {
+                filteredIds = user.filterEvents(filters, filterAvailability)
+                        .continueWith(task -> new HashSet<>(task.getResult()));
             }
+        }
+        return filteredIds;
+    }
 
-            @Override
-            public void onCancelled(@NonNull com.google.firebase.database.DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
-        });
+    /** Ranks the listed events against the search text, best match first */
+    private ArrayList<Event> rank(ArrayList<Event> listed, String searchText) {
+        HashMap<String, Event> byId = new HashMap<>();
+        for (Event e : listed) byId.put(e.getId(), e);
+
+        ArrayList<Event> ranked = new ArrayList<>();
+        for (String id : EventSearchIndex.getInstance().search(searchText)) {
+            Event e = byId.get(id);
+            if (e != null) ranked.add(e);
+        }
+        return ranked;
     }
 
     /** Update ListView */
@@ -226,22 +238,4 @@ public class SearchEventFragment extends Fragment {
         );
         eventView.setAdapter(adapter);
     }
-
-    /** Apply interest + availability filters */
-    private void applyFilters() {
-//        Log.i("RTD10", filters.toString());
-//        Log.i("RTD10", filterAvailability.toString());
-        user.filterEvents(filters, filterAvailability)
-                .addOnCompleteListener(task -> {
-                    if (!isAdded()) return;
-
-                    ArrayList<String> filteredIds = task.getResult();
-                    listEvents(filteredIds); // use updated listEvents()
-                })
-                .addOnFailureListener(e -> {
-                    if (!isAdded()) return;
-                    Toast.makeText(getContext(),
-                            "Filter error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
-    }
-}
+}
\ No newline at end of file
@@ -19,6 +19,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.NotificationAdapter;
 import com.example.chicksevent.databinding.FragmentAdminHomeBinding;
+import com.example.chicksevent.misc.EventSummaryResolver;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Notification;
 import com.example.chicksevent.misc.User;
@@ -110,6 +111,9 @@ public class AdminHomeFragment extends Fragment {
 
 
 
+            // Fetch each distinct event once up front; rows then bind from the shared cache
+            EventSummaryResolver.getInstance().prefetchFor(notificationDataList);
+
             notificationAdapter = new NotificationAdapter(getContext(), notificationDataList, item -> {
                 notificationDeleteListener(item);
             }, item -> notificationEventListener(item));
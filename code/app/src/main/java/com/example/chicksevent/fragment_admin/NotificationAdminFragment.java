@@ -1,10 +1,15 @@
 package com.example.chicksevent.fragment_admin;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.ListView;
+import android.widget.Spinner;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -13,26 +18,39 @@ import androidx.fragment.app.Fragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.NotificationAdapter;
 import com.example.chicksevent.enums.NotificationType;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventSummaryResolver;
 import com.example.chicksevent.misc.Notification;
-import com.google.android.gms.tasks.Task;
-import com.google.firebase.database.DataSnapshot;
+import com.example.chicksevent.misc.NotificationLog;
+import com.example.chicksevent.misc.NotificationLogBackfill;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Fragment that displays notification log
+ * <p>
+ * Entries are read from the {@link NotificationLog} one page at a time, newest first, and older
+ * pages are requested as the list is scrolled towards its end. The spinner filters by type and a
+ * row's arrow filters by its event (tapping it again clears the filter); both filters run on the
+ * server, so no page holds entries that are then thrown away.
+ * </p>
+ *
+ * <p>Opening the screen also runs the {@link NotificationLogBackfill}, which costs one read once
+ * the log has been filled; if it adds entries, the shown log is reloaded to include them.</p>
  */
 public class NotificationAdminFragment extends Fragment {
 
+    private static final String TAG = NotificationAdminFragment.class.getSimpleName();
+
+    /** Rows from the end of the list at which the next page is requested. */
+    private static final int PREFETCH_ROWS = 5;
+
     /**
      * ListView that displays the list of notification.
      */
     private ListView notificationView;
 
-    private FirebaseService notificationService = new FirebaseService("Notification");
+    /** Resolves the event names and dates shown on each row. */
+    private EventSummaryResolver summaries;
 
     /**
      * Adapter responsible for binding Notification data to RecyclerView items.
@@ -41,14 +59,20 @@ public class NotificationAdminFragment extends Fragment {
     private NotificationAdapter adapter;
 
     /**
-     * List holding all {@link Notification} objects loaded from Firebase.
+     * List holding the {@link Notification} log entries loaded so far.
      * Serves as the backing data for the adapter.
      */
     private ArrayList<Notification> notificationList;
 
+    /** The log being shown, with the current filter applied. */
+    private NotificationLog log;
+
+    /** Event the log is filtered by, or {@code null}. */
+    private String eventFilter;
+
     /**
-     * Inflates the fragment layout and initializes the RecyclerView, adapter,
-     * and admin instance. Begins loading event data from Firebase.
+     * Inflates the fragment layout and initializes the list, adapter and filters. The type
+     * spinner's initial selection loads the first page of the unfiltered log.
      *
      * @param inflater           the LayoutInflater to inflate the view
      * @param container          parent view that the fragment UI should attach to
@@ -64,92 +88,96 @@ public class NotificationAdminFragment extends Fragment {
 
         notificationView = view.findViewById(R.id.recycler_notifications);
         notificationList = new ArrayList<>();
+        summaries = EventSummaryResolver.getInstance();
 
-//        adapter = new NotificationAdapter(requireContext(), notificationList, item -> {}, item ->{});
-//        notificationView.setAdapter(adapter);
-
-        getNotificationList().addOnCompleteListener(task -> {
-//            Log.i(TAG, "should i change");
-
-            notificationList = task.getResult();
-            ArrayList<Notification> notifNewList = new ArrayList<>();
-
-
-            adapter = new NotificationAdapter(getContext(), notificationList, item -> {
-//                Log.i("WATTHE", notificationList.size() + " : " + item.getEventId() + " : " + item.getNotificationType().toString());
-//                for (Notification notif : notificationList) {
-//                    Log.i("WATTHE", item.getEventId() + " : " + item.getNotificationType().toString());
-//                    notifNewList.add(notif);
-//                }
-//                Log.i("WATTHE", "hi : " + notifNewList.size());
-//                notificationList = notifNewList;
-//                // DON'T DELETE THIS CUZ WE NEED TO RESET NOTIF
-//                adapter = new NotificationAdapter(requireContext(), notificationList, item1 -> {}, item2 ->{});
-//                notificationView.setAdapter(adapter);
-            }, i -> {});
+        adapter = new NotificationAdapter(getContext(), notificationList, item -> {},
+                item -> filterByEvent(item.getEventId()), summaries);
+        notificationView.setAdapter(adapter);
 
+        notificationView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) { }
 
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (totalItemCount > 0 && firstVisibleItem + visibleItemCount >= totalItemCount - PREFETCH_ROWS) {
+                    loadNextPage();
+                }
+            }
+        });
 
-            notificationView.setAdapter(adapter);
+        Spinner typeFilter = view.findViewById(R.id.spinner_notification_type);
+        ArrayAdapter<CharSequence> types = ArrayAdapter.createFromResource(
+                requireContext(),
+                R.array.notification_type_options,
+                R.layout.spinner_item
+        );
+        types.setDropDownViewResource(R.layout.spinner_item);
+        typeFilter.setAdapter(types);
+        typeFilter.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View v, int position, long id) {
+                eventFilter = null;
+                // Position 0 is "All Types"; the rest follow the enum names
+                showLog(position == 0
+                        ? NotificationLog.all()
+                        : NotificationLog.ofType(NotificationType.valueOf(parent.getItemAtPosition(position).toString())));
+            }
 
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) { }
+        });
 
-//            Log.i(TAG, String.valueOf(notificationDataList.size()));
+        new NotificationLogBackfill().run()
+                .addOnSuccessListener(added -> {
+                    if (added > 0 && log != null && isAdded()) showLog(log.restarted());
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error backfilling notification log", e));
 
-        });
         return view;
     }
 
-    public Task<ArrayList<Notification>> getNotificationList() {
-        return notificationService.getReference().get().continueWith(task -> {
-            ArrayList<Notification> notificationList = new ArrayList<Notification>();
-
-//            Log.d(TAG, "=== All Children at Root filter ===");
-            for (DataSnapshot eventSnapshot : task.getResult().getChildren()) {
-
-                for (DataSnapshot childSnapshot : eventSnapshot.getChildren()) {
-                    String eventId = childSnapshot.getKey();
-                    HashMap<String, HashMap<String, String>> value = (HashMap<String, HashMap<String, String>>) childSnapshot.getValue();
-                    //                value.get("WAITING").
-
-                    //                Log.d(TAG, "Key: " + eventId);
-                    for (Map.Entry<String, HashMap<String, String>> entry : value.entrySet()) {
-                        //                    Log.i(TAG, "Key: " + entry.getKey() + ", Value: " + entry.getValue());
-                        //                    Log.d(TAG, "KKK: " + entry.getKey());
-
-                        for (Map.Entry<String, String> entry2 : entry.getValue().entrySet()) {
-                            //                        Log.i(TAG, "kkk2: " + entry.getKey() + ", Value: " + entry.getValue().get("message"));
-                            NotificationType notificationType;
-                            switch (entry.getKey()) {
-                                case "WAITING":
-                                    notificationType = NotificationType.WAITING;
-                                    break;
-                                case "INVITED":
-                                    notificationType = NotificationType.INVITED;
-                                    break;
-                                case "UNINVITED":
-                                    notificationType = NotificationType.UNINVITED;
-                                    break;
-                                case "CANCELLED":
-                                    notificationType = NotificationType.CANCELLED;
-                                    break;
-                                case "SYSTEM":
-                                    notificationType = NotificationType.SYSTEM;
-                                    break;
-                                default:
-                                    notificationType = NotificationType.WAITING;
-                                    break;
-                            }
-
-                            notificationList.add(new Notification(task.getResult().getKey(), eventId, notificationType, entry.getValue().get("message")));
-                        }
-
-                    }
-                }
+    /**
+     * Shows only the entries about {@code eventId}, or the whole log if it is already shown.
+     *
+     * @param eventId the event whose entries to show
+     */
+    private void filterByEvent(String eventId) {
+        if (eventId == null) return;
+        if (eventId.equals(eventFilter)) {
+            eventFilter = null;
+            showLog(NotificationLog.all());
+        } else {
+            eventFilter = eventId;
+            showLog(NotificationLog.forEvent(eventId));
+        }
+    }
 
-//
+    /**
+     * Replaces the shown entries with the first page of {@code log}.
+     *
+     * @param log the log to page through
+     */
+    public void showLog(NotificationLog log) {
+        this.log = log;
+        adapter.clear();
+        loadNextPage();
+    }
 
-            }
-            return notificationList;
-        });
+    /**
+     * Appends the next-older page, if there is one and none is loading.
+     */
+    public void loadNextPage() {
+        NotificationLog current = log;
+        if (current == null || current.isLoading() || !current.hasNext()) return;
+        current.loadNext()
+                .addOnSuccessListener(page -> {
+                    // A newer filter replaced this log while the page was loading
+                    if (current != log || page.isEmpty()) return;
+                    // Fetch each distinct event once up front; rows then bind from the shared cache
+                    summaries.prefetchFor(page);
+                    adapter.addAll(page);
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading notification log", e));
     }
 }
\ No newline at end of file
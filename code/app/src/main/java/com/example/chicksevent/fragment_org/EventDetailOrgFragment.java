@@ -24,6 +24,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentEventDetailOrgBinding;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusCounters;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
@@ -67,7 +68,8 @@ public class EventDetailOrgFragment extends Fragment {
     private FirebaseService eventService;
     private FirebaseService imageService;
 
-    private FirebaseService waitingListService = new FirebaseService("WaitingList");
+    /** Reader for the denormalized {@code Counters/{eventId}} bucket counts. */
+    private StatusCounters statusCounters = new StatusCounters();
 
 
     private String eventId;
@@ -293,23 +295,17 @@ public class EventDetailOrgFragment extends Fragment {
         });
     }
 
+    /**
+     * Reads the number of entrants in the WAITING bucket from the event's counter node.
+     *
+     * @return a task resolving to the waiting count
+     */
     public Task<Integer> getWaitingCount() {
         if (eventId == null) {
             return Tasks.forResult(0);
         }
 
-        return waitingListService.getReference().child(eventId).get()
-                .continueWith(task -> {
-                    int total = 0;
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DataSnapshot obj : task.getResult().getChildren()) {
-                            if ("WAITING".equals(obj.getKey())) {
-                                total++;
-                            }
-                        }
-                    }
-                    return total;
-                });
+        return statusCounters.read(eventId, "WAITING");
     }
 
 
@@ -383,24 +379,17 @@ public class EventDetailOrgFragment extends Fragment {
                 .addOnFailureListener(e -> Log.e("EventDetail", "Failed to load event: " + e.getMessage()));
     }
 
+    /**
+     * Reads the number of entrants in the ACCEPTED bucket from the event's counter node.
+     *
+     * @return a task resolving to the accepted count
+     */
     public Task<Integer> getFinalCount() {
         if (eventId == null) {
             return Tasks.forResult(0);
         }
 
-        return waitingListService.getReference().child(eventId).get()
-                .continueWith(task -> {
-                    int total = 0;
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DataSnapshot obj : task.getResult().getChildren()) {
-                            if ("ACCEPTED".equals(obj.getKey())) {
-                                total++;
-                            }
-                        }
-                    }
-//                    waitingListCount = total;
-                    return total;
-                });
+        return statusCounters.read(eventId, "ACCEPTED");
     }
 
     private String formatDatePretty(String dateStr) {
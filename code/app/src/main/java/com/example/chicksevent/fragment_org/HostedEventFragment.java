@@ -17,20 +17,17 @@ import com.example.chicksevent.R;
 import com.example.chicksevent.adapter.HostedEventAdapter;
 import com.example.chicksevent.databinding.FragmentHostedEventBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventRepository;
 import com.example.chicksevent.misc.FirebaseService;
-import com.example.chicksevent.util.AppConstants;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Fragment that lists events hosted by the current organizer (device user).
  * <p>
- * The list is populated by reading from the <code>Event</code> root and filtering for entries
- * where the <code>organizer</code> matches this device's Android ID. Each list row (inflated from
+ * The list is populated from the shared {@link EventRepository} cache of the <code>Event</code>
+ * root, filtering for entries where the <code>organizer</code> matches this device's Android ID.
+ * Each list row (inflated from
  * {@code item_hosted_event.xml}) exposes actions to view organizer details for an event or open an
  * update flow for that event.
  * </p>
@@ -54,9 +51,6 @@ public class HostedEventFragment extends Fragment {
     /** Backing list of hosted events. */
     private ArrayList<Event> eventDataList = new ArrayList<>();
 
-    /** Firebase service for the "Event" root. */
-    private FirebaseService eventService;
-
     /** Firebase service for the "WaitingList" root (reserved for future use). */
     private FirebaseService waitingListService;
 
@@ -97,7 +91,6 @@ public class HostedEventFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         Log.i("sigma", "life");
 
-        eventService = new FirebaseService("Event");
         waitingListService = new FirebaseService("WaitingList");
 
         androidId = Settings.Secure.getString(
@@ -115,103 +108,48 @@ public class HostedEventFragment extends Fragment {
     }
 
     /**
-     * Queries the <code>Event</code> root once, filters for events whose <code>organizer</code> equals
-     * this device's {@link #androidId}, and binds the result set to the list view.
+     * Reads the shared {@link EventRepository} cache, filters for events whose
+     * <code>organizer</code> equals this device's {@link #androidId}, and binds the result set to
+     * the list view.
      * <p>
      * On item interaction, navigates to {@code EventDetailOrgFragment} (view) or
      * {@code UpdateEventFragment} (update) depending on the clicked control.
      * </p>
      */
     public void listEvents() {
-        Log.i("sigma", "what");
-        Log.i(TAG, "e" + eventService);
-        eventDataList = new ArrayList<>();
-        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                Log.d(TAG, "=== SHOW the event ===");
-
-                // Iterate through all children
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                    String key = childSnapshot.getKey();
-                    
-                    // Try Firebase deserialization first
-                    Event event = childSnapshot.getValue(Event.class);
-                    if (event != null) {
-                        // Ensure the ID is set from the snapshot key
-                        if (event.getId() == null || event.getId().isEmpty()) {
-                            event.setId(key);
-                        }
-                        
-                        // Check if this event belongs to the current organizer
-                        String organizerId = event.getOrganizer() != null ? 
-                            event.getOrganizer().getOrganizerId() : null;
-                        if (organizerId != null && organizerId.equals(androidId)) {
-                            eventDataList.add(event);
-                        }
-                    } else {
-                        // Fallback: manual construction if deserialization fails
-                        Object valueObj = childSnapshot.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> value = (HashMap<String, Object>) valueObj;
-                            
-                            // Check organizer match
-                            Object organizerObj = value.get("organizer");
-                            if (organizerObj == null || !organizerObj.toString().equals(androidId)) {
-                                continue;
-                            }
-                            
-                            String id = value.get("id") != null ? value.get("id").toString() : key;
-                            String name = value.get("name") != null ? value.get("name").toString() : "";
-                            String eventDetails = value.get("eventDetails") != null ? value.get("eventDetails").toString() : "";
-                            String eventStartTime = value.get("eventStartTime") != null ? value.get("eventStartTime").toString() : "";
-                            String eventEndTime = value.get("eventEndTime") != null ? value.get("eventEndTime").toString() : "";
-                            String eventStartDate = value.get("eventStartDate") != null ? value.get("eventStartDate").toString() : null;
-                            String eventEndDate = value.get("eventEndDate") != null ? value.get("eventEndDate").toString() : null;
-                            String registrationStartDate = value.get("registrationStartDate") != null ? value.get("registrationStartDate").toString() : null;
-                            String registrationEndDate = value.get("registrationEndDate") != null ? value.get("registrationEndDate").toString() : null;
-                            int entrantLimit = value.get("entrantLimit") instanceof Number ? ((Number) value.get("entrantLimit")).intValue() : AppConstants.UNLIMITED_ENTRANTS;
-                            String poster = value.get("poster") != null ? value.get("poster").toString() : null;
-                            String tag = value.get("tag") != null ? value.get("tag").toString() : null;
-                            Boolean geoRequired = value.get("geolocationRequired") instanceof Boolean ? (Boolean) value.get("geolocationRequired") : false;
-                            String entrantId = value.get("entrantId") != null ? value.get("entrantId").toString() : "";
-                            
-                            Event e = new Event(entrantId, id, name, eventDetails, eventStartTime, eventEndTime,
-                                    eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
-                                    entrantLimit, poster, tag, geoRequired);
-                            eventDataList.add(e);
-                        }
-                    }
-                }
-                    if (getContext() == null) return;
-                    HostedEventAdapter eventAdapter = new HostedEventAdapter(getContext(), eventDataList, (item, type) -> {
-                    NavController navController = NavHostFragment.findNavController(HostedEventFragment.this);
-
-                    Bundle bundle = new Bundle();
-                    bundle.putString("eventId", item.getId());
-//                    bundle.putString("organizerId", item.getId());
-
-                    if (type == 0) {
-                        navController.navigate(R.id.action_HostedEventFragment_to_EventDetailOrgFragment, bundle);
-                    } else {
-                        navController.navigate(R.id.action_HostedEventFragment_to_UpdateEventFragment, bundle);
+        EventRepository.getInstance().getEvents().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Error reading data", task.getException());
+                return;
+            }
 
-                    }
+            eventDataList = new ArrayList<>();
+            for (Event event : task.getResult()) {
+                // Check if this event belongs to the current organizer
+                String organizerId = event.getOrganizer() != null ?
+                    event.getOrganizer().getOrganizerId() : null;
+                if (organizerId != null && organizerId.equals(androidId)) {
+                    eventDataList.add(event);
+                }
+            }
 
-                });
+            if (getContext() == null) return;
+            HostedEventAdapter eventAdapter = new HostedEventAdapter(getContext(), eventDataList, (item, type) -> {
+                NavController navController = NavHostFragment.findNavController(HostedEventFragment.this);
 
-                eventView.setAdapter(eventAdapter);
+                Bundle bundle = new Bundle();
+                bundle.putString("eventId", item.getId());
 
+                if (type == 0) {
+                    navController.navigate(R.id.action_HostedEventFragment_to_EventDetailOrgFragment, bundle);
+                } else {
+                    navController.navigate(R.id.action_HostedEventFragment_to_UpdateEventFragment, bundle);
 
+                }
 
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
-            }
+            });
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Error reading data: " + databaseError.getMessage());
-            }
+            eventView.setAdapter(eventAdapter);
         });
     }
 
@@ -35,6 +35,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.example.chicksevent.R;
 import com.example.chicksevent.databinding.FragmentUpdateEventDetailBinding;
 import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventLookup;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.User;
 import com.example.chicksevent.util.FirebaseStorageHelper;
@@ -78,6 +79,9 @@ public class UpdateEventFragment extends Fragment {
     private HashMap<String, Object> urlData = new HashMap<>();
     private String eventId;
 
+    /** Tag string as loaded, so the tag index can drop entries for removed tags. */
+    private String loadedTag;
+
 
     /**
      * Inflates the layout for this fragment using ViewBinding.
@@ -251,6 +255,7 @@ public class UpdateEventFragment extends Fragment {
                         Long limitLong = snapshot.child("entrantLimit").getValue(Long.class);
                         String limit = limitLong != null ? String.valueOf(limitLong) : "0";
                         String tagText = snapshot.child("tag").getValue(String.class);
+                        loadedTag = tagText;
 
                         // Read inputs
                         binding.etEventName.setText(name);
@@ -526,7 +531,8 @@ public class UpdateEventFragment extends Fragment {
         );
 
         // Push to Firebase
-        String id = e.editEvent(eventId);
+        String id = e.editEvent(eventId, loadedTag);
+        EventLookup.getInstance().invalidate(eventId);
 //        String eventId = e.getId();
         String eventName = e.getName();
 
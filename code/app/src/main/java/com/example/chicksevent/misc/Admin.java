@@ -13,7 +13,11 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents an administrator user with elevated permissions within the ChicksEvent app.
@@ -53,6 +57,9 @@ public class Admin extends User {
 
     private final FirebaseService waitingListService = new FirebaseService("WaitingList");
 
+    /** Shared in-memory view of the "Event" root used for browsing. */
+    private final EventRepository eventRepository;
+
     /**
      * Constructs an {@code Admin} for the given user ID.
      *
@@ -65,14 +72,16 @@ public class Admin extends User {
         this.userService = new FirebaseService("User");
         this.eventsService = new FirebaseService("Event");
         this.organizerService = new FirebaseService("Organizer");
+        this.eventRepository = EventRepository.getInstance();
     }
 
     /**
      * Deletes an event from the database by its ID. (US 03.01.01)
      * <p>
-     * This issues a single <em>remove</em> operation to {@code /Event/{eventId}}. If the
-     * {@code eventId} is {@code null} or empty, the operation is a no-op (logged but not failed).
-     * If Firebase returns an error, it will be observable via the returned task's failure listener.
+     * The event's stored tag string is read first, then {@code /Event/{eventId}} and its
+     * {@link TagIndex} entries are removed in one multi-path update. If the tag read fails the
+     * event is still removed and its index entries are left behind. If the {@code eventId} is
+     * {@code null} or empty, the operation is a no-op (logged but not failed).
      * </p>
      *
      * @param eventId the Firebase key of the event to delete; must be non-empty.
@@ -80,7 +89,13 @@ public class Admin extends User {
     public void deleteEvent(String eventId) {
         Log.i("DEL", "gonna delete " + eventId);
         if (eventId != null && !eventId.isEmpty()) {
-            eventsService.deleteEntry(eventId);
+            TagIndex.readStoredTags(eventsService, eventId, (tags, error) -> {
+                if (error != null) Log.w("DEL", "Failed to read tags of " + eventId, error);
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("Event/" + eventId, null);
+                TagIndex.putChanges(updates, eventId, tags, null);
+                eventsService.updateMultiPath(updates);
+            });
         }
     }
 
@@ -176,62 +191,15 @@ public class Admin extends User {
     /**
      * Retrieves all events from the database. (US 03.05.01)
      * <p>
-     * Performs a one-shot read of the {@code /Event} root. Each child is expected to be a map
-     * of string fields. Currently constructs {@link Event} objects using hardcoded parameter order
-     * based on expected fields from the map (temporary until proper POJO mapping is implemented).
+     * Served from the shared {@link EventRepository}, which keeps one live subscription on the
+     * {@code /Event} root; repeated browsing does not re-download the catalogue. Events on hold
+     * are included so the admin can review them.
      * </p>
      *
      * @return a {@link Task} that resolves to a list of {@link Event} objects on success.
      */
     public Task<List<Event>> browseEvents() {
-        return eventsService.getReference().get().continueWithTask(task -> {
-            if (task.isSuccessful()) {
-                List<Event> events = new ArrayList<>();
-                DataSnapshot snapshot = task.getResult();
-                for (DataSnapshot child : snapshot.getChildren()) {
-                    String key = child.getKey();
-                    
-                    // Try Firebase deserialization first
-                    Event event = child.getValue(Event.class);
-                    if (event != null) {
-                        // Ensure the ID is set from the snapshot key
-                        if (event.getId() == null || event.getId().isEmpty()) {
-                            event.setId(key);
-                        }
-                        events.add(event);
-                    } else {
-                        // Fallback: manual construction if deserialization fails
-                        Object valueObj = child.getValue();
-                        if (valueObj instanceof HashMap) {
-                            @SuppressWarnings("unchecked")
-                            HashMap<String, Object> eventHash = (HashMap<String, Object>) valueObj;
-                            
-                            String id = eventHash.get("id") != null ? eventHash.get("id").toString() : key;
-                            String name = eventHash.get("name") != null ? eventHash.get("name").toString() : "";
-                            String eventDetails = eventHash.get("eventDetails") != null ? eventHash.get("eventDetails").toString() : "";
-                            String eventStartTime = eventHash.get("eventStartTime") != null ? eventHash.get("eventStartTime").toString() : "";
-                            String eventEndTime = eventHash.get("eventEndTime") != null ? eventHash.get("eventEndTime").toString() : "";
-                            String eventStartDate = eventHash.get("eventStartDate") != null ? eventHash.get("eventStartDate").toString() : null;
-                            String eventEndDate = eventHash.get("eventEndDate") != null ? eventHash.get("eventEndDate").toString() : null;
-                            String registrationStartDate = eventHash.get("registrationStartDate") != null ? eventHash.get("registrationStartDate").toString() : null;
-                            String registrationEndDate = eventHash.get("registrationEndDate") != null ? eventHash.get("registrationEndDate").toString() : null;
-                            int entrantLimit = eventHash.get("entrantLimit") instanceof Number ? ((Number) eventHash.get("entrantLimit")).intValue() : com.example.chicksevent.util.AppConstants.UNLIMITED_ENTRANTS;
-                            String poster = eventHash.get("poster") != null ? eventHash.get("poster").toString() : null;
-                            String tag = eventHash.get("tag") != null ? eventHash.get("tag").toString() : null;
-                            Boolean geoRequired = eventHash.get("geolocationRequired") instanceof Boolean ? (Boolean) eventHash.get("geolocationRequired") : false;
-                            String entrantId = eventHash.get("entrantId") != null ? eventHash.get("entrantId").toString() : "";
-                            
-                            events.add(new Event(entrantId, id, name, eventDetails, eventStartTime, eventEndTime,
-                                    eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
-                                    entrantLimit, poster, tag, geoRequired));
-                        }
-                    }
-                }
-                return com.google.android.gms.tasks.Tasks.forResult(events);
-            } else {
-                return com.google.android.gms.tasks.Tasks.forException(task.getException());
-            }
-        });
+        return eventRepository.getEvents();
     }
 
     /**
@@ -298,7 +266,7 @@ public class Admin extends User {
      * @return a Task that resolves to a list of Event IDs created by the organizer
      */
     public Task<List<String>> getEventsByOrganizer(String organizerId) {
-        return eventsService.getReference().get().continueWith(task -> {
+        return readOrganizerEvents(organizerId).continueWith(task -> {
             List<String> eventIds = new ArrayList<>();
             if (task.isSuccessful()) {
                 DataSnapshot snapshot = task.getResult();
@@ -317,8 +285,24 @@ public class Admin extends User {
     }
 
     /**
-     * Deletes an event and cleans up all related data (WaitingList, Notifications).
-     * Also notifies all entrants that the event has been cancelled.
+     * Reads the events of one organizer with an {@code orderByChild("organizer")} equality query,
+     * rather than the whole {@code Event} root. The database rules should declare
+     * {@code "Event": {".indexOn": ["organizer"]}}; without it the server still answers, but by
+     * sending the whole root to the client.
+     *
+     * @param organizerId the user ID of the organizer
+     * @return a task resolving to a snapshot whose children are the organizer's events
+     */
+    private Task<DataSnapshot> readOrganizerEvents(String organizerId) {
+        return eventsService.getReference().orderByChild("organizer").equalTo(organizerId).get();
+    }
+
+    /**
+     * Deletes an event and cleans up all related data (WaitingList, UserEvents, Notifications).
+     * Also notifies all entrants that the event has been cancelled. Those notices are kept; the
+     * other notifications about the event are removed and their owners' unread counters lowered
+     * as described in {@link NotificationInbox#putEventRemoval}, for the users found by
+     * {@link #removeEventNotifications}.
      *
      * @param eventId the ID of the event to delete
      * @param eventName the name of the event (for notification message)
@@ -343,8 +327,15 @@ public class Admin extends User {
                     }
                 }
 
-                // Send cancellation notifications to all entrants
+                // Cancellation notices and notification cleanup are coalesced into a few
+                // multi-path writes rather than one round trip per entrant
+                FirebaseService batchedNotifications =
+                        new FirebaseService("Notification", WriteBatcher.getInstance());
+
+                // Send cancellation notifications to all entrants, remembering their keys so the
+                // cleanup below does not remove them again
                 String message = "The event \"" + eventName + "\" has been cancelled.";
+                Set<String> notices = new HashSet<>();
                 for (String entrantId : entrantIds) {
                     Notification notification = new Notification(
                             entrantId,
@@ -352,24 +343,22 @@ public class Admin extends User {
                             NotificationType.SYSTEM,
                             message
                     );
-                    notification.createNotification();
+                    notification.createNotification(batchedNotifications);
+                    notices.add(notification.getNotificationId());
                 }
 
-                // Delete WaitingList entries for this event
-                waitingListService.getReference().child(eventId).removeValue();
-
-                // Delete Notification entries for this event
-                notificationService.getReference().get().addOnCompleteListener(notifTask -> {
-                    if (notifTask.isSuccessful()) {
-                        DataSnapshot notifSnapshot = notifTask.getResult();
-                        for (DataSnapshot userSnapshot : notifSnapshot.getChildren()) {
-                            notificationService.getReference()
-                                    .child(userSnapshot.getKey())
-                                    .child(eventId)
-                                    .removeValue();
-                        }
-                    }
-                });
+                // Delete WaitingList entries and counters for this event together with each
+                // entrant's UserEvents reverse-index entry
+                HashMap<String, Object> membershipUpdates = new HashMap<>();
+                membershipUpdates.put("WaitingList/" + eventId, null);
+                membershipUpdates.put(StatusCounters.ROOT + "/" + eventId, null);
+                for (String entrantId : entrantIds) {
+                    membershipUpdates.put(UserEventsIndex.path(entrantId, eventId), null);
+                }
+                waitingListService.updateMultiPath(membershipUpdates);
+
+                // Delete Notification entries for this event from the inboxes that can hold them
+                removeEventNotifications(eventId, entrantIds, notices, batchedNotifications);
 
                 // Delete the event itself
                 deleteEvent(eventId);
@@ -387,6 +376,69 @@ public class Admin extends User {
         return tcs.getTask();
     }
 
+    /**
+     * Removes the notifications about a deleted event and takes the unread ones off their owners'
+     * counters, reading only the inboxes that can hold them: the event's entrants, plus every
+     * user the {@link NotificationLog} records as the direct recipient of a notification about
+     * the event. Each of those users costs two keyed reads, {@code UnreadCount/{uid}} and then
+     * {@code Notification/{uid}}; reading the counter first means a notice landing in between can
+     * only leave a badge one too high, never hide a newer delivery.
+     * <p>
+     * Broadcast log entries record how many users they reached, not who, so a user who got a
+     * broadcast about the event and has since left all of its lists is not found. Their entries
+     * stay, shown under {@link EventSummaryResolver#MISSING_NAME}.
+     * </p>
+     *
+     * @param eventId the deleted event
+     * @param entrantIds everyone on the event's lists when it was deleted
+     * @param keep push keys to leave in place, such as the notice of the deletion itself
+     * @param notifications service the cleanup is written through
+     */
+    private void removeEventNotifications(String eventId, List<String> entrantIds, Set<String> keep,
+                                          FirebaseService notifications) {
+        DatabaseReference root = notificationService.getReference().getRoot();
+        root.child(NotificationLog.ROOT).orderByChild(NotificationLog.EVENT_FIELD).equalTo(eventId).get()
+                .addOnCompleteListener(logTask -> {
+                    Set<String> recipients = new LinkedHashSet<>(entrantIds);
+                    if (logTask.isSuccessful() && logTask.getResult() != null) {
+                        for (DataSnapshot entry : logTask.getResult().getChildren()) {
+                            Object userId = entry.child("userId").getValue();
+                            if (userId != null) recipients.add(userId.toString());
+                        }
+                    } else {
+                        Log.w("Admin", "Failed to read the notification log of " + eventId
+                                + "; cleaning up entrants' inboxes only", logTask.getException());
+                    }
+                    if (recipients.isEmpty()) return;
+
+                    Map<String, Object> cleanup = new HashMap<>();
+                    int[] pending = { recipients.size() };
+                    Runnable oneDone = () -> {
+                        if (--pending[0] == 0 && !cleanup.isEmpty()) notifications.updateMultiPath(cleanup);
+                    };
+                    for (String userId : recipients) {
+                        root.child(NotificationInbox.UNREAD_ROOT).child(userId).get().addOnCompleteListener(unreadTask -> {
+                            Object unread = unreadTask.isSuccessful() && unreadTask.getResult() != null
+                                    ? unreadTask.getResult().getValue() : null;
+                            if (!unreadTask.isSuccessful()) {
+                                Log.e("Admin", "Failed to read unread counter of " + userId
+                                        + "; it is left as it is", unreadTask.getException());
+                            }
+                            notificationService.getReference().child(userId).get().addOnCompleteListener(inboxTask -> {
+                                if (inboxTask.isSuccessful() && inboxTask.getResult() != null) {
+                                    NotificationInbox.putEventRemoval(cleanup, userId, inboxTask.getResult(),
+                                            unread instanceof Long ? (Long) unread : 0, eventId, keep);
+                                } else {
+                                    Log.e("Admin", "Failed to read notifications of " + userId,
+                                            inboxTask.getException());
+                                }
+                                oneDone.run();
+                            });
+                        });
+                    }
+                });
+    }
+
     /**
      * Checks if an event is happening today based on its eventStartDate.
      *
@@ -455,7 +507,7 @@ public class Admin extends User {
                 List<String> eventIds = eventsTask.getResult();
 
                 // Put events on hold (except those happening today or events that have already happened)
-                eventsService.getReference().get().addOnCompleteListener(allEventsTask -> {
+                readOrganizerEvents(userId).addOnCompleteListener(allEventsTask -> {
                     if (allEventsTask.isSuccessful()) {
                         DataSnapshot allEventsSnapshot = allEventsTask.getResult();
                         List<String> eventsToNotify = new ArrayList<>(); // Store eventId|eventName pairs
@@ -629,8 +681,8 @@ public class Admin extends User {
             if (eventsTask.isSuccessful()) {
                 List<String> eventIds = eventsTask.getResult();
 
-                // Get all events and restore those that are on hold
-                eventsService.getReference().get().addOnCompleteListener(allEventsTask -> {
+                // Get the organizer's events and restore those that are on hold
+                readOrganizerEvents(userId).addOnCompleteListener(allEventsTask -> {
                     if (allEventsTask.isSuccessful()) {
                         DataSnapshot allEventsSnapshot = allEventsTask.getResult();
                         List<String> eventsToRestore = new ArrayList<>(); // Store eventId|eventName pairs
@@ -0,0 +1,414 @@
+package com.example.chicksevent.misc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chicksevent.enums.EntrantStatus;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the outcome of a lottery draw in bounded chunks that can be resumed after a failure.
+ * <p>
+ * The lottery used to move every WAITING entrant in one {@code updateChildren}, which for a
+ * large event is a multi-megabyte write that can exceed payload limits, and a failure left no
+ * record of what had been applied. This writer walks the WAITING snapshot lazily and sends the
+ * moves as {@link StatusTransition} chunks of at most {@link #DEFAULT_CHUNK_SIZE} entrants:
+ * </p>
+ * <ul>
+ *   <li>At most {@link #DEFAULT_MAX_IN_FLIGHT} chunks are outstanding; the next chunk is only
+ *       built once one of them is acknowledged.</li>
+ *   <li>A rejected chunk is retried up to {@link #MAX_ATTEMPTS} times with exponential backoff
+ *       starting at {@link #BASE_BACKOFF_MS}. Each chunk is one atomic multi-path update, so a
+ *       failed attempt applied nothing and can simply be sent again.</li>
+ *   <li>When more than one chunk is needed, the winners are persisted first under
+ *       {@code LotteryCheckpoints/{eventId}}, and every chunk bumps its {@code done} count in
+ *       the same update. The checkpoint also records the drawn population, every entrant in
+ *       WAITING at draw time. Entrants that were written have already left WAITING, so an
+ *       interrupted run resumes by reading WAITING again and applying the stored winners to
+ *       the members of that population still there (see {@link #resume}); anyone who joined
+ *       after the draw stays in WAITING. The checkpoint is removed once all chunks land.</li>
+ *   <li>Progress is reported per chunk to an optional {@link ProgressListener}.</li>
+ * </ul>
+ *
+ * <p>A draw that fits in a single chunk is written exactly as before: one atomic update, no
+ * checkpoint. A resumed run always ends by removing the checkpoint it was started from, even
+ * when only one chunk, or no entrant at all, was left to write.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class ChunkedStatusWriter {
+
+    private static final String TAG = ChunkedStatusWriter.class.getSimpleName();
+
+    /** Root node holding one checkpoint per event with a run in progress. */
+    public static final String CHECKPOINT_ROOT = "LotteryCheckpoints";
+
+    /** Entrants per chunk; each entrant accounts for three paths plus the shared counters. */
+    public static final int DEFAULT_CHUNK_SIZE = 250;
+
+    /** Chunks outstanding at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+
+    /** Attempts per chunk before the run gives up and leaves its checkpoint for a resume. */
+    public static final int MAX_ATTEMPTS = 5;
+
+    /** Delay before the first retry; doubled for every further one. */
+    public static final long BASE_BACKOFF_MS = 500;
+
+    /**
+     * Receives progress of a run, e.g. to show it on the organizer's screen.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after each acknowledged chunk.
+         *
+         * @param chunksDone chunks written so far
+         * @param chunksTotal chunks in the run
+         * @param entrantsDone entrants written so far
+         * @param entrantsTotal entrants in the run
+         */
+        void onChunkWritten(int chunksDone, int chunksTotal, int entrantsDone, int entrantsTotal);
+
+        /**
+         * Called once when the run ends.
+         *
+         * @param error the failure that stopped the run, or {@code null} when every chunk landed
+         */
+        void onFinished(Exception error);
+    }
+
+    /**
+     * Runs delayed retries. Production code posts to the main looper; tests run them by hand.
+     */
+    public interface Scheduler {
+        /**
+         * @param task the retry to run
+         * @param delayMs delay before running it
+         */
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private final DatabaseReference root;
+    private final String eventId;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final Scheduler scheduler;
+    private ProgressListener listener;
+
+    /**
+     * Creates a writer with the default chunk size and in-flight limit.
+     *
+     * @param root the database root the updates are relative to
+     * @param eventId the event whose waiting list is written
+     */
+    public ChunkedStatusWriter(DatabaseReference root, String eventId) {
+        this(root, eventId, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_IN_FLIGHT,
+                (task, delayMs) -> new Handler(Looper.getMainLooper()).postDelayed(task, delayMs));
+    }
+
+    /**
+     * Creates a writer with explicit limits.
+     *
+     * @param root the database root the updates are relative to
+     * @param eventId the event whose waiting list is written
+     * @param chunkSize entrants per chunk
+     * @param maxInFlight chunks outstanding at once
+     * @param scheduler runs delayed retries
+     */
+    public ChunkedStatusWriter(DatabaseReference root, String eventId, int chunkSize, int maxInFlight,
+                               Scheduler scheduler) {
+        this.root = root;
+        this.eventId = eventId;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the receiver for progress reports.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Moves every entrant in {@code waitSnap} out of WAITING: the ids in {@code invited} to
+     * INVITED and everyone else to UNINVITED, payloads included.
+     *
+     * @param waitSnap the event's WAITING bucket
+     * @param invited the winners of the draw
+     * @return a task that completes when every chunk has been written, or fails with the chunk
+     *         that ran out of attempts
+     */
+    public Task<Void> apply(DataSnapshot waitSnap, Set<String> invited) {
+        Run run = new Run(waitSnap.getChildren(), waitSnap.getChildrenCount(), invited, false);
+        run.start();
+        return run.tcs.getTask();
+    }
+
+    /**
+     * Finishes an interrupted run: moves the members of the stored population still in
+     * {@code waitSnap} out of WAITING with the stored winners. The checkpoint is kept up to date
+     * as chunks land and removed at the end, however few are left.
+     * <p>
+     * A checkpoint without a population, written before it was recorded, moves all of
+     * {@code waitSnap}.
+     * </p>
+     *
+     * @param waitSnap the event's WAITING bucket, read after the checkpoint
+     * @param checkpoint the snapshot of {@code LotteryCheckpoints/{eventId}}
+     * @return a task as for {@link #apply(DataSnapshot, Set)}
+     */
+    public Task<Void> resume(DataSnapshot waitSnap, DataSnapshot checkpoint) {
+        Set<String> population = populationOf(checkpoint);
+        List<DataSnapshot> left = new ArrayList<>();
+        for (DataSnapshot child : waitSnap.getChildren()) {
+            if (population == null || population.contains(child.getKey())) left.add(child);
+        }
+        if (population != null && left.size() < waitSnap.getChildrenCount()) {
+            Log.i(TAG, "Resume for " + eventId + " leaves " + (waitSnap.getChildrenCount() - left.size())
+                    + " late joiners in WAITING");
+        }
+
+        Run run = new Run(left, left.size(), invitedOf(checkpoint), true);
+        run.start();
+        return run.tcs.getTask();
+    }
+
+    /**
+     * Reads the winners persisted by an interrupted run.
+     *
+     * @param checkpoint the snapshot of {@code LotteryCheckpoints/{eventId}}
+     * @return the stored winners (empty when everyone was to be uninvited)
+     */
+    public static Set<String> invitedOf(DataSnapshot checkpoint) {
+        Set<String> invited = new HashSet<>();
+        for (DataSnapshot child : checkpoint.child("invited").getChildren()) {
+            invited.add(child.getKey());
+        }
+        return invited;
+    }
+
+    /**
+     * Reads the population drawn from by an interrupted run.
+     *
+     * @param checkpoint the snapshot of {@code LotteryCheckpoints/{eventId}}
+     * @return the entrants in WAITING at draw time, or {@code null} when the checkpoint
+     *         predates the population being stored
+     */
+    public static Set<String> populationOf(DataSnapshot checkpoint) {
+        DataSnapshot drawn = checkpoint.child("population");
+        if (!drawn.exists()) return null;
+        Set<String> population = new HashSet<>();
+        for (DataSnapshot child : drawn.getChildren()) {
+            population.add(child.getKey());
+        }
+        return population;
+    }
+
+    /**
+     * @param eventId the event id
+     * @return the root-relative path of the event's checkpoint
+     */
+    public static String checkpointPath(String eventId) {
+        return CHECKPOINT_ROOT + "/" + eventId;
+    }
+
+    /** One batch of moves and the number of entrants it carries. */
+    private static final class Chunk {
+        final Map<String, Object> updates;
+        final int entrants;
+
+        Chunk(Map<String, Object> updates, int entrants) {
+            this.updates = updates;
+            this.entrants = entrants;
+        }
+    }
+
+    /** State of one {@link #apply} call. */
+    private final class Run {
+        final TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+        /** Every entrant the run moves: the population stored in the checkpoint. */
+        final Iterable<DataSnapshot> entrants;
+        final Iterator<DataSnapshot> children;
+        final Set<String> invited;
+        final long counted;
+
+        /**
+         * Whether a checkpoint exists for this run: it spans several chunks, or it resumes an
+         * interrupted one. The checkpoint is then removed by {@link #complete()}.
+         */
+        boolean checkpointed;
+
+        /** A chunk built ahead of the checkpoint write. */
+        Chunk held;
+
+        int inFlight;
+        int chunksDone;
+        int entrantsDone;
+        boolean finished;
+
+        Run(Iterable<DataSnapshot> entrants, long counted, Set<String> invited, boolean resuming) {
+            this.entrants = entrants;
+            this.children = entrants.iterator();
+            this.invited = invited;
+            this.counted = counted;
+            this.checkpointed = resuming;
+        }
+
+        void start() {
+            Chunk first = nextChunk();
+            if (first == null) {
+                // A resume may find WAITING already empty; its checkpoint must still go
+                if (checkpointed) complete(); else finish(null);
+                return;
+            }
+            if (checkpointed) {
+                // Resuming: the winners are already stored
+                held = first;
+                pump();
+                return;
+            }
+            if (!children.hasNext()) {
+                inFlight++;
+                send(first, 1);
+                return;
+            }
+
+            // Persist the winners and the population before any entrant leaves WAITING, so a
+            // resume draws nobody anew and moves nobody who joined since
+            checkpointed = true;
+            held = first;
+            root.updateChildren(checkpointUpdates(), (error, ref) -> {
+                if (error != null) {
+                    Log.e(TAG, "Checkpoint write failed for " + eventId, error.toException());
+                    finish(error.toException());
+                    return;
+                }
+                pump();
+            });
+        }
+
+        /** Sends chunks until the in-flight limit is reached or WAITING is exhausted. */
+        void pump() {
+            while (!finished && inFlight < maxInFlight) {
+                Chunk chunk = held != null ? held : nextChunk();
+                held = null;
+                if (chunk == null) break;
+                inFlight++;
+                send(chunk, 1);
+            }
+            if (!finished && inFlight == 0) complete();
+        }
+
+        void send(Chunk chunk, int attempt) {
+            root.updateChildren(chunk.updates, (error, ref) -> {
+                if (finished) return;
+                if (error == null) {
+                    inFlight--;
+                    chunksDone++;
+                    entrantsDone += chunk.entrants;
+                    Log.i(TAG, "Chunk " + chunksDone + "/" + chunksTotal() + " written for " + eventId
+                            + " (" + chunk.entrants + " entrants)");
+                    if (listener != null) {
+                        listener.onChunkWritten(chunksDone, chunksTotal(), entrantsDone, entrantsTotal());
+                    }
+                    if (checkpointed) pump(); else finish(null);
+                    return;
+                }
+
+                if (attempt < MAX_ATTEMPTS) {
+                    long delay = BASE_BACKOFF_MS << (attempt - 1);
+                    Log.w(TAG, "Chunk write failed (attempt " + attempt + "), retrying in " + delay + " ms: "
+                            + error.getMessage());
+                    scheduler.schedule(() -> send(chunk, attempt + 1), delay);
+                } else {
+                    Log.e(TAG, "Chunk write failed after " + attempt + " attempts; "
+                            + (checkpointed ? "checkpoint kept for resume" : "nothing was applied"),
+                            error.toException());
+                    finish(error.toException());
+                }
+            });
+        }
+
+        /** Removes the checkpoint once every chunk has landed. */
+        void complete() {
+            Map<String, Object> clear = new HashMap<>();
+            clear.put(checkpointPath(eventId), null);
+            root.updateChildren(clear, (error, ref) -> {
+                if (error != null) {
+                    // Every entrant already left WAITING, so a resume would find nothing to do
+                    Log.w(TAG, "Failed to clear checkpoint for " + eventId + ": " + error.getMessage());
+                }
+                finish(null);
+            });
+        }
+
+        void finish(Exception error) {
+            if (finished) return;
+            finished = true;
+            if (listener != null) listener.onFinished(error);
+            if (error == null) tcs.setResult(null); else tcs.setException(error);
+        }
+
+        /** @return the next chunk from the remaining WAITING children, or {@code null} */
+        Chunk nextChunk() {
+            if (!children.hasNext()) return null;
+
+            StatusTransition transition = new StatusTransition(eventId);
+            int entrants = 0;
+            while (entrants < chunkSize && children.hasNext()) {
+                DataSnapshot child = children.next();
+                EntrantStatus to = invited.contains(child.getKey()) ? EntrantStatus.INVITED : EntrantStatus.UNINVITED;
+                transition.move(child.getKey(), EntrantStatus.WAITING, to, child.getValue());
+                entrants++;
+            }
+
+            Map<String, Object> updates = transition.toUpdates();
+            if (checkpointed || children.hasNext()) {
+                updates.put(checkpointPath(eventId) + "/done", ServerValue.increment(entrants));
+            }
+            return new Chunk(updates, entrants);
+        }
+
+        Map<String, Object> checkpointUpdates() {
+            Map<String, Object> winners = new HashMap<>();
+            for (String id : invited) winners.put(id, true);
+            Map<String, Object> population = new HashMap<>();
+            for (DataSnapshot child : entrants) population.put(child.getKey(), true);
+
+            Map<String, Object> checkpoint = new HashMap<>();
+            checkpoint.put("invited", winners);
+            checkpoint.put("population", population);
+            checkpoint.put("total", entrantsTotal());
+            checkpoint.put("done", 0);
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(checkpointPath(eventId), checkpoint);
+            return updates;
+        }
+
+        int entrantsTotal() {
+            return (int) Math.max(counted, entrantsDone);
+        }
+
+        int chunksTotal() {
+            return Math.max(chunksDone, (entrantsTotal() + chunkSize - 1) / chunkSize);
+        }
+    }
+}
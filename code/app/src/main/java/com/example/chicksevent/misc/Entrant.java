@@ -3,9 +3,12 @@ package com.example.chicksevent.misc;
 import android.util.Log;
 
 import com.example.chicksevent.enums.EntrantStatus;
-import com.google.firebase.database.DataSnapshot;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseReference;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Represents an entrant (participant) within the ChicksEvent system.
@@ -25,12 +28,21 @@ import java.util.HashMap;
  * <b>Firebase structure:</b> Data is organized under:
  * <pre>
  * WaitingList/{eventId}/{EntrantStatus}/{entrantId}
+ * UserEvents/{entrantId}/{eventId} = EntrantStatus   // see {@link UserEventsIndex}
+ * Counters/{eventId}/{EntrantStatus} = count          // see {@link StatusCounters}
  * </pre>
  *
+ * <p>Joining and leaving set the entrant's entry in a transaction
+ * ({@link StatusTransition#swapEntry}) and then write the index entry and counter delta only if
+ * the transaction changed membership. A double tap, two devices, or a join racing a lottery move
+ * therefore count once, and a leave from a bucket the entrant is not in counts nothing.</p>
+ *
  * @author Jordan Kwan
  */
 public class Entrant extends User {
 
+    private static final String TAG = Entrant.class.getSimpleName();
+
     /** Firebase wrapper for entrant-level operations. */
     private FirebaseService entrantService;
 
@@ -98,14 +110,7 @@ public class Entrant extends User {
     public void acceptWaitingList(EntrantStatus status) {
         Log.i("RTD8", "hi accept " + eventId);
 
-        String statusString = status.toString();
-        this.status = status;
-
-        HashMap<String, Object> data = new HashMap<>();
-        data.put(" ", "");
-
-        waitingListService.updateSubCollectionEntry(eventId, status.toString(), entrantId, data);
-        waitingListService.deleteSubCollectionEntry(eventId, "INVITED", entrantId);
+        moveFromInvited(status);
     }
 
     /**
@@ -116,14 +121,7 @@ public class Entrant extends User {
     public void declineWaitingList(EntrantStatus status) {
         Log.i("RTD8", "hi decline" + eventId);
 
-        String statusString = status.toString();
-        this.status = status;
-
-        HashMap<String, Object> data = new HashMap<>();
-        data.put(" ", "");
-
-        waitingListService.updateSubCollectionEntry(eventId, status.toString(), entrantId, data);
-        waitingListService.deleteSubCollectionEntry(eventId, "INVITED", entrantId);
+        moveFromInvited(status);
     }
 
     /**
@@ -172,18 +170,15 @@ public class Entrant extends User {
         String statusString = status.toString();
         this.status = status;
 
-        HashMap<String, Object> data = new HashMap<>();
-        data.put(" ", ""); // Keep existing placeholder for backward compatibility
-        
-        // Add location data if provided
-        if (latitude != null && longitude != null) {
-            data.put("latitude", latitude);
-            data.put("longitude", longitude);
-        }
-
         Log.i("printing stuff", eventId + " | " + status + " | " + entrantId);
 
-        waitingListService.updateSubCollectionEntry(eventId, status.toString(), entrantId, data);
+        Map<String, Object> entry = entryData(latitude, longitude);
+        swapEntry(statusString, entry, previous -> {
+            HashMap<String, Object> updates = new HashMap<>();
+            updates.put(userEventPath(), statusString);
+            if (previous == null) StatusCounters.putDelta(updates, eventId, statusString, 1);
+            waitingListService.updateMultiPath(updates);
+        });
     }
 
     /**
@@ -194,57 +189,97 @@ public class Entrant extends User {
     public void leaveWaitingList(EntrantStatus status) {
         Log.i("FirestoreTest", "hi");
 
-        HashMap<String, Object> data = new HashMap<>();
         this.status = null;
 
-        waitingListService.deleteSubCollectionEntry(eventId, status.toString(), entrantId);
+        String statusString = status.toString();
+        swapEntry(statusString, null, previous -> {
+            // Not listed there: nothing to count, and the index entry belongs to another bucket
+            if (previous == null) return;
+            HashMap<String, Object> updates = new HashMap<>();
+            updates.put(userEventPath(), null);
+            StatusCounters.putDelta(updates, eventId, statusString, -1);
+            waitingListService.updateMultiPath(updates);
+        });
     }
 
     /**
-     * Switches this entrant's waiting list status by first removing them from their current
-     * {@link EntrantStatus} node and re-adding them under a new one.
-     * Location data is preserved when swapping status.
+     * Sets this entrant's entry in one bucket in a transaction and passes on what it held
+     * before. A failed transaction is logged and nothing else is written, since the entry did
+     * not change.
+     *
+     * @param status the bucket name
+     * @param value the entry to leave there, or {@code null} to remove it
+     * @param then receives the previous entry, {@code null} if there was none
+     */
+    private void swapEntry(String status, Object value, Consumer<Object> then) {
+        DatabaseReference entry = waitingListService.getReference().child(eventId).child(status).child(entrantId);
+        StatusTransition.swapEntry(entry, value, (previous, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to update " + status + " entry of " + entrantId + " for " + eventId, error);
+                return;
+            }
+            then.accept(previous);
+        });
+    }
+
+    /**
+     * Switches this entrant's waiting list status by removing them from their current
+     * {@link EntrantStatus} node and re-adding them under a new one in a single multi-path write.
+     * The entry's payload (e.g. location data) is carried into the new bucket.
      *
      * @param newStatus the new status to apply (e.g., from WAITING to INVITED).
      */
     public void swapStatus(EntrantStatus newStatus) {
-        Log.i("RTD8", "output");
-        
-        // Read current location from Firebase before leaving old status
-        String currentStatusString = status != null ? status.toString() : "WAITING";
-        waitingListService.getReference()
-                .child(eventId)
-                .child(currentStatusString)
-                .child(entrantId)
-                .get()
-                .addOnCompleteListener(task -> {
-                    Double latitude = null;
-                    Double longitude = null;
-                    
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        DataSnapshot snapshot = task.getResult();
-                        Object latObj = snapshot.child("latitude").getValue();
-                        Object lngObj = snapshot.child("longitude").getValue();
-                        
-                        if (latObj != null && lngObj != null) {
-                            try {
-                                latitude = latObj instanceof Number ? 
-                                    ((Number) latObj).doubleValue() : 
-                                    Double.parseDouble(latObj.toString());
-                                longitude = lngObj instanceof Number ? 
-                                    ((Number) lngObj).doubleValue() : 
-                                    Double.parseDouble(lngObj.toString());
-                                Log.i("Entrant", "Preserving location: " + latitude + ", " + longitude);
-                            } catch (NumberFormatException e) {
-                                Log.w("Entrant", "Invalid location data when swapping status", e);
-                            }
-                        }
-                    }
-                    
-                    // Now perform the swap with preserved location
-                    leaveWaitingList(status);
-                    joinWaitingList(newStatus, latitude, longitude);
-                });
+        EntrantStatus currentStatus = status != null ? status : EntrantStatus.WAITING;
+        moveTo(currentStatus, newStatus);
+    }
+
+    /**
+     * Moves this entrant out of the INVITED bucket into {@code status}, keeping the reverse
+     * index and the bucket counters in step.
+     *
+     * @param status the bucket to move into (ACCEPTED or DECLINED)
+     */
+    private void moveFromInvited(EntrantStatus status) {
+        moveTo(EntrantStatus.INVITED, status);
+    }
+
+    /**
+     * Moves this entrant between buckets through a {@link StatusTransition}, which reads the
+     * old entry and writes the whole move at once.
+     *
+     * @param from the bucket the entrant is in
+     * @param to the bucket to move into
+     * @return the task for the write
+     */
+    private Task<Void> moveTo(EntrantStatus from, EntrantStatus to) {
+        this.status = to;
+        return new StatusTransition(eventId)
+                .move(entrantId, from, to)
+                .commit(waitingListService);
+    }
+
+    /**
+     * Builds the value stored under a waiting-list entry.
+     *
+     * @param latitude optional latitude (only stored when both coordinates are present)
+     * @param longitude optional longitude
+     * @return the entry payload
+     */
+    private Map<String, Object> entryData(Double latitude, Double longitude) {
+        Map<String, Object> data = StatusTransition.emptyEntry();
+
+        // Add location data if provided
+        if (latitude != null && longitude != null) {
+            data.put("latitude", latitude);
+            data.put("longitude", longitude);
+        }
+        return data;
+    }
+
+    /** @return root-relative path of this entrant's reverse-index entry for the event */
+    private String userEventPath() {
+        return UserEventsIndex.path(entrantId, eventId);
     }
 
     /**
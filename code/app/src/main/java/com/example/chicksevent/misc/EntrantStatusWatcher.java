@@ -0,0 +1,226 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.chicksevent.enums.EntrantStatus;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Push-based view of one user's standing on one event's waiting list.
+ * <p>
+ * Instead of polling the whole {@code WaitingList/{eventId}} subtree, the watcher attaches a
+ * {@link ValueEventListener} to the user's own key in each status bucket plus the event's
+ * {@code WAITING} counter (see {@link StatusCounters}). Firebase then pushes only the few bytes
+ * that change, and an idle screen generates no traffic at all.
+ * </p>
+ *
+ * <p>The watcher is a {@link DefaultLifecycleObserver}: register it on a fragment's view
+ * lifecycle and it subscribes in {@code onStart} and detaches every listener in
+ * {@code onStop}, so nothing outlives the view.</p>
+ *
+ * <p>{@link Listener} callbacks fire only when the derived status or the count actually
+ * changes. The first status callback is held back until every bucket has reported once, so the
+ * UI never flickers through intermediate states.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EntrantStatusWatcher implements DefaultLifecycleObserver {
+
+    private static final String TAG = EntrantStatusWatcher.class.getSimpleName();
+
+    /** Buckets watched, in the precedence used when a user somehow appears in several. */
+    private static final EntrantStatus[] BUCKETS = {
+            EntrantStatus.WAITING,
+            EntrantStatus.INVITED,
+            EntrantStatus.UNINVITED,
+            EntrantStatus.ACCEPTED,
+            EntrantStatus.DECLINED,
+            EntrantStatus.CANCELLED
+    };
+
+    /**
+     * Receives status and count changes.
+     */
+    public interface Listener {
+        /**
+         * Called when the user's bucket changes.
+         *
+         * @param status the current bucket, or {@code null} if the user is on no list
+         */
+        void onStatusChanged(EntrantStatus status);
+
+        /**
+         * Called when the number of waiting entrants changes.
+         *
+         * @param waitingCount the current WAITING count
+         */
+        void onWaitingCountChanged(int waitingCount);
+    }
+
+    private final String eventId;
+    private final String userId;
+    private final Listener listener;
+
+    /** Firebase service for the "WaitingList" root. */
+    private final FirebaseService waitingListService;
+
+    /** Firebase service for the "Counters" root. */
+    private final FirebaseService counterService;
+
+    /** Active per-bucket subscriptions, keyed by the reference they are attached to. */
+    private final Map<DatabaseReference, ValueEventListener> attached = new LinkedHashMap<>();
+
+    /** Buckets that currently contain the user. */
+    private final Set<EntrantStatus> present = EnumSet.noneOf(EntrantStatus.class);
+
+    /** Buckets that have delivered at least one value since subscribing. */
+    private final Set<EntrantStatus> reported = EnumSet.noneOf(EntrantStatus.class);
+
+    private boolean statusDelivered = false;
+    private boolean rebuildRequested = false;
+    private EntrantStatus lastStatus;
+    private Integer lastCount;
+
+    /**
+     * Creates a watcher over the default {@code WaitingList} and {@code Counters} roots.
+     *
+     * @param eventId the event to watch
+     * @param userId the user whose standing is watched
+     * @param listener receiver for changes
+     */
+    public EntrantStatusWatcher(String eventId, String userId, Listener listener) {
+        this(eventId, userId, listener,
+                new FirebaseService("WaitingList"), new FirebaseService(StatusCounters.ROOT));
+    }
+
+    /**
+     * Creates a watcher over the given services.
+     *
+     * @param eventId the event to watch
+     * @param userId the user whose standing is watched
+     * @param listener receiver for changes
+     * @param waitingListService service scoped to the {@code WaitingList} root
+     * @param counterService service scoped to the {@code Counters} root
+     */
+    public EntrantStatusWatcher(String eventId, String userId, Listener listener,
+                                FirebaseService waitingListService, FirebaseService counterService) {
+        this.eventId = eventId;
+        this.userId = userId;
+        this.listener = listener;
+        this.waitingListService = waitingListService;
+        this.counterService = counterService;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        start();
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        stop();
+    }
+
+    /**
+     * Attaches the bucket and counter listeners if they are not already attached.
+     */
+    public void start() {
+        if (!attached.isEmpty() || eventId == null || userId == null) return;
+
+        for (EntrantStatus bucket : BUCKETS) {
+            DatabaseReference ref = waitingListService.getReference()
+                    .child(eventId).child(bucket.name()).child(userId);
+            attach(ref, new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    reported.add(bucket);
+                    if (snapshot.exists()) present.add(bucket); else present.remove(bucket);
+                    publishStatus();
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    Log.e(TAG, "Status watch cancelled for " + bucket + ": " + error.getMessage());
+                }
+            });
+        }
+
+        if (!rebuildRequested) {
+            // Events that predate counters are recounted once; the listener then sees the result
+            rebuildRequested = true;
+            new StatusCounters(counterService, waitingListService).ensureBuilt(eventId);
+        }
+
+        DatabaseReference counterRef = counterService.getReference()
+                .child(eventId).child(EntrantStatus.WAITING.name());
+        attach(counterRef, new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Object value = snapshot.getValue();
+                int count = value instanceof Number ? Math.max(0, ((Number) value).intValue()) : 0;
+                if (lastCount == null || lastCount != count) {
+                    lastCount = count;
+                    listener.onWaitingCountChanged(count);
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Counter watch cancelled: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Detaches every listener. The last delivered values are kept, so a later {@link #start()}
+     * only notifies if something changed while stopped.
+     */
+    public void stop() {
+        for (Map.Entry<DatabaseReference, ValueEventListener> e : attached.entrySet()) {
+            e.getKey().removeEventListener(e.getValue());
+        }
+        attached.clear();
+        reported.clear();
+    }
+
+    /**
+     * @return the last status delivered to the listener ({@code null} if none or not on a list)
+     */
+    public EntrantStatus getStatus() {
+        return lastStatus;
+    }
+
+    private void attach(DatabaseReference ref, ValueEventListener l) {
+        attached.put(ref, l);
+        ref.addValueEventListener(l);
+    }
+
+    private void publishStatus() {
+        if (reported.size() < BUCKETS.length) return;
+
+        EntrantStatus status = null;
+        for (EntrantStatus bucket : BUCKETS) {
+            if (present.contains(bucket)) {
+                status = bucket;
+                break;
+            }
+        }
+
+        if (statusDelivered && status == lastStatus) return;
+        statusDelivered = true;
+        lastStatus = status;
+        listener.onStatusChanged(status);
+    }
+}
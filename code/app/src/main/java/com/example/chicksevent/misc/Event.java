@@ -2,11 +2,16 @@ package com.example.chicksevent.misc;
 
 import android.util.Log;
 
+import com.example.chicksevent.util.AppConstants;
+import com.example.chicksevent.util.DateFormatter;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Exclude;
 import com.google.firebase.database.IgnoreExtraProperties;
 //import com.google.zxing.BarcodeFormat;
 //import com.journeyapps.barcodescanner.BarcodeEncoder;
 
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Domain model representing an event stored in Firebase Realtime Database.
@@ -26,6 +31,8 @@ import java.util.HashMap;
  *   eventDetails: string,
  *   eventStartDate: YYYY-MM-DD | null,
  *   eventEndDate: YYYY-MM-DD | null,
+ *   startEpochDay: number | null,   // sortable copies, see {@link EventDates}
+ *   endEpochDay: number | null,
  *   registrationStartDate: YYYY-MM-DD | null,
  *   registrationEndDate: YYYY-MM-DD | null,
  *   entrantLimit: number,
@@ -92,6 +99,14 @@ public class Event {
     /** Whether geolocation is required for entrants to join the waiting list. Defaults to false. */
     private boolean geolocationRequired;
 
+    /** Start and end dates as epoch days, parsed once on first use; {@code null} if unparseable. */
+    private Long startEpochDay;
+    private Long endEpochDay;
+    private boolean epochDaysParsed;
+
+    /** Normalized tag keys, parsed once on first use. */
+    private String[] tagKeys;
+
     /** Whether this event is currently on hold (hidden from browsing, no join/leave allowed). Defaults to false. */
     private boolean onHold;
 
@@ -165,6 +180,7 @@ public class Event {
         map.put("eventEndTime", getEventEndTime());
         map.put("eventStartDate", getEventStartDate());
         map.put("eventEndDate", getEventEndDate());
+        EventDates.putFields(map, getEventStartDate(), getEventEndDate());
         map.put("registrationStartDate", getRegistrationStartDate());
         map.put("registrationEndDate", getRegistrationEndDate());
         map.put("entrantLimit", getEntrantLimit());
@@ -173,14 +189,38 @@ public class Event {
         map.put("tag", getTag());
         map.put("geolocationRequired", isGeolocationRequired());
         map.put("onHold", isOnHold());
-        id = eventService.addEntry(map, id);
+        id = eventService.addEntry(map, id, tagIndexChanges(id, null));
 
         this.organizer = new Organizer(entrantId, id);
 
         return id;
     }
 
+    /**
+     * Overwrites an existing event, first reading its stored tag string so the
+     * {@link TagIndex} entries can be moved in the same update. If that read fails the event is
+     * still written, and entries for dropped tags are left behind.
+     *
+     * @param id the event id
+     * @return the event id
+     */
     public String editEvent(String id){
+        TagIndex.readStoredTags(eventService, id, (previousTag, error) -> {
+            if (error != null) Log.w("filtering", "Failed to read tags of " + id, error);
+            editEvent(id, previousTag);
+        });
+        return id;
+    }
+
+    /**
+     * Overwrites an existing event and moves its {@link TagIndex} entries from
+     * {@code previousTag} to the new tag string, all in one update.
+     *
+     * @param id the event id
+     * @param previousTag the tag string the event had before the edit
+     * @return the event id
+     */
+    public String editEvent(String id, String previousTag){
         Log.i("filtering", "creating event");
         HashMap<String, Object> map = new HashMap<>();
 
@@ -191,6 +231,7 @@ public class Event {
         map.put("eventEndTime", getEventEndTime());
         map.put("eventStartDate", getEventStartDate());
         map.put("eventEndDate", getEventEndDate());
+        EventDates.putFields(map, getEventStartDate(), getEventEndDate());
         map.put("registrationStartDate", getRegistrationStartDate());
         map.put("registrationEndDate", getRegistrationEndDate());
         map.put("entrantLimit", getEntrantLimit());
@@ -199,13 +240,85 @@ public class Event {
         map.put("tag", getTag());
         map.put("geolocationRequired", isGeolocationRequired());
         map.put("onHold", isOnHold());
-        id = eventService.editEntry(id, map);
+        id = eventService.editEntry(id, map, tagIndexChanges(id, previousTag));
 
         this.organizer = new Organizer(entrantId, id);
 
         return id;
     }
 
+    /**
+     * @return the {@code Tags} index changes between {@code previousTag} and this event's tag,
+     *         as root-relative paths
+     */
+    private Map<String, Object> tagIndexChanges(String id, String previousTag) {
+        Map<String, Object> updates = new HashMap<>();
+        TagIndex.putChanges(updates, id, previousTag, getTag());
+        return updates;
+    }
+
+    /**
+     * Builds an {@code Event} from a child snapshot of the {@code Event} root.
+     * <p>
+     * {@code DataSnapshot.getValue(Event.class)} cannot map the stored {@code organizer} string
+     * onto the {@link Organizer} field, so events are always materialized from the raw map.
+     * </p>
+     *
+     * @param snapshot a snapshot of {@code /Event/{eventId}}
+     * @return the parsed event, or {@code null} if the snapshot does not hold a map
+     */
+    public static Event fromSnapshot(DataSnapshot snapshot) {
+        Object valueObj = snapshot.getValue();
+        if (!(valueObj instanceof Map)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> value = (Map<String, Object>) valueObj;
+        return fromMap(snapshot.getKey(), value);
+    }
+
+    /**
+     * Builds an {@code Event} from the raw field map stored under {@code /Event/{key}}.
+     * Missing fields fall back to the same defaults the list screens have always used.
+     *
+     * @param key   the Firebase key of the event, used when the map has no {@code id}
+     * @param value the raw field map
+     * @return the parsed event
+     */
+    public static Event fromMap(String key, Map<String, Object> value) {
+        String id = value.get("id") != null ? value.get("id").toString() : key;
+        String name = value.get("name") != null ? value.get("name").toString() : "";
+        String eventDetails = value.get("eventDetails") != null ? value.get("eventDetails").toString() : "";
+        String eventStartTime = value.get("eventStartTime") != null ? value.get("eventStartTime").toString() : "";
+        String eventEndTime = value.get("eventEndTime") != null ? value.get("eventEndTime").toString() : "";
+        String eventStartDate = value.get("eventStartDate") != null ? value.get("eventStartDate").toString() : null;
+        String eventEndDate = value.get("eventEndDate") != null ? value.get("eventEndDate").toString() : null;
+        String registrationStartDate = value.get("registrationStartDate") != null ? value.get("registrationStartDate").toString() : null;
+        String registrationEndDate = value.get("registrationEndDate") != null ? value.get("registrationEndDate").toString() : null;
+        int entrantLimit = value.get("entrantLimit") instanceof Number ? ((Number) value.get("entrantLimit")).intValue() : AppConstants.UNLIMITED_ENTRANTS;
+        String poster = value.get("poster") != null ? value.get("poster").toString() : null;
+        String tag = value.get("tag") != null ? value.get("tag").toString() : null;
+        boolean geoRequired = value.get("geolocationRequired") instanceof Boolean && (Boolean) value.get("geolocationRequired");
+
+        // Events written by createEvent() store the owner under "organizer"
+        Object owner = value.get("entrantId") != null ? value.get("entrantId") : value.get("organizer");
+        String entrantId = owner != null ? owner.toString() : "";
+
+        Event event = new Event(entrantId, id, name, eventDetails, eventStartTime, eventEndTime,
+                eventStartDate, eventEndDate, registrationStartDate, registrationEndDate,
+                entrantLimit, poster, tag, geoRequired);
+        event.setOnHold(value.get("onHold") instanceof Boolean && (Boolean) value.get("onHold"));
+
+        // Stored sortable copies (see EventDates) spare parsing the date strings
+        if (value.get(EventDates.START_FIELD) instanceof Number) {
+            event.startEpochDay = ((Number) value.get(EventDates.START_FIELD)).longValue();
+            event.endEpochDay = value.get(EventDates.END_FIELD) instanceof Number
+                    ? ((Number) value.get(EventDates.END_FIELD)).longValue() : null;
+            event.epochDaysParsed = true;
+        }
+        return event;
+    }
+
     // --- Getters and setters ---
 
     /** @return the Firebase id for this event. */
@@ -242,13 +355,33 @@ public class Event {
     public String getEventStartDate() { return eventStartDate; }
 
     /** @param eventStartDate sets the event start date (YYYY-MM-DD). */
-    public void setEventStartDate(String eventStartDate) { this.eventStartDate = eventStartDate; }
+    public void setEventStartDate(String eventStartDate) {
+        this.eventStartDate = eventStartDate;
+        epochDaysParsed = false;
+    }
 
     /** @return the event end date in YYYY-MM-DD or {@code null}. */
     public String getEventEndDate() { return eventEndDate; }
 
     /** @param eventEndDate sets the event end date (YYYY-MM-DD). */
-    public void setEventEndDate(String eventEndDate) { this.eventEndDate = eventEndDate; }
+    public void setEventEndDate(String eventEndDate) {
+        this.eventEndDate = eventEndDate;
+        epochDaysParsed = false;
+    }
+
+    /** @return the start date as days since 1970-01-01, or {@code null} if it cannot be parsed. */
+    @Exclude
+    public Long getStartEpochDay() {
+        parseEpochDays();
+        return startEpochDay;
+    }
+
+    /** @return the end date as days since 1970-01-01, or {@code null} if it cannot be parsed. */
+    @Exclude
+    public Long getEndEpochDay() {
+        parseEpochDays();
+        return endEpochDay;
+    }
 
     /** @return the registration open date in YYYY-MM-DD or {@code null}. */
     public String getRegistrationStartDate() { return registrationStartDate; }
@@ -284,7 +417,16 @@ public class Event {
     public String getTag() { return tag; }
 
     /** @param tag sets the space-separated tag string. */
-    public void setTag(String tag) { this.tag = tag; }
+    public void setTag(String tag) {
+        this.tag = tag;
+        tagKeys = null;
+    }
+
+    /** @return the tag keys as normalized by {@link TagIndex#parse(String)}; do not modify. */
+    String[] tagKeys() {
+        if (tagKeys == null) tagKeys = TagIndex.parse(tag).toArray(new String[0]);
+        return tagKeys;
+    }
 
     /** @return whether geolocation is required for entrants to join. */
     public boolean isGeolocationRequired() { return geolocationRequired; }
@@ -298,6 +440,13 @@ public class Event {
     /** @param onHold sets whether this event is on hold. */
     public void setOnHold(boolean onHold) { this.onHold = onHold; }
 
+    private void parseEpochDays() {
+        if (epochDaysParsed) return;
+        startEpochDay = DateFormatter.toEpochDay(eventStartDate);
+        endEpochDay = DateFormatter.toEpochDay(eventEndDate);
+        epochDaysParsed = true;
+    }
+
     // Generate QR for chicks://event/{eventId}
     //try {
     // String deepLink = "chicks://event/" + eventId;
@@ -0,0 +1,191 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.example.chicksevent.util.DateFormatter;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Sortable copies of event dates and the range queries they allow.
+ * <p>
+ * Event dates are stored as {@code "MM-dd-yyyy"} strings, which do not sort chronologically,
+ * so availability windows used to be applied only after downloading the whole catalogue. Each
+ * event therefore also stores its dates as epoch-day integers ({@link #START_FIELD},
+ * {@link #END_FIELD}), written by {@link Event#createEvent()} and {@link Event#editEvent(String)}.
+ * {@link #startingBetween(long, long)} then asks the server for
+ * {@code orderByChild("startEpochDay").startAt(from).endAt(to)}, so a "This Weekend" filter only
+ * downloads that weekend's events.
+ * </p>
+ *
+ * <p><b>Database rules:</b> the {@code Event} root should declare
+ * {@code ".indexOn": ["startEpochDay"]}; without it the server still answers the query, but
+ * by scanning the catalogue.</p>
+ *
+ * <p><b>Migration:</b> events created before these fields existed are backfilled once. The
+ * first range query on a device checks {@code Migrations/epochDays} and, if it is missing, calls
+ * {@link #backfill()}, which writes the fields for every event that lacks them in one update.
+ * Queries issued while the check or the backfill is running wait for it, and a failed marker
+ * read fails them rather than backfilling.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventDates {
+
+    private static final String TAG = EventDates.class.getSimpleName();
+
+    /** Event field holding the start date as days since 1970-01-01. */
+    public static final String START_FIELD = "startEpochDay";
+
+    /** Event field holding the end date as days since 1970-01-01. */
+    public static final String END_FIELD = "endEpochDay";
+
+    /** Root-relative marker written once every existing event has been backfilled. */
+    static final String MIGRATION_MARKER = "Migrations/epochDays";
+
+    /** Lazily created shared instance. */
+    private static EventDates instance;
+
+    /** Firebase service for the "Event" root. */
+    private final FirebaseService eventService;
+
+    /** Runs {@link #backfill(Consumer)} once if the marker is missing. */
+    private final MigrationGate gate;
+
+    /**
+     * Returns the shared instance bound to the default {@code Event} root.
+     *
+     * @return the process-wide instance
+     */
+    public static synchronized EventDates getInstance() {
+        if (instance == null) {
+            instance = new EventDates(new FirebaseService("Event"));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an instance over the given service.
+     *
+     * @param eventService service scoped to the {@code Event} root
+     */
+    public EventDates(FirebaseService eventService) {
+        this.eventService = eventService;
+        this.gate = new MigrationGate(eventService, MIGRATION_MARKER, this::backfill);
+    }
+
+    /**
+     * Adds the epoch-day fields for the given dates to an event's field map. Dates that cannot
+     * be parsed map to {@code null}, which removes the field on update.
+     *
+     * @param fields the event's field map being written
+     * @param startDate start date in {@code MM-dd-yyyy}
+     * @param endDate end date in {@code MM-dd-yyyy}
+     */
+    public static void putFields(Map<String, Object> fields, String startDate, String endDate) {
+        fields.put(START_FIELD, DateFormatter.toEpochDay(startDate));
+        fields.put(END_FIELD, DateFormatter.toEpochDay(endDate));
+    }
+
+    /**
+     * Reads the events whose start date falls within {@code [fromDay, toDay]}, backfilling the
+     * catalogue first if this has not been done yet.
+     *
+     * @param fromDay first epoch day, inclusive
+     * @param toDay last epoch day, inclusive
+     * @return a task resolving to the matching events, in start-date order
+     */
+    public Task<List<Event>> startingBetween(long fromDay, long toDay) {
+        TaskCompletionSource<List<Event>> tcs = new TaskCompletionSource<>();
+        gate.whenOpen(error -> {
+            if (error != null) {
+                tcs.setException(error);
+                return;
+            }
+            eventService.getReference()
+                    .orderByChild(START_FIELD)
+                    .startAt(fromDay)
+                    .endAt(toDay)
+                    .get()
+                    .addOnCompleteListener(task -> {
+                        if (!task.isSuccessful() || task.getResult() == null) {
+                            Log.e(TAG, "Failed to query events by date", task.getException());
+                            tcs.setException(task.getException() != null
+                                    ? task.getException() : new Exception("Date query failed"));
+                            return;
+                        }
+                        List<Event> events = new ArrayList<>();
+                        for (DataSnapshot child : task.getResult().getChildren()) {
+                            Event event = Event.fromSnapshot(child);
+                            if (event != null) events.add(event);
+                        }
+                        tcs.setResult(events);
+                    });
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Writes the epoch-day fields for every event that lacks them and marks the migration done.
+     *
+     * @return a task that completes once the fields have been written
+     */
+    public Task<Void> backfill() {
+        TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+        backfill(error -> {
+            if (error != null) {
+                tcs.setException(error);
+            } else {
+                tcs.setResult(null);
+            }
+        });
+        return tcs.getTask();
+    }
+
+    private void backfill(Consumer<Exception> done) {
+        eventService.getReference().get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read events for backfill", task.getException());
+                done.accept(task.getException() != null
+                        ? task.getException() : new Exception("Event read failed"));
+                return;
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot event : task.getResult().getChildren()) {
+                if (event.hasChild(START_FIELD)) continue;
+
+                Map<String, Object> fields = new HashMap<>();
+                putFields(fields, stringOf(event.child("eventStartDate")), stringOf(event.child("eventEndDate")));
+                for (Map.Entry<String, Object> f : fields.entrySet()) {
+                    if (f.getValue() != null) {
+                        updates.put("Event/" + event.getKey() + "/" + f.getKey(), f.getValue());
+                    }
+                }
+            }
+            updates.put(MIGRATION_MARKER, true);
+
+            Log.i(TAG, "Backfilling event dates (" + (updates.size() - 1) + " fields)");
+            eventService.updateMultiPath(updates).addOnCompleteListener(write -> {
+                if (write.isSuccessful()) {
+                    done.accept(null);
+                } else {
+                    done.accept(write.getException() != null
+                            ? write.getException() : new Exception("Date backfill failed"));
+                }
+            });
+        });
+    }
+
+    private static String stringOf(DataSnapshot snapshot) {
+        Object value = snapshot.getValue();
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.chicksevent.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An interest/availability query compiled once and applied to many events.
+ * <p>
+ * Filtering used to re-create a date formatter, re-parse both dates, split the tag string and
+ * scan the filter list with {@code ArrayList.contains} for every event. A filter instead
+ * normalizes its terms into a {@link HashSet} and fixes its window as epoch-day bounds up
+ * front; events parse their dates and tags once and cache them
+ * ({@link Event#getStartEpochDay()}, {@link Event#getEndEpochDay()}), so
+ * {@link #matchingIds(Collection)} is a single pass that allocates nothing per event.
+ * </p>
+ *
+ * <p><b>Semantics.</b> The original screen compared raw strings; this filter differs from it
+ * where noted:</p>
+ * <ul>
+ *   <li>Each interest term matches an event carrying it as a tag, or named like it. With no
+ *       terms, every event matches.</li>
+ *   <li>Tags are compared as {@link TagIndex} keys (trimmed, lower-cased), so the list and the
+ *       index agree: "Sports" finds a "sports" tag and "music" finds it in "art, music". The
+ *       original matched comma-split tokens exactly, case and spaces included.</li>
+ *   <li>Names must equal a term exactly, as in the original, so a server-side equality query
+ *       finds the same events (see {@link User#filterEvents}).</li>
+ *   <li>With a window, the event must start inside it and must not end after it. An event
+ *       whose start date is missing or unreadable is excluded; the original excluded an
+ *       unreadable start date but let a missing one through. A missing or unreadable end date
+ *       does not exclude the event; the original excluded an unreadable one.</li>
+ * </ul>
+ *
+ * <p>Instances are immutable and may be shared between threads.</p>
+ *
+ * @author Jordan Kwan
+ */
+public final class EventFilter {
+
+    /** Tag keys the event must carry one of, normalized like {@link TagIndex}. */
+    private final Set<String> tagKeys = new HashSet<>();
+
+    /** Trimmed interest terms compared against the event name. */
+    private final String[] nameTerms;
+
+    /** Whether any interest term was given. */
+    private final boolean hasTerms;
+
+    /** Inclusive window bounds in epoch days; only meaningful when {@link #hasWindow}. */
+    private final long fromDay;
+    private final long toDay;
+    private final boolean hasWindow;
+
+    /**
+     * Compiles a filter.
+     *
+     * @param terms interest terms as typed; {@code null} or empty for no interest filter
+     * @param fromDay first epoch day of the window, inclusive; {@code null} for no window
+     * @param toDay last epoch day of the window, inclusive; {@code null} for no window
+     */
+    public EventFilter(Collection<String> terms, Long fromDay, Long toDay) {
+        ArrayList<String> names = new ArrayList<>();
+        if (terms != null) {
+            for (String term : terms) {
+                if (term == null || term.trim().isEmpty()) continue;
+                names.add(term.trim());
+                String key = TagIndex.normalize(term);
+                if (key != null) tagKeys.add(key);
+            }
+        }
+        this.nameTerms = names.toArray(new String[0]);
+        this.hasTerms = nameTerms.length > 0;
+
+        this.hasWindow = fromDay != null && toDay != null;
+        this.fromDay = hasWindow ? fromDay : Long.MIN_VALUE;
+        this.toDay = hasWindow ? toDay : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return whether the filter has interest terms
+     */
+    public boolean hasTerms() {
+        return hasTerms;
+    }
+
+    /**
+     * @return the trimmed interest terms an event name must equal to match
+     */
+    public List<String> nameTerms() {
+        return Collections.unmodifiableList(Arrays.asList(nameTerms));
+    }
+
+    /**
+     * @return whether the filter has an availability window
+     */
+    public boolean hasWindow() {
+        return hasWindow;
+    }
+
+    /**
+     * @param event the event to test
+     * @return whether the event passes the filter
+     */
+    public boolean matches(Event event) {
+        if (hasWindow) {
+            Long start = event.getStartEpochDay();
+            if (start == null || start < fromDay || start > toDay) return false;
+            Long end = event.getEndEpochDay();
+            if (end != null && end > toDay) return false;
+        }
+        if (!hasTerms) return true;
+
+        for (String key : event.tagKeys()) {
+            if (tagKeys.contains(key)) return true;
+        }
+        String name = event.getName();
+        if (name != null) {
+            for (String term : nameTerms) {
+                if (term.equals(name)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the filter to a batch of events in one pass.
+     *
+     * @param events the events to test
+     * @return the ids of the matching events, in input order
+     */
+    public ArrayList<String> matchingIds(Collection<Event> events) {
+        ArrayList<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            if (matches(event)) ids.add(event.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Resolves single events by id with keyed {@code Event/{id}} reads.
+ * <p>
+ * Detail, QR and notification screens used to download the whole {@code Event} root and scan it
+ * for one key. The lookup instead:
+ * </p>
+ * <ol>
+ *   <li>answers from the shared {@link EventRepository} when the catalogue is already synced;</li>
+ *   <li>answers from its own bounded cache of previously fetched events;</li>
+ *   <li>joins an in-flight read when another caller is already fetching the same id;</li>
+ *   <li>otherwise issues exactly one {@code child(id).get()}.</li>
+ * </ol>
+ *
+ * <p>{@link #getAll(Collection)} resolves a batch of ids the same way, skipping the ones that no
+ * longer exist, for callers that hold ids from an index such as {@link TagIndex}.</p>
+ *
+ * <p>Cached entries are refreshed or dropped when the repository reports a change, and can be
+ * evicted explicitly with {@link #invalidate(String)} after a local edit. Edits made elsewhere
+ * while the repository is not synced are not seen by the cache, so a caller that gates an
+ * action on the event's current state (such as {@code onHold}) uses {@link #getFresh(String)},
+ * which skips step 2. Caches built on top of the lookup, such as {@link EventSummaryResolver},
+ * follow the same invalidation through an {@link InvalidationListener}.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventLookup {
+
+    private static final String TAG = EventLookup.class.getSimpleName();
+
+    /** Maximum number of events kept in the cache. */
+    private static final int MAX_CACHED = 256;
+
+    /** Lazily created shared instance. */
+    private static EventLookup instance;
+
+    /**
+     * Receives the ids of events whose cached copy is dropped or replaced.
+     */
+    public interface InvalidationListener {
+        /** Called when the repository reports a change, on {@link #invalidate}, or on a re-read. */
+        void onInvalidated(String eventId);
+    }
+
+    /** Firebase service for the "Event" root. */
+    private final FirebaseService eventService;
+
+    /** Shared catalogue, consulted before any network read. */
+    private final EventRepository repository;
+
+    /** Previously fetched events, least recently used first. */
+    private final Map<String, Event> cache = new LinkedHashMap<String, Event>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Event> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /** Reads currently on the wire, keyed by event id. */
+    private final Map<String, Task<Event>> inFlight = new HashMap<>();
+
+    private final List<InvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the shared lookup bound to the default {@code Event} root and repository.
+     *
+     * @return the process-wide lookup
+     */
+    public static synchronized EventLookup getInstance() {
+        if (instance == null) {
+            instance = new EventLookup(new FirebaseService("Event"), EventRepository.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a lookup over the given service and repository. Production code should use
+     * {@link #getInstance()}.
+     *
+     * @param eventService service scoped to the {@code Event} root
+     * @param repository the shared catalogue
+     */
+    public EventLookup(FirebaseService eventService, EventRepository repository) {
+        this.eventService = eventService;
+        this.repository = repository;
+        repository.addListener(new EventRepository.Listener() {
+            @Override
+            public void onEventUpserted(Event event) {
+                if (cache.containsKey(event.getId())) cache.put(event.getId(), event);
+                notifyInvalidated(event.getId());
+            }
+
+            @Override
+            public void onEventRemoved(String eventId) {
+                cache.remove(eventId);
+                notifyInvalidated(eventId);
+            }
+        });
+    }
+
+    /**
+     * Registers a listener for invalidated events.
+     *
+     * @param listener the listener to add
+     */
+    public void addInvalidationListener(InvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeInvalidationListener(InvalidationListener listener) {
+        invalidationListeners.remove(listener);
+    }
+
+    /**
+     * Resolves one event.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the event, or to {@code null} if no such event exists
+     */
+    public Task<Event> get(String eventId) {
+        if (eventId == null) {
+            return Tasks.forResult(null);
+        }
+
+        Event known = peek(eventId);
+        if (known != null) {
+            return Tasks.forResult(known);
+        }
+        return fetch(eventId);
+    }
+
+    /**
+     * Resolves one event without answering from the lookup's own cache: the synced repository
+     * is still consulted, otherwise the event is read (or an in-flight read joined), refreshing
+     * the cache.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the current event, or to {@code null} if no such event exists
+     */
+    public Task<Event> getFresh(String eventId) {
+        if (eventId == null) {
+            return Tasks.forResult(null);
+        }
+
+        Event known = repository.peek(eventId);
+        if (known != null) {
+            return Tasks.forResult(known);
+        }
+        return fetch(eventId);
+    }
+
+    /** Reads one event, joining the read already in flight for it if there is one. */
+    private Task<Event> fetch(String eventId) {
+        Task<Event> pending = inFlight.get(eventId);
+        if (pending != null) {
+            return pending;
+        }
+
+        TaskCompletionSource<Event> tcs = new TaskCompletionSource<>();
+        inFlight.put(eventId, tcs.getTask());
+
+        read(eventId, (event, error) -> {
+            inFlight.remove(eventId);
+            if (error != null) {
+                tcs.setException(error);
+            } else {
+                tcs.setResult(event);
+            }
+        });
+
+        return tcs.getTask();
+    }
+
+    /**
+     * Resolves several events at once, with one keyed read per event that is not already known.
+     *
+     * @param eventIds the event ids
+     * @return a task resolving to the events that exist, in the order of {@code eventIds}; it
+     *         fails if any read fails
+     */
+    public Task<List<Event>> getAll(Collection<String> eventIds) {
+        List<String> ids = new ArrayList<>(eventIds);
+        Event[] resolved = new Event[ids.size()];
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            resolved[i] = peek(ids.get(i));
+            if (resolved[i] == null) unknown.add(i);
+        }
+
+        TaskCompletionSource<List<Event>> tcs = new TaskCompletionSource<>();
+        if (unknown.isEmpty()) {
+            tcs.setResult(present(resolved));
+            return tcs.getTask();
+        }
+
+        int[] pending = { unknown.size() };
+        for (int index : unknown) {
+            read(ids.get(index), (event, error) -> {
+                if (tcs.getTask().isComplete()) return;
+                if (error != null) {
+                    tcs.setException(error);
+                    return;
+                }
+                resolved[index] = event;
+                if (--pending[0] == 0) tcs.setResult(present(resolved));
+            });
+        }
+        return tcs.getTask();
+    }
+
+    /**
+     * Reads one event, caching it if it exists and dropping it if not. {@code done} receives the event ({@code null}
+     * if missing) or the error.
+     */
+    private void read(String eventId, BiConsumer<Event, Exception> done) {
+        eventService.getReference().child(eventId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Exception e = task.getException() != null
+                        ? task.getException() : new Exception("Event read cancelled: " + eventId);
+                Log.e(TAG, "Failed to read event " + eventId, e);
+                done.accept(null, e);
+                return;
+            }
+
+            Event event = task.getResult() == null ? null : Event.fromSnapshot(task.getResult());
+            Event previous = event != null ? cache.put(eventId, event) : cache.remove(eventId);
+            if (previous != null) notifyInvalidated(eventId);
+            done.accept(event, null);
+        });
+    }
+
+    /** @return the non-null events, in order */
+    private static List<Event> present(Event[] events) {
+        List<Event> list = new ArrayList<>();
+        for (Event event : events) {
+            if (event != null) list.add(event);
+        }
+        return list;
+    }
+
+    /**
+     * Looks up an event without touching the network.
+     *
+     * @param eventId the event id
+     * @return the known event, or {@code null}
+     */
+    public Event peek(String eventId) {
+        Event known = repository.peek(eventId);
+        return known != null ? known : cache.get(eventId);
+    }
+
+    /**
+     * Drops a cached event so the next {@link #get(String)} reads it again.
+     *
+     * @param eventId the event id
+     */
+    public void invalidate(String eventId) {
+        cache.remove(eventId);
+        notifyInvalidated(eventId);
+    }
+
+    private void notifyInvalidated(String eventId) {
+        for (InvalidationListener l : invalidationListeners) l.onInvalidated(eventId);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Keyset-paginated, bounded window over the {@code Event} root.
+ * <p>
+ * The event feed used to load the whole catalogue before drawing its first row. The pager instead
+ * reads one page at a time with {@code orderByKey().startAfter(lastKey).limitToFirst(pageSize)}
+ * (and {@code endBefore(firstKey).limitToLast(pageSize)} when scrolling back up), so the first
+ * screen costs one page regardless of catalogue size.
+ * </p>
+ *
+ * <p><b>Memory:</b> at most {@code maxPages} pages are kept. Loading a page at one end drops the
+ * page at the other, so roughly one screen plus a prefetch page on either side stays resident.
+ * Each load resolves to the number of positions the existing rows moved by (positive when rows
+ * were inserted above them, negative when rows above were dropped), which the list uses to keep
+ * its scroll position steady.</p>
+ *
+ * <p>Push keys sort by creation time, so key order is also "oldest first".</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventPager {
+
+    private static final String TAG = EventPager.class.getSimpleName();
+
+    /** Events requested per page; comfortably more than one screen of rows. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Pages kept resident: the visible one plus one prefetched on either side. */
+    public static final int DEFAULT_MAX_PAGES = 3;
+
+    /**
+     * One page as read from Firebase. Keys are those of the raw page, including events the filter
+     * rejected, so the next query continues exactly where this one stopped.
+     */
+    private static final class Page {
+        final List<Event> events;
+        final String firstKey;
+        final String lastKey;
+
+        Page(List<Event> events, String firstKey, String lastKey) {
+            this.events = events;
+            this.firstKey = firstKey;
+            this.lastKey = lastKey;
+        }
+    }
+
+    /** Firebase service for the "Event" root. */
+    private final FirebaseService eventService;
+    private final int pageSize;
+    private final int maxPages;
+    private final Predicate<Event> filter;
+
+    /** Resident pages, in key order. */
+    private final Deque<Page> pages = new ArrayDeque<>();
+
+    /** Whether the first resident page starts at the first key of the catalogue. */
+    private boolean atStart = true;
+
+    /** Whether the last resident page ends at the last key of the catalogue. */
+    private boolean atEnd = false;
+
+    /** The load currently on the wire, if any. */
+    private Task<Integer> inFlight;
+
+    /**
+     * Creates a pager over the default {@code Event} root with the default sizes.
+     *
+     * @param filter events to show; others are skipped but still advance the cursor
+     */
+    public EventPager(Predicate<Event> filter) {
+        this(new FirebaseService("Event"), DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, filter);
+    }
+
+    /**
+     * Creates a pager over the given service.
+     *
+     * @param eventService service scoped to the {@code Event} root
+     * @param pageSize events per query
+     * @param maxPages pages kept resident (at least 2)
+     * @param filter events to show; others are skipped but still advance the cursor
+     */
+    public EventPager(FirebaseService eventService, int pageSize, int maxPages, Predicate<Event> filter) {
+        this.eventService = eventService;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+        this.filter = filter;
+    }
+
+    /**
+     * Loads the page after the current window (the first page when empty).
+     *
+     * @return a task resolving to how far existing rows moved ({@code <= 0})
+     */
+    public Task<Integer> loadNext() {
+        if (inFlight != null) return inFlight;
+        if (atEnd) return Tasks.forResult(0);
+
+        Query query = eventService.getReference().orderByKey();
+        if (!pages.isEmpty()) query = query.startAfter(pages.peekLast().lastKey);
+        return load(query.limitToFirst(pageSize), false);
+    }
+
+    /**
+     * Loads the page before the current window, after earlier pages were dropped.
+     *
+     * @return a task resolving to how far existing rows moved ({@code >= 0})
+     */
+    public Task<Integer> loadPrevious() {
+        if (inFlight != null) return inFlight;
+        if (atStart || pages.isEmpty()) return Tasks.forResult(0);
+
+        Query query = eventService.getReference().orderByKey()
+                .endBefore(pages.peekFirst().firstKey).limitToLast(pageSize);
+        return load(query, true);
+    }
+
+    /**
+     * @return the resident events, in key order
+     */
+    public List<Event> getWindow() {
+        List<Event> window = new ArrayList<>();
+        for (Page p : pages) window.addAll(p.events);
+        return window;
+    }
+
+    /**
+     * @return whether a page is currently being fetched
+     */
+    public boolean isLoading() {
+        return inFlight != null;
+    }
+
+    /**
+     * @return whether earlier pages were dropped and can be reloaded
+     */
+    public boolean hasPrevious() {
+        return !atStart;
+    }
+
+    /**
+     * @return whether more pages may follow the window
+     */
+    public boolean hasNext() {
+        return !atEnd;
+    }
+
+    /**
+     * Drops every resident page; the next {@link #loadNext()} starts from the first key again.
+     */
+    public void reset() {
+        pages.clear();
+        atStart = true;
+        atEnd = false;
+        inFlight = null;
+    }
+
+    private Task<Integer> load(Query query, boolean before) {
+        TaskCompletionSource<Integer> tcs = new TaskCompletionSource<>();
+        inFlight = tcs.getTask();
+
+        query.get().addOnCompleteListener(task -> {
+            if (inFlight != tcs.getTask()) return; // reset() while loading
+            inFlight = null;
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to load event page", task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Event page read failed"));
+                return;
+            }
+            tcs.setResult(accept(task.getResult(), before));
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Adds a fetched page at the requested end and trims the other end.
+     *
+     * @return the shift of existing rows
+     */
+    private int accept(DataSnapshot snapshot, boolean before) {
+        List<Event> events = new ArrayList<>();
+        String firstKey = null;
+        String lastKey = null;
+        int raw = 0;
+        for (DataSnapshot child : snapshot.getChildren()) {
+            raw++;
+            if (firstKey == null) firstKey = child.getKey();
+            lastKey = child.getKey();
+            Event event = Event.fromSnapshot(child);
+            if (event != null && (filter == null || filter.test(event))) events.add(event);
+        }
+
+        boolean exhausted = raw < pageSize;
+        if (before) {
+            atStart = exhausted;
+        } else {
+            atEnd = exhausted;
+        }
+        if (raw == 0) return 0;
+
+        Page page = new Page(events, firstKey, lastKey);
+        int shift = 0;
+        if (before) {
+            pages.addFirst(page);
+            shift += events.size();
+            if (pages.size() > maxPages) {
+                pages.removeLast();
+                atEnd = false;
+            }
+        } else {
+            pages.addLast(page);
+            if (pages.size() > maxPages) {
+                shift -= pages.removeFirst().events.size();
+                atStart = false;
+            }
+        }
+        return shift;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide, in-memory view of the {@code Event} root.
+ * <p>
+ * Screens that list events used to issue their own one-shot read of the whole catalogue every
+ * time they were opened. The repository instead attaches a single {@link ChildEventListener}
+ * the first time events are requested and keeps the parsed {@link Event} objects in a map.
+ * After the initial sync Firebase only delivers the events that actually change, so moving
+ * between the event list, search, hosted events and the admin browser costs no further
+ * downloads.
+ * </p>
+ *
+ * <p><b>Initial load:</b> a single-value listener is attached right after the child listener.
+ * Firebase raises it once every initial {@code onChildAdded} has been delivered and serves it
+ * from the already-synced local tree, so it marks "catalogue ready" without a second download.</p>
+ *
+ * <p><b>Threading:</b> Firebase invokes all callbacks on the main thread; the repository is not
+ * meant to be touched from background threads.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventRepository {
+
+    private static final String TAG = EventRepository.class.getSimpleName();
+
+    /** Lazily created shared instance. */
+    private static EventRepository instance;
+
+    /**
+     * Receives incremental catalogue changes after the initial load.
+     */
+    public interface Listener {
+        /** Called when an event is added or one of its fields changes. */
+        void onEventUpserted(Event event);
+
+        /** Called when an event is removed from the catalogue. */
+        void onEventRemoved(String eventId);
+    }
+
+    /** Firebase service for the "Event" root. */
+    private final FirebaseService eventService;
+
+    /** Parsed events keyed by event id, in the order Firebase delivered them (key order). */
+    private final Map<String, Event> events = new LinkedHashMap<>();
+
+    /** Callers waiting for the initial load to finish. */
+    private final List<TaskCompletionSource<List<Event>>> pendingLoads = new ArrayList<>();
+
+    /** Subscribers to incremental changes. */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /** The live subscription, or {@code null} when not attached. */
+    private ChildEventListener childListener;
+
+    /** Whether the initial snapshot has been fully delivered. */
+    private boolean loaded = false;
+
+    /**
+     * Returns the shared repository bound to the default {@code Event} root.
+     *
+     * @return the process-wide repository
+     */
+    public static synchronized EventRepository getInstance() {
+        if (instance == null) {
+            instance = new EventRepository(new FirebaseService("Event"));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a repository over the given service. Production code should use
+     * {@link #getInstance()}.
+     *
+     * @param eventService service scoped to the {@code Event} root
+     */
+    public EventRepository(FirebaseService eventService) {
+        this.eventService = eventService;
+    }
+
+    /**
+     * Returns every event in the catalogue, attaching the subscription on first use.
+     * <p>
+     * Once the initial sync has completed the returned task is already complete and no
+     * network traffic is generated.
+     * </p>
+     *
+     * @return a task resolving to a snapshot copy of the cached events
+     */
+    public Task<List<Event>> getEvents() {
+        TaskCompletionSource<List<Event>> tcs = new TaskCompletionSource<>();
+        if (loaded) {
+            tcs.setResult(getCachedEvents());
+        } else {
+            pendingLoads.add(tcs);
+            start();
+        }
+        return tcs.getTask();
+    }
+
+    /**
+     * @return a copy of the events currently held in memory (possibly empty before the first load)
+     */
+    public List<Event> getCachedEvents() {
+        return new ArrayList<>(events.values());
+    }
+
+    /**
+     * Looks up a single cached event without touching the network.
+     *
+     * @param eventId the event id
+     * @return the cached event, or {@code null} if it is unknown or the catalogue is not loaded
+     */
+    public Event peek(String eventId) {
+        return eventId == null ? null : events.get(eventId);
+    }
+
+    /**
+     * @return whether the initial catalogue sync has completed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Registers a listener for incremental changes.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Attaches the live subscription if it is not already active.
+     */
+    private void start() {
+        if (childListener != null) {
+            return;
+        }
+
+        childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String key = snapshot.getKey();
+                if (events.remove(key) != null) {
+                    for (Listener l : listeners) l.onEventRemoved(key);
+                }
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // Ordering is by key; nothing to do.
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Event subscription cancelled: " + error.getMessage());
+                fail(error);
+            }
+        };
+        eventService.getReference().addChildEventListener(childListener);
+
+        eventService.getReference().addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                loaded = true;
+                Log.d(TAG, "Event catalogue ready: " + events.size() + " events");
+                List<TaskCompletionSource<List<Event>>> waiting = new ArrayList<>(pendingLoads);
+                pendingLoads.clear();
+                for (TaskCompletionSource<List<Event>> tcs : waiting) {
+                    tcs.trySetResult(getCachedEvents());
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Initial event load failed: " + error.getMessage());
+                fail(error);
+            }
+        });
+    }
+
+    /**
+     * Detaches the live subscription and clears the cache. The next call to
+     * {@link #getEvents()} re-subscribes.
+     */
+    public void stop() {
+        if (childListener != null) {
+            eventService.getReference().removeEventListener(childListener);
+            childListener = null;
+        }
+        events.clear();
+        loaded = false;
+    }
+
+    private void upsert(DataSnapshot snapshot) {
+        Event event = Event.fromSnapshot(snapshot);
+        if (event == null) {
+            Log.w(TAG, "Skipping malformed event: " + snapshot.getKey());
+            return;
+        }
+        events.put(snapshot.getKey(), event);
+        for (Listener l : listeners) l.onEventUpserted(event);
+    }
+
+    private void fail(DatabaseError error) {
+        stop();
+        List<TaskCompletionSource<List<Event>>> waiting = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        for (TaskCompletionSource<List<Event>> tcs : waiting) {
+            tcs.trySetException(error.toException());
+        }
+    }
+}
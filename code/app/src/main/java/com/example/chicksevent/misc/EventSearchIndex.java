@@ -0,0 +1,351 @@
+package com.example.chicksevent.misc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory full-text index over event names, details and tags.
+ * <p>
+ * The search screen used to match a typed name with {@code contains} over every loaded event.
+ * This index instead keeps a sorted map from token to the events containing it, so a query
+ * term is resolved by a prefix range lookup ({@code "mus"} finds "music" and "museum") and only
+ * touches the events that actually match.
+ * </p>
+ *
+ * <p><b>Maintenance:</b> the shared instance listens to {@link EventRepository}, which streams
+ * the {@code Event} root child by child. Every added or changed event replaces its own postings
+ * and a removed event drops them; the index is never rebuilt as a whole.</p>
+ *
+ * <p><b>Matching and ranking:</b> text is lower-cased and split on anything that is not a letter
+ * or digit. Every query term must prefix-match some token of an event. An event scores, per term,
+ * the weight of the best field it matched in (name over tag over details), doubled when the
+ * token equals the term exactly. Results are ordered by score, then by name.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventSearchIndex {
+
+    /** Field weights; a token found in several fields keeps the highest. */
+    static final int NAME_WEIGHT = 4;
+    static final int TAG_WEIGHT = 2;
+    static final int DETAILS_WEIGHT = 1;
+
+    /** The events containing one token, as parallel arrays of doc slots and field weights. */
+    private static final class Posting {
+        int[] slots = new int[4];
+        byte[] weights = new byte[4];
+        int size;
+
+        void add(int slot, int weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = (byte) weight;
+            size++;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Lazily created shared instance. */
+    private static EventSearchIndex instance;
+
+    /** Token to the events containing it. */
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+
+    /** Doc slot of every indexed event id. Slots of removed events are reused. */
+    private final Map<String, Integer> slotOf = new HashMap<>();
+
+    /** Slots freed by removals. */
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+
+    /** Per-slot event id, lower-cased name (for tie-breaking) and tokens (for removal). */
+    private String[] ids = new String[16];
+    private String[] names = new String[16];
+    private String[][] tokensOf = new String[16][];
+
+    /** Number of slots ever handed out. */
+    private int slotCount;
+
+    /** Per-slot query scratch; a slot takes part in the current query iff its stamp matches. */
+    private int[] stamp = new int[16];
+    private int[] termIndex = new int[16];
+    private int[] termBest = new int[16];
+    private int[] total = new int[16];
+    private int generation;
+
+    /**
+     * Returns the shared index fed by the shared {@link EventRepository}.
+     *
+     * @return the process-wide index
+     */
+    public static synchronized EventSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new EventSearchIndex(EventRepository.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an empty, unattached index.
+     */
+    public EventSearchIndex() {
+    }
+
+    /**
+     * Creates an index that follows the given repository. Events it already holds are indexed
+     * immediately; later additions, changes and removals are applied as they are reported.
+     *
+     * @param repository the shared catalogue
+     */
+    public EventSearchIndex(EventRepository repository) {
+        for (Event event : repository.getCachedEvents()) put(event);
+        repository.addListener(new EventRepository.Listener() {
+            @Override
+            public void onEventUpserted(Event event) {
+                put(event);
+            }
+
+            @Override
+            public void onEventRemoved(String eventId) {
+                remove(eventId);
+            }
+        });
+    }
+
+    /**
+     * Splits text into lower-case tokens of letters and digits.
+     *
+     * @param text the text to split; may be {@code null}
+     * @return the tokens, in order, with duplicates
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Indexes an event, replacing whatever was indexed for it before.
+     *
+     * @param event the event; ignored if it has no id
+     */
+    public void put(Event event) {
+        if (event == null) return;
+        put(event.getId(), event.getName(), event.getEventDetails(), event.getTag());
+    }
+
+    /**
+     * Indexes an event from its searchable fields, replacing whatever was indexed for it before.
+     *
+     * @param eventId the event id; ignored if {@code null}
+     * @param name the event name
+     * @param details the event description
+     * @param tag the event's tag string
+     */
+    public void put(String eventId, String name, String details, String tag) {
+        if (eventId == null) return;
+        remove(eventId);
+
+        Map<String, Integer> tokens = new HashMap<>();
+        addTokens(tokens, details, DETAILS_WEIGHT);
+        addTokens(tokens, tag, TAG_WEIGHT);
+        addTokens(tokens, name, NAME_WEIGHT);
+
+        int slot = allocateSlot();
+        slotOf.put(eventId, slot);
+        ids[slot] = eventId;
+        names[slot] = name != null ? name.toLowerCase(Locale.ROOT) : "";
+        tokensOf[slot] = tokens.keySet().toArray(new String[0]);
+
+        for (Map.Entry<String, Integer> t : tokens.entrySet()) {
+            Posting posting = postings.get(t.getKey());
+            if (posting == null) {
+                posting = new Posting();
+                postings.put(t.getKey(), posting);
+            }
+            posting.add(slot, t.getValue());
+        }
+    }
+
+    /**
+     * Drops an event from the index.
+     *
+     * @param eventId the event id
+     */
+    public void remove(String eventId) {
+        Integer slot = slotOf.remove(eventId);
+        if (slot == null) return;
+        for (String token : tokensOf[slot]) {
+            Posting posting = postings.get(token);
+            if (posting == null) continue;
+            posting.remove(slot);
+            if (posting.size == 0) postings.remove(token);
+        }
+        ids[slot] = null;
+        names[slot] = null;
+        tokensOf[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    /**
+     * @return the number of indexed events
+     */
+    public int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Returns every matching event id, best match first.
+     *
+     * @param query the text typed by the user
+     * @return the ranked ids; empty if the query has no tokens or nothing matches
+     */
+    public List<String> search(String query) {
+        return search(query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the best matching event ids.
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of ids to return
+     * @return at most {@code limit} ids, best match first
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        // Start from the most selective term so later terms only refine a small candidate set
+        List<Integer> sizes = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            int size = 0;
+            for (Posting p : range(term).values()) size += p.size;
+            if (size == 0) return Collections.emptyList();
+            sizes.add(size);
+        }
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(sizes.get(a), sizes.get(b)));
+
+        int gen = ++generation;
+        int[] candidates = new int[sizes.get(order[0])];
+        int candidateCount = 0;
+
+        for (int i = 0; i < order.length; i++) {
+            String term = terms.get(order[i]);
+            for (Map.Entry<String, Posting> entry : range(term).entrySet()) {
+                boolean exact = entry.getKey().length() == term.length();
+                Posting posting = entry.getValue();
+                for (int j = 0; j < posting.size; j++) {
+                    int slot = posting.slots[j];
+                    int score = exact ? posting.weights[j] * 2 : posting.weights[j];
+                    if (i == 0) {
+                        if (stamp[slot] != gen) {
+                            stamp[slot] = gen;
+                            termIndex[slot] = 0;
+                            termBest[slot] = 0;
+                            total[slot] = 0;
+                            candidates[candidateCount++] = slot;
+                        }
+                    } else if (stamp[slot] != gen) {
+                        continue;
+                    }
+
+                    if (termIndex[slot] == i) {
+                        if (score > termBest[slot]) termBest[slot] = score;
+                    } else if (termIndex[slot] == i - 1) {
+                        // First match for this term: bank the previous term's best
+                        total[slot] += termBest[slot];
+                        termBest[slot] = score;
+                        termIndex[slot] = i;
+                    }
+                }
+            }
+        }
+
+        // Keep the best matches up to the limit; the head of the heap is the weakest kept
+        int last = order.length - 1;
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, candidateCount) + 1,
+                (a, b) -> compare(b, a));
+        for (int c = 0; c < candidateCount; c++) {
+            int slot = candidates[c];
+            if (termIndex[slot] != last) continue;
+            total[slot] += termBest[slot];
+            termBest[slot] = 0;
+            if (best.size() == limit && compare(slot, best.peek()) >= 0) continue;
+            best.add(slot);
+            if (best.size() > limit) best.poll();
+        }
+
+        String[] ranked = new String[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) ranked[i] = ids[best.poll()];
+        return Arrays.asList(ranked);
+    }
+
+    /** @return postings whose token starts with {@code prefix} */
+    private SortedMap<String, Posting> range(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) return freeSlots.pop();
+        if (slotCount == ids.length) {
+            int capacity = slotCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            tokensOf = Arrays.copyOf(tokensOf, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+            termIndex = Arrays.copyOf(termIndex, capacity);
+            termBest = Arrays.copyOf(termBest, capacity);
+            total = Arrays.copyOf(total, capacity);
+        }
+        return slotCount++;
+    }
+
+    /** Orders slots of the current query best first: higher score, then name, then id. */
+    private int compare(int a, int b) {
+        if (total[a] != total[b]) return Integer.compare(total[b], total[a]);
+        int byName = names[a].compareTo(names[b]);
+        return byName != 0 ? byName : ids[a].compareTo(ids[b]);
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String text, int weight) {
+        for (String token : tokenize(text)) {
+            Integer current = tokens.get(token);
+            if (current == null || current < weight) tokens.put(token, weight);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.chicksevent.misc;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Compact on-disk copy of the top of the event feed, used to draw something on a cold start.
+ * <p>
+ * {@code EventFragment} saves the first rows it rendered; on the next launch it draws them
+ * straight from disk and then lets the live page replace them. Only the fields a feed row shows
+ * are kept (id, name, dates, times, tag), in a small versioned binary file, so loading it costs a
+ * few kilobytes of local I/O and no network.
+ * </p>
+ *
+ * <p>Writes happen on a background thread and go through a temporary file that is renamed into
+ * place, so a crash mid-write leaves the previous snapshot intact. A missing, corrupt or
+ * older-format file simply reads as empty.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventSnapshotStore {
+
+    private static final String TAG = EventSnapshotStore.class.getSimpleName();
+
+    /** File name under the app's private files directory. */
+    static final String FILE_NAME = "event_feed_snapshot.bin";
+
+    /** Format version; bump when the field list changes. */
+    private static final int VERSION = 1;
+
+    /** Rows kept: one screen and a little more. */
+    public static final int MAX_EVENTS = 20;
+
+    /** Event fields persisted for each row, in file order. */
+    private static final String[] FIELDS = {
+            "id", "name", "eventStartDate", "eventEndDate", "eventStartTime", "eventEndTime", "tag"
+    };
+
+    /** Lazily created shared instance. */
+    private static EventSnapshotStore instance;
+
+    private final File file;
+    private final Executor writer;
+
+    /**
+     * Returns the shared store in the app's private files directory.
+     *
+     * @param context any context
+     * @return the process-wide store
+     */
+    public static synchronized EventSnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new EventSnapshotStore(context.getApplicationContext().getFilesDir(),
+                    Executors.newSingleThreadExecutor());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a store in {@code directory}.
+     *
+     * @param directory where the snapshot file lives
+     * @param writer executor that performs writes
+     */
+    public EventSnapshotStore(File directory, Executor writer) {
+        this.file = new File(directory, FILE_NAME);
+        this.writer = writer;
+    }
+
+    /**
+     * Reads the last saved rows. Intended for the main thread: the file is a few kilobytes.
+     *
+     * @return the saved events, or an empty list
+     */
+    public List<Event> load() {
+        if (!file.exists()) return Collections.emptyList();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return Collections.emptyList();
+            int count = Math.min(in.readInt(), MAX_EVENTS);
+            List<Event> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Map<String, Object> value = new HashMap<>();
+                for (String field : FIELDS) {
+                    if (in.readBoolean()) value.put(field, in.readUTF());
+                }
+                events.add(Event.fromMap((String) value.get("id"), value));
+            }
+            return events;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable event snapshot", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Saves the first {@link #MAX_EVENTS} of {@code events} in the background.
+     *
+     * @param events the rows currently at the top of the feed
+     */
+    public void save(List<Event> events) {
+        List<String[]> rows = new ArrayList<>();
+        for (Event e : events.subList(0, Math.min(events.size(), MAX_EVENTS))) {
+            rows.add(new String[] {
+                    e.getId(), e.getName(), e.getEventStartDate(), e.getEventEndDate(),
+                    e.getEventStartTime(), e.getEventEndTime(), e.getTag()
+            });
+        }
+        writer.execute(() -> write(rows));
+    }
+
+    private void write(List<String[]> rows) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            for (String[] row : rows) {
+                for (String v : row) {
+                    out.writeBoolean(v != null);
+                    if (v != null) out.writeUTF(v);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write event snapshot", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "Failed to replace event snapshot");
+            tmp.delete();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.chicksevent.misc;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Supplies the event name and start date shown on notification rows.
+ * <p>
+ * Notification lists used to resolve every row on its own: one download of the whole
+ * {@code Event} root for the name plus a separate {@code Event/{id}/eventStartDate} read, both
+ * repeated on every scroll rebind. The resolver instead takes the event ids of a whole list up
+ * front, fetches each <em>distinct</em> id once (in parallel, through {@link EventLookup}) and
+ * keeps the result in an LRU cache, so binding a row is normally a map lookup.
+ * </p>
+ *
+ * <p>A summary is dropped whenever the lookup invalidates its event (see
+ * {@link EventLookup.InvalidationListener}), so an edited name or date shows on the next bind.
+ * Events that no longer exist resolve to {@link #MISSING_NAME} but are not cached, so an id
+ * that was not readable yet is asked for again.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class EventSummaryResolver {
+
+    /** Name shown when an event no longer exists; matches {@link Notification#getEventName()}. */
+    public static final String MISSING_NAME = "NO NAME";
+
+    /** Maximum number of summaries kept in memory. */
+    private static final int MAX_CACHED = 200;
+
+    /** Lazily created shared instance. */
+    private static EventSummaryResolver instance;
+
+    /**
+     * The two fields a notification row needs from its event.
+     */
+    public static final class Summary {
+        private final String name;
+        private final String startDate;
+
+        Summary(String name, String startDate) {
+            this.name = name;
+            this.startDate = startDate;
+        }
+
+        /** @return the event name, or {@link #MISSING_NAME} if the event is gone */
+        public String getName() {
+            return name;
+        }
+
+        /** @return the start date as stored ({@code MM-dd-yyyy}), or {@code null} */
+        public String getStartDate() {
+            return startDate;
+        }
+    }
+
+    /** Keyed, de-duplicating event reader. */
+    private final EventLookup lookup;
+
+    /** Resolved summaries, least recently used first. */
+    private final Map<String, Summary> cache = new LinkedHashMap<String, Summary>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Summary> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    /**
+     * Returns the shared resolver backed by {@link EventLookup#getInstance()}.
+     *
+     * @return the process-wide resolver
+     */
+    public static synchronized EventSummaryResolver getInstance() {
+        if (instance == null) {
+            instance = new EventSummaryResolver(EventLookup.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a resolver over the given lookup.
+     *
+     * @param lookup the event lookup to read through
+     */
+    public EventSummaryResolver(EventLookup lookup) {
+        this.lookup = lookup;
+        lookup.addInvalidationListener(cache::remove);
+    }
+
+    /**
+     * Fetches every distinct, not-yet-cached event among {@code eventIds} in parallel.
+     *
+     * @param eventIds ids of the events a list is about to show (duplicates allowed)
+     * @return a task that completes once every fetch has finished (failures are skipped)
+     */
+    public Task<Void> prefetch(Collection<String> eventIds) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : eventIds) {
+            if (id != null && !cache.containsKey(id)) missing.add(id);
+        }
+        if (missing.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+
+        TaskCompletionSource<Void> done = new TaskCompletionSource<>();
+        int[] remaining = { missing.size() };
+        for (String id : missing) {
+            lookup.get(id).addOnCompleteListener(task -> {
+                if (task.isSuccessful()) store(id, task.getResult());
+                if (--remaining[0] == 0) done.setResult(null);
+            });
+        }
+        return done.getTask();
+    }
+
+    /**
+     * Convenience for {@link #prefetch(Collection)} over the events of a notification list.
+     *
+     * @param notifications the notifications about to be shown
+     * @return a task that completes once every distinct event has been fetched
+     */
+    public Task<Void> prefetchFor(Collection<Notification> notifications) {
+        List<String> ids = new ArrayList<>(notifications.size());
+        for (Notification n : notifications) ids.add(n.getEventId());
+        return prefetch(ids);
+    }
+
+    /**
+     * Returns a cached summary without touching the network.
+     *
+     * @param eventId the event id
+     * @return the summary, or {@code null} if it has not been resolved yet
+     */
+    public Summary peek(String eventId) {
+        return eventId == null ? null : cache.get(eventId);
+    }
+
+    /**
+     * Resolves one summary, from cache when possible.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the summary
+     */
+    public Task<Summary> get(String eventId) {
+        Summary cached = peek(eventId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+
+        TaskCompletionSource<Summary> tcs = new TaskCompletionSource<>();
+        lookup.get(eventId).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Event read failed: " + eventId));
+                return;
+            }
+            tcs.setResult(store(eventId, task.getResult()));
+        });
+        return tcs.getTask();
+    }
+
+    private Summary store(String eventId, Event event) {
+        if (event == null) {
+            return new Summary(MISSING_NAME, null);
+        }
+        Summary summary = new Summary(event.getName(), event.getEventStartDate());
+        cache.put(eventId, summary);
+        return summary;
+    }
+}
@@ -2,10 +2,13 @@ package com.example.chicksevent.misc;
 
 import android.util.Log;
 
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Utility service class that wraps Firebase Realtime Database operations for a specific root node.
@@ -26,7 +29,11 @@ import java.util.HashMap;
  * </pre>
  *
  * <p>All write operations are asynchronous; success or failure is reported via Logcat with the tag
- * <code>FirestoreTest</code>.</p>
+ * <code>FirestoreTest</code>, and each write also returns a {@link Task} that completes with it.</p>
+ *
+ * <p>A service constructed with a {@link WriteBatcher} does not start its own round trip per
+ * write: writes are merged with others issued in the same short window into one multi-path
+ * update. Use it for bulk flows (fan-out notifications, cascading deletes).</p>
  *
  * @author Jordan Kwan
  */
@@ -40,6 +47,12 @@ public class FirebaseService {
     /** Database reference pointing to the specified root node. */
     private DatabaseReference reference;
 
+    /** Root-relative path of {@link #reference}, used to address batched writes. */
+    private String rootPath;
+
+    /** Coalescing pipeline for writes, or {@code null} to write directly. */
+    private WriteBatcher batcher;
+
     /**
      * Constructs a FirebaseService for the given database root.
      *
@@ -49,6 +62,18 @@ public class FirebaseService {
         // Use default Firebase instance from google-services.json
         database = FirebaseDatabase.getInstance();
         reference = database.getReference(refString);
+        rootPath = refString;
+    }
+
+    /**
+     * Constructs a FirebaseService whose writes are coalesced by {@code batcher}.
+     *
+     * @param refString the root path within Firebase Realtime Database (e.g., "Notification").
+     * @param batcher the pipeline that merges this service's writes into multi-path updates.
+     */
+    public FirebaseService(String refString, WriteBatcher batcher) {
+        this(refString);
+        this.batcher = batcher;
     }
 
     /**
@@ -59,9 +84,7 @@ public class FirebaseService {
      */
     public String addEntry(HashMap<String, Object> data) {
         String id = reference.push().getKey();
-        reference.child(id).setValue(data)
-                .addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        setEntry(id, data);
         return id;
     }
 
@@ -73,21 +96,53 @@ public class FirebaseService {
      * @return the id that was written.
      */
     public String addEntry(HashMap<String, Object> data, String id) {
-        reference.child(id).setValue(data)
-                .addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        setEntry(id, data);
         return id;
     }
 
+    /**
+     * Adds or overwrites an entry and applies {@code alongside} in the same multi-path update,
+     * so data derived from the entry (such as an index) lands with it.
+     *
+     * @param data key-value pairs representing the entry data.
+     * @param id explicit id under which to store the entry.
+     * @param alongside further root-relative paths to write; a {@code null} value deletes.
+     * @return the id that was written.
+     */
+    public String addEntry(HashMap<String, Object> data, String id, Map<String, Object> alongside) {
+        Map<String, Object> updates = new HashMap<>(alongside);
+        updates.put(pathOf(id), data);
+        updateMultiPath(updates);
+        return id;
+    }
+
+    /**
+     * Adds or overwrites an entry with the given id and returns the write's task.
+     *
+     * @param id explicit id under which to store the entry.
+     * @param data key-value pairs representing the entry data.
+     * @return the task for the write.
+     */
+    public Task<Void> setEntry(String id, Map<String, Object> data) {
+        Task<Void> task = batcher != null
+                ? batcher.update(Collections.singletonMap(pathOf(id), data))
+                : reference.child(id).setValue(data);
+        task.addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        return task;
+    }
+
     /**
      * Deletes the entry with the specified id under the current reference.
      *
      * @param id the key of the entry to remove.
+     * @return the task for the delete.
      */
-    public void deleteEntry(String id) {
-        reference.child(id).removeValue()
-                .addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
+    public Task<Void> deleteEntry(String id) {
+        Task<Void> task = remove(reference.child(id), pathOf(id));
+        task.addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        return task;
     }
 
     /**
@@ -98,12 +153,43 @@ public class FirebaseService {
      * @return the id that was updated.
      */
     public String editEntry(String id, HashMap<String, Object> data) {
-        reference.child(id).updateChildren(data)
-                .addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        updateEntry(id, data);
         return id;
     }
 
+    /**
+     * Updates the given fields of an existing entry and applies {@code alongside} in the same
+     * multi-path update. Fields not in {@code data} are kept, as with
+     * {@link #editEntry(String, HashMap)}.
+     *
+     * @param id the id of the entry to update.
+     * @param data key-value pairs containing updated fields.
+     * @param alongside further root-relative paths to write; a {@code null} value deletes.
+     * @return the id of the updated entry.
+     */
+    public String editEntry(String id, HashMap<String, Object> data, Map<String, Object> alongside) {
+        Map<String, Object> updates = new HashMap<>(alongside);
+        for (Map.Entry<String, Object> field : data.entrySet()) {
+            updates.put(pathOf(id, field.getKey()), field.getValue());
+        }
+        updateMultiPath(updates);
+        return id;
+    }
+
+    /**
+     * Updates an existing entry with the provided data map and returns the write's task.
+     *
+     * @param id the id of the entry to update.
+     * @param data key-value pairs containing updated fields.
+     * @return the task for the write.
+     */
+    public Task<Void> updateEntry(String id, Map<String, Object> data) {
+        Task<Void> task = update(reference.child(id), pathOf(id), data);
+        task.addOnSuccessListener(a -> Log.d(TAG, "Entry added successfully"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to add entry", e));
+        return task;
+    }
+
     /**
      * Updates a nested subcollection entry within a given parent node.
      *
@@ -111,12 +197,14 @@ public class FirebaseService {
      * @param subCollectionName the name of the subcollection node.
      * @param subId the id of the child within the subcollection to update.
      * @param updates the key-value pairs to update.
+     * @return the task for the write.
      */
-    public void updateSubCollectionEntry(String parentId, String subCollectionName, String subId, HashMap<String, Object> updates) {
-        reference.child(parentId).child(subCollectionName).child(subId)
-                .updateChildren(updates)
-                .addOnSuccessListener(a -> Log.d(TAG, "SubCollection entry updated successfully"))
+    public Task<Void> updateSubCollectionEntry(String parentId, String subCollectionName, String subId, HashMap<String, Object> updates) {
+        Task<Void> task = update(reference.child(parentId).child(subCollectionName).child(subId),
+                pathOf(parentId, subCollectionName, subId), updates);
+        task.addOnSuccessListener(a -> Log.d(TAG, "SubCollection entry updated successfully"))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to update subcollection entry", e));
+        return task;
     }
 
     /**
@@ -125,11 +213,74 @@ public class FirebaseService {
      * @param parentId the parent node id.
      * @param subCollectionName the name of the subcollection node.
      * @param subId the id of the child within the subcollection to delete.
+     * @return the task for the delete.
      */
-    public void deleteSubCollectionEntry(String parentId, String subCollectionName, String subId) {
-        reference.child(parentId).child(subCollectionName).child(subId).removeValue()
-                .addOnSuccessListener(a -> Log.d(TAG, "SubCollection entry deleted successfully"))
+    public Task<Void> deleteSubCollectionEntry(String parentId, String subCollectionName, String subId) {
+        Task<Void> task = remove(reference.child(parentId).child(subCollectionName).child(subId),
+                pathOf(parentId, subCollectionName, subId));
+        task.addOnSuccessListener(a -> Log.d(TAG, "SubCollection entry deleted successfully"))
                 .addOnFailureListener(e -> Log.e(TAG, "Failed to delete subcollection entry", e));
+        return task;
+    }
+
+    /**
+     * Applies a multi-path update relative to the database root (not this service's root).
+     * <p>
+     * Firebase applies every path in the map atomically, so related nodes such as a waiting-list
+     * entry and its reverse index can never be observed half-written. A {@code null} value
+     * deletes the path. On a batched service the paths join the current batch, which is applied
+     * atomically as a whole.
+     * </p>
+     *
+     * @param updates map of root-relative paths (e.g. {@code "WaitingList/e1/WAITING/u1"}) to values.
+     * @return the task for the write.
+     */
+    public Task<Void> updateMultiPath(Map<String, Object> updates) {
+        Task<Void> task = batcher != null
+                ? batcher.update(updates)
+                : reference.getRoot().updateChildren(updates);
+        task.addOnSuccessListener(a -> Log.d(TAG, "Multi-path update applied (" + updates.size() + " paths)"))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to apply multi-path update", e));
+        return task;
+    }
+
+    /**
+     * @return whether this service's writes go through a {@link WriteBatcher}.
+     */
+    public boolean isBatched() {
+        return batcher != null;
+    }
+
+    /**
+     * Writes {@code data} as a partial update of {@code ref}, directly or through the batcher.
+     */
+    private Task<Void> update(DatabaseReference ref, String path, Map<String, Object> data) {
+        if (batcher == null) {
+            return ref.updateChildren(data);
+        }
+        Map<String, Object> paths = new HashMap<>();
+        for (Map.Entry<String, Object> e : data.entrySet()) {
+            paths.put(path + "/" + e.getKey(), e.getValue());
+        }
+        return batcher.update(paths);
+    }
+
+    /**
+     * Removes {@code ref}, directly or through the batcher.
+     */
+    private Task<Void> remove(DatabaseReference ref, String path) {
+        return batcher != null
+                ? batcher.update(Collections.singletonMap(path, null))
+                : ref.removeValue();
+    }
+
+    /**
+     * @return the root-relative path of a node below this service's root.
+     */
+    private String pathOf(String... segments) {
+        StringBuilder sb = new StringBuilder(rootPath);
+        for (String s : segments) sb.append('/').append(s);
+        return sb.toString();
     }
 
     /**
@@ -1,34 +1,63 @@
 package com.example.chicksevent.misc;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.Query;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * Handles selection of entrants for an event lottery.
  * <p>
  * Reads the entrant limit and current WAITING list from Firebase, then assigns entrants to
  * {@code INVITED} or {@code UNINVITED} and removes them from {@code WAITING}. The status
- * transitions are written atomically to Firebase to ensure consistency and minimize UI churn.
+ * transitions, the entrants' {@code UserEvents} index entries and the bucket counters of each
+ * entrant are written in the same atomic multi-path update to ensure consistency and minimize UI
+ * churn.
  * </p>
  *
+ * <p>Winners are picked by a streaming {@link LotteryDraw} over the WAITING snapshot's children;
+ * the remainder is routed by a second pass over the same children, so the waiting list is never
+ * copied or shuffled as a whole.</p>
+ *
+ * <p>The moves are written by a {@link ChunkedStatusWriter} in bounded chunks. A run that was
+ * interrupted part-way leaves a checkpoint behind; {@link #drawOrPool()} finishes it with the
+ * stored winners before drawing again.</p>
+ *
+ * <p>{@link #drawOrPool()} and {@link #drawIfNotDrawn()} only proceed once they have claimed a
+ * run in the {@link LotteryRunLedger}, so concurrent triggers from several devices produce one
+ * draw. The claimed run's seed drives the draw and its outcome is recorded when the writes
+ * finish. The other public entry points do not claim a run.</p>
+ *
+ * <p><b>Fresh reads:</b> the app enables disk persistence, and a single-value listener answers
+ * from that cache when it holds the path. A stale limit, WAITING list, checkpoint or counter
+ * could draw from people who already left or invite past the limit, so every read that decides
+ * who is drawn goes through {@code get()}, which asks the server first ({@link #readFresh}).</p>
+ *
  * <p><b>Firebase paths used:</b></p>
  * <ul>
  *   <li>{@code Event/{eventId}/entrantLimit}</li>
  *   <li>{@code WaitingList/{eventId}/WAITING/{uid}}</li>
  *   <li>{@code WaitingList/{eventId}/INVITED/{uid}}</li>
  *   <li>{@code WaitingList/{eventId}/UNINVITED/{uid}}</li>
+ *   <li>{@code UserEvents/{uid}/{eventId}}</li>
+ *   <li>{@code Counters/{eventId}/{STATUS}} — read for capacity checks, see {@link StatusCounters}</li>
+ *   <li>{@code LotteryCheckpoints/{eventId}} — winners and drawn population of a run still being
+ *       written</li>
+ *   <li>{@code LotteryRuns/{eventId}/{runId}} — ledger of runs, see {@link LotteryRunLedger}</li>
  * </ul>
  *
  * <p><b>Note:</b> Authorization is not enforced here; callers should ensure only authorized
@@ -44,44 +73,85 @@ public class Lottery {
     private static final String INVITED = "INVITED";
     private static final String UNINVITED = "UNINVITED";
 
+    /** Run kinds recorded in the ledger. */
+    private static final String KIND_DRAW = "DRAW";
+    private static final String KIND_POOL = "POOL";
+    private static final String KIND_RESUME = "RESUME";
+
+    /** How long {@link #getCounts} waits for its reads before failing. */
+    public static final long COUNTS_TIMEOUT_MS = 10_000;
+
     private final FirebaseService waitingListService;
     private final FirebaseService eventService;
+    private final FirebaseService counterService;
     private final String eventId;
+    private final LotteryDraw draw = new LotteryDraw();
+    private final LotteryRunLedger ledger;
+    private ChunkedStatusWriter.ProgressListener progressListener;
+
+    /** Posts the {@link #getCounts} timeout; created on first use. */
+    private Handler timeouts;
+
+    /** The run claimed by {@link #drawOrPool()}, or {@code null} outside a claimed run. */
+    private LotteryRunLedger.Run run;
+
+    /** Completes the task returned for {@link #run}. */
+    private TaskCompletionSource<Boolean> runDone;
 
 
     public Lottery(String eventId) {
         this.eventId = eventId;
         this.waitingListService = new FirebaseService("WaitingList");
         this.eventService = new FirebaseService("Event");
+        this.counterService = new FirebaseService(StatusCounters.ROOT);
+        this.ledger = new LotteryRunLedger(new FirebaseService(LotteryRunLedger.ROOT), eventId);
     }
 
     /* -------------------------------------------------------
      *  Helper: Check if initial lottery already ran
      * ------------------------------------------------------- */
     private void hasInitialLotteryRun(Callback<Boolean> callback) {
-        waitingListService.getReference()
-                .child(eventId)
-                .child(INVITED)
-                .limitToFirst(1)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snap) {
-                        callback.onResult(snap.exists());
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Log.e(TAG, "Check failed", error.toException());
-                        callback.onResult(false);
-                    }
+        readFresh(waitingListService.getReference().child(eventId).child(INVITED).limitToFirst(1),
+                snap -> callback.onResult(snap.exists()),
+                e -> {
+                    Log.e(TAG, "Check failed", e);
+                    callback.onResult(false);
+                });
+    }
+
+    /**
+     * Sets the receiver for per-chunk progress of the status writes.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setProgressListener(ChunkedStatusWriter.ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    /* -------------------------------------------------------
+     *  Helper: read the checkpoint of an interrupted run
+     * ------------------------------------------------------- */
+    private void readCheckpoint(Callback<DataSnapshot> callback) {
+        readFresh(root().child(ChunkedStatusWriter.CHECKPOINT_ROOT).child(eventId),
+                snap -> callback.onResult(snap.exists() ? snap : null),
+                e -> {
+                    Log.e(TAG, "Checkpoint read failed", e);
+                    callback.onResult(null);
                 });
     }
 
     /* -------------------------------------------------------
      *  MAIN ENTRY: draw entrants (smart behavior)
      * ------------------------------------------------------- */
-    public void drawOrPool() {
-        hasInitialLotteryRun(alreadyRan -> {
+
+    /**
+     * Runs the initial lottery, or a replacement pool if it already ran, as a claimed run.
+     *
+     * @return a task resolving to {@code true} once the run has finished, or to {@code false}
+     *         if another run held the ledger; it fails with the run's error
+     */
+    public Task<Boolean> drawOrPool() {
+        return claimThen(() -> resumeOr(() -> hasInitialLotteryRun(alreadyRan -> {
             if (!alreadyRan) {
                 Log.i(TAG, "Initial lottery hasn't run yet → Running full lottery.");
                 runLottery();
@@ -89,6 +159,61 @@ public class Lottery {
                 Log.i(TAG, "Initial lottery already ran → Running pool replacement.");
                 poolReplacementAuto();
             }
+        })));
+    }
+
+    /**
+     * Runs the initial lottery as a claimed run unless it already ran; never pools replacements.
+     * Used by {@link LotteryScheduler} when registration closes.
+     *
+     * @return a task resolving as for {@link #drawOrPool()}
+     */
+    public Task<Boolean> drawIfNotDrawn() {
+        return claimThen(() -> resumeOr(() -> hasInitialLotteryRun(alreadyRan -> {
+            if (!alreadyRan) {
+                runLottery();
+            } else {
+                Log.i(TAG, "Initial lottery already ran → Nothing to draw.");
+                endRun(KIND_DRAW, 0, 0, null);
+            }
+        })));
+    }
+
+    /* -------------------------------------------------------
+     *  Helper: claim a run in the ledger, then run the body
+     * ------------------------------------------------------- */
+    private Task<Boolean> claimThen(Runnable body) {
+        TaskCompletionSource<Boolean> done = new TaskCompletionSource<>();
+        ledger.claim().addOnCompleteListener(claim -> {
+            if (!claim.isSuccessful()) {
+                Log.e(TAG, "Could not claim a lottery run", claim.getException());
+                done.setException(claim.getException() != null
+                        ? claim.getException() : new Exception("Run claim failed"));
+                return;
+            }
+            if (claim.getResult() == null) {
+                Log.i(TAG, "Another lottery run is in progress → Not drawing again.");
+                done.setResult(false);
+                return;
+            }
+            run = claim.getResult();
+            runDone = done;
+            body.run();
+        });
+        return done.getTask();
+    }
+
+    /* -------------------------------------------------------
+     *  Helper: finish an interrupted run first, if there is one
+     * ------------------------------------------------------- */
+    private void resumeOr(Runnable fresh) {
+        readCheckpoint(checkpoint -> {
+            if (checkpoint != null) {
+                Log.i(TAG, "Previous run was interrupted → Resuming it.");
+                resume(checkpoint);
+            } else {
+                fresh.run();
+            }
         });
     }
 
@@ -99,61 +224,39 @@ public class Lottery {
         Log.i(TAG, "RunLottery() start: eventId=" + eventId);
 
         // Read limit
-        eventService.getReference().child(eventId).child("entrantLimit")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot limitSnap) {
-
-                        Integer limit = limitSnap.getValue(Integer.class);
-                        if (limit == null) {
-                            Log.e(TAG, "No entrantLimit for eventId " + eventId);
-                            return;
-                        }
-
-                        // Read WAITING list
-                        waitingListService.getReference()
-                                .child(eventId)
-                                .child(WAITING)
-                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                    @Override
-                                    public void onDataChange(DataSnapshot waitSnap) {
-
-                                        List<String> waiting = new ArrayList<>();
-                                        for (DataSnapshot child : waitSnap.getChildren()) {
-                                            waiting.add(child.getKey());
-                                        }
-
-                                        if (waiting.isEmpty()) {
-                                            Log.i(TAG, "WAITING empty — nothing to run.");
-                                            return;
-                                        }
-
-                                        if (limit == 0) {
-                                            Log.w(TAG, "Limit is 0 → all become UNINVITED.");
-                                            markAllUninvited(waiting);
-                                            return;
-                                        }
-
-                                        Collections.shuffle(waiting);
-
-                                        List<String> invited = waiting.subList(0, Math.min(limit, waiting.size()));
-                                        List<String> uninvited = waiting.subList(invited.size(), waiting.size());
-
-                                        applyStatus(invited, uninvited);
-                                    }
-
-                                    @Override
-                                    public void onCancelled(DatabaseError error) {
-                                        Log.e(TAG, "Waiting read failed: " + error.getMessage());
-                                    }
-                                });
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Log.e(TAG, "Limit read failed: " + error.getMessage());
-                    }
-                });
+        readFresh(eventService.getReference().child(eventId).child("entrantLimit"), limitSnap -> {
+
+            Integer limit = limitSnap.getValue(Integer.class);
+            if (limit == null) {
+                Log.e(TAG, "No entrantLimit for eventId " + eventId);
+                endRun(KIND_DRAW, 0, 0, new Exception("No entrantLimit"));
+                return;
+            }
+
+            // Read WAITING list
+            readFresh(waitingListService.getReference().child(eventId).child(WAITING), waitSnap -> {
+
+                if (!waitSnap.getChildren().iterator().hasNext()) {
+                    Log.i(TAG, "WAITING empty — nothing to run.");
+                    endRun(KIND_DRAW, limit, 0, null);
+                    return;
+                }
+
+                if (limit == 0) {
+                    Log.w(TAG, "Limit is 0 → all become UNINVITED.");
+                    markAllUninvited(waitSnap);
+                    return;
+                }
+
+                applyStatus(waitSnap, draw().pick(keys(waitSnap), limit), KIND_DRAW, limit);
+            }, e -> {
+                Log.e(TAG, "Waiting read failed", e);
+                endRun(KIND_DRAW, limit, 0, e);
+            });
+        }, e -> {
+            Log.e(TAG, "Limit read failed", e);
+            endRun(KIND_DRAW, 0, 0, e);
+        });
     }
 
     /* -------------------------------------------------------
@@ -164,20 +267,23 @@ public class Lottery {
 
             if (limit == 0) {
                 Log.w(TAG, "Cannot pool: entrantLimit = 0");
+                endRun(KIND_POOL, 0, waitingCount, null);
                 return;
             }
             if (invitedCount >= limit) {
                 Log.i(TAG, "Event already full → no pooling.");
+                endRun(KIND_POOL, 0, waitingCount, null);
                 return;
             }
             if (waitingCount == 0) {
                 Log.i(TAG, "No waiting entrants → no pooling.");
+                endRun(KIND_POOL, 0, 0, null);
                 return;
             }
 
             int toPool = limit - invitedCount;
             poolReplacement(toPool);
-        });
+        }, e -> endRun(KIND_POOL, 0, 0, e));
     }
 
     /* -------------------------------------------------------
@@ -185,130 +291,242 @@ public class Lottery {
      * ------------------------------------------------------- */
     public void poolReplacement(int numReplacements) {
 
-        waitingListService.getReference()
-                .child(eventId)
-                .child(WAITING)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot waitSnap) {
+        readFresh(waitingListService.getReference().child(eventId).child(WAITING), waitSnap -> {
+
+            if (!waitSnap.getChildren().iterator().hasNext()) {
+                Log.i(TAG, "No WAITING entries to pool from.");
+                endRun(KIND_POOL, numReplacements, 0, null);
+                return;
+            }
+
+            applyStatus(waitSnap, draw().pick(keys(waitSnap), numReplacements),
+                    KIND_POOL, numReplacements);
+        }, e -> {
+            Log.e(TAG, "Waiting load failed", e);
+            endRun(KIND_POOL, numReplacements, 0, e);
+        });
+    }
+
+    /* -------------------------------------------------------
+     *  RESUME: finish an interrupted run with its stored winners,
+     *  moving only the population it drew from
+     * ------------------------------------------------------- */
+    private void resume(DataSnapshot checkpoint) {
+        Set<String> invited = ChunkedStatusWriter.invitedOf(checkpoint);
+        Set<String> population = ChunkedStatusWriter.populationOf(checkpoint);
+
+        readFresh(waitingListService.getReference().child(eventId).child(WAITING),
+                waitSnap -> {
+                    int poolSize = population != null ? population.size() : (int) waitSnap.getChildrenCount();
+                    write(KIND_RESUME, invited.size(), poolSize, writer -> writer.resume(waitSnap, checkpoint));
+                },
+                e -> {
+                    Log.e(TAG, "Waiting load failed", e);
+                    endRun(KIND_RESUME, invited.size(), 0, e);
+                });
+    }
 
-                        List<String> waiting = new ArrayList<>();
-                        for (DataSnapshot ch : waitSnap.getChildren()) waiting.add(ch.getKey());
+    /* -------------------------------------------------------
+     *  Helper: Apply invited/uninvited in chunks, streaming the
+     *  WAITING children once more; payloads move with the entrant
+     * ------------------------------------------------------- */
+    private void applyStatus(DataSnapshot waitSnap, Set<String> invited, String kind, int drawSize) {
+        write(kind, drawSize, (int) waitSnap.getChildrenCount(), writer -> writer.apply(waitSnap, invited));
+    }
 
-                        if (waiting.isEmpty()) {
-                            Log.i(TAG, "No WAITING entries to pool from.");
-                            return;
-                        }
+    /* -------------------------------------------------------
+     *  Helper: start a chunked write and end the run with
+     *  its outcome
+     * ------------------------------------------------------- */
+    private void write(String kind, int drawSize, int poolSize, Function<ChunkedStatusWriter, Task<Void>> start) {
+        ChunkedStatusWriter writer = new ChunkedStatusWriter(root(), eventId);
+        writer.setProgressListener(leaseRenewing(run));
+        start.apply(writer)
+                .addOnCompleteListener(task -> endRun(kind, drawSize, poolSize, task.getException()));
+    }
 
-                        Collections.shuffle(waiting);
+    /* -------------------------------------------------------
+     *  Helper: forward progress, renewing the claimed run's
+     *  lease after every acknowledged chunk
+     * ------------------------------------------------------- */
+    private ChunkedStatusWriter.ProgressListener leaseRenewing(LotteryRunLedger.Run claimed) {
+        ChunkedStatusWriter.ProgressListener forward = progressListener;
+        return new ChunkedStatusWriter.ProgressListener() {
+            @Override
+            public void onChunkWritten(int chunksDone, int chunksTotal, int entrantsDone, int entrantsTotal) {
+                if (claimed != null) ledger.renew(claimed);
+                if (forward != null) forward.onChunkWritten(chunksDone, chunksTotal, entrantsDone, entrantsTotal);
+            }
 
-                        int actual = Math.min(numReplacements, waiting.size());
-                        List<String> invited = waiting.subList(0, actual);
-                        List<String> uninvited = waiting.subList(actual, waiting.size());
+            @Override
+            public void onFinished(Exception error) {
+                if (forward != null) forward.onFinished(error);
+            }
+        };
+    }
 
-                        applyStatus(invited, uninvited);
-                    }
+    /* -------------------------------------------------------
+     *  Helper: mark all uninvited
+     * ------------------------------------------------------- */
+    private void markAllUninvited(DataSnapshot waitSnap) {
+        applyStatus(waitSnap, new HashSet<>(), KIND_DRAW, 0);
+    }
 
-                    @Override
-                    public void onCancelled(DatabaseError error) {
-                        Log.e(TAG, "Waiting load failed", error.toException());
-                    }
-                });
+    /* -------------------------------------------------------
+     *  Helper: the claimed run's seeded draw, if any
+     * ------------------------------------------------------- */
+    private LotteryDraw draw() {
+        return run != null ? run.draw() : draw;
+    }
+
+    /* -------------------------------------------------------
+     *  Helper: record the claimed run's outcome, releasing the ledger
+     * ------------------------------------------------------- */
+    private void endRun(String kind, int drawSize, int poolSize, Exception error) {
+        if (run == null) return;
+        ledger.finish(run, kind, drawSize, poolSize, error);
+        TaskCompletionSource<Boolean> done = runDone;
+        run = null;
+        runDone = null;
+        if (error == null) done.setResult(true); else done.setException(error);
     }
 
     /* -------------------------------------------------------
-     *  Helper: Apply invited/uninvited atomically
+     *  Helper: entrant ids of a snapshot's children, read lazily
+     *  so the draw streams them without a copy
      * ------------------------------------------------------- */
-    private void applyStatus(List<String> invited, List<String> uninvited) {
-        DatabaseReference root = waitingListService.getReference();
+    private static Iterable<String> keys(DataSnapshot snap) {
+        return () -> {
+            Iterator<DataSnapshot> children = snap.getChildren().iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return children.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return children.next().getKey();
+                }
+            };
+        };
+    }
 
-        Map<String, Object> update = new HashMap<>();
-        String base = eventId + "/";
+    private DatabaseReference root() {
+        return waitingListService.getReference().getRoot();
+    }
 
-        for (String id : invited) {
-            update.put(base + INVITED + "/" + id, true);
-            update.put(base + WAITING + "/" + id, null);
-        }
-        for (String id : uninvited) {
-            update.put(base + UNINVITED + "/" + id, true);
-            update.put(base + WAITING + "/" + id, null);
-        }
+    /**
+     * Reads the entrant limit and the INVITED and WAITING counts.
+     * <p>
+     * The limit and the {@code Counters/{eventId}} node are read concurrently and joined, so
+     * the counts arrive after one round trip. If the counters have never been rebuilt (no
+     * {@link StatusCounters#MARKER}) they are rebuilt first. Exactly one of the callbacks is
+     * invoked; a failed read, or no answer within {@link #COUNTS_TIMEOUT_MS}, reaches
+     * {@code onError}.
+     * </p>
+     *
+     * @param cb receives the counts; a missing or non-positive limit is reported as
+     *           {@link Integer#MAX_VALUE} ("no limit")
+     * @param onError receives the failure
+     */
+    public void getCounts(CountCallback cb, Callback<Exception> onError) {
+        CountsJoin join = new CountsJoin(cb, onError);
+        timeouts().postDelayed(join.timeout, COUNTS_TIMEOUT_MS);
+
+        readFresh(eventService.getReference().child(eventId).child("entrantLimit"), limitSnap -> {
+            Integer limitValue = limitSnap.getValue(Integer.class);
+            // If null or zero → unlimited
+            join.limit(limitValue == null || limitValue <= 0 ? Integer.MAX_VALUE : limitValue);
+        }, join::fail);
+
+        // One read of Counters/{eventId} instead of two full bucket downloads
+        readFresh(counterService.getReference().child(eventId), counterSnap -> {
+            if (StatusCounters.isBuilt(counterSnap)) {
+                join.counts(StatusCounters.parse(counterSnap));
+                return;
+            }
+
+            new StatusCounters(counterService, waitingListService)
+                    .rebuild(eventId)
+                    .addOnCompleteListener(rebuilt -> {
+                        if (rebuilt.isSuccessful()) join.counts(rebuilt.getResult());
+                        else join.fail(rebuilt.getException() != null
+                                ? rebuilt.getException() : new Exception("Counter rebuild failed"));
+                    });
+        }, join::fail);
+    }
 
-        root.updateChildren(update, (err, ref) -> {
-            if (err != null) {
-                Log.e(TAG, "Update failed: " + err.getMessage());
+    /* -------------------------------------------------------
+     *  Helper: read from the server rather than the persistence
+     *  cache; exactly one of the callbacks is invoked
+     * ------------------------------------------------------- */
+    private static void readFresh(Query query, Callback<DataSnapshot> onData, Callback<Exception> onError) {
+        query.get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult() != null) {
+                onData.onResult(task.getResult());
             } else {
-                Log.i(TAG, "Updated → Invited=" + invited.size() + " Uninvited=" + uninvited.size());
+                onError.onResult(task.getException() != null
+                        ? task.getException() : new Exception("Read failed"));
             }
         });
     }
 
     /* -------------------------------------------------------
-     *  Helper: mark all uninvited
+     *  Helper: join of the limit and counter reads. Hand-rolled
+     *  rather than Tasks.whenAllSuccess + Tasks.withTimeout:
+     *  those post every continuation to the main executor, so
+     *  the counts would arrive one loop turn after the last read
+     *  and the tests could not drive the reads synchronously
+     *  with mocked tasks, as the other Lottery paths are tested
      * ------------------------------------------------------- */
-    private void markAllUninvited(List<String> waiting) {
-        Map<String, Object> update = new HashMap<>();
-        String base = eventId + "/";
+    private final class CountsJoin {
+        final CountCallback cb;
+        final Callback<Exception> onError;
+        final Runnable timeout = () -> fail(new TimeoutException("Counts not read within " + COUNTS_TIMEOUT_MS + " ms"));
+
+        Integer limit;
+        Map<String, Integer> counts;
+        boolean done;
+
+        CountsJoin(CountCallback cb, Callback<Exception> onError) {
+            this.cb = cb;
+            this.onError = onError;
+        }
 
-        for (String id : waiting) {
-            update.put(base + UNINVITED + "/" + id, true);
-            update.put(base + WAITING + "/" + id, null);
+        void limit(int value) {
+            limit = value;
+            deliverIfReady();
         }
 
-        waitingListService.getReference().updateChildren(update);
-    }
+        void counts(Map<String, Integer> value) {
+            counts = value;
+            deliverIfReady();
+        }
 
-    /* -------------------------------------------------------
-     *  Helper: get invitedCount, limit, waitingCount
-     * ------------------------------------------------------- */
-    private void getCounts(CountCallback cb) {
-        eventService.getReference().child(eventId).child("entrantLimit")
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot limitSnap) {
-                        Integer limitValue = limitSnap.getValue(Integer.class);
-                        // If null or zero → unlimited
-                        if (limitValue == null || limitValue <= 0) {
-                            limitValue = Integer.MAX_VALUE; // represent "no limit"
-                        }
-
-                        final int finalLimit = limitValue;  // <-- FIX: final copy
-
-                        waitingListService.getReference()
-                                .child(eventId)
-                                .child(INVITED)
-                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                    @Override
-                                    public void onDataChange(DataSnapshot invSnap) {
-                                        int invitedCount = (int) invSnap.getChildrenCount();
-
-                                        waitingListService.getReference()
-                                                .child(eventId)
-                                                .child(WAITING)
-                                                .addListenerForSingleValueEvent(new ValueEventListener() {
-                                                    @Override
-                                                    public void onDataChange(DataSnapshot waitSnap) {
-                                                        int waitingCount = (int) waitSnap.getChildrenCount();
-
-                                                        // Use finalLimit here
-                                                        cb.onCounts(invitedCount, finalLimit, waitingCount);
-                                                    }
-
-                                                    @Override
-                                                    public void onCancelled(DatabaseError error) {}
-                                                });
-                                    }
-
-                                    @Override
-                                    public void onCancelled(DatabaseError error) {}
-                                });
-                    }
-
-                    @Override
-                    public void onCancelled(DatabaseError error) {}
-                });
+        void fail(Exception e) {
+            if (done) return;
+            done = true;
+            timeouts().removeCallbacks(timeout);
+            Log.e(TAG, "Count read failed for " + eventId, e);
+            onError.onResult(e);
+        }
+
+        private void deliverIfReady() {
+            if (done || limit == null || counts == null) return;
+            done = true;
+            timeouts().removeCallbacks(timeout);
+
+            Integer invited = counts.get(INVITED);
+            Integer waiting = counts.get(WAITING);
+            cb.onCounts(invited == null ? 0 : invited, limit, waiting == null ? 0 : waiting);
+        }
     }
 
+    private Handler timeouts() {
+        if (timeouts == null) timeouts = new Handler(Looper.getMainLooper());
+        return timeouts;
+    }
 
     /* -------------------------------------------------------
      *  Small callback interfaces
@@ -0,0 +1,90 @@
+package com.example.chicksevent.misc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Picks lottery winners from a stream of entrant ids in one pass.
+ * <p>
+ * The lottery used to copy the whole waiting list into an {@code ArrayList} and shuffle all of
+ * it, although only {@code k} winners were needed. A draw instead runs reservoir sampling over
+ * the ids as they are iterated (Li's Algorithm L): the first {@code k} ids fill the reservoir and
+ * later ids replace a random slot at geometrically distributed skips. Every id ends up a winner
+ * with the same probability, the pass never needs the pool size up front, and it keeps only the
+ * {@code k} winners, i.e. O(k) extra memory. Random numbers are drawn only per replacement, not
+ * per id.
+ * </p>
+ *
+ * <p>Callers then route the remainder by iterating the source again and checking membership in
+ * the returned set, so the losing ids are never collected either.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class LotteryDraw {
+
+    /** Initial reservoir capacity when {@code k} is large; the reservoir grows with the pool. */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private final Random random;
+
+    /**
+     * Creates a draw with an unseeded random source.
+     */
+    public LotteryDraw() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a draw over the given random source (seeded in tests and for replays).
+     *
+     * @param random the random source
+     */
+    public LotteryDraw(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Picks up to {@code k} ids uniformly at random.
+     *
+     * @param ids the pool, iterated exactly once
+     * @param k how many winners to pick
+     * @return the winners; all ids if the pool holds no more than {@code k}
+     */
+    public Set<String> pick(Iterable<String> ids, int k) {
+        if (k <= 0) return new HashSet<>();
+
+        List<String> reservoir = new ArrayList<>(Math.min(k, MAX_INITIAL_CAPACITY));
+        Iterator<String> it = ids.iterator();
+        while (reservoir.size() < k && it.hasNext()) reservoir.add(it.next());
+
+        if (it.hasNext()) {
+            double w = Math.exp(Math.log(uniform()) / k);
+            long skip = skip(w);
+            while (it.hasNext()) {
+                String id = it.next();
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                reservoir.set(random.nextInt(k), id);
+                w *= Math.exp(Math.log(uniform()) / k);
+                skip = skip(w);
+            }
+        }
+        return new HashSet<>(reservoir);
+    }
+
+    /** @return how many ids to pass over before the next replacement */
+    private long skip(double w) {
+        return (long) Math.floor(Math.log(uniform()) / Math.log1p(-w));
+    }
+
+    /** @return a uniform value in (0, 1], safe to take the logarithm of */
+    private double uniform() {
+        return 1.0 - random.nextDouble();
+    }
+}
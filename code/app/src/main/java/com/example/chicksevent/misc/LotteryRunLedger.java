@@ -0,0 +1,264 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Ledger of lottery runs that lets exactly one device draw for an event at a time.
+ * <p>
+ * {@link Lottery#drawOrPool()} used to choose between the initial draw and a replacement pool
+ * with a plain read, so two organizer devices (or a double tap) could both draw and invite past
+ * the entrant limit. Every run now first claims an entry under
+ * {@code LotteryRuns/{eventId}/{runId}} in a transaction over the event's ledger:
+ * </p>
+ * <ul>
+ *   <li>If another run is still {@link #RUNNING} and within its {@link #LEASE_MS lease}, the
+ *       transaction aborts and the caller gets no run; concurrent triggers therefore produce
+ *       exactly one draw.</li>
+ *   <li>Otherwise the next sequential run id is claimed with a fresh RNG seed. A running entry
+ *       whose lease expired (e.g. the device was closed mid-run) is marked {@link #ABANDONED};
+ *       the next run resumes its writes from the checkpoint, see {@link ChunkedStatusWriter}.</li>
+ *   <li>{@link #finish} records the outcome, which frees the ledger for the next run.</li>
+ * </ul>
+ *
+ * <p><b>Clock:</b> leases are measured on the server's clock, not the device's, since two
+ * organizer phones can disagree by minutes. A claim records {@code startedAt} as
+ * {@link ServerValue#TIMESTAMP}, and the transaction compares against the device time corrected
+ * by {@code .info/serverTimeOffset}. A long run keeps its lease by calling {@link #renew} after
+ * each acknowledged chunk, which stamps {@code renewedAt}; the lease runs from the later of the
+ * two stamps.</p>
+ *
+ * <p><b>Replay:</b> the recorded seed, draw size and pool size let a draw be reproduced with
+ * {@link #replay(long, Iterable, int)} over the same WAITING ids in key order, which is the
+ * order the draw read them in.</p>
+ *
+ * <p>The transaction reads the whole {@code LotteryRuns/{eventId}} node; an event only collects
+ * one entry per draw or pool, so it stays small.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class LotteryRunLedger {
+
+    private static final String TAG = LotteryRunLedger.class.getSimpleName();
+
+    /** Root node of the ledger. */
+    public static final String ROOT = "LotteryRuns";
+
+    /** State of a run that is drawing or writing its results. */
+    public static final String RUNNING = "RUNNING";
+
+    /** State of a run whose results were all written. */
+    public static final String DONE = "DONE";
+
+    /** State of a run that stopped with an error. */
+    public static final String FAILED = "FAILED";
+
+    /** State of a run whose lease expired before it finished. */
+    public static final String ABANDONED = "ABANDONED";
+
+    /** How long a running entry blocks other runs before it is considered abandoned. */
+    public static final long LEASE_MS = 10 * 60 * 1000L;
+
+    /** Local path holding the estimated difference between the server's clock and the device's. */
+    static final String SERVER_TIME_OFFSET = ".info/serverTimeOffset";
+
+    /** A claimed run. */
+    public static final class Run {
+        /** The run's id under {@code LotteryRuns/{eventId}}. */
+        public final String runId;
+
+        /** The seed of the run's draw. */
+        public final long seed;
+
+        Run(String runId, long seed) {
+            this.runId = runId;
+            this.seed = seed;
+        }
+
+        /** @return a draw driven by this run's seed */
+        public LotteryDraw draw() {
+            return new LotteryDraw(new Random(seed));
+        }
+    }
+
+    private final FirebaseService runService;
+    private final String eventId;
+    private final Random seeds;
+
+    /**
+     * Creates a ledger for one event.
+     *
+     * @param runService service scoped to the {@code LotteryRuns} root
+     * @param eventId the event whose runs are recorded
+     */
+    public LotteryRunLedger(FirebaseService runService, String eventId) {
+        this(runService, eventId, new Random());
+    }
+
+    /**
+     * Creates a ledger with a given seed source.
+     *
+     * @param runService service scoped to the {@code LotteryRuns} root
+     * @param eventId the event whose runs are recorded
+     * @param seeds source of run seeds
+     */
+    public LotteryRunLedger(FirebaseService runService, String eventId, Random seeds) {
+        this.runService = runService;
+        this.eventId = eventId;
+        this.seeds = seeds;
+    }
+
+    /**
+     * Claims the next run unless another one is in progress.
+     *
+     * @return a task resolving to the claimed run, or to {@code null} when another run holds the
+     *         ledger
+     */
+    public Task<Run> claim() {
+        TaskCompletionSource<Run> tcs = new TaskCompletionSource<>();
+        runService.getReference().getRoot().child(SERVER_TIME_OFFSET)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Long offset = snapshot.getValue(Long.class);
+                        claim(offset != null ? offset : 0L, tcs);
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.w(TAG, "Server time offset unavailable, using the device clock",
+                                error.toException());
+                        claim(0L, tcs);
+                    }
+                });
+        return tcs.getTask();
+    }
+
+    /**
+     * Runs the claim transaction with the lease measured on the server's clock.
+     *
+     * @param serverTimeOffset milliseconds to add to the device clock to get server time
+     * @param tcs resolved with the claimed run, or {@code null}
+     */
+    private void claim(long serverTimeOffset, TaskCompletionSource<Run> tcs) {
+        long seed = seeds.nextLong();
+        String[] claimed = { null };
+
+        runService.getReference().child(eventId).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                // Re-evaluated on every retry, so a retried claim sees the time it actually runs
+                claimed[0] = claimIn(current, seed, System.currentTimeMillis() + serverTimeOffset);
+                return claimed[0] == null ? Transaction.abort() : Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    Log.e(TAG, "Claiming a lottery run failed for " + eventId, error.toException());
+                    tcs.setException(error.toException());
+                } else if (!committed || claimed[0] == null) {
+                    Log.i(TAG, "Another lottery run is in progress for " + eventId);
+                    tcs.setResult(null);
+                } else {
+                    Log.i(TAG, "Claimed lottery run " + claimed[0] + " for " + eventId);
+                    tcs.setResult(new Run(claimed[0], seed));
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies a claim to the event's ledger, as run inside the transaction.
+     *
+     * @param ledger the current {@code LotteryRuns/{eventId}} node
+     * @param seed the seed to record
+     * @param now the current server time in milliseconds
+     * @return the claimed run id, or {@code null} if a live run holds the ledger
+     */
+    public static String claimIn(MutableData ledger, long seed, long now) {
+        int runs = 0;
+        for (MutableData run : ledger.getChildren()) {
+            runs++;
+            if (!RUNNING.equals(run.child("state").getValue(String.class))) continue;
+
+            Long startedAt = run.child("startedAt").getValue(Long.class);
+            Long renewedAt = run.child("renewedAt").getValue(Long.class);
+            Long leaseFrom = renewedAt != null && (startedAt == null || renewedAt > startedAt)
+                    ? renewedAt : startedAt;
+            if (leaseFrom != null && now - leaseFrom < LEASE_MS) return null;
+            run.child("state").setValue(ABANDONED);
+        }
+
+        String runId = String.format(Locale.ROOT, "run-%04d", runs + 1);
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("state", RUNNING);
+        entry.put("seed", seed);
+        entry.put("startedAt", ServerValue.TIMESTAMP);
+        ledger.child(runId).setValue(entry);
+        return runId;
+    }
+
+    /**
+     * Extends a running entry's lease to the server's current time. Called after each
+     * acknowledged chunk, so a long run is never taken for abandoned while it is still writing.
+     *
+     * @param run the claimed run
+     * @return the task for the write
+     */
+    public Task<Void> renew(Run run) {
+        Map<String, Object> lease = new HashMap<>();
+        lease.put("renewedAt", ServerValue.TIMESTAMP);
+        return runService.updateEntry(eventId + "/" + run.runId, lease);
+    }
+
+    /**
+     * Records the outcome of a run and releases the ledger.
+     *
+     * @param run the claimed run
+     * @param kind what the run did, e.g. {@code "DRAW"}, {@code "POOL"} or {@code "RESUME"}
+     * @param drawSize how many winners were asked for
+     * @param poolSize how many WAITING entrants the draw saw
+     * @param error the failure, or {@code null} on success
+     * @return the task for the write
+     */
+    public Task<Void> finish(Run run, String kind, int drawSize, int poolSize, Exception error) {
+        Map<String, Object> outcome = new HashMap<>();
+        outcome.put("state", error == null ? DONE : FAILED);
+        outcome.put("kind", kind);
+        outcome.put("drawSize", drawSize);
+        outcome.put("poolSize", poolSize);
+        outcome.put("finishedAt", ServerValue.TIMESTAMP);
+        if (error != null) outcome.put("error", String.valueOf(error.getMessage()));
+        return runService.updateEntry(eventId + "/" + run.runId, outcome);
+    }
+
+    /**
+     * Reproduces a recorded draw.
+     *
+     * @param seed the run's seed
+     * @param ids the WAITING ids the run read, in key order
+     * @param drawSize the run's draw size
+     * @return the winners the run picked
+     */
+    public static Set<String> replay(long seed, Iterable<String> ids, int drawSize) {
+        return new LotteryDraw(new Random(seed)).pick(ids, drawSize);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.chicksevent.misc;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.chicksevent.util.DateFormatter;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Draws the lottery of every event whose registration has closed, several events at a time.
+ * <p>
+ * Lotteries used to run only when an organizer pressed the pool button, one event at a time.
+ * A {@link #sweep()} instead:
+ * </p>
+ * <ul>
+ *   <li>takes the catalogue from the {@link EventRepository} and keeps the events whose
+ *       {@code registrationEndDate} lies before today;</li>
+ *   <li>skips those whose {@code LotteryRuns/{eventId}} ledger already holds a finished run;</li>
+ *   <li>runs {@link Lottery#drawIfNotDrawn()} for the rest, with at most
+ *       {@code maxConcurrent} events in progress at once. Each draw claims its run in the
+ *       {@link LotteryRunLedger}, so a sweep can safely overlap with organizers or with sweeps
+ *       on other devices.</li>
+ * </ul>
+ *
+ * <p>Every finished event is reported to an optional {@link Listener}, and the sweep resolves
+ * to a {@link Report} with counts, failures and throughput.</p>
+ *
+ * <p><b>Headless runs:</b> call {@link #useEmulator(String, int)} before anything else touches
+ * the database to point the process at a local Realtime Database emulator; the instrumented
+ * {@code LotterySchedulerEmulatorTest} does this to sweep a seeded catalogue.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class LotteryScheduler {
+
+    private static final String TAG = LotteryScheduler.class.getSimpleName();
+
+    /** Events drawn at once unless configured otherwise. */
+    public static final int DEFAULT_MAX_CONCURRENT = 8;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /** How a swept event ended. */
+    public enum Outcome {
+        /** This sweep ran the event's draw. */
+        DRAWN,
+        /** The event was already drawn, or another device held its ledger. */
+        SKIPPED,
+        /** The draw or the ledger read failed. */
+        FAILED
+    }
+
+    /**
+     * Creates the {@link Lottery} for one event; tests supply fakes.
+     */
+    public interface LotteryFactory {
+        /**
+         * @param eventId the event to draw
+         * @return its lottery
+         */
+        Lottery create(String eventId);
+    }
+
+    /**
+     * Receives per-event progress of a sweep.
+     */
+    public interface Listener {
+        /**
+         * @param eventId the finished event
+         * @param outcome how it ended
+         * @param error the failure for {@link Outcome#FAILED}, otherwise {@code null}
+         */
+        void onEventFinished(String eventId, Outcome outcome, Exception error);
+    }
+
+    /**
+     * Summary of one sweep.
+     */
+    public static final class Report {
+        /** Events whose registration had closed. */
+        public int candidates;
+        /** Events drawn by this sweep. */
+        public int drawn;
+        /** Events skipped as already drawn or claimed elsewhere. */
+        public int skipped;
+        /** Failed events and why, in completion order. */
+        public final Map<String, Exception> failures = new LinkedHashMap<>();
+        /** Wall time of the sweep. */
+        public long elapsedMs;
+
+        /** @return finished events per second */
+        public double eventsPerSecond() {
+            int finished = drawn + skipped + failures.size();
+            return elapsedMs <= 0 ? finished : finished * 1000.0 / elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return "candidates=" + candidates + " drawn=" + drawn + " skipped=" + skipped
+                    + " failed=" + failures.size() + " in " + elapsedMs + " ms ("
+                    + String.format(Locale.ROOT, "%.1f", eventsPerSecond()) + " events/s)";
+        }
+    }
+
+    private final EventRepository repository;
+    private final FirebaseService runService;
+    private final LotteryFactory lotteries;
+    private final int maxConcurrent;
+    private Listener listener;
+
+    /**
+     * Creates a scheduler over the shared repository with the default concurrency cap.
+     */
+    public LotteryScheduler() {
+        this(EventRepository.getInstance(), new FirebaseService(LotteryRunLedger.ROOT), Lottery::new,
+                DEFAULT_MAX_CONCURRENT);
+    }
+
+    /**
+     * Creates a scheduler with explicit collaborators.
+     *
+     * @param repository source of the event catalogue
+     * @param runService service scoped to the {@code LotteryRuns} root
+     * @param lotteries creates each event's lottery
+     * @param maxConcurrent events drawn at once
+     */
+    public LotteryScheduler(EventRepository repository, FirebaseService runService,
+                            LotteryFactory lotteries, int maxConcurrent) {
+        this.repository = repository;
+        this.runService = runService;
+        this.lotteries = lotteries;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * Points the default database at a local emulator. Must be called before the database is
+     * used for anything else in the process.
+     *
+     * @param host emulator host, e.g. {@code "10.0.2.2"} from an Android emulator
+     * @param port emulator port, usually {@code 9000}
+     */
+    public static void useEmulator(String host, int port) {
+        FirebaseDatabase.getInstance().useEmulator(host, port);
+    }
+
+    /**
+     * Sets the receiver for per-event progress.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sweeps the events whose registration closed before today (UTC).
+     *
+     * @return a task resolving to the sweep's report
+     */
+    public Task<Report> sweep() {
+        return sweep(Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY));
+    }
+
+    /**
+     * Sweeps the events whose registration closed before the given day.
+     *
+     * @param todayEpochDay the current day, as days since 1970-01-01
+     * @return a task resolving to the sweep's report; it fails only if the catalogue cannot
+     *         be read
+     */
+    public Task<Report> sweep(long todayEpochDay) {
+        TaskCompletionSource<Report> tcs = new TaskCompletionSource<>();
+        long startedAt = SystemClock.elapsedRealtime();
+
+        repository.getEvents().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read the catalogue", task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Catalogue read failed"));
+                return;
+            }
+            new Sweep(closedBefore(task.getResult(), todayEpochDay), startedAt, tcs).pump();
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * @return ids of the events whose registration end date lies before {@code todayEpochDay}
+     */
+    private static ArrayDeque<String> closedBefore(List<Event> events, long todayEpochDay) {
+        ArrayDeque<String> closed = new ArrayDeque<>();
+        for (Event e : events) {
+            Long end = DateFormatter.toEpochDay(e.getRegistrationEndDate());
+            if (end != null && end < todayEpochDay) closed.add(e.getId());
+        }
+        return closed;
+    }
+
+    /** State of one sweep. */
+    private final class Sweep {
+        final ArrayDeque<String> queue;
+        final long startedAt;
+        final TaskCompletionSource<Report> tcs;
+        final Report report = new Report();
+        int inFlight;
+
+        Sweep(ArrayDeque<String> queue, long startedAt, TaskCompletionSource<Report> tcs) {
+            this.queue = queue;
+            this.startedAt = startedAt;
+            this.tcs = tcs;
+            report.candidates = queue.size();
+            Log.i(TAG, "Sweeping " + queue.size() + " events with closed registration");
+        }
+
+        /** Starts events until the concurrency cap is reached; resolves once all have finished. */
+        void pump() {
+            while (inFlight < maxConcurrent && !queue.isEmpty()) {
+                inFlight++;
+                start(queue.poll());
+            }
+            if (inFlight == 0 && queue.isEmpty() && !tcs.getTask().isComplete()) {
+                report.elapsedMs = SystemClock.elapsedRealtime() - startedAt;
+                Log.i(TAG, "Sweep finished: " + report);
+                tcs.setResult(report);
+            }
+        }
+
+        void start(String eventId) {
+            runService.getReference().child(eventId).get().addOnCompleteListener(ledger -> {
+                if (!ledger.isSuccessful() || ledger.getResult() == null) {
+                    finish(eventId, Outcome.FAILED, ledger.getException() != null
+                            ? ledger.getException() : new Exception("Ledger read failed"));
+                    return;
+                }
+                if (hasFinishedRun(ledger.getResult())) {
+                    finish(eventId, Outcome.SKIPPED, null);
+                    return;
+                }
+
+                lotteries.create(eventId).drawIfNotDrawn().addOnCompleteListener(draw -> {
+                    if (!draw.isSuccessful()) {
+                        finish(eventId, Outcome.FAILED, draw.getException() != null
+                                ? draw.getException() : new Exception("Draw failed"));
+                    } else {
+                        finish(eventId, Boolean.TRUE.equals(draw.getResult()) ? Outcome.DRAWN : Outcome.SKIPPED, null);
+                    }
+                });
+            });
+        }
+
+        void finish(String eventId, Outcome outcome, Exception error) {
+            inFlight--;
+            switch (outcome) {
+                case DRAWN:
+                    report.drawn++;
+                    break;
+                case SKIPPED:
+                    report.skipped++;
+                    break;
+                default:
+                    Log.w(TAG, "Lottery failed for " + eventId, error);
+                    report.failures.put(eventId, error);
+            }
+            if (listener != null) listener.onEventFinished(eventId, outcome, error);
+            pump();
+        }
+    }
+
+    /**
+     * @param ledger the event's {@code LotteryRuns/{eventId}} node
+     * @return whether any run in it finished successfully
+     */
+    private static boolean hasFinishedRun(DataSnapshot ledger) {
+        for (DataSnapshot run : ledger.getChildren()) {
+            if (LotteryRunLedger.DONE.equals(run.child("state").getValue(String.class))) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs a one-time data migration behind a root-relative marker such as
+ * {@code Migrations/tags}.
+ * <p>
+ * The first caller reads the marker. If it exists the gate opens; if it is missing the
+ * migration runs, and is expected to write the marker in the same update as its data. Callers
+ * that arrive while the check or the migration is in flight wait for that outcome instead of
+ * starting their own, so one process migrates at most once at a time.
+ * </p>
+ *
+ * <p>A failed marker read fails the waiting callers without migrating: an unreadable marker
+ * says nothing about whether the migration is needed. After any failure the gate stays closed
+ * and the next caller starts over.</p>
+ *
+ * @author Jordan Kwan
+ */
+class MigrationGate {
+
+    private static final String TAG = MigrationGate.class.getSimpleName();
+
+    /** A migration; calls {@code done} with {@code null} once the data and marker are written. */
+    interface Migration {
+        void run(Consumer<Exception> done);
+    }
+
+    /** Service whose database holds the marker. */
+    private final FirebaseService service;
+
+    /** Root-relative path of the marker. */
+    private final String marker;
+
+    private final Migration migration;
+
+    /** Whether the marker has been seen (or written) by this process. */
+    private boolean open = false;
+
+    /** Callers waiting on the check in flight, or {@code null} when none is running. */
+    private List<Consumer<Exception>> waiting;
+
+    /**
+     * @param service any service on the database holding the marker
+     * @param marker root-relative path of the marker
+     * @param migration writes the migrated data and the marker
+     */
+    MigrationGate(FirebaseService service, String marker, Migration migration) {
+        this.service = service;
+        this.marker = marker;
+        this.migration = migration;
+    }
+
+    /**
+     * Calls {@code done} once the migration is known to have run, running it if needed. The
+     * error is {@code null} on success.
+     */
+    void whenOpen(Consumer<Exception> done) {
+        boolean alreadyOpen = false;
+        synchronized (this) {
+            if (open) {
+                alreadyOpen = true;
+            } else if (waiting != null) {
+                // Answered when the check in flight finishes
+                waiting.add(done);
+                return;
+            } else {
+                waiting = new ArrayList<>();
+                waiting.add(done);
+            }
+        }
+        if (alreadyOpen) {
+            done.accept(null);
+            return;
+        }
+
+        service.getReference().getRoot().child(marker).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read " + marker, task.getException());
+                finish(task.getException() != null
+                        ? task.getException() : new Exception("Failed to read " + marker));
+            } else if (task.getResult().exists()) {
+                finish(null);
+            } else {
+                migration.run(this::finish);
+            }
+        });
+    }
+
+    private void finish(Exception error) {
+        List<Consumer<Exception>> callers;
+        synchronized (this) {
+            open = error == null;
+            callers = waiting;
+            waiting = null;
+        }
+        for (Consumer<Exception> caller : callers) caller.accept(error);
+    }
+}
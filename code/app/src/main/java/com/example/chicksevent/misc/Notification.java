@@ -2,7 +2,6 @@ package com.example.chicksevent.misc;
 
 import com.example.chicksevent.enums.NotificationType;
 import com.google.android.gms.tasks.Task;
-import com.google.firebase.database.DataSnapshot;
 
 import java.util.HashMap;
 
@@ -15,7 +14,8 @@ import java.util.HashMap;
  * to Firebase under the <code>Notification</code> root.
  * </p>
  *
- * <p><b>Firebase path used:</b> {@code Notification/{userId}/{eventId}/{notificationType}}</p>
+ * <p><b>Firebase path used:</b> {@code Notification/{userId}/{notificationId}}, a push-keyed
+ * entry read newest-first by {@link NotificationInbox}</p>
  *
  * @author Jordan Kwan
  */
@@ -35,9 +35,17 @@ public class Notification {
 
     private String eventName;
 
+    /** Push key of the stored entry, or {@code null} until the notification has been read back. */
+    private String notificationId;
+
+    /** Server time the notification was stored, or {@code null} if unknown. */
+    private Long createdAt;
+
     /** Firebase service for performing notification-related database operations. */
     private FirebaseService notificationService;
-    private FirebaseService eventService;
+
+    /** Keyed, cached resolver used to find this notification's event. */
+    private EventLookup eventLookup;
 
     /**
      * Constructs a new {@code Notification} for a specific user and event.
@@ -49,23 +57,54 @@ public class Notification {
      */
     public Notification(String userId, String eventId, NotificationType notificationType, String message) {
         notificationService = new FirebaseService("Notification");
-        eventService = new FirebaseService("Event");
+        eventLookup = EventLookup.getInstance();
         this.userId = userId;
         this.eventId = eventId;
         this.notificationType = notificationType;
         this.message = message;
     }
 
+    /**
+     * Constructs a notification read back from its stored entry.
+     *
+     * @param notificationId the entry's push key
+     * @param userId the identifier of the user receiving the notification
+     * @param eventId the identifier of the related event
+     * @param notificationType the type of notification
+     * @param message the message content of the notification
+     */
+    public Notification(String notificationId, String userId, String eventId, NotificationType notificationType, String message) {
+        this(userId, eventId, notificationType, message);
+        this.notificationId = notificationId;
+    }
+
     /**
      * Creates and uploads this notification to Firebase under the appropriate user and event node.
      * <p>
-     * The data includes the notification message and type.
+     * The data includes the notification message, type and a server timestamp, and the
+     * recipient's unread counter is incremented and the send is added to the
+     * {@link NotificationLog} in the same write.
      * </p>
+     *
+     * @return the task for the write
+     */
+    public Task<Void> createNotification() {
+        return createNotification(notificationService);
+    }
+
+    /**
+     * Uploads this notification through the given service, typically one backed by a
+     * {@link WriteBatcher} when many notifications are sent at once.
+     *
+     * @param service a service scoped to the {@code Notification} root
+     * @return the task for the write, completing when its batch commits
      */
-    public void createNotification() {
-        HashMap<String, Object> data = new HashMap<>();
-        data.put("message", message);
-        notificationService.updateSubCollectionEntry(userId, eventId, notificationType.toString(), data);
+    public Task<Void> createNotification(FirebaseService service) {
+        notificationId = service.getReference().child(userId).push().getKey();
+        HashMap<String, Object> updates = new HashMap<>();
+        NotificationInbox.putDelivery(updates, userId, notificationId, eventId, notificationType, message);
+        NotificationLog.putEntry(updates, notificationId, eventId, notificationType, message, userId, 1);
+        return service.updateMultiPath(updates);
     }
 
     /**
@@ -86,15 +125,16 @@ public class Notification {
         return eventId;
     }
 
+    /**
+     * Resolves the name of the associated event with a single keyed read (or none, if the event
+     * is already known to {@link EventLookup}).
+     *
+     * @return a task resolving to the event name, or {@code "NO NAME"} if the event is missing
+     */
     public Task<String> getEventName() {
-        return eventService.getReference().get().continueWith(task -> {
-//            eventName =
-            for (DataSnapshot ds : task.getResult().getChildren()) {
-                if (ds.getKey().equals(eventId)) {
-                    return ((HashMap<String, String>) ds.getValue()).get("name");
-                }
-            }
-            return "NO NAME";
+        return eventLookup.get(eventId).continueWith(task -> {
+            Event event = task.isSuccessful() ? task.getResult() : null;
+            return event != null ? event.getName() : "NO NAME";
         });
     }
 
@@ -105,4 +145,22 @@ public class Notification {
     public String getUserId() {
         return userId;
     }
+
+    /**
+     * @return the push key of the stored entry, or {@code null} if not yet stored
+     */
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    /**
+     * @return the server time the notification was stored, or {@code null} if unknown
+     */
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.example.chicksevent.misc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Delivers one message to many users as a few multi-path writes.
+ * <p>
+ * Broadcasting used to build a {@link Notification} per recipient, each constructing its own
+ * services and issuing its own write. {@link #send} instead writes every recipient's inbox entry
+ * and unread counter directly ({@link NotificationInbox#putDelivery}), at most
+ * {@link #DEFAULT_CHUNK_SIZE} recipients per root-level {@code updateChildren}. Chunks go out
+ * one after another, so a broadcast to 5,000 entrants is ten writes with one in flight.
+ * </p>
+ *
+ * <p>The whole broadcast shares one push key, so it sorts by its send time in every inbox. The
+ * same key names its single {@link NotificationLog} entry, written once the chunks are done
+ * with the number of recipients actually reached. Nothing is logged if nobody was reached.</p>
+ *
+ * <p>A rejected write is retried up to {@link #MAX_ATTEMPTS} times with exponential backoff
+ * starting at {@link #BASE_BACKOFF_MS}. Each chunk is one
+ * atomic multi-path update, so a failed attempt applied nothing and can simply be sent again.
+ * A chunk that runs out of attempts is logged and skipped; the remaining chunks are still sent.
+ * The returned {@link Delivery} says how many recipients were written out of how many were
+ * targeted, so callers can report a partial delivery.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class NotificationFanout {
+
+    private static final String TAG = NotificationFanout.class.getSimpleName();
+
+    /** Recipients per multi-path write unless configured otherwise. */
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** Attempts per write before it is given up on. */
+    public static final int MAX_ATTEMPTS = 5;
+
+    /** Delay before the first retry; doubled for each one after. */
+    public static final long BASE_BACKOFF_MS = 500;
+
+    /**
+     * Runs delayed retries. Production code posts to the main looper; tests run them by hand.
+     */
+    public interface Scheduler {
+        /**
+         * @param task the retry to run
+         * @param delayMs delay before running it
+         */
+        void schedule(Runnable task, long delayMs);
+    }
+
+    /**
+     * How a broadcast went: how many recipients were written out of how many were targeted.
+     */
+    public static final class Delivery {
+        private final int delivered;
+        private final int recipients;
+
+        /**
+         * @param delivered recipients whose inbox entry was written
+         * @param recipients recipients targeted
+         */
+        public Delivery(int delivered, int recipients) {
+            this.delivered = delivered;
+            this.recipients = recipients;
+        }
+
+        /** @return recipients whose inbox entry was written */
+        public int getDelivered() {
+            return delivered;
+        }
+
+        /** @return recipients targeted */
+        public int getRecipients() {
+            return recipients;
+        }
+
+        /** @return whether every targeted recipient was written */
+        public boolean isComplete() {
+            return delivered == recipients;
+        }
+    }
+
+    private final DatabaseReference root;
+    private final int chunkSize;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates a fan-out over the default database root.
+     */
+    public NotificationFanout() {
+        this(FirebaseDatabase.getInstance().getReference(), DEFAULT_CHUNK_SIZE,
+                (task, delayMs) -> new Handler(Looper.getMainLooper()).postDelayed(task, delayMs));
+    }
+
+    /**
+     * Creates a fan-out over the given root.
+     *
+     * @param root the database root that paths are relative to
+     * @param chunkSize recipients per write
+     * @param scheduler runs delayed retries
+     */
+    public NotificationFanout(DatabaseReference root, int chunkSize, Scheduler scheduler) {
+        this.root = root;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sends {@code message} to every recipient.
+     *
+     * @param eventId the event the notification is about
+     * @param type the notification type
+     * @param message the message body
+     * @param userIds the recipients
+     * @return a task resolving to how many recipients were written; it never fails
+     */
+    public Task<Delivery> send(String eventId, NotificationType type, String message, Iterable<String> userIds) {
+        String key = root.child(NotificationInbox.ROOT).push().getKey();
+        List<Map<String, Object>> chunks = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        Map<String, Object> chunk = new HashMap<>();
+        int recipients = 0;
+        for (String userId : userIds) {
+            NotificationInbox.putDelivery(chunk, userId, key, eventId, type, message);
+            if (++recipients == chunkSize) {
+                chunks.add(chunk);
+                sizes.add(recipients);
+                chunk = new HashMap<>();
+                recipients = 0;
+            }
+        }
+        if (recipients > 0) {
+            chunks.add(chunk);
+            sizes.add(recipients);
+        }
+        int total = 0;
+        for (int size : sizes) total += size;
+        int targeted = total;
+
+        TaskCompletionSource<Delivery> tcs = new TaskCompletionSource<>();
+        writeFrom(chunks, sizes, 0, 0, eventId, delivered -> {
+            Delivery delivery = new Delivery(delivered, targeted);
+            if (delivered == 0) {
+                tcs.setResult(delivery);
+                return;
+            }
+            Map<String, Object> entry = new HashMap<>();
+            NotificationLog.putEntry(entry, key, eventId, type, message, null, delivered);
+            write(entry, 1, logged -> {
+                if (!logged) Log.e(TAG, "Failed to log notification " + key + " for " + eventId);
+                tcs.setResult(delivery);
+            });
+        });
+        return tcs.getTask();
+    }
+
+    private void writeFrom(List<Map<String, Object>> chunks, List<Integer> sizes, int index,
+                           int delivered, String eventId, Consumer<Integer> done) {
+        if (index == chunks.size()) {
+            Log.i(TAG, "Delivered " + delivered + " notifications for " + eventId
+                    + " in " + chunks.size() + " chunks");
+            done.accept(delivered);
+            return;
+        }
+
+        write(chunks.get(index), 1, written -> {
+            if (!written) {
+                Log.e(TAG, "Notification chunk " + (index + 1) + "/" + chunks.size()
+                        + " for " + eventId + " skipped after " + MAX_ATTEMPTS + " attempts");
+            }
+            writeFrom(chunks, sizes, index + 1, written ? delivered + sizes.get(index) : delivered,
+                    eventId, done);
+        });
+    }
+
+    /**
+     * Sends one multi-path update, retrying with backoff, and reports whether it landed.
+     */
+    private void write(Map<String, Object> updates, int attempt, Consumer<Boolean> done) {
+        root.updateChildren(updates, (error, ref) -> {
+            if (error == null) {
+                done.accept(true);
+            } else if (attempt < MAX_ATTEMPTS) {
+                long delay = BASE_BACKOFF_MS << (attempt - 1);
+                Log.w(TAG, "Notification write failed (attempt " + attempt + "), retrying in " + delay
+                        + " ms: " + error.getMessage());
+                scheduler.schedule(() -> write(updates, attempt + 1, done), delay);
+            } else {
+                Log.e(TAG, "Notification write failed after " + attempt + " attempts", error.toException());
+                done.accept(false);
+            }
+        });
+    }
+}
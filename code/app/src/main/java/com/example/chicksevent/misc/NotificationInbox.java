@@ -0,0 +1,481 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * One user's notification inbox, read newest-first one page at a time.
+ * <p>
+ * Notifications used to be stored as {@code Notification/{userId}/{eventId}/{type}/message}
+ * with no timestamp, so the inbox could only be downloaded whole and in no particular order.
+ * Each notification is now its own entry under a push key,
+ * {@code Notification/{userId}/{pushId} = {eventId, type, message, createdAt}}, with
+ * {@code createdAt} set by the server. Push keys sort by creation time, so
+ * {@link #loadNext()} asks for {@code orderByKey().limitToLast(pageSize)} and then
+ * {@code endBefore(oldestKey)} for older pages: opening the inbox costs one page.
+ * </p>
+ *
+ * <p><b>Unread badge:</b> every delivery also increments {@code UnreadCount/{userId}}, see
+ * {@link #putDelivery}. The badge is one integer read ({@link #getUnreadCount()}) and
+ * {@link #markAllRead()} resets it when the inbox is opened.</p>
+ *
+ * <p><b>Migration:</b> a user's legacy entries are converted once, before their first page is
+ * read. The inbox checks {@code Migrations/inbox/{userId}} and, if it is missing, rewrites every
+ * legacy entry as a push-keyed entry in one multi-path update that also sets the marker.
+ * Converted entries have no recorded time, so they take the time of the migration and sort
+ * before anything delivered afterwards. They are added to the {@link NotificationLog} too.</p>
+ *
+ * <p><b>Live updates:</b> once the first page is loaded, {@link #listen(Listener)} attaches a
+ * {@link ChildEventListener} to {@code orderByKey().startAt(oldestKey)}, i.e. the first page
+ * and everything delivered after it. Firebase then sends only the entries that are added,
+ * changed or removed in that range, so new notifications appear without reading the inbox
+ * again. Older pages are not watched; deleting from them is applied locally.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class NotificationInbox {
+
+    private static final String TAG = NotificationInbox.class.getSimpleName();
+
+    /** Root node of every user's notifications. */
+    public static final String ROOT = "Notification";
+
+    /** Root node of every user's unread counter. */
+    public static final String UNREAD_ROOT = "UnreadCount";
+
+    /** Root-relative prefix of the per-user migration markers. */
+    static final String MIGRATION_MARKER = "Migrations/inbox";
+
+    /** Notifications requested per page; comfortably more than one screen of rows. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Receives changes to the watched part of the inbox.
+     */
+    public interface Listener {
+        /** Called when a notification is delivered or one of its fields changes. */
+        void onNotificationUpserted(Notification notification);
+
+        /** Called when a notification is deleted. */
+        void onNotificationRemoved(String notificationId);
+    }
+
+    /** Firebase service for the "Notification" root. */
+    private final FirebaseService notificationService;
+    private final String userId;
+    private final int pageSize;
+
+    /** Key of the oldest notification loaded so far, or {@code null} before the first page. */
+    private String oldestKey;
+
+    /** Key of the oldest notification on the first page, where live updates start. */
+    private String newestPageStart;
+
+    /** Whether the oldest notification has been loaded. */
+    private boolean atEnd = false;
+
+    /** Whether this user's legacy entries are known to be converted. */
+    private boolean migrated = false;
+
+    /** The load currently on the wire, if any. */
+    private Task<List<Notification>> inFlight;
+
+    /** The watched range and its subscription, or {@code null} when not listening. */
+    private Query liveQuery;
+    private ChildEventListener liveListener;
+
+    /**
+     * Creates an inbox over the default {@code Notification} root.
+     *
+     * @param userId the inbox owner
+     */
+    public NotificationInbox(String userId) {
+        this(new FirebaseService(ROOT), userId, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates an inbox over the given service.
+     *
+     * @param notificationService service scoped to the {@code Notification} root
+     * @param userId the inbox owner
+     * @param pageSize notifications per query
+     */
+    public NotificationInbox(FirebaseService notificationService, String userId, int pageSize) {
+        this.notificationService = notificationService;
+        this.userId = userId;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Adds one notification for one user to a multi-path update: the entry itself and an
+     * increment of the user's unread counter.
+     *
+     * @param updates root-relative paths to values
+     * @param userId the recipient
+     * @param key the entry's push key; one key may be shared by every recipient of a broadcast
+     * @param eventId the event the notification is about
+     * @param type the notification type
+     * @param message the message body
+     */
+    public static void putDelivery(Map<String, Object> updates, String userId, String key,
+                                   String eventId, NotificationType type, String message) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("eventId", eventId);
+        entry.put("type", type.toString());
+        entry.put("message", message);
+        entry.put("createdAt", ServerValue.TIMESTAMP);
+        updates.put(ROOT + "/" + userId + "/" + key, entry);
+        updates.put(UNREAD_ROOT + "/" + userId, ServerValue.increment(1));
+    }
+
+    /**
+     * Reads one push-keyed entry.
+     *
+     * @param userId the inbox owner
+     * @param entry the {@code Notification/{userId}/{pushId}} snapshot
+     * @return the notification, or {@code null} if the entry is not in the push-keyed shape
+     */
+    public static Notification fromSnapshot(String userId, DataSnapshot entry) {
+        if (!entry.hasChild("eventId")) return null;
+        Object eventId = entry.child("eventId").getValue();
+        if (!(eventId instanceof String)) return null;
+
+        Object message = entry.child("message").getValue();
+        Object createdAt = entry.child("createdAt").getValue();
+        Notification n = new Notification(entry.getKey(), userId, (String) eventId,
+                typeOf(entry.child("type").getValue()), message != null ? message.toString() : null);
+        if (createdAt instanceof Long) n.setCreatedAt((Long) createdAt);
+        return n;
+    }
+
+    /**
+     * Loads the next-older page (the newest page on the first call).
+     *
+     * @return a task resolving to the page, newest first; empty once the inbox is exhausted
+     */
+    public Task<List<Notification>> loadNext() {
+        if (inFlight != null) return inFlight;
+        if (atEnd) return Tasks.forResult(Collections.emptyList());
+
+        TaskCompletionSource<List<Notification>> tcs = new TaskCompletionSource<>();
+        inFlight = tcs.getTask();
+        ensureMigrated(error -> {
+            if (error != null) {
+                inFlight = null;
+                tcs.setException(error);
+                return;
+            }
+            Query query = notificationService.getReference().child(userId).orderByKey();
+            if (oldestKey != null) query = query.endBefore(oldestKey);
+            query.limitToLast(pageSize).get().addOnCompleteListener(task -> {
+                inFlight = null;
+                if (!task.isSuccessful() || task.getResult() == null) {
+                    Log.e(TAG, "Failed to load notification page", task.getException());
+                    tcs.setException(task.getException() != null
+                            ? task.getException() : new Exception("Notification page read failed"));
+                    return;
+                }
+                tcs.setResult(accept(task.getResult()));
+            });
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Starts delivering changes to the first page and to anything newer. Call after the first
+     * {@link #loadNext()} has completed; entries already on that page are delivered again once
+     * as the subscription starts, so callers should match them by
+     * {@link Notification#getNotificationId()}.
+     *
+     * @param listener receives the changes on the main thread
+     */
+    public void listen(Listener listener) {
+        stopListening();
+
+        Query query = notificationService.getReference().child(userId).orderByKey();
+        if (newestPageStart != null) query = query.startAt(newestPageStart);
+        liveListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot, listener);
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                upsert(snapshot, listener);
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onNotificationRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // Ordering is by key; nothing to do.
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Inbox subscription cancelled: " + error.getMessage());
+            }
+        };
+        liveQuery = query;
+        liveQuery.addChildEventListener(liveListener);
+    }
+
+    /**
+     * Detaches the subscription started by {@link #listen(Listener)}, if any.
+     */
+    public void stopListening() {
+        if (liveListener != null) {
+            liveQuery.removeEventListener(liveListener);
+            liveListener = null;
+            liveQuery = null;
+        }
+    }
+
+    private void upsert(DataSnapshot snapshot, Listener listener) {
+        Notification notification = fromSnapshot(userId, snapshot);
+        if (notification == null) {
+            Log.w(TAG, "Skipping malformed notification: " + snapshot.getKey());
+            return;
+        }
+        listener.onNotificationUpserted(notification);
+    }
+
+    /**
+     * @return whether older notifications may follow the loaded ones
+     */
+    public boolean hasNext() {
+        return !atEnd;
+    }
+
+    /**
+     * @return whether a page is currently being fetched
+     */
+    public boolean isLoading() {
+        return inFlight != null;
+    }
+
+    /**
+     * Deletes one notification.
+     *
+     * @param notification a notification loaded from this inbox
+     * @return the task for the delete
+     */
+    public Task<Void> delete(Notification notification) {
+        return notificationService.deleteEntry(userId + "/" + notification.getNotificationId());
+    }
+
+    /**
+     * Reads the unread counter with a single keyed read.
+     *
+     * @return a task resolving to the number of notifications delivered since the inbox was
+     *         last opened
+     */
+    public Task<Integer> getUnreadCount() {
+        TaskCompletionSource<Integer> tcs = new TaskCompletionSource<>();
+        unreadRef().get().addOnCompleteListener(task -> {
+            Object value = task.isSuccessful() && task.getResult() != null ? task.getResult().getValue() : null;
+            tcs.setResult(value instanceof Long ? (int) Math.max(0, (Long) value) : 0);
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Resets the unread counter.
+     *
+     * @return the task for the write
+     */
+    public Task<Void> markAllRead() {
+        return unreadRef().setValue(0);
+    }
+
+    private DatabaseReference unreadRef() {
+        return notificationService.getReference().getRoot().child(UNREAD_ROOT).child(userId);
+    }
+
+    /**
+     * Records a fetched page and returns it newest first.
+     */
+    private List<Notification> accept(DataSnapshot page) {
+        List<Notification> notifications = new ArrayList<>();
+        int raw = 0;
+        for (DataSnapshot entry : page.getChildren()) {
+            if (raw++ == 0) oldestKey = entry.getKey();
+            Notification n = fromSnapshot(userId, entry);
+            if (n != null) notifications.add(n);
+        }
+        if (newestPageStart == null) newestPageStart = oldestKey;
+        atEnd = raw < pageSize;
+        Collections.reverse(notifications);
+        return notifications;
+    }
+
+    /**
+     * Calls {@code done} once this user's legacy entries are known to be converted. The error
+     * is {@code null} on success.
+     */
+    private void ensureMigrated(Consumer<Exception> done) {
+        if (migrated) {
+            done.accept(null);
+            return;
+        }
+
+        DatabaseReference root = notificationService.getReference().getRoot();
+        root.child(MIGRATION_MARKER).child(userId).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult() != null && task.getResult().exists()) {
+                migrated = true;
+                done.accept(null);
+                return;
+            }
+            migrate(done);
+        });
+    }
+
+    private void migrate(Consumer<Exception> done) {
+        DatabaseReference inbox = notificationService.getReference().child(userId);
+        inbox.get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read inbox for migration", task.getException());
+                done.accept(task.getException() != null
+                        ? task.getException() : new Exception("Inbox read failed"));
+                return;
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            putConversion(updates, inbox, userId, task.getResult());
+
+            Log.i(TAG, "Migrating inbox of " + userId + " (" + updates.size() + " paths)");
+            notificationService.updateMultiPath(updates).addOnCompleteListener(write -> {
+                if (write.isSuccessful()) {
+                    migrated = true;
+                    done.accept(null);
+                } else {
+                    done.accept(write.getException() != null
+                            ? write.getException() : new Exception("Inbox migration failed"));
+                }
+            });
+        });
+    }
+
+    /**
+     * Adds the conversion of one user's legacy entries, and their migration marker, to a
+     * multi-path update. Shared with {@link NotificationLogBackfill}, which converts the inboxes
+     * of users who have not opened theirs yet.
+     *
+     * @param updates root-relative paths to values
+     * @param inbox the user's inbox, used to mint push keys
+     * @param userId the user
+     * @param entries the user's whole inbox
+     * @return how many legacy notifications were converted
+     */
+    static int putConversion(Map<String, Object> updates, DatabaseReference inbox,
+                             String userId, DataSnapshot entries) {
+        int converted = 0;
+        for (DataSnapshot child : entries.getChildren()) {
+            if (child.hasChild("eventId")) continue; // already push-keyed
+
+            // Legacy shape: {eventId}/{type}/message
+            for (DataSnapshot typed : child.getChildren()) {
+                Object message = typed.child("message").getValue();
+                String text = message != null ? message.toString() : null;
+                NotificationType type = typeOf(typed.getKey());
+                String key = inbox.push().getKey();
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("eventId", child.getKey());
+                entry.put("type", type.toString());
+                entry.put("message", text);
+                entry.put("createdAt", ServerValue.TIMESTAMP);
+                updates.put(ROOT + "/" + userId + "/" + key, entry);
+                // Legacy sends were never logged; record them as they are converted
+                NotificationLog.putEntry(updates, key, child.getKey(), type, text, userId, 1);
+                converted++;
+            }
+            updates.put(ROOT + "/" + userId + "/" + child.getKey(), null);
+        }
+        updates.put(MIGRATION_MARKER + "/" + userId, true);
+        return converted;
+    }
+
+    /**
+     * Adds the removal of one user's notifications about a deleted event to a multi-path update,
+     * and takes the removed unread ones off the user's unread counter.
+     * <p>
+     * Entries carry no read flag; the counter says how many deliveries arrived since the inbox
+     * was last opened. Push keys sort by send time, so the newest {@code unread} push-keyed
+     * entries are taken to be the unread ones. Legacy entries predate the counter and are never
+     * unread.
+     * </p>
+     *
+     * @param updates root-relative paths to values
+     * @param userId the inbox owner
+     * @param inbox the user's whole inbox, in key order
+     * @param unread the user's unread counter as read
+     * @param eventId the deleted event
+     * @param keep push keys to leave in place, such as the notice of the deletion itself
+     * @return how many entries were removed
+     */
+    public static int putEventRemoval(Map<String, Object> updates, String userId, DataSnapshot inbox,
+                                      long unread, String eventId, Set<String> keep) {
+        List<DataSnapshot> pushed = new ArrayList<>();
+        int removed = 0;
+        for (DataSnapshot entry : inbox.getChildren()) {
+            if (entry.hasChild("eventId")) {
+                pushed.add(entry);
+            } else if (eventId.equals(entry.getKey())) {
+                // Legacy entry, keyed by its event id
+                updates.put(ROOT + "/" + userId + "/" + entry.getKey(), null);
+                removed++;
+            }
+        }
+
+        int removedUnread = 0;
+        for (int i = pushed.size() - 1; i >= 0; i--) {
+            DataSnapshot entry = pushed.get(i);
+            if (keep.contains(entry.getKey()) || !eventId.equals(entry.child("eventId").getValue())) continue;
+            updates.put(ROOT + "/" + userId + "/" + entry.getKey(), null);
+            removed++;
+            if (pushed.size() - 1 - i < unread) removedUnread++;
+        }
+        if (removedUnread > 0) {
+            updates.put(UNREAD_ROOT + "/" + userId, ServerValue.increment(-removedUnread));
+        }
+        return removed;
+    }
+
+    /**
+     * @return the type named by {@code value}, or {@link NotificationType#WAITING} if unknown
+     */
+    static NotificationType typeOf(Object value) {
+        if (value != null) {
+            try {
+                return NotificationType.valueOf(value.toString());
+            } catch (IllegalArgumentException ignored) {
+                // fall through
+            }
+        }
+        return NotificationType.WAITING;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only audit log of every notification sent, read newest-first one page at a time.
+ * <p>
+ * The admin notification screen used to download the whole {@code Notification} root, every
+ * user's inbox, to list what had been sent. Each send now also writes one entry,
+ * {@code NotificationLog/{pushId} = {eventId, type, message, createdAt, recipients[, userId]}},
+ * in the same multi-path update as the deliveries ({@link #putEntry}). A broadcast is one entry
+ * under its shared push key, however many users it reached.
+ * </p>
+ *
+ * <p><b>Paging:</b> the unfiltered log is read with {@code orderByKey().limitToLast(pageSize)}
+ * and then {@code endBefore(oldestKey)}, like {@link NotificationInbox}. Filtering by event or
+ * type is done by the server: {@code orderByChild(field).startAt(value).endAt(value)} for the
+ * first page and {@code endBefore(value, oldestKey)} for older ones, since entries with an equal
+ * child value are ordered by key. Either way a page costs {@code pageSize} entries however long
+ * the log grows. The database rules must declare
+ * {@code "NotificationLog": {".indexOn": ["eventId", "type"]}}; without it the server still
+ * answers filtered queries, but by downloading the whole log to the client.</p>
+ *
+ * <p>Entries are never deleted, so the log outlives the events and inboxes it describes. Sends
+ * from before the log existed are added once by {@link NotificationLogBackfill}.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class NotificationLog {
+
+    private static final String TAG = NotificationLog.class.getSimpleName();
+
+    /** Root node of the log. */
+    public static final String ROOT = "NotificationLog";
+
+    /** Indexed child holding the event id. */
+    public static final String EVENT_FIELD = "eventId";
+
+    /** Indexed child holding the notification type. */
+    public static final String TYPE_FIELD = "type";
+
+    /** Entries requested per page; comfortably more than one screen of rows. */
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    /** Firebase service for the "NotificationLog" root. */
+    private final FirebaseService logService;
+
+    /** Child the log is filtered on and the value it must equal, or both {@code null}. */
+    private final String field;
+    private final String value;
+    private final int pageSize;
+
+    /** Key of the oldest entry loaded so far, or {@code null} before the first page. */
+    private String oldestKey;
+
+    /** Whether the oldest matching entry has been loaded. */
+    private boolean atEnd = false;
+
+    /** The load currently on the wire, if any. */
+    private Task<List<Notification>> inFlight;
+
+    /**
+     * @return the whole log over the default root
+     */
+    public static NotificationLog all() {
+        return new NotificationLog(new FirebaseService(ROOT), null, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param eventId the event
+     * @return the entries about {@code eventId}, over the default root
+     */
+    public static NotificationLog forEvent(String eventId) {
+        return new NotificationLog(new FirebaseService(ROOT), EVENT_FIELD, eventId, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param type the notification type
+     * @return the entries of {@code type}, over the default root
+     */
+    public static NotificationLog ofType(NotificationType type) {
+        return new NotificationLog(new FirebaseService(ROOT), TYPE_FIELD, type.toString(), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a log reader over the given service.
+     *
+     * @param logService service scoped to the {@code NotificationLog} root
+     * @param field child to filter on, or {@code null} for the whole log
+     * @param value value {@code field} must equal
+     * @param pageSize entries per query
+     */
+    public NotificationLog(FirebaseService logService, String field, String value, int pageSize) {
+        this.logService = logService;
+        this.field = field;
+        this.value = value;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Adds one log entry to a multi-path update.
+     *
+     * @param updates root-relative paths to values
+     * @param key the push key of the delivery being logged
+     * @param eventId the event the notification is about
+     * @param type the notification type
+     * @param message the message body
+     * @param userId the recipient of a single delivery, or {@code null} for a broadcast
+     * @param recipients how many users the notification was sent to
+     */
+    public static void putEntry(Map<String, Object> updates, String key, String eventId,
+                                NotificationType type, String message, String userId, int recipients) {
+        putEntry(updates, key, eventId, type, message, userId, recipients, ServerValue.TIMESTAMP);
+    }
+
+    /**
+     * Adds one log entry with a known send time, for entries recorded after the fact.
+     *
+     * @param createdAt the send time in epoch millis, or {@link ServerValue#TIMESTAMP}
+     * @see #putEntry(Map, String, String, NotificationType, String, String, int)
+     */
+    static void putEntry(Map<String, Object> updates, String key, String eventId, NotificationType type,
+                         String message, String userId, int recipients, Object createdAt) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(EVENT_FIELD, eventId);
+        entry.put(TYPE_FIELD, type.toString());
+        entry.put("message", message);
+        entry.put("createdAt", createdAt);
+        entry.put("recipients", recipients);
+        if (userId != null) entry.put("userId", userId);
+        updates.put(ROOT + "/" + key, entry);
+    }
+
+    /**
+     * @return a reader over the same entries, positioned before the newest page again
+     */
+    public NotificationLog restarted() {
+        return new NotificationLog(logService, field, value, pageSize);
+    }
+
+    /**
+     * Loads the next-older page (the newest page on the first call).
+     *
+     * @return a task resolving to the page, newest first; empty once the log is exhausted
+     */
+    public Task<List<Notification>> loadNext() {
+        if (inFlight != null) return inFlight;
+        if (atEnd) return Tasks.forResult(Collections.emptyList());
+
+        TaskCompletionSource<List<Notification>> tcs = new TaskCompletionSource<>();
+        inFlight = tcs.getTask();
+        query().limitToLast(pageSize).get().addOnCompleteListener(task -> {
+            inFlight = null;
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to load notification log page", task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Notification log read failed"));
+                return;
+            }
+            tcs.setResult(accept(task.getResult()));
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * @return whether older entries may follow the loaded ones
+     */
+    public boolean hasNext() {
+        return !atEnd;
+    }
+
+    /**
+     * @return whether a page is currently being fetched
+     */
+    public boolean isLoading() {
+        return inFlight != null;
+    }
+
+    /**
+     * @return the query for the entries older than those loaded, without a limit
+     */
+    private Query query() {
+        if (field == null) {
+            Query query = logService.getReference().orderByKey();
+            return oldestKey != null ? query.endBefore(oldestKey) : query;
+        }
+        Query query = logService.getReference().orderByChild(field).startAt(value);
+        return oldestKey != null ? query.endBefore(value, oldestKey) : query.endAt(value);
+    }
+
+    /**
+     * Records a fetched page and returns it newest first.
+     */
+    private List<Notification> accept(DataSnapshot page) {
+        List<Notification> notifications = new ArrayList<>();
+        int raw = 0;
+        for (DataSnapshot entry : page.getChildren()) {
+            if (raw++ == 0) oldestKey = entry.getKey();
+            Notification n = fromSnapshot(entry);
+            if (n != null) notifications.add(n);
+        }
+        atEnd = raw < pageSize;
+        Collections.reverse(notifications);
+        return notifications;
+    }
+
+    /**
+     * @return the entry as a notification (its user id is {@code null} for broadcasts), or
+     *         {@code null} if it has no event id
+     */
+    private static Notification fromSnapshot(DataSnapshot entry) {
+        Object eventId = entry.child(EVENT_FIELD).getValue();
+        if (!(eventId instanceof String)) return null;
+
+        Object userId = entry.child("userId").getValue();
+        Object message = entry.child("message").getValue();
+        Object createdAt = entry.child("createdAt").getValue();
+        Notification n = new Notification(entry.getKey(), userId != null ? userId.toString() : null,
+                (String) eventId, NotificationInbox.typeOf(entry.child(TYPE_FIELD).getValue()),
+                message != null ? message.toString() : null);
+        if (createdAt instanceof Long) n.setCreatedAt((Long) createdAt);
+        return n;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off, admin-side fill of the {@link NotificationLog} from the notifications sent before it
+ * existed.
+ * <p>
+ * The log only records sends made after it was introduced, so on its own the admin screen
+ * shows nothing older. {@link #run()} walks the {@code Notification} root once, a page of
+ * {@code pageSize} users at a time ({@code orderByKey().limitToFirst(pageSize)}, then
+ * {@code startAfter(lastUserId)}), and adds what it finds:
+ * </p>
+ * <ul>
+ *   <li>Legacy {@code {eventId}/{type}/message} entries are converted exactly as the user's own
+ *       {@link NotificationInbox} would convert them, which also logs them and sets the user's
+ *       {@code Migrations/inbox} marker. Each page is one multi-path update.</li>
+ *   <li>Push-keyed entries older than the oldest log entry are logged under their own push key
+ *       with their recorded {@code createdAt}. A broadcast shares its key across inboxes, so
+ *       these are gathered over the whole walk and written at the end as one entry each, with
+ *       the number of inboxes still holding it as {@code recipients}.</li>
+ * </ul>
+ *
+ * <p>{@code Migrations/notificationLog} is set in the last write; while it exists
+ * {@link #run()} costs one read. Every write is keyed by an existing push key or converts
+ * entries that are then gone, so a walk that fails part-way can simply be run again.</p>
+ *
+ * <p>Push-keyed entries at or after the oldest log entry are assumed to have been logged when
+ * they were sent. Deliveries from a client too old to write the log are not recovered.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class NotificationLogBackfill {
+
+    private static final String TAG = NotificationLogBackfill.class.getSimpleName();
+
+    /** Root-relative marker set once the log has been filled. */
+    static final String MIGRATION_MARKER = "Migrations/notificationLog";
+
+    /** Users read per page; each brings its whole inbox. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Log entries per multi-path update in the final write. */
+    static final int WRITE_CHUNK_SIZE = 500;
+
+    /** Firebase service for the "Notification" root. */
+    private final FirebaseService notificationService;
+    private final int pageSize;
+
+    /** Key of the oldest entry already in the log, or {@code null} if the log is empty. */
+    private String firstLoggedKey;
+
+    /** Pre-log sends found so far, by push key, in the order first seen. */
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+    /** Legacy notifications converted so far. */
+    private int converted = 0;
+
+    /** A pre-log send seen in one or more inboxes. */
+    private static final class Pending {
+        final DataSnapshot entry;
+        final String userId;
+        int recipients = 1;
+
+        Pending(DataSnapshot entry, String userId) {
+            this.entry = entry;
+            this.userId = userId;
+        }
+    }
+
+    /**
+     * Creates a backfill over the default root.
+     */
+    public NotificationLogBackfill() {
+        this(new FirebaseService(NotificationInbox.ROOT), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a backfill over the given service.
+     *
+     * @param notificationService service scoped to the {@code Notification} root
+     * @param pageSize users per query
+     */
+    public NotificationLogBackfill(FirebaseService notificationService, int pageSize) {
+        this.notificationService = notificationService;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Fills the log unless the marker says it is already filled.
+     *
+     * @return a task resolving to how many log entries were added, {@code 0} if none were needed
+     */
+    public Task<Integer> run() {
+        TaskCompletionSource<Integer> tcs = new TaskCompletionSource<>();
+        DatabaseReference root = notificationService.getReference().getRoot();
+        root.child(MIGRATION_MARKER).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                fail(tcs, task.getException(), "Failed to read the notification log marker");
+                return;
+            }
+            if (task.getResult().exists()) {
+                tcs.setResult(0);
+                return;
+            }
+            root.child(NotificationLog.ROOT).orderByKey().limitToFirst(1).get().addOnCompleteListener(first -> {
+                if (!first.isSuccessful() || first.getResult() == null) {
+                    fail(tcs, first.getException(), "Failed to read the oldest log entry");
+                    return;
+                }
+                for (DataSnapshot entry : first.getResult().getChildren()) firstLoggedKey = entry.getKey();
+                Log.i(TAG, "Backfilling notification log before " + firstLoggedKey);
+                readPage(null, tcs);
+            });
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Reads the page of users after {@code lastUserId}, converts their legacy entries and moves
+     * on, or writes the gathered sends once the last page is done.
+     */
+    private void readPage(String lastUserId, TaskCompletionSource<Integer> tcs) {
+        Query query = notificationService.getReference().orderByKey();
+        if (lastUserId != null) query = query.startAfter(lastUserId);
+        query.limitToFirst(pageSize).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                fail(tcs, task.getException(), "Failed to read notifications after " + lastUserId);
+                return;
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            String last = null;
+            int users = 0;
+            for (DataSnapshot inbox : task.getResult().getChildren()) {
+                last = inbox.getKey();
+                users++;
+                converted += NotificationInbox.putConversion(updates,
+                        notificationService.getReference().child(last), last, inbox);
+                for (DataSnapshot entry : inbox.getChildren()) {
+                    if (entry.hasChild("eventId")) gather(last, entry);
+                }
+            }
+
+            boolean atEnd = users < pageSize;
+            String next = last;
+            notificationService.updateMultiPath(updates).addOnCompleteListener(write -> {
+                if (!write.isSuccessful()) {
+                    fail(tcs, write.getException(), "Failed to convert inboxes up to " + next);
+                } else if (atEnd) {
+                    writeGathered(new ArrayList<>(pending.keySet()), 0, tcs);
+                } else {
+                    readPage(next, tcs);
+                }
+            });
+        });
+    }
+
+    /**
+     * Counts one inbox's copy of a push-keyed send, if it predates the log.
+     */
+    private void gather(String userId, DataSnapshot entry) {
+        String key = entry.getKey();
+        if (key == null || (firstLoggedKey != null && key.compareTo(firstLoggedKey) >= 0)) return;
+        Pending seen = pending.get(key);
+        if (seen == null) {
+            pending.put(key, new Pending(entry, userId));
+        } else {
+            seen.recipients++;
+        }
+    }
+
+    /**
+     * Writes the gathered sends from {@code from} on, {@link #WRITE_CHUNK_SIZE} per update,
+     * setting the marker with the last chunk.
+     */
+    private void writeGathered(List<String> keys, int from, TaskCompletionSource<Integer> tcs) {
+        int to = Math.min(from + WRITE_CHUNK_SIZE, keys.size());
+        Map<String, Object> updates = new HashMap<>();
+        for (String key : keys.subList(from, to)) {
+            Pending send = pending.get(key);
+            DataSnapshot entry = send.entry;
+            Object message = entry.child("message").getValue();
+            Object createdAt = entry.child("createdAt").getValue();
+            NotificationLog.putEntry(updates, key,
+                    String.valueOf(entry.child(NotificationLog.EVENT_FIELD).getValue()),
+                    NotificationInbox.typeOf(entry.child(NotificationLog.TYPE_FIELD).getValue()),
+                    message != null ? message.toString() : null,
+                    send.recipients == 1 ? send.userId : null,
+                    send.recipients,
+                    createdAt instanceof Long ? createdAt : ServerValue.TIMESTAMP);
+        }
+        boolean last = to >= keys.size();
+        if (last) updates.put(MIGRATION_MARKER, true);
+
+        notificationService.updateMultiPath(updates).addOnCompleteListener(write -> {
+            if (!write.isSuccessful()) {
+                fail(tcs, write.getException(), "Failed to write backfilled log entries");
+            } else if (last) {
+                Log.i(TAG, "Backfilled " + keys.size() + " sends and converted " + converted + " legacy notifications");
+                tcs.setResult(keys.size() + converted);
+            } else {
+                writeGathered(keys, to, tcs);
+            }
+        });
+    }
+
+    private static void fail(TaskCompletionSource<Integer> tcs, Exception e, String message) {
+        Log.e(TAG, message, e);
+        tcs.setException(e != null ? e : new Exception(message));
+    }
+}
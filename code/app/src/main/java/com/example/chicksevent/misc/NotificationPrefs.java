@@ -0,0 +1,168 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact index of every user's notification opt-in, {@code NotificationPrefs/{userId} = bool}.
+ * <p>
+ * Broadcasts used to download the whole {@code User} root to check each recipient's
+ * {@code notificationsEnabled} flag, so their cost grew with the user base. The index is written
+ * next to the profile by {@link User#updateProfile} and {@link User#setNotificationsEnabled},
+ * and {@link #enabledAmong(List)} reads only the recipients' flags with keyed reads, at most
+ * {@link #DEFAULT_MAX_IN_FLIGHT} at once.
+ * </p>
+ *
+ * <p><b>Backfill:</b> a user who has not saved their profile since the index was introduced has
+ * no entry yet. For them the single {@code User/{userId}/notificationsEnabled} field is read
+ * instead, and the index entry is written from it so the next broadcast finds it.</p>
+ *
+ * <p>As before, a recipient is notified only if their flag is {@code true}; a missing profile,
+ * a missing flag or a failed read leaves them out.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class NotificationPrefs {
+
+    private static final String TAG = NotificationPrefs.class.getSimpleName();
+
+    /** Root node of the index. */
+    public static final String ROOT = "NotificationPrefs";
+
+    /** Flags read at once unless configured otherwise. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    /** Lazily created shared instance. */
+    private static NotificationPrefs instance;
+
+    private final FirebaseService prefsService;
+    private final FirebaseService userService;
+    private final int maxInFlight;
+
+    /**
+     * Returns the shared index bound to the default roots.
+     *
+     * @return the process-wide index
+     */
+    public static synchronized NotificationPrefs getInstance() {
+        if (instance == null) {
+            instance = new NotificationPrefs(new FirebaseService(ROOT), new FirebaseService("User"),
+                    DEFAULT_MAX_IN_FLIGHT);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an index over the given services.
+     *
+     * @param prefsService service scoped to the {@code NotificationPrefs} root
+     * @param userService service scoped to the {@code User} root, read for backfill
+     * @param maxInFlight flags read at once
+     */
+    public NotificationPrefs(FirebaseService prefsService, FirebaseService userService, int maxInFlight) {
+        this.prefsService = prefsService;
+        this.userService = userService;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * @param userId the user
+     * @return the root-relative path of the user's index entry, for multi-path writes
+     */
+    public static String path(String userId) {
+        return ROOT + "/" + userId;
+    }
+
+    /**
+     * Filters recipients down to those who have notifications enabled.
+     *
+     * @param userIds the candidate recipients
+     * @return a task resolving to the enabled recipients, in input order
+     */
+    public Task<List<String>> enabledAmong(List<String> userIds) {
+        TaskCompletionSource<List<String>> tcs = new TaskCompletionSource<>();
+        new Resolve(userIds, tcs).pump();
+        return tcs.getTask();
+    }
+
+    /** State of one {@link #enabledAmong} call. */
+    private final class Resolve {
+        final List<String> userIds;
+        final boolean[] enabled;
+        final TaskCompletionSource<List<String>> tcs;
+        int next;
+        int inFlight;
+
+        Resolve(List<String> userIds, TaskCompletionSource<List<String>> tcs) {
+            this.userIds = userIds;
+            this.enabled = new boolean[userIds.size()];
+            this.tcs = tcs;
+        }
+
+        /** Starts reads until the cap is reached; resolves once every flag is known. */
+        void pump() {
+            while (inFlight < maxInFlight && next < userIds.size()) {
+                inFlight++;
+                read(next++);
+            }
+            if (inFlight == 0 && next == userIds.size() && !tcs.getTask().isComplete()) {
+                List<String> result = new ArrayList<>();
+                for (int i = 0; i < enabled.length; i++) {
+                    if (enabled[i]) result.add(userIds.get(i));
+                }
+                tcs.setResult(result);
+            }
+        }
+
+        void read(int index) {
+            String userId = userIds.get(index);
+            prefsService.getReference().child(userId).get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful() || task.getResult() == null) {
+                    Log.w(TAG, "Could not read the notification flag of " + userId, task.getException());
+                    done(index, false);
+                    return;
+                }
+                Boolean flag = flagOf(task.getResult());
+                if (flag != null) {
+                    done(index, flag);
+                } else {
+                    backfill(index);
+                }
+            });
+        }
+
+        void backfill(int index) {
+            String userId = userIds.get(index);
+            userService.getReference().child(userId).child("notificationsEnabled").get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful() || task.getResult() == null) {
+                    Log.w(TAG, "Could not read the profile flag of " + userId, task.getException());
+                    done(index, false);
+                    return;
+                }
+                Boolean flag = flagOf(task.getResult());
+                if (flag != null) prefsService.getReference().child(userId).setValue(flag);
+                done(index, Boolean.TRUE.equals(flag));
+            });
+        }
+
+        void done(int index, boolean isEnabled) {
+            enabled[index] = isEnabled;
+            inFlight--;
+            pump();
+        }
+    }
+
+    /**
+     * @return the snapshot's value if it is a boolean, otherwise {@code null}
+     */
+    private static Boolean flagOf(DataSnapshot snapshot) {
+        Object value = snapshot.getValue();
+        return value instanceof Boolean ? (Boolean) value : null;
+    }
+}
@@ -5,11 +5,13 @@ import android.util.Log;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.enums.NotificationType;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents an organizer user who manages events and their waiting lists.
@@ -46,6 +48,12 @@ public class Organizer extends User {
     private FirebaseService waitingListService;
     private FirebaseService userService;
 
+    /** Writes broadcasts as multi-path updates; created on first broadcast. */
+    private NotificationFanout notificationFanout;
+
+    /** Recipients' notification opt-ins; resolved on first broadcast. */
+    private NotificationPrefs notificationPrefs;
+
     /** The organizer's user id. */
     private String organizerId;
 
@@ -135,59 +143,55 @@ public class Organizer extends User {
     }
 
     /**
-     * Broadcasts a {@link Notification} to all entrants in the specified status bucket.
+     * Broadcasts a notification to all entrants in the specified status bucket who have
+     * notifications enabled. Only the entrants' flags are read, through
+     * {@link NotificationPrefs}, and delivery goes through a {@link NotificationFanout}, so the
+     * whole bucket is written in a few multi-path updates.
      *
      * @param status the waiting-list bucket whose entrants should be notified
      * @param message the notification message body
+     * @return a task resolving to how many of the opted-in entrants were reached, so the caller
+     *         can report a partial delivery; it fails if the recipients could not be read
      */
-    public void sendWaitingListNotification(EntrantStatus status, String message) {
-        sendWaitingListNotificationHelper(status, message).addOnCompleteListener(task -> {
-            ArrayList<Notification> notifications = task.getResult();
+    public Task<NotificationFanout.Delivery> sendWaitingListNotification(EntrantStatus status, String message) {
+        TaskCompletionSource<NotificationFanout.Delivery> tcs = new TaskCompletionSource<>();
+        waitingListService.getReference().child(eventId).child(status.toString()).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e("Notification", "Failed to read " + status + " entrants", task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Failed to read " + status + " entrants"));
+                return;
+            }
+            List<String> bucket = new ArrayList<>();
+            for (DataSnapshot childSnap : task.getResult().getChildren()) {
+                bucket.add(childSnap.getKey());
+            }
 
-            userService.getReference().get().addOnCompleteListener(userTask -> {
-                if (!userTask.isSuccessful() || userTask.getResult() == null) {
-                    Log.e("Notification", "Failed to get user data", userTask.getException());
+            prefs().enabledAmong(bucket).addOnCompleteListener(prefsTask -> {
+                if (!prefsTask.isSuccessful() || prefsTask.getResult() == null) {
+                    Log.e("Notification", "Failed to resolve recipients", prefsTask.getException());
+                    tcs.setException(prefsTask.getException() != null
+                            ? prefsTask.getException() : new Exception("Failed to resolve recipients"));
                     return;
                 }
 
-                DataSnapshot usersSnapshot = userTask.getResult();
-
-                for (Notification notif : notifications) {
-                    Log.i("Notification", "what is this " + notif.getUserId());
-                    DataSnapshot userSnap = usersSnapshot.child(notif.getUserId());
-                    if (userSnap.exists()) {
-                        Object enabled = userSnap.child("notificationsEnabled").getValue();
-                        if (enabled instanceof Boolean && (Boolean) enabled) {
-                            notif.createNotification();
-                        }
-                    }
-                }
+                fanout().send(eventId, notificationTypeFor(status), message, prefsTask.getResult())
+                        .addOnCompleteListener(sent -> {
+                            NotificationFanout.Delivery delivery = sent.getResult();
+                            Log.i("Notification", "Notified " + delivery.getDelivered() + "/"
+                                    + delivery.getRecipients() + " " + status + " entrants");
+                            tcs.setResult(delivery);
+                        });
             });
         });
+        return tcs.getTask();
     }
 
     public Task<ArrayList<Notification>> sendWaitingListNotificationHelper(EntrantStatus status, String message) {
         return waitingListService.getReference().child(eventId).child(status.toString()).get().continueWith(t -> {
             ArrayList<Notification> notifList = new ArrayList<>();
+            NotificationType notifType = notificationTypeFor(status);
             for (DataSnapshot childSnap : t.getResult().getChildren()) {
-                NotificationType notifType;
-                switch (status) {
-                    case WAITING:
-                        notifType = NotificationType.WAITING;
-                        break;
-                    case INVITED:
-                        notifType = NotificationType.INVITED;
-                        break;
-                    case CANCELLED:
-                        notifType = NotificationType.CANCELLED;
-                        break;
-                    case ACCEPTED:
-                        notifType = NotificationType.ACCEPTED;
-                        break;
-                    default:
-                        notifType = NotificationType.UNINVITED;
-                }
-
                 Notification n = new Notification(childSnap.getKey(), eventId, notifType, message);
                 notifList.add(n);
 
@@ -198,6 +202,39 @@ public class Organizer extends User {
         });
     }
 
+    /**
+     * Maps a waiting-list bucket to the type of notification its entrants receive.
+     *
+     * @param status the bucket
+     * @return the matching notification type
+     */
+    private static NotificationType notificationTypeFor(EntrantStatus status) {
+        switch (status) {
+            case WAITING:
+                return NotificationType.WAITING;
+            case INVITED:
+                return NotificationType.INVITED;
+            case CANCELLED:
+                return NotificationType.CANCELLED;
+            case ACCEPTED:
+                return NotificationType.ACCEPTED;
+            default:
+                return NotificationType.UNINVITED;
+        }
+    }
+
+    /** @return the opt-in index used to filter recipients */
+    private NotificationPrefs prefs() {
+        if (notificationPrefs == null) notificationPrefs = NotificationPrefs.getInstance();
+        return notificationPrefs;
+    }
+
+    /** @return the fan-out used for broadcasts, created on first use */
+    private NotificationFanout fanout() {
+        if (notificationFanout == null) notificationFanout = new NotificationFanout();
+        return notificationFanout;
+    }
+
 
         /** Placeholder for future cancellation logic for no-shows. */
     public void cancelDidNotSignUp() { }
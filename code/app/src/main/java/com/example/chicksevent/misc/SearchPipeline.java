@@ -0,0 +1,171 @@
+package com.example.chicksevent.misc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.CancellationTokenSource;
+import com.google.android.gms.tasks.Task;
+
+/**
+ * Debounces search input and delivers only the newest query's result.
+ * <p>
+ * The search screen used to start a full filter-and-render for every apply, so quick
+ * successive edits overlapped and a slow, stale query could overwrite a newer result. Each
+ * query submitted here gets a generation number:
+ * </p>
+ * <ul>
+ *   <li>{@link #submit(Query)} waits {@link #DEFAULT_DEBOUNCE_MS} before starting; a newer
+ *       submission within that time replaces it, so a burst of keystrokes runs one query.</li>
+ *   <li>Starting a query cancels the {@link CancellationToken} of the one in flight. Queries
+ *       check the token between their {@link Task} steps and stop early once it is cancelled.</li>
+ *   <li>A result reaches the {@link Receiver} only if its generation is still the newest;
+ *       anything older is dropped, whatever order the results arrive in.</li>
+ * </ul>
+ *
+ * <p><b>Threading:</b> meant to be used from the main thread. The shared scheduler posts to the
+ * main looper; tests supply their own.</p>
+ *
+ * @param <R> the result type delivered to the receiver
+ * @author Jordan Kwan
+ */
+public class SearchPipeline<R> {
+
+    private static final String TAG = SearchPipeline.class.getSimpleName();
+
+    /** How long typing must pause before a debounced query starts. */
+    public static final long DEFAULT_DEBOUNCE_MS = 250;
+
+    /**
+     * One search, started with the token that is cancelled when a newer search supersedes it.
+     *
+     * @param <R> the result type
+     */
+    public interface Query<R> {
+        /**
+         * @param token cancelled once the result can no longer be delivered
+         * @return a task resolving to the result
+         */
+        Task<R> run(CancellationToken token);
+    }
+
+    /**
+     * Receives the result of the newest query.
+     *
+     * @param <R> the result type
+     */
+    public interface Receiver<R> {
+        /** @param result the result of the newest query */
+        void onResult(R result);
+
+        /** @param e why the newest query failed */
+        void onError(Exception e);
+    }
+
+    /**
+     * Runs delayed work. Production code posts to the main looper; tests run it by hand.
+     */
+    public interface Scheduler {
+        /**
+         * @param task the work to run
+         * @param delayMs delay before running it
+         */
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private final Scheduler scheduler;
+    private final long debounceMs;
+    private final Receiver<R> receiver;
+
+    /** Generation of the newest submission; older generations are stale. */
+    private int generation;
+
+    /** Token source of the query in flight, if any. */
+    private CancellationTokenSource inFlight;
+
+    /**
+     * Creates a pipeline that debounces on the main looper.
+     *
+     * @param receiver receives the newest query's result
+     */
+    public SearchPipeline(Receiver<R> receiver) {
+        this(new Handler(Looper.getMainLooper())::postDelayed, DEFAULT_DEBOUNCE_MS, receiver);
+    }
+
+    /**
+     * Creates a pipeline over the given scheduler.
+     *
+     * @param scheduler runs the debounced start
+     * @param debounceMs how long a debounced submission waits
+     * @param receiver receives the newest query's result
+     */
+    public SearchPipeline(Scheduler scheduler, long debounceMs, Receiver<R> receiver) {
+        this.scheduler = scheduler;
+        this.debounceMs = debounceMs;
+        this.receiver = receiver;
+    }
+
+    /**
+     * Starts the query after the debounce delay unless another submission supersedes it first.
+     *
+     * @param query the query to run
+     */
+    public void submit(Query<R> query) {
+        int gen = supersede();
+        scheduler.schedule(() -> {
+            if (gen == generation) start(gen, query);
+        }, debounceMs);
+    }
+
+    /**
+     * Starts the query immediately, superseding anything pending or in flight.
+     *
+     * @param query the query to run
+     */
+    public void submitNow(Query<R> query) {
+        start(supersede(), query);
+    }
+
+    /**
+     * Drops any pending or in-flight query without starting a new one (e.g. when the screen
+     * goes away).
+     */
+    public void cancel() {
+        supersede();
+    }
+
+    /**
+     * Moves to a new generation and cancels the query in flight.
+     *
+     * @return the new generation
+     */
+    private int supersede() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+        return ++generation;
+    }
+
+    private void start(int gen, Query<R> query) {
+        CancellationTokenSource cts = new CancellationTokenSource();
+        inFlight = cts;
+
+        Task<R> task = query.run(cts.getToken());
+        task.addOnCompleteListener(done -> {
+            if (gen != generation || cts.getToken().isCancellationRequested() || done.isCanceled()) {
+                Log.d(TAG, "Dropped stale search result (generation " + gen + ")");
+                return;
+            }
+            if (inFlight == cts) inFlight = null;
+
+            if (done.isSuccessful()) {
+                receiver.onResult(done.getResult());
+            } else {
+                receiver.onError(done.getException() != null
+                        ? done.getException() : new Exception("Search failed"));
+            }
+        });
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Denormalized per-event membership counts.
+ * <p>
+ * Every write that moves an entrant between waiting-list buckets also adjusts
+ * {@code Counters/{eventId}/{STATUS}} with a {@link ServerValue#increment(long)}. Screens and
+ * the lottery then read a single integer instead of downloading the whole bucket just to call
+ * {@code getChildrenCount()}.
+ * </p>
+ *
+ * <p><b>Consistency:</b> joins, leaves and single moves first change the entrant's entry in a
+ * transaction and send the delta only if that transaction changed membership (see
+ * {@link StatusTransition#swapEntry}), so concurrent or repeated writes count once. The delta
+ * follows in a second update; a client killed between the two leaves the count one off until
+ * the next recount. Lottery chunks write entries and deltas in one multi-path update.</p>
+ *
+ * <b>Firebase structure:</b>
+ * <pre>
+ * Counters/{eventId}/{EntrantStatus} = count
+ * Counters/{eventId}/_v = 1                           // written only by {@link #rebuild(String)}
+ * </pre>
+ *
+ * <p><b>Migration:</b> events created before counters existed have no trustworthy counts, but
+ * the first join or leave after deploy still creates {@code Counters/{eventId}} through its
+ * increment, so the node existing proves nothing. The counts are trusted only once the
+ * {@link #MARKER} child exists. {@link #read(String)} and {@link #ensureBuilt(String)} call
+ * {@link #rebuild(String)} when it is missing; the rebuild recounts the waiting list and
+ * replaces whatever increments landed before it, so from then on the counters are the recount
+ * plus later deltas. The rebuild is a transaction that stands down if another client already
+ * wrote the marker, so two screens migrating the same event cannot discard each other's
+ * deltas. To repair drift, delete the marker and the next read recounts.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class StatusCounters {
+
+    private static final String TAG = StatusCounters.class.getSimpleName();
+
+    /** Root node holding all counters. */
+    public static final String ROOT = "Counters";
+
+    /** Child of {@code Counters/{eventId}} present once the counts have been rebuilt. */
+    public static final String MARKER = "_v";
+
+    /** Firebase service for the "Counters" root. */
+    private final FirebaseService counterService;
+
+    /** Firebase service for the "WaitingList" root, used only when rebuilding. */
+    private final FirebaseService waitingListService;
+
+    /**
+     * Creates a reader bound to the default {@code Counters} and {@code WaitingList} roots.
+     */
+    public StatusCounters() {
+        this(new FirebaseService(ROOT), new FirebaseService("WaitingList"));
+    }
+
+    /**
+     * Creates a reader over the given services.
+     *
+     * @param counterService service scoped to the {@code Counters} root
+     * @param waitingListService service scoped to the {@code WaitingList} root
+     */
+    public StatusCounters(FirebaseService counterService, FirebaseService waitingListService) {
+        this.counterService = counterService;
+        this.waitingListService = waitingListService;
+    }
+
+    /**
+     * @param eventId the event id
+     * @param status the bucket name (e.g. {@code "WAITING"})
+     * @return root-relative path of the counter for that bucket
+     */
+    public static String path(String eventId, String status) {
+        return ROOT + "/" + eventId + "/" + status;
+    }
+
+    /**
+     * Adds a server-side increment of {@code delta} for one bucket to a multi-path update.
+     * A zero delta is ignored.
+     *
+     * @param updates the multi-path update being built
+     * @param eventId the event id
+     * @param status the bucket name
+     * @param delta the amount to add (negative to subtract)
+     */
+    public static void putDelta(Map<String, Object> updates, String eventId, String status, long delta) {
+        if (delta == 0) return;
+        updates.put(path(eventId, status), ServerValue.increment(delta));
+    }
+
+    /**
+     * @param snapshot a {@code Counters/{eventId}} snapshot
+     * @return whether the counts in it have been rebuilt and can be trusted
+     */
+    public static boolean isBuilt(DataSnapshot snapshot) {
+        return snapshot != null && snapshot.hasChild(MARKER);
+    }
+
+    /**
+     * Reads every bucket count for an event, rebuilding the counters first if they have never
+     * been rebuilt.
+     *
+     * @param eventId the event id
+     * @return a task resolving to a map of bucket name to count (missing buckets are absent)
+     */
+    public Task<Map<String, Integer>> read(String eventId) {
+        return counterService.getReference().child(eventId).get().continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to read counters for " + eventId, task.getException());
+                return Tasks.forException(task.getException());
+            }
+            DataSnapshot snapshot = task.getResult();
+            if (!isBuilt(snapshot)) {
+                return rebuild(eventId);
+            }
+            return Tasks.forResult(parse(snapshot));
+        });
+    }
+
+    /**
+     * Reads the count of a single bucket.
+     *
+     * @param eventId the event id
+     * @param status the bucket name
+     * @return a task resolving to the count, or 0 if the bucket is empty
+     */
+    public Task<Integer> read(String eventId, String status) {
+        return read(eventId).continueWith(task -> {
+            if (!task.isSuccessful()) return 0;
+            Integer count = task.getResult().get(status);
+            return count == null ? 0 : count;
+        });
+    }
+
+    /**
+     * Rebuilds the counters of an event unless its {@link #MARKER} is already present.
+     * Reads only the marker, so it is cheap enough to call whenever a screen starts watching
+     * one counter.
+     *
+     * @param eventId the event id
+     * @return a task that completes once the counters can be trusted
+     */
+    public Task<Void> ensureBuilt(String eventId) {
+        TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+        counterService.getReference().child(eventId).child(MARKER).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to read the counter marker for " + eventId, task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Counter marker read failed"));
+                return;
+            }
+            if (task.getResult() != null && task.getResult().exists()) {
+                tcs.setResult(null);
+                return;
+            }
+            rebuild(eventId).addOnCompleteListener(rebuilt -> {
+                if (rebuilt.isSuccessful()) {
+                    tcs.setResult(null);
+                } else {
+                    tcs.setException(rebuilt.getException() != null
+                            ? rebuilt.getException() : new Exception("Counter rebuild failed"));
+                }
+            });
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Recounts the waiting list of an event and replaces its counters with the result, writing
+     * the {@link #MARKER} with them. If another client wrote the marker first, its counters are
+     * kept and returned instead.
+     *
+     * @param eventId the event id
+     * @return a task resolving to the counts now stored
+     */
+    public Task<Map<String, Integer>> rebuild(String eventId) {
+        TaskCompletionSource<Map<String, Integer>> tcs = new TaskCompletionSource<>();
+        waitingListService.getReference().child(eventId).get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Log.e(TAG, "Failed to rebuild counters for " + eventId, task.getException());
+                tcs.setException(task.getException() != null
+                        ? task.getException() : new Exception("Waiting list read failed"));
+                return;
+            }
+
+            Map<String, Integer> counts = new HashMap<>();
+            DataSnapshot snapshot = task.getResult();
+            if (snapshot != null) {
+                for (DataSnapshot bucket : snapshot.getChildren()) {
+                    counts.put(bucket.getKey(), (int) bucket.getChildrenCount());
+                }
+            }
+
+            store(eventId, counts, tcs);
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Writes recounted buckets and the marker in one transaction, unless the marker is there,
+     * and resolves {@code tcs} with the counts that end up stored.
+     */
+    private void store(String eventId, Map<String, Integer> counts,
+                       TaskCompletionSource<Map<String, Integer>> tcs) {
+        counterService.getReference().child(eventId).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                if (current.hasChild(MARKER)) return Transaction.abort();
+                Map<String, Object> built = new HashMap<>(counts);
+                built.put(MARKER, 1);
+                current.setValue(built);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    Log.e(TAG, "Failed to store rebuilt counters for " + eventId, error.toException());
+                    tcs.setException(error.toException());
+                } else if (committed) {
+                    Log.i(TAG, "Rebuilt counters for " + eventId + ": " + counts);
+                    tcs.setResult(counts);
+                } else {
+                    // Another client rebuilt first; its counts may already include later deltas
+                    tcs.setResult(snapshot != null ? parse(snapshot) : counts);
+                }
+            }
+        });
+    }
+
+    /**
+     * Converts a {@code Counters/{eventId}} snapshot into a map of bucket counts.
+     *
+     * @param snapshot the counters snapshot
+     * @return bucket name to count, without the marker
+     */
+    static Map<String, Integer> parse(DataSnapshot snapshot) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (DataSnapshot bucket : snapshot.getChildren()) {
+            if (MARKER.equals(bucket.getKey())) continue;
+            Object value = bucket.getValue();
+            if (value instanceof Number) {
+                counts.put(bucket.getKey(), Math.max(0, ((Number) value).intValue()));
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.chicksevent.enums.EntrantStatus;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Moves one or many entrants of an event between waiting-list buckets.
+ * <p>
+ * Each move deletes {@code WaitingList/{eventId}/{from}/{uid}}, writes the entrant's entry under
+ * {@code {to}}, points {@code UserEvents/{uid}/{eventId}} at the new status and adjusts the
+ * bucket counters. Everything but the claims described below goes out as one multi-path
+ * update, so a batch of moves lands together and its counter deltas are summed per bucket.
+ * </p>
+ *
+ * <p><b>Payload:</b> the entry value (e.g. the location recorded on join) travels with the
+ * entrant. Callers that already hold it pass it to {@link #move(String, EntrantStatus,
+ * EntrantStatus, Object)}; otherwise {@link #move(String, EntrantStatus, EntrantStatus)} has
+ * {@link #commit(FirebaseService)} claim the old entries first, all in parallel, and write once
+ * every claim has answered.</p>
+ *
+ * <p><b>Claims:</b> a claim removes the old entry in a transaction ({@link #swapEntry}) and
+ * takes its value as the payload. Of two clients moving the same entrant (a double tap, an
+ * organizer cancelling while the entrant accepts), only the one whose transaction found the
+ * entry moves it; the other finds it gone and drops the move, so the counters change once. The
+ * follow-up update writes the new bucket, the index entry and the counter deltas; if that
+ * update fails, the claimed entrants are out of their old bucket without being counted out,
+ * and the error is logged with their ids. If a claim fails, the moves that were claimed are
+ * still written and the commit then fails.</p>
+ *
+ * <p>Moves with an explicit payload are written as given, old entry included, without a
+ * claim. They are meant for a writer that owns the bucket it moves out of, such as a lottery
+ * run holding its {@link LotteryRunLedger} lease.</p>
+ *
+ * <p>Moves where {@code from == to} are ignored.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class StatusTransition {
+
+    private static final String TAG = StatusTransition.class.getSimpleName();
+
+    /** One entrant's move. */
+    private static final class Move {
+        final String entrantId;
+        final String from;
+        final String to;
+
+        /** Whether the payload still has to be read from the old entry. */
+        boolean carry;
+
+        /** Whether the old entry was already removed by a claim. */
+        boolean claimed;
+
+        /** Whether the old entry exists; a move whose entry is missing is dropped. */
+        boolean present = true;
+
+        Object payload;
+
+        Move(String entrantId, String from, String to, Object payload, boolean carry) {
+            this.entrantId = entrantId;
+            this.from = from;
+            this.to = to;
+            this.payload = payload;
+            this.carry = carry;
+        }
+    }
+
+    private final String eventId;
+
+    /** Moves keyed by entrant; a later move of the same entrant replaces the earlier one. */
+    private final Map<String, Move> moves = new LinkedHashMap<>();
+
+    /**
+     * Creates an empty transition for one event.
+     *
+     * @param eventId the event whose waiting list is changed
+     */
+    public StatusTransition(String eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Adds a move whose old entry is claimed on commit, carrying its value as the payload.
+     *
+     * @param entrantId the entrant to move
+     * @param from the bucket the entrant is in
+     * @param to the bucket to move into
+     * @return this transition
+     */
+    public StatusTransition move(String entrantId, EntrantStatus from, EntrantStatus to) {
+        if (from != to) {
+            moves.put(entrantId, new Move(entrantId, from.toString(), to.toString(), null, true));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a move with a payload the caller already holds.
+     *
+     * @param entrantId the entrant to move
+     * @param from the bucket the entrant is in
+     * @param to the bucket to move into
+     * @param payload the entry value to write under {@code to}; {@code null} for the placeholder
+     * @return this transition
+     */
+    public StatusTransition move(String entrantId, EntrantStatus from, EntrantStatus to, Object payload) {
+        if (from != to) {
+            moves.put(entrantId, new Move(entrantId, from.toString(), to.toString(), payload, false));
+        }
+        return this;
+    }
+
+    /**
+     * @return whether no move has been added
+     */
+    public boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    /**
+     * Builds the root-relative multi-path update for the moves. Only valid once every payload
+     * is known, i.e. when all moves were added with an explicit payload.
+     *
+     * @return the update map
+     * @throws IllegalStateException if a payload still has to be read
+     */
+    public Map<String, Object> toUpdates() {
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        for (Move m : moves.values()) {
+            if (m.carry) throw new IllegalStateException("Payload of " + m.entrantId + " not read yet");
+            if (!m.present) continue;
+
+            if (!m.claimed) updates.put(waitingListPath(m.from, m.entrantId), null);
+            updates.put(waitingListPath(m.to, m.entrantId), m.payload != null ? m.payload : emptyEntry());
+            updates.put(UserEventsIndex.path(m.entrantId, eventId), m.to);
+
+            addDelta(deltas, m.from, -1);
+            addDelta(deltas, m.to, 1);
+        }
+        for (Map.Entry<String, Integer> d : deltas.entrySet()) {
+            StatusCounters.putDelta(updates, eventId, d.getKey(), d.getValue());
+        }
+        return updates;
+    }
+
+    /**
+     * Claims any old entries still to be read, then applies every move in one multi-path update.
+     *
+     * @param waitingListService service scoped to the {@code WaitingList} root
+     * @return a task that completes with the write, or fails if a claim or the write failed
+     */
+    public Task<Void> commit(FirebaseService waitingListService) {
+        TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+
+        List<Move> toRead = new ArrayList<>();
+        for (Move m : moves.values()) {
+            if (m.carry) toRead.add(m);
+        }
+        if (moves.isEmpty()) {
+            tcs.setResult(null);
+            return tcs.getTask();
+        }
+        if (toRead.isEmpty()) {
+            write(waitingListService, null, tcs);
+            return tcs.getTask();
+        }
+
+        int[] remaining = { toRead.size() };
+        Exception[] failure = { null };
+        for (Move m : toRead) {
+            DatabaseReference entry = waitingListService.getReference()
+                    .child(eventId)
+                    .child(m.from)
+                    .child(m.entrantId);
+            swapEntry(entry, null, (previous, error) -> {
+                if (error != null) {
+                    // The transaction did not apply, so the entrant stays where they were
+                    Log.w(TAG, "Failed to claim entry of " + m.entrantId, error);
+                    m.present = false;
+                    if (failure[0] == null) failure[0] = error;
+                } else {
+                    m.present = previous != null;
+                    m.payload = previous;
+                    m.claimed = true;
+                }
+                m.carry = false;
+
+                if (--remaining[0] > 0) return;
+                write(waitingListService, failure[0], tcs);
+            });
+        }
+        return tcs.getTask();
+    }
+
+    /**
+     * Replaces one waiting-list entry in a transaction and reports what it held before, so the
+     * caller can tell a real membership change from a repeat or from a race it lost. The
+     * transaction may run more than once; the value reported is the one it committed against.
+     *
+     * @param entry reference to {@code WaitingList/{eventId}/{status}/{uid}}
+     * @param value the value to leave there, or {@code null} to remove the entry
+     * @param done receives the previous value ({@code null} if there was no entry) and
+     *             {@code null}, or {@code null} and the failure
+     */
+    static void swapEntry(DatabaseReference entry, Object value, BiConsumer<Object, Exception> done) {
+        Object[] previous = { null };
+        entry.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                previous[0] = current.getValue();
+                current.setValue(value);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    done.accept(null, error.toException());
+                } else if (!committed) {
+                    done.accept(null, new Exception("Transaction on " + entry.getKey() + " was not committed"));
+                } else {
+                    done.accept(previous[0], null);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the value stored under a waiting-list entry that has no payload of its own
+     */
+    static Map<String, Object> emptyEntry() {
+        Map<String, Object> data = new HashMap<>();
+        data.put(" ", ""); // Keep existing placeholder for backward compatibility
+        return data;
+    }
+
+    /**
+     * Writes the moves that are present, then completes {@code tcs}, with {@code failure} if a
+     * claim failed.
+     */
+    private void write(FirebaseService waitingListService, Exception failure, TaskCompletionSource<Void> tcs) {
+        Map<String, Object> updates = toUpdates();
+        if (updates.isEmpty()) {
+            // Every entrant had already left the bucket they were being moved out of
+            complete(tcs, failure);
+            return;
+        }
+        waitingListService.updateMultiPath(updates).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                complete(tcs, failure);
+                return;
+            }
+            List<String> claimed = new ArrayList<>();
+            for (Move m : moves.values()) {
+                if (m.claimed && m.present) claimed.add(m.entrantId);
+            }
+            Log.e(TAG, "Failed to write moves of " + eventId + "; claimed and not placed: " + claimed,
+                    task.getException());
+            tcs.setException(task.getException() != null
+                    ? task.getException() : new Exception("Status transition failed"));
+        });
+    }
+
+    private static void complete(TaskCompletionSource<Void> tcs, Exception failure) {
+        if (failure != null) {
+            tcs.setException(failure);
+        } else {
+            tcs.setResult(null);
+        }
+    }
+
+    private String waitingListPath(String status, String entrantId) {
+        return "WaitingList/" + eventId + "/" + status + "/" + entrantId;
+    }
+
+    private static void addDelta(Map<String, Integer> deltas, String status, int delta) {
+        Integer current = deltas.get(status);
+        deltas.put(status, (current != null ? current : 0) + delta);
+    }
+}
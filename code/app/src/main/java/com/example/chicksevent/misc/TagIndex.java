@@ -0,0 +1,268 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index from event tag to event ids.
+ * <p>
+ * Tag filtering used to download every event and split each {@code tag} string on the device.
+ * Each tag of an event is instead also recorded under {@code Tags/{normalizedTag}/{eventId}},
+ * written in the same update as the event by {@link Event#createEvent()} and
+ * {@link Event#editEvent(String, String)}, and removed with it by {@link Admin#deleteEvent}, so a
+ * tag search only reads the buckets it asks for and receives nothing but event ids.
+ * </p>
+ *
+ * <b>Firebase structure:</b>
+ * <pre>
+ * Tags/{normalizedTag}/{eventId} = true
+ * Migrations/tags = true                // set once the index covers pre-existing events
+ * </pre>
+ *
+ * <p><b>Normalization:</b> an event's tag string is split on commas and whitespace, the same way
+ * the search screen splits its input. Tokens are trimmed, lower-cased and stripped of the
+ * characters Firebase does not allow in keys, so "Sports" and "sports" share a bucket.</p>
+ *
+ * <p><b>Migration:</b> events created before the index existed have no entries. The first
+ * query on a device checks {@code Migrations/tags} and, if it is missing, calls
+ * {@link #rebuild()} once, which indexes the whole catalogue in one update. Queries issued while
+ * the check or the rebuild is running wait for it, and a failed marker read fails them rather
+ * than rebuilding.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class TagIndex {
+
+    private static final String TAG = TagIndex.class.getSimpleName();
+
+    /** Root node holding all tag buckets. */
+    public static final String ROOT = "Tags";
+
+    /** Root-relative marker written once the index covers pre-existing events. */
+    static final String MIGRATION_MARKER = "Migrations/tags";
+
+    /** Lazily created shared instance. */
+    private static TagIndex instance;
+
+    /** Firebase service for the "Tags" root. */
+    private final FirebaseService tagService;
+
+    /** Firebase service for the "Event" root, used only when rebuilding. */
+    private final FirebaseService eventService;
+
+    /** Runs {@link #rebuild(Consumer)} once if the marker is missing. */
+    private final MigrationGate gate;
+
+    /**
+     * Returns the shared index bound to the default {@code Tags} and {@code Event} roots.
+     *
+     * @return the process-wide index
+     */
+    public static synchronized TagIndex getInstance() {
+        if (instance == null) {
+            instance = new TagIndex(new FirebaseService(ROOT), new FirebaseService("Event"));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an index over the given services.
+     *
+     * @param tagService service scoped to the {@code Tags} root
+     * @param eventService service scoped to the {@code Event} root
+     */
+    public TagIndex(FirebaseService tagService, FirebaseService eventService) {
+        this.tagService = tagService;
+        this.eventService = eventService;
+        this.gate = new MigrationGate(tagService, MIGRATION_MARKER, this::rebuild);
+    }
+
+    /**
+     * Normalizes one tag token into a bucket key.
+     *
+     * @param tag a raw tag token
+     * @return the bucket key, or {@code null} if nothing usable remains
+     */
+    public static String normalize(String tag) {
+        if (tag == null) return null;
+        String key = tag.trim().toLowerCase(Locale.ROOT).replaceAll("[.#$\\[\\]/]", "");
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Splits an event's tag string into distinct bucket keys.
+     *
+     * @param tags the stored tag string; may be {@code null}
+     * @return the bucket keys, in order of first appearance
+     */
+    public static Set<String> parse(String tags) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (tags == null) return keys;
+        for (String token : tags.split("[,\\s]+")) {
+            String key = normalize(token);
+            if (key != null) keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the index changes for one event's tag edit to a multi-path update: entries for tags
+     * that were dropped are deleted and entries for new tags are written.
+     *
+     * @param updates the multi-path update being built
+     * @param eventId the event id
+     * @param oldTags the tag string stored before the edit; {@code null} for a new event
+     * @param newTags the tag string being written
+     */
+    public static void putChanges(Map<String, Object> updates, String eventId, String oldTags, String newTags) {
+        Set<String> before = parse(oldTags);
+        Set<String> after = parse(newTags);
+        for (String key : before) {
+            if (!after.contains(key)) updates.put(path(key, eventId), null);
+        }
+        for (String key : after) {
+            if (!before.contains(key)) updates.put(path(key, eventId), true);
+        }
+    }
+
+    /**
+     * Reads the tag string currently stored on an event, so a caller about to overwrite or
+     * delete the event can move its entries in the same update.
+     *
+     * @param eventService service scoped to the {@code Event} root
+     * @param eventId the event id
+     * @param done receives the stored tag string ({@code null} if there is none) and
+     *             {@code null}, or {@code null} and the failure
+     */
+    public static void readStoredTags(FirebaseService eventService, String eventId,
+                                      BiConsumer<String, Exception> done) {
+        eventService.getReference().child(eventId).child("tag").get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                done.accept(null, task.getException() != null
+                        ? task.getException() : new Exception("Failed to read tags of " + eventId));
+                return;
+            }
+            Object tags = task.getResult().getValue();
+            done.accept(tags != null ? tags.toString() : null, null);
+        });
+    }
+
+    /**
+     * Reads the requested tag buckets in parallel and unions their event ids.
+     *
+     * @param tags raw tag tokens, as typed by the user
+     * @return a task resolving to the ids of events carrying any of the tags
+     */
+    public Task<Set<String>> eventIdsFor(Collection<String> tags) {
+        TaskCompletionSource<Set<String>> tcs = new TaskCompletionSource<>();
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String key = normalize(tag);
+            if (key != null) keys.add(key);
+        }
+        if (keys.isEmpty()) {
+            tcs.setResult(new LinkedHashSet<>());
+            return tcs.getTask();
+        }
+
+        gate.whenOpen(error -> {
+            if (error != null) {
+                tcs.setException(error);
+                return;
+            }
+            readBuckets(keys, tcs);
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Indexes every event in the catalogue and marks the index as built. Existing entries are
+     * kept; the rebuild only adds.
+     *
+     * @return a task that completes once the index has been written
+     */
+    public Task<Void> rebuild() {
+        TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+        rebuild(error -> {
+            if (error != null) {
+                tcs.setException(error);
+            } else {
+                tcs.setResult(null);
+            }
+        });
+        return tcs.getTask();
+    }
+
+    /** @return root-relative path of one index entry */
+    static String path(String key, String eventId) {
+        return ROOT + "/" + key + "/" + eventId;
+    }
+
+    /**
+     * Reads the catalogue, writes every entry and the marker in one update, then calls
+     * {@code done} with {@code null} or the failure.
+     */
+    private void rebuild(Consumer<Exception> done) {
+        eventService.getReference().get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read events for tag index", task.getException());
+                done.accept(task.getException() != null
+                        ? task.getException() : new Exception("Event read failed"));
+                return;
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot event : task.getResult().getChildren()) {
+                Object tags = event.child("tag").getValue();
+                putChanges(updates, event.getKey(), null, tags != null ? tags.toString() : null);
+            }
+            updates.put(MIGRATION_MARKER, true);
+
+            Log.i(TAG, "Rebuilding tag index (" + (updates.size() - 1) + " entries)");
+            tagService.updateMultiPath(updates).addOnCompleteListener(write -> {
+                if (write.isSuccessful()) {
+                    done.accept(null);
+                } else {
+                    done.accept(write.getException() != null
+                            ? write.getException() : new Exception("Tag index write failed"));
+                }
+            });
+        });
+    }
+
+    private void readBuckets(Set<String> keys, TaskCompletionSource<Set<String>> tcs) {
+        Set<String> ids = new LinkedHashSet<>();
+        int[] remaining = { keys.size() };
+        boolean[] failed = { false };
+
+        for (String key : keys) {
+            tagService.getReference().child(key).get().addOnCompleteListener(task -> {
+                if (failed[0]) return;
+                if (!task.isSuccessful()) {
+                    failed[0] = true;
+                    Log.e(TAG, "Failed to read tag bucket " + key, task.getException());
+                    tcs.setException(task.getException() != null
+                            ? task.getException() : new Exception("Tag read failed"));
+                    return;
+                }
+                if (task.getResult() != null) {
+                    for (DataSnapshot entry : task.getResult().getChildren()) ids.add(entry.getKey());
+                }
+                if (--remaining[0] == 0) tcs.setResult(ids);
+            });
+        }
+    }
+}
@@ -8,16 +8,17 @@ import static java.time.temporal.TemporalAdjusters.previousOrSame;
 import android.annotation.SuppressLint;
 import android.util.Log;
 
-import com.example.chicksevent.enums.NotificationType;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.ValueEventListener;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 /**
  * Domain model representing an app user and related operations.
@@ -30,8 +31,10 @@ import java.util.Map;
  * <b>Firebase roots used:</b>
  * <ul>
  *   <li><code>User</code> — user profile and preferences</li>
- *   <li><code>Event</code> — event catalog (read for filtering)</li>
+ *   <li><code>Event</code> — event catalog (read for filtering via {@link EventRepository})</li>
+ *   <li><code>Tags</code> — tag index read for filtering, see {@link TagIndex}</li>
  *   <li><code>Notification</code> — per-user notification tree</li>
+ *   <li><code>NotificationPrefs</code> — opt-in index, see {@link NotificationPrefs}</li>
  * </ul>
  *
  * <p><b>Note:</b> This class does not enforce authorization; callers should ensure appropriate
@@ -151,90 +154,92 @@ public class User {
     /**
      * Returns a list of event IDs whose tags match any of the provided filter tokens.
      * <p>
-     * The filter is applied against each event's {@code tag} field (space-separated tokens).
+     * The query is compiled once into an {@link EventFilter}. When the shared
+     * {@link EventRepository} has already synced the catalogue, the filter is applied to the
+     * cached events in one pass and nothing is downloaded. Otherwise an availability window is
+     * answered by a server-side range query on the events' start dates ({@link EventDates}) and
+     * the filter is applied to that result. A query with terms only reads the requested
+     * {@link TagIndex} buckets and resolves their ids with keyed reads
+     * ({@link EventLookup#getAll}); events named like a term are added by one
+     * {@code orderByChild("name").equalTo(term)} query per term, so both paths find the same
+     * events. The same filter is applied to the union, which drops ids left behind by deleted
+     * events. With neither, every event matches.
      * </p>
      *
-     * @param filterList case-sensitive tokens to match against event tags
+     * <p><b>Database rules:</b> the {@code Event} root should declare {@code "name"} in its
+     * {@code ".indexOn"} list; without it the name queries scan the catalogue.</p>
+     *
+     * @param filterList tag tokens to match (case-insensitive)
+     * @param filterAvailability availability window name, or {@code null}/"Anytime"
      * @return a task resolving to a list of matching event IDs
      */
     @SuppressLint("NewApi")
     public Task<ArrayList<String>> filterEvents(ArrayList<String> filterList, String filterAvailability) {
-        Log.i(TAG, "what");
-        Log.i(TAG, "e" + eventService);
-        LocalDate filterStart;
-        LocalDate filterEnd;
-        if (filterAvailability != null && !filterAvailability.equals("Anytime")) {
-            ArrayList<LocalDate> filterArr = getFilterDate(filterAvailability);
-            filterStart = filterArr.get(0);
-            filterEnd = filterArr.get(1);
-        } else {
-            filterStart = null;
-            filterEnd = null;
+        EventRepository repository = EventRepository.getInstance();
+        boolean anytime = filterAvailability == null || filterAvailability.equals("Anytime");
+
+        if (anytime && filterList.isEmpty()) {
+            return repository.getEvents().continueWith(task -> {
+                ArrayList<String> eventList = new ArrayList<>();
+                for (Event event : task.getResult()) eventList.add(event.getId());
+                return eventList;
+            });
         }
 
-        return eventService.getReference().get().continueWith(task -> {
-            Log.d(TAG, "=== filtering events ===");
-            ArrayList<String> eventList = new ArrayList<>();
-
-            // Iterate through all children
-            for (DataSnapshot childSnapshot : task.getResult().getChildren()) {
-                String key = childSnapshot.getKey();
-                String[] value = ((Map<String, String>) childSnapshot.getValue()).get("tag").split(",");
-                Map<String, String> value2 = ((Map<String, String>) childSnapshot.getValue());
-                boolean addEvent = false;
-
-
-                Log.d(TAG, "Key: " + key);
-                for (String val : value) {
-                    Log.d(TAG, "Value: " + val);
-                    if (filterList.contains(val)) {
-                        addEvent = true;
-//                        eventList.add(key);
-//                        return eventList;
-                    }
-                }
-                if (filterList.size() == 0 || filterList.contains(((Map<String, String>) childSnapshot.getValue()).get("name"))) {
-//                    eventList.add(key);
-                    addEvent = true;
-                }
-
-                Log.i("filter event", addEvent ? "yes" : "no");
-
-                try {
-                    if (filterStart != null && value2.get("eventStartDate") != null) {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                        LocalDate date = LocalDate.parse(value2.get("eventStartDate"), formatter);
-                        if (date.isBefore(filterStart)) addEvent = false;
-                        Log.i("filter event", "set false a" );
-                        Log.i("filter event", date.toString());
-                        Log.i("filter event", filterStart.toString());
+        Long fromDay = null;
+        Long toDay = null;
+        if (!anytime) {
+            ArrayList<LocalDate> filterArr = getFilterDate(filterAvailability);
+            fromDay = filterArr.get(0).toEpochDay();
+            toDay = filterArr.get(1).toEpochDay();
+        }
+        EventFilter filter = new EventFilter(filterList, fromDay, toDay);
 
+        if (repository.isLoaded()) {
+            return Tasks.forResult(filter.matchingIds(repository.getCachedEvents()));
+        }
 
-                    }
-                    if (filterEnd != null && value2.get("eventEndDate") != null) {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
-                        LocalDate date = LocalDate.parse(value2.get("eventEndDate"), formatter);
-                        if (date.isAfter(filterEnd)) addEvent = false;
-                        Log.i("filter event", "set false b");
-                        Log.i("filter event", date.toString());
-                        Log.i("filter event", filterEnd.toString());
+        if (!filter.hasWindow()) {
+            Task<List<Event>> tagged = TagIndex.getInstance().eventIdsFor(filterList)
+                    .continueWithTask(task -> EventLookup.getInstance().getAll(task.getResult()));
+            return Tasks.<List<Event>>whenAllSuccess(tagged, eventsNamed(filter.nameTerms()))
+                    .continueWith(task -> {
+                        Map<String, Event> union = new LinkedHashMap<>();
+                        for (List<Event> batch : task.getResult()) {
+                            for (Event event : batch) union.put(event.getId(), event);
+                        }
+                        return filter.matchingIds(union.values());
+                    });
+        }
 
+        return EventDates.getInstance()
+                .startingBetween(fromDay, toDay)
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Availability filter failed", task.getException());
+                        throw task.getException();
                     }
-                } catch (Exception e) {
-                    Log.i("filter error", e.toString());
-                    addEvent = false;
-                }
+                    return filter.matchingIds(task.getResult());
+                });
+    }
 
-                if (addEvent) {
-//                    Event e = new Event("e", value.get("id"), value.get("name"),  value.get("eventDetails"), value.get("eventStartTime"), value.get("eventEndTime"), value.get("eventStartDate"), "N/A", value.get("registrationEndDate"), value.get("registrationStartDate"), 32, "N/A", value.get("tag"), false);
-                    eventList.add(key);
+    /**
+     * Reads the events whose name equals one of {@code names}, one equality query per name.
+     */
+    private Task<List<Event>> eventsNamed(List<String> names) {
+        List<Task<DataSnapshot>> reads = new ArrayList<>();
+        for (String name : names) {
+            reads.add(eventService.getReference().orderByChild("name").equalTo(name).get());
+        }
+        return Tasks.<DataSnapshot>whenAllSuccess(reads).continueWith(task -> {
+            List<Event> events = new ArrayList<>();
+            for (DataSnapshot result : task.getResult()) {
+                for (DataSnapshot child : result.getChildren()) {
+                    Event event = Event.fromSnapshot(child);
+                    if (event != null) events.add(event);
                 }
-
-                Log.d(TAG, "---");
             }
-
-//                Log.d(TAG, "Total children: " + dataSnapshot.getChildrenCount());
-            return eventList;
+            return events;
         });
     }
 
@@ -292,80 +297,40 @@ public class User {
     }
 
     /**
-     * Sets the in-memory notifications flag.
+     * Sets the notifications flag and persists it to the profile and the
+     * {@link NotificationPrefs} index in one multi-path write.
      *
      * @param notificationsEnabled desired notifications state
      */
     public void setNotificationsEnabled(boolean notificationsEnabled) {
         this.notificationsEnabled = notificationsEnabled;
+
+        HashMap<String, Object> updates = new HashMap<>();
+        updates.put("User/" + userId + "/notificationsEnabled", notificationsEnabled);
+        updates.put(NotificationPrefs.path(userId), notificationsEnabled);
+        userService.updateMultiPath(updates);
     }
 
     /**
-     * Reads the user's notifications from Firebase and materializes them into {@link Notification} objects.
+     * Reads the newest page of the user's notifications. Use a {@link NotificationInbox} to page
+     * further back.
      *
-     * @return a task resolving to the user's notifications
+     * @return a task resolving to up to {@link NotificationInbox#DEFAULT_PAGE_SIZE}
+     *         notifications, newest first
      */
     public Task<ArrayList<Notification>> getNotificationList() {
-        Log.i(TAG, "in notif list");
-        return notificationService.getReference().child(userId).get().continueWith(task -> {
-            ArrayList<Notification> notificationList = new ArrayList<Notification>();
-
-            Log.d(TAG, "=== All Children at Root filter ===");
-
-            for (DataSnapshot childSnapshot : task.getResult().getChildren()) {
-                String eventId = childSnapshot.getKey();
-                HashMap<String, HashMap<String, String>> value = (HashMap<String, HashMap<String,String>>) childSnapshot.getValue();
-//                value.get("WAITING").
-
-                Log.d(TAG, "Key: " + eventId);
-                for (Map.Entry<String, HashMap<String, String>> entry : value.entrySet()) {
-//                    Log.i(TAG, "Key: " + entry.getKey() + ", Value: " + entry.getValue());
-//                    Log.d(TAG, "KKK: " + entry.getKey());
-
-                    for (Map.Entry<String, String> entry2 : entry.getValue().entrySet()) {
-//                        Log.i(TAG, "kkk2: " + entry.getKey() + ", Value: " + entry.getValue().get("message"));
-                        NotificationType notificationType;
-                        switch (entry.getKey()) {
-                            case "WAITING":
-                                notificationType = NotificationType.WAITING;
-                                break;
-                            case "INVITED":
-                                notificationType = NotificationType.INVITED;
-                                break;
-                            case "UNINVITED":
-                                notificationType = NotificationType.UNINVITED;
-                                break;
-                            case "ACCEPTED":
-                                notificationType = NotificationType.ACCEPTED;
-                                break;
-                            case "CANCELLED":
-                                notificationType = NotificationType.CANCELLED;
-                                break;
-                            case "SYSTEM":
-                                notificationType = NotificationType.SYSTEM;
-                                break;
-                            default:
-                                notificationType = NotificationType.WAITING;
-                                break;
-                        }
-
-                        notificationList.add(new Notification(userId, eventId, notificationType, entry.getValue().get("message")));
-                    }
-
-                }
-
-//
-
-            }
-            return notificationList;
-        });
+        return new NotificationInbox(notificationService, userId, NotificationInbox.DEFAULT_PAGE_SIZE)
+                .loadNext()
+                .continueWith(task -> new ArrayList<>(task.getResult()));
     }
 
     /**
      * Updates the user's profile in Firebase Realtime Database.
      * <p>
      * Validates input fields, updates local instance state, and persists changes to the
-     * {@code /User/{userId}} node using only the fields that are being updated.
+     * {@code /User/{userId}} node using only the fields that are being updated. The
+     * notifications flag is written to the {@link NotificationPrefs} index in the same
+     * multi-path write, so the two cannot disagree.
      * </p>
      *
      * <p><strong>Validation Rules:</strong></p>
@@ -401,17 +366,19 @@ public class User {
         this.phoneNumber = (phone != null) ? phone.trim() : "";
         this.notificationsEnabled = notification;
 
-        // Create a map to send only the updated fields to Firebase
+        // Send only the updated fields, as root-relative paths
+        String profile = "User/" + userId + "/";
         HashMap<String, Object> updates = new HashMap<>();
-        updates.put("name", this.name);
-        updates.put("email", this.email);
-        updates.put("phoneNumber", this.phoneNumber);
-        updates.put("uid", this.userId); // Store UID in the record itself
-        updates.put("notificationsEnabled", this.notificationsEnabled);
-        updates.put("bannedFromOrganizer", this.bannedFromOrganizer);
-
-        // Call the editEntry method from existing FirebaseService
-        userService.editEntry(userId, updates);
+        updates.put(profile + "name", this.name);
+        updates.put(profile + "email", this.email);
+        updates.put(profile + "phoneNumber", this.phoneNumber);
+        updates.put(profile + "uid", this.userId); // Store UID in the record itself
+        updates.put(profile + "notificationsEnabled", this.notificationsEnabled);
+        updates.put(profile + "bannedFromOrganizer", this.bannedFromOrganizer);
+        // Keep the opt-in index that broadcasts read in step with the profile
+        updates.put(NotificationPrefs.path(userId), this.notificationsEnabled);
+
+        userService.updateMultiPath(updates);
         return true;
     }
 
@@ -0,0 +1,153 @@
+package com.example.chicksevent.misc;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Per-user reverse index of the events a user is listed in.
+ * <p>
+ * {@link Entrant} and {@link StatusTransition} write {@code UserEvents/{uid}/{eventId}} in the
+ * same update as the waiting-list entry it mirrors, so the "joined events" screen reads one
+ * user's node instead of every waiting list.
+ * </p>
+ *
+ * <b>Firebase structure:</b>
+ * <pre>
+ * UserEvents/{uid}/{eventId} = EntrantStatus
+ * Migrations/userEvents = true          // set once the index covers pre-existing memberships
+ * </pre>
+ *
+ * <p><b>Migration:</b> memberships created before the index existed have no entries. The first
+ * read checks {@code Migrations/userEvents} and, if it is missing, rebuilds the index once from
+ * the {@code WaitingList} root, writing every entry and the marker in one update. A leave that
+ * lands between that read and the write leaves its entry behind until the user next joins or
+ * leaves that event.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class UserEventsIndex {
+
+    private static final String TAG = UserEventsIndex.class.getSimpleName();
+
+    /** Root node of the index. */
+    public static final String ROOT = "UserEvents";
+
+    /** Root-relative marker written once the index covers pre-existing memberships. */
+    static final String MIGRATION_MARKER = "Migrations/userEvents";
+
+    /** Lazily created shared instance. */
+    private static UserEventsIndex instance;
+
+    /** Firebase service for the "UserEvents" root. */
+    private final FirebaseService indexService;
+
+    /** Firebase service for the "WaitingList" root, used only when rebuilding. */
+    private final FirebaseService waitingListService;
+
+    private final MigrationGate gate;
+
+    /**
+     * Returns the shared index bound to the default {@code UserEvents} and {@code WaitingList}
+     * roots.
+     *
+     * @return the process-wide index
+     */
+    public static synchronized UserEventsIndex getInstance() {
+        if (instance == null) {
+            instance = new UserEventsIndex(new FirebaseService(ROOT), new FirebaseService("WaitingList"));
+        }
+        return instance;
+    }
+
+    /**
+     * @param indexService service scoped to the {@code UserEvents} root
+     * @param waitingListService service scoped to the {@code WaitingList} root
+     */
+    public UserEventsIndex(FirebaseService indexService, FirebaseService waitingListService) {
+        this.indexService = indexService;
+        this.waitingListService = waitingListService;
+        this.gate = new MigrationGate(indexService, MIGRATION_MARKER, this::rebuild);
+    }
+
+    /**
+     * @param userId the user
+     * @param eventId the event
+     * @return root-relative path of the user's entry for the event
+     */
+    public static String path(String userId, String eventId) {
+        return ROOT + "/" + userId + "/" + eventId;
+    }
+
+    /**
+     * Reads the ids of the events a user is listed in, rebuilding the index first if it has
+     * never been built.
+     *
+     * @param userId the user
+     * @return a task resolving to the event ids, in key order
+     */
+    public Task<Set<String>> eventIdsFor(String userId) {
+        TaskCompletionSource<Set<String>> tcs = new TaskCompletionSource<>();
+        gate.whenOpen(error -> {
+            if (error != null) {
+                tcs.setException(error);
+                return;
+            }
+            indexService.getReference().child(userId).get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful() || task.getResult() == null) {
+                    Log.e(TAG, "Failed to read joined events of " + userId, task.getException());
+                    tcs.setException(task.getException() != null
+                            ? task.getException() : new Exception("Joined events read failed"));
+                    return;
+                }
+                Set<String> ids = new LinkedHashSet<>();
+                for (DataSnapshot entry : task.getResult().getChildren()) ids.add(entry.getKey());
+                tcs.setResult(ids);
+            });
+        });
+        return tcs.getTask();
+    }
+
+    /**
+     * Reads every waiting list and writes one entry per membership, with the marker, in one
+     * update.
+     */
+    private void rebuild(Consumer<Exception> done) {
+        waitingListService.getReference().get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful() || task.getResult() == null) {
+                Log.e(TAG, "Failed to read waiting lists for the joined-events index", task.getException());
+                done.accept(task.getException() != null
+                        ? task.getException() : new Exception("Waiting list read failed"));
+                return;
+            }
+
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot event : task.getResult().getChildren()) {
+                for (DataSnapshot bucket : event.getChildren()) {
+                    for (DataSnapshot entrant : bucket.getChildren()) {
+                        updates.put(path(entrant.getKey(), event.getKey()), bucket.getKey());
+                    }
+                }
+            }
+            updates.put(MIGRATION_MARKER, true);
+
+            Log.i(TAG, "Rebuilding joined-events index (" + (updates.size() - 1) + " entries)");
+            indexService.updateMultiPath(updates).addOnCompleteListener(write -> {
+                if (write.isSuccessful()) {
+                    done.accept(null);
+                } else {
+                    done.accept(write.getException() != null
+                            ? write.getException() : new Exception("Joined-events index write failed"));
+                }
+            });
+        });
+    }
+}
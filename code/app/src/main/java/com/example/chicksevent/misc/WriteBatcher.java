@@ -0,0 +1,263 @@
+package com.example.chicksevent.misc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Coalesces writes issued within a short window into one root-level multi-path
+ * {@code updateChildren}.
+ * <p>
+ * Bulk flows such as notifying a whole waiting list used to start one round trip per entrant.
+ * A {@link FirebaseService} created with a batcher instead hands each write to
+ * {@link #update(Map)} as root-relative paths; the batcher buffers them for
+ * {@link #DEFAULT_WINDOW_MS} (or until {@link #MAX_PATHS} paths are pending) and commits the
+ * whole buffer in a single atomic write. Every write gets its own {@link Task}, which completes
+ * when the batch it was merged into commits or fails.
+ * </p>
+ *
+ * <p><b>Ordering:</b> Firebase rejects a multi-path update in which one path is an ancestor of
+ * another. When a new write overlaps a pending path that way, the pending batch is committed
+ * first, so writes still reach the server in the order they were issued. Writes to the exact
+ * same path simply replace each other, as they would sequentially, except that two
+ * {@link ServerValue#increment} writes to one path are summed into a single increment (so ten
+ * deliveries to one inbox still add ten to its unread counter). An increment onto a pending
+ * plain value cannot be merged and commits the pending batch first.</p>
+ *
+ * <p><b>Metrics:</b> each commit is logged with its write count, path count and latency, and is
+ * reported to an optional {@link Listener}.</p>
+ *
+ * @author Jordan Kwan
+ */
+public class WriteBatcher {
+
+    private static final String TAG = WriteBatcher.class.getSimpleName();
+
+    /** How long the first write of a batch waits for others to join it. */
+    public static final long DEFAULT_WINDOW_MS = 50;
+
+    /** Pending path count at which a batch is committed without waiting for the window. */
+    public static final int MAX_PATHS = 500;
+
+    /** Lazily created shared instance. */
+    private static WriteBatcher instance;
+
+    /**
+     * Receives one callback per committed batch.
+     */
+    public interface Listener {
+        /**
+         * Called when a batch has been acknowledged (or rejected) by the server.
+         *
+         * @param writes number of merged writes
+         * @param paths number of distinct paths in the multi-path update
+         * @param latencyMs time from the first buffered write to the server's answer
+         * @param error the failure, or {@code null} on success
+         */
+        void onBatchCommitted(int writes, int paths, long latencyMs, Exception error);
+    }
+
+    /**
+     * Runs the delayed flush. Production code posts to the main looper; tests flush by hand.
+     */
+    public interface Scheduler {
+        /**
+         * @param task the flush to run
+         * @param delayMs delay before running it
+         */
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private final DatabaseReference root;
+    private final long windowMs;
+    private final Scheduler scheduler;
+    private Listener listener;
+
+    /** Buffered root-relative paths, sorted so overlap checks are a range lookup. */
+    private TreeMap<String, Object> pending = new TreeMap<>();
+
+    /** Completion handles of the writes merged into {@link #pending}. */
+    private List<TaskCompletionSource<Void>> waiters = new ArrayList<>();
+
+    private long openedAt;
+    private boolean flushScheduled = false;
+
+    /**
+     * Returns the shared batcher bound to the default database root and the main looper.
+     *
+     * @return the process-wide batcher
+     */
+    public static synchronized WriteBatcher getInstance() {
+        if (instance == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            instance = new WriteBatcher(FirebaseDatabase.getInstance().getReference(),
+                    DEFAULT_WINDOW_MS, handler::postDelayed);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a batcher over the given root.
+     *
+     * @param root the database root that paths are relative to
+     * @param windowMs how long a batch stays open
+     * @param scheduler runs the delayed flush
+     */
+    public WriteBatcher(DatabaseReference root, long windowMs, Scheduler scheduler) {
+        this.root = root;
+        this.windowMs = windowMs;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the receiver for per-batch metrics.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Buffers one write.
+     *
+     * @param updates root-relative paths to values; a {@code null} value deletes the path
+     * @return a task that completes when the batch containing this write commits
+     */
+    public synchronized Task<Void> update(Map<String, Object> updates) {
+        TaskCompletionSource<Void> tcs = new TaskCompletionSource<>();
+        if (updates.isEmpty()) {
+            tcs.setResult(null);
+            return tcs.getTask();
+        }
+
+        for (Map.Entry<String, Object> e : updates.entrySet()) {
+            if (overlapsPending(e.getKey()) || cannotMerge(e.getKey(), e.getValue())) {
+                flush();
+                break;
+            }
+        }
+
+        if (pending.isEmpty()) {
+            openedAt = SystemClock.elapsedRealtime();
+        }
+        for (Map.Entry<String, Object> e : updates.entrySet()) {
+            pending.put(e.getKey(), merge(pending.get(e.getKey()), e.getValue()));
+        }
+        waiters.add(tcs);
+
+        if (pending.size() >= MAX_PATHS) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::onWindowElapsed, windowMs);
+        }
+        return tcs.getTask();
+    }
+
+    /**
+     * Commits everything buffered so far as one multi-path update. A no-op when empty.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<String, Object> batch = new HashMap<>(pending);
+        List<TaskCompletionSource<Void>> batchWaiters = waiters;
+        long startedAt = openedAt;
+        pending = new TreeMap<>();
+        waiters = new ArrayList<>();
+
+        root.updateChildren(batch, (error, ref) -> {
+            long latency = SystemClock.elapsedRealtime() - startedAt;
+            Exception failure = error == null ? null : error.toException();
+            if (failure == null) {
+                Log.d(TAG, "Committed " + batchWaiters.size() + " writes / " + batch.size()
+                        + " paths in " + latency + " ms");
+            } else {
+                Log.e(TAG, "Batch of " + batchWaiters.size() + " writes failed", failure);
+            }
+
+            Listener l = listener;
+            if (l != null) l.onBatchCommitted(batchWaiters.size(), batch.size(), latency, failure);
+
+            for (TaskCompletionSource<Void> w : batchWaiters) {
+                if (failure == null) w.setResult(null); else w.setException(failure);
+            }
+        });
+    }
+
+    /**
+     * @return the number of paths currently buffered
+     */
+    public synchronized int pendingPathCount() {
+        return pending.size();
+    }
+
+    private synchronized void onWindowElapsed() {
+        flushScheduled = false;
+        flush();
+    }
+
+    /**
+     * @return whether {@code value} is an increment landing on a pending non-increment write
+     *         to the same path, which one multi-path update cannot express
+     */
+    private boolean cannotMerge(String path, Object value) {
+        return incrementOf(value) != null && pending.containsKey(path)
+                && incrementOf(pending.get(path)) == null;
+    }
+
+    /**
+     * @return the value to buffer when {@code value} is written after {@code previous}: the sum
+     *         of two increments, otherwise {@code value}
+     */
+    private static Object merge(Object previous, Object value) {
+        Number a = incrementOf(previous);
+        Number b = incrementOf(value);
+        if (a == null || b == null) return value;
+        if (a instanceof Double || b instanceof Double) {
+            return ServerValue.increment(a.doubleValue() + b.doubleValue());
+        }
+        return ServerValue.increment(a.longValue() + b.longValue());
+    }
+
+    /**
+     * @return the amount of a {@link ServerValue#increment} placeholder, or {@code null} if
+     *         {@code value} is anything else
+     */
+    private static Number incrementOf(Object value) {
+        if (!(value instanceof Map)) return null;
+        Object sv = ((Map<?, ?>) value).get(".sv");
+        if (!(sv instanceof Map)) return null;
+        Object amount = ((Map<?, ?>) sv).get("increment");
+        return amount instanceof Number ? (Number) amount : null;
+    }
+
+    /**
+     * @return whether {@code path} is a strict ancestor or descendant of a buffered path
+     */
+    private boolean overlapsPending(String path) {
+        // A buffered descendant sorts directly after "path/"
+        String below = pending.ceilingKey(path + "/");
+        if (below != null && below.startsWith(path + "/")) return true;
+
+        // A buffered ancestor is one of path's own prefixes
+        for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+            if (pending.containsKey(path.substring(0, i))) return true;
+        }
+        return false;
+    }
+}
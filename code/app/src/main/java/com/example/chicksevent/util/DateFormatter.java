@@ -4,6 +4,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
 /**
  * Thread-safe date formatting utility class.
@@ -29,6 +30,17 @@ public class DateFormatter {
     private static final ThreadLocal<SimpleDateFormat> DAY_FORMAT = 
         ThreadLocal.withInitial(() -> new SimpleDateFormat("d", Locale.ENGLISH));
 
+    // Strict UTC parser, so a date maps to the same epoch day in every time zone
+    private static final ThreadLocal<SimpleDateFormat> EPOCH_FORMAT =
+        ThreadLocal.withInitial(() -> {
+            SimpleDateFormat format = new SimpleDateFormat("MM-dd-yyyy", Locale.ENGLISH);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            format.setLenient(false);
+            return format;
+        });
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
     /**
      * Formats a date string from "MM-dd-yyyy" to "MMM d, yyyy" format.
      *
@@ -70,6 +82,26 @@ public class DateFormatter {
         }
     }
 
+    /**
+     * Converts a date string to the number of days since 1970-01-01, which sorts the same way
+     * as the dates themselves.
+     *
+     * @param dateStr the input date string in "MM-dd-yyyy" format
+     * @return the epoch day, or null if the string is empty or not a valid date
+     */
+    public static Long toEpochDay(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            return null;
+        }
+
+        try {
+            Date date = EPOCH_FORMAT.get().parse(dateStr);
+            return Math.floorDiv(date.getTime(), MILLIS_PER_DAY);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
     /**
      * Parses a date string and returns a Date object.
      *
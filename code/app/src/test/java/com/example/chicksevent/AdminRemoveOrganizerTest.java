@@ -23,6 +23,7 @@ import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 
 import org.junit.After;
 import org.junit.Before;
@@ -102,6 +103,12 @@ public class AdminRemoveOrganizerTest {
         when(mockDb.getReference("Notification")).thenReturn(notificationRoot);
         when(mockDb.getReference("Image")).thenReturn(imageRoot);
 
+        // Organizer queries answer with whatever the Event root read is stubbed to return
+        Query byOrganizer = mock(Query.class);
+        when(eventRoot.orderByChild("organizer")).thenReturn(byOrganizer);
+        when(byOrganizer.equalTo(anyString())).thenReturn(byOrganizer);
+        when(byOrganizer.get()).thenAnswer(inv -> eventRoot.get());
+
         admin = new Admin(ADMIN_ID);
     }
 
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -16,19 +17,26 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.chicksevent.misc.Admin;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Organizer;
 import com.example.chicksevent.misc.User;
 import com.google.android.gms.tasks.Continuation;
+import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
@@ -36,6 +44,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for {@link Admin}.
@@ -121,6 +130,12 @@ public class AdminTest {
         when(mockDb.getReference("Notification")).thenReturn(notificationRoot);
         when(mockDb.getReference("Image")).thenReturn(imageRoot);
 
+        // Organizer queries answer with whatever the Event root read is stubbed to return
+        Query byOrganizer = mock(Query.class);
+        when(eventRoot.orderByChild("organizer")).thenReturn(byOrganizer);
+        when(byOrganizer.equalTo(anyString())).thenReturn(byOrganizer);
+        when(byOrganizer.get()).thenAnswer(inv -> eventRoot.get());
+
         // Safe to construct Admin (its FirebaseService members will bind to the mocked refs)
         admin = new Admin(UID);
     }
@@ -136,16 +151,39 @@ public class AdminTest {
      * US 03.01.01 - As an administrator, I want to be able to remove events.
      */
     @Test
-    public void deleteEvent_nonEmpty_callsRemoveOnEventPath() {
+    @SuppressWarnings("unchecked")
+    public void deleteEvent_nonEmpty_removesEventAndTagEntriesTogether() {
         DatabaseReference eventIdRef = mock(DatabaseReference.class);
+        DatabaseReference tagRef = mock(DatabaseReference.class);
+        DatabaseReference dbRoot = mock(DatabaseReference.class);
         when(eventRoot.child("E123")).thenReturn(eventIdRef);
-
-        // return a completed Task from removeValue() so the success-listener chain doesn't NPE
-        when(eventIdRef.removeValue()).thenReturn(Tasks.forResult(null));
+        when(eventIdRef.child("tag")).thenReturn(tagRef);
+        when(eventRoot.getRoot()).thenReturn(dbRoot);
+        when(dbRoot.updateChildren(anyMap())).thenReturn(Tasks.forResult(null));
+
+        // The stored tag string answers immediately
+        Task<DataSnapshot> read = mock(Task.class);
+        DataSnapshot tags = mock(DataSnapshot.class);
+        when(tagRef.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(tags);
+        when(tags.getValue()).thenReturn("sports, music");
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
 
         admin.deleteEvent("E123");
 
-        verify(eventIdRef, times(1)).removeValue();
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(dbRoot, times(1)).updateChildren(captor.capture());
+        Map<String, Object> updates = captor.getValue();
+        assertTrue(updates.containsKey("Event/E123"));
+        assertNull(updates.get("Event/E123"));
+        assertTrue(updates.containsKey("Tags/sports/E123"));
+        assertTrue(updates.containsKey("Tags/music/E123"));
+        assertEquals(3, updates.size());
+        verify(eventIdRef, never()).removeValue();
     }
 
     @Test
@@ -284,35 +322,43 @@ public class AdminTest {
      */
 
     @Test
-    public void browseEvents_returnsListSizeMatchingChildren() {
-        // Fake /Event snapshot with two children (each child value is a map)
+    public void browseEvents_returnsListSizeMatchingChildren() throws Exception {
+        // Fake /Event children (each child value is a map)
         DataSnapshot root = mock(DataSnapshot.class);
         DataSnapshot e1   = mock(DataSnapshot.class);
         DataSnapshot e2   = mock(DataSnapshot.class);
 
+        when(e1.getKey()).thenReturn("E1");
+        when(e2.getKey()).thenReturn("E2");
         when(e1.getValue()).thenReturn(new java.util.HashMap<String,String>() {{
             put("id", "E1"); put("name", "Alpha");
         }});
         when(e2.getValue()).thenReturn(new java.util.HashMap<String,String>() {{
             put("id", "E2"); put("name", "Beta");
         }});
-        when(root.getChildren()).thenAnswer(i -> iterable(e1, e2));
 
-        @SuppressWarnings("unchecked")
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(eventRoot.get()).thenReturn(mockGetTask);
+        // The repository streams children, then marks the initial load complete
+        doAnswer(inv -> {
+            ChildEventListener l = inv.getArgument(0);
+            l.onChildAdded(e1, null);
+            l.onChildAdded(e2, "E1");
+            return l;
+        }).when(eventRoot).addChildEventListener(any(ChildEventListener.class));
+        doAnswer(inv -> {
+            ValueEventListener l = inv.getArgument(0);
+            l.onDataChange(root);
+            return null;
+        }).when(eventRoot).addListenerForSingleValueEvent(any(ValueEventListener.class));
 
-        when(mockGetTask.continueWithTask(any())).thenAnswer(inv -> {
-            @SuppressWarnings("unchecked")
-            Continuation<DataSnapshot, Task<java.util.List<com.example.chicksevent.misc.Event>>> cont =
-                    (Continuation<DataSnapshot, Task<java.util.List<com.example.chicksevent.misc.Event>>>) inv.getArgument(0);
-            return cont.then(Tasks.forResult(root));
-        });
+        FirebaseService eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRoot);
+        setPrivate(admin, "eventRepository", new EventRepository(eventService));
 
         Task<java.util.List<com.example.chicksevent.misc.Event>> out = admin.browseEvents();
         assertTrue(out.isComplete());
         assertTrue(out.isSuccessful());
         assertEquals(2, out.getResult().size()); // size matches children
+        verify(eventRoot, never()).get();
     }
 
     // -------------------- US 03.06.01 --------------------
@@ -394,6 +440,7 @@ public class AdminTest {
         assertTrue(eventIds.contains("event1"));
         assertTrue(eventIds.contains("event3"));
         assertFalse(eventIds.contains("event2"));
+        verify(eventRoot).orderByChild("organizer");
     }
 
     // -------------------- US 03.07.01 --------------------
@@ -449,14 +496,15 @@ public class AdminTest {
         when(userChildRef.updateChildren(any(HashMap.class))).thenReturn(Tasks.forResult(null));
         
         // Mock notification service for Notification.createNotification()
-        // Notification uses updateSubCollectionEntry which calls child().child().updateChildren()
+        // Notification takes a push key under child(userId) and writes through getRoot().updateChildren()
         DatabaseReference userNotifRef = mock(DatabaseReference.class);
-        DatabaseReference eventNotifRef = mock(DatabaseReference.class);
-        DatabaseReference typeNotifRef = mock(DatabaseReference.class);
+        DatabaseReference pushedNotifRef = mock(DatabaseReference.class);
+        DatabaseReference databaseRoot = mock(DatabaseReference.class);
         when(notificationRoot.child(userId)).thenReturn(userNotifRef);
-        when(userNotifRef.child("SYSTEM")).thenReturn(eventNotifRef);
-        when(eventNotifRef.child(anyString())).thenReturn(typeNotifRef);
-        when(typeNotifRef.updateChildren(any(HashMap.class))).thenReturn(Tasks.forResult(null));
+        when(userNotifRef.push()).thenReturn(pushedNotifRef);
+        when(pushedNotifRef.getKey()).thenReturn("-K1");
+        when(notificationRoot.getRoot()).thenReturn(databaseRoot);
+        when(databaseRoot.updateChildren(anyMap())).thenReturn(Tasks.forResult(null));
         
         Task<Void> unbanTask = admin.unbanUserFromOrganizer(userId);
         assertNotNull(unbanTask);
@@ -0,0 +1,179 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventFilter;
+import com.example.chicksevent.misc.EventSearchIndex;
+import com.example.chicksevent.misc.LotteryDraw;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Opt-in performance benchmarks.
+ *
+ * <p>
+ * Timings depend on the machine and on whatever else it is running, so they are kept out of the
+ * default test task: every benchmark here is skipped unless the {@code benchmarks} system
+ * property is {@code true}. Run them with {@code ./gradlew testDebugUnitTest -Pbenchmarks
+ * --tests '*Benchmarks'}; results are printed to the test log. The behaviour each benchmark
+ * exercises is covered deterministically by the unit test of the class under test.
+ * </p>
+ *
+ * <h2>Benchmarks</h2>
+ * <ul>
+ *   <li>{@link EventSearchIndex}: keystroke queries over 50k events, under a millisecond on
+ *       average</li>
+ *   <li>{@link EventFilter}: the compiled filter against the original per-row loop at 1k, 10k
+ *       and 100k events; it must allocate less per event</li>
+ *   <li>{@link LotteryDraw}: the streaming draw against copying and shuffling the pool at 1k,
+ *       100k and 1M entrants; from 100k on it must allocate less</li>
+ * </ul>
+ *
+ * <p>Every body is measured by {@link #measure(int, Runnable)}: the same number of warm-up
+ * rounds, then timed rounds, reporting time and, where the JVM can tell, bytes allocated per
+ * round.</p>
+ *
+ * @author Jinn Kasai
+ */
+public class Benchmarks {
+
+    /** Cost of one round of a measured body. */
+    private static final class Sample {
+        final double millis;
+        /** Bytes allocated, or -1 if the JVM cannot tell. */
+        final long bytes;
+
+        Sample(double millis, long bytes) {
+            this.millis = millis;
+            this.bytes = bytes;
+        }
+    }
+
+    @BeforeClass
+    public static void requireOptIn() {
+        assumeTrue("benchmarks are opt-in; pass -Pbenchmarks", Boolean.getBoolean("benchmarks"));
+    }
+
+    @Test
+    public void eventSearchIndex_typedQueriesOver50kEvents() {
+        EventSearchIndex index = new EventSearchIndex();
+        EventSearchIndexTest.populate(index, 50_000);
+        List<String> queries = EventSearchIndexTest.typedQueries();
+
+        Sample sample = measure(20, () -> {
+            for (String q : queries) index.search(q, 50);
+        });
+        double averageMillis = sample.millis / queries.size();
+
+        System.out.printf("search: %d queries over 50k events, %.3f ms per query%n", queries.size(), averageMillis);
+        assertTrue("average query took " + averageMillis + " ms", averageMillis < 1.0);
+    }
+
+    @Test
+    public void eventFilter_compiledVsOriginalLoop() {
+        // Event constructors create FirebaseService instances; keep them off the network
+        try (MockedStatic<FirebaseDatabase> firebaseDbStatic = mockStatic(FirebaseDatabase.class)) {
+            FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+            firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+            when(mockDb.getReference(anyString())).thenReturn(mock(DatabaseReference.class));
+
+            List<Map<String, Object>> rows = EventFilterTest.catalogue(100_000);
+            List<Event> events = new ArrayList<>();
+            for (Map<String, Object> row : rows) events.add(Event.fromMap((String) row.get("id"), row));
+            long from = EventFilterTest.FILTER_START.toEpochDay();
+            long to = EventFilterTest.FILTER_END.toEpochDay();
+
+            System.out.println("events    original(ev/ms)  compiled(ev/ms)  original(B/ev)  compiled(B/ev)");
+            for (int size : new int[] { 1_000, 10_000, 100_000 }) {
+                List<Map<String, Object>> rowSlice = rows.subList(0, size);
+                List<Event> eventSlice = events.subList(0, size);
+                int rounds = Math.max(3, 200_000 / size);
+
+                assertEquals(EventFilterTest.originalLoop(rowSlice, EventFilterTest.FILTER_TERMS,
+                                EventFilterTest.FILTER_START, EventFilterTest.FILTER_END),
+                        new EventFilter(EventFilterTest.FILTER_TERMS, from, to).matchingIds(eventSlice));
+
+                Sample original = measure(rounds, () -> EventFilterTest.originalLoop(rowSlice,
+                        EventFilterTest.FILTER_TERMS, EventFilterTest.FILTER_START, EventFilterTest.FILTER_END));
+                Sample compiled = measure(rounds,
+                        () -> new EventFilter(EventFilterTest.FILTER_TERMS, from, to).matchingIds(eventSlice));
+
+                System.out.printf("%7d   %15.0f  %15.0f  %14.1f  %14.1f%n", size,
+                        size / original.millis, size / compiled.millis,
+                        (double) original.bytes / size, (double) compiled.bytes / size);
+                if (compiled.bytes >= 0) {
+                    assertTrue("compiled filter allocated more than the original loop", compiled.bytes < original.bytes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lotteryDraw_streamingVsShuffle() {
+        String[] all = new String[1_000_000];
+        for (int i = 0; i < all.length; i++) all[i] = "u" + i;
+        int k = 100;
+        Random random = new Random(4);
+        LotteryDraw draw = new LotteryDraw(random);
+
+        System.out.println("pool       shuffle(ms)  draw(ms)  shuffle(B)   draw(B)");
+        for (int size : new int[] { 1_000, 100_000, 1_000_000 }) {
+            List<String> pool = Arrays.asList(all).subList(0, size);
+            int rounds = size >= 1_000_000 ? 3 : 10;
+
+            Sample shuffle = measure(rounds, () -> LotteryDrawTest.shuffleRoute(pool, k, random));
+            Sample streaming = measure(rounds, () -> LotteryDrawTest.drawRoute(pool, k, draw));
+
+            System.out.printf("%8d   %11.2f  %8.2f  %10d  %8d%n", size,
+                    shuffle.millis, streaming.millis, shuffle.bytes, streaming.bytes);
+            if (streaming.bytes >= 0 && size >= 100_000) {
+                assertTrue("draw allocated more than shuffling", streaming.bytes < shuffle.bytes);
+            }
+        }
+    }
+
+    // -------------------- helpers --------------------
+
+    /**
+     * Runs {@code body} {@code rounds} times to warm up, then {@code rounds} times measured.
+     *
+     * @return the measured cost of one round
+     */
+    private static Sample measure(int rounds, Runnable body) {
+        for (int r = 0; r < rounds; r++) body.run();
+
+        long bytes = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) body.run();
+        long nanos = System.nanoTime() - t0;
+        long allocated = bytes >= 0 ? (allocatedBytes() - bytes) / rounds : -1;
+        return new Sample(nanos / 1e6 / rounds, allocated);
+    }
+
+    /** @return bytes allocated by this thread so far, or -1 if the JVM cannot tell */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
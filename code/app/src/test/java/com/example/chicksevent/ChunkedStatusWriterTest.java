@@ -0,0 +1,329 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.ChunkedStatusWriter;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link ChunkedStatusWriter}.
+ *
+ * <p>
+ * Every {@code updateChildren} call is recorded and answered by the test, so the tests control
+ * which chunks are acknowledged, which fail, and when retries run.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>A draw that fits in one chunk is a single write without a checkpoint</li>
+ *   <li>Larger draws persist the winners first, then send bounded chunks with a limited number
+ *       in flight, report progress and clear the checkpoint at the end</li>
+ *   <li>Failed chunks are retried with exponential backoff and the run gives up after
+ *       {@link ChunkedStatusWriter#MAX_ATTEMPTS}, keeping the checkpoint</li>
+ *   <li>The winners and population stored in a checkpoint are read back for a resume</li>
+ *   <li>A resume moves only the stored population and leaves late joiners in WAITING</li>
+ *   <li>A resume clears its checkpoint even with one chunk, or nothing, left to write</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class ChunkedStatusWriterTest {
+
+    private static final String EVENT_ID = "evt-1";
+    private static final String CHECKPOINT = "LotteryCheckpoints/" + EVENT_ID;
+
+    /** A recorded {@code updateChildren} call awaiting its answer. */
+    private static final class Write {
+        final Map<String, Object> updates;
+        final DatabaseReference.CompletionListener listener;
+
+        Write(Map<String, Object> updates, DatabaseReference.CompletionListener listener) {
+            this.updates = updates;
+            this.listener = listener;
+        }
+    }
+
+    private final List<Write> writes = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final List<Runnable> retries = new ArrayList<>();
+    private final List<String> progress = new ArrayList<>();
+    private final List<Exception> finished = new ArrayList<>();
+
+    private DatabaseReference root;
+    private ChunkedStatusWriter writer;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        root = mock(DatabaseReference.class);
+        doAnswer(inv -> {
+            writes.add(new Write(inv.getArgument(0), inv.getArgument(1)));
+            return null;
+        }).when(root).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
+
+        writer = new ChunkedStatusWriter(root, EVENT_ID, 2, 2, (task, delayMs) -> {
+            delays.add(delayMs);
+            retries.add(task);
+        });
+        writer.setProgressListener(new ChunkedStatusWriter.ProgressListener() {
+            @Override
+            public void onChunkWritten(int chunksDone, int chunksTotal, int entrantsDone, int entrantsTotal) {
+                progress.add(chunksDone + "/" + chunksTotal + ":" + entrantsDone + "/" + entrantsTotal);
+            }
+
+            @Override
+            public void onFinished(Exception error) {
+                finished.add(error);
+            }
+        });
+    }
+
+    @Test
+    public void singleChunk_isOneWrite_withoutCheckpoint() {
+        Task<Void> task = writer.apply(waiting("u1", "u2"), Collections.singleton("u1"));
+
+        assertEquals(1, writes.size());
+        Map<String, Object> updates = writes.get(0).updates;
+        assertEquals(Boolean.TRUE, updates.get("WaitingList/" + EVENT_ID + "/INVITED/u1"));
+        assertEquals(Boolean.TRUE, updates.get("WaitingList/" + EVENT_ID + "/UNINVITED/u2"));
+        for (String path : updates.keySet()) assertFalse(path.startsWith(CHECKPOINT));
+
+        succeed(0);
+        assertTrue(task.isSuccessful());
+        assertEquals(Collections.singletonList("1/1:2/2"), progress);
+        assertEquals(1, writes.size());
+    }
+
+    @Test
+    public void largeDraw_checkpointsFirst_limitsChunksInFlight_andClearsCheckpoint() {
+        Task<Void> task = writer.apply(waiting("u1", "u2", "u3", "u4", "u5"), new HashSet<>(Arrays.asList("u2", "u5")));
+
+        // Only the checkpoint goes out until it is acknowledged
+        assertEquals(1, writes.size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> checkpoint = (Map<String, Object>) writes.get(0).updates.get(CHECKPOINT);
+        assertEquals(new HashSet<>(Arrays.asList("u2", "u5")), ((Map<?, ?>) checkpoint.get("invited")).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u2", "u3", "u4", "u5")),
+                ((Map<?, ?>) checkpoint.get("population")).keySet());
+        assertEquals(5, checkpoint.get("total"));
+
+        succeed(0);
+        assertEquals(3, writes.size()); // two chunks in flight
+        assertEquals(2, entrantsIn(writes.get(1)));
+        assertEquals(2, entrantsIn(writes.get(2)));
+        assertEquals(ServerValue.increment(2), writes.get(1).updates.get(CHECKPOINT + "/done"));
+
+        succeed(1);
+        assertEquals(4, writes.size()); // the third chunk replaces the acknowledged one
+        assertEquals(1, entrantsIn(writes.get(3)));
+        assertEquals("INVITED", writes.get(3).updates.get("UserEvents/u5/" + EVENT_ID));
+
+        succeed(2);
+        succeed(3);
+        assertEquals(5, writes.size());
+        assertTrue(writes.get(4).updates.containsKey(CHECKPOINT));
+        assertNull(writes.get(4).updates.get(CHECKPOINT));
+        assertFalse(task.isComplete());
+
+        succeed(4);
+        assertTrue(task.isSuccessful());
+        assertEquals(Arrays.asList("1/3:2/5", "2/3:4/5", "3/3:5/5"), progress);
+        assertEquals(Collections.singletonList(null), finished);
+    }
+
+    @Test
+    public void failedChunk_isRetriedWithBackoff_andRunGivesUpKeepingCheckpoint() {
+        Task<Void> task = writer.apply(waiting("u1", "u2", "u3"), Collections.singleton("u1"));
+        succeed(0);
+        assertEquals(3, writes.size());
+
+        // The first chunk fails and is retried with the same payload after 500 ms
+        fail(1);
+        assertEquals(Collections.singletonList(500L), delays);
+        runRetries();
+        assertEquals(writes.get(1).updates, writes.get(3).updates);
+
+        // ...and then fails on every attempt
+        for (int attempt = 2; attempt < ChunkedStatusWriter.MAX_ATTEMPTS; attempt++) {
+            fail(writes.size() - 1);
+            runRetries();
+        }
+        assertEquals(Arrays.asList(500L, 1000L, 2000L, 4000L), delays);
+        fail(writes.size() - 1);
+
+        assertTrue(task.isComplete());
+        assertFalse(task.isSuccessful());
+        assertNotNull(finished.get(0));
+
+        // The other chunk lands, but nothing else is sent and the checkpoint stays
+        int sent = writes.size();
+        succeed(2);
+        assertEquals(sent, writes.size());
+        assertTrue(retries.isEmpty());
+    }
+
+    @Test
+    public void invitedOf_readsStoredWinners() {
+        DataSnapshot checkpoint = mock(DataSnapshot.class);
+        DataSnapshot invited = mock(DataSnapshot.class);
+        DataSnapshot u1 = child("u1");
+        DataSnapshot u7 = child("u7");
+        when(checkpoint.child("invited")).thenReturn(invited);
+        when(invited.getChildren()).thenAnswer(i -> Arrays.asList(u1, u7));
+
+        Set<String> winners = ChunkedStatusWriter.invitedOf(checkpoint);
+
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u7")), winners);
+    }
+
+    @Test
+    public void populationOf_readsStoredPopulation_orNullWhenAbsent() {
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u3")),
+                ChunkedStatusWriter.populationOf(checkpoint(Collections.emptyList(), Arrays.asList("u1", "u3"))));
+        assertNull(ChunkedStatusWriter.populationOf(checkpoint(Collections.emptyList(), null)));
+    }
+
+    @Test
+    public void resume_movesOnlyStoredPopulation_leavingLateJoinersWaiting() {
+        Task<Void> task = writer.resume(waiting("u3", "late"),
+                checkpoint(Collections.singletonList("u3"), Arrays.asList("u1", "u2", "u3")));
+
+        assertEquals(1, writes.size());
+        Map<String, Object> updates = writes.get(0).updates;
+        assertEquals(1, entrantsIn(writes.get(0)));
+        assertEquals(Boolean.TRUE, updates.get("WaitingList/" + EVENT_ID + "/INVITED/u3"));
+        for (String path : updates.keySet()) assertFalse(path, path.contains("late"));
+
+        succeed(0);
+        succeed(1);
+        assertTrue(task.isSuccessful());
+        assertEquals(Collections.singletonList("1/1:1/1"), progress);
+    }
+
+    @Test
+    public void emptyWaitingList_finishesWithoutWriting() {
+        Task<Void> task = writer.apply(waiting(), Collections.emptySet());
+
+        assertTrue(writes.isEmpty());
+        assertTrue(task.isSuccessful());
+        assertNull(finished.get(0));
+    }
+
+    @Test
+    public void resumeWithOneChunkLeft_clearsCheckpoint() {
+        Task<Void> task = writer.resume(waiting("u3"),
+                checkpoint(Collections.singletonList("u3"), Arrays.asList("u1", "u2", "u3")));
+
+        // No new checkpoint: the moves go out at once and still count towards the stored one
+        assertEquals(1, writes.size());
+        assertFalse(writes.get(0).updates.containsKey(CHECKPOINT));
+        assertEquals(ServerValue.increment(1), writes.get(0).updates.get(CHECKPOINT + "/done"));
+
+        succeed(0);
+        assertEquals(2, writes.size());
+        assertTrue(writes.get(1).updates.containsKey(CHECKPOINT));
+        assertNull(writes.get(1).updates.get(CHECKPOINT));
+        assertFalse(task.isComplete());
+
+        succeed(1);
+        assertTrue(task.isSuccessful());
+    }
+
+    @Test
+    public void resumeWithWaitingEmpty_clearsCheckpoint() {
+        Task<Void> task = writer.resume(waiting(),
+                checkpoint(Collections.singletonList("u3"), Arrays.asList("u1", "u2", "u3")));
+
+        assertEquals(1, writes.size());
+        assertEquals(Collections.singleton(CHECKPOINT), writes.get(0).updates.keySet());
+        assertNull(writes.get(0).updates.get(CHECKPOINT));
+
+        succeed(0);
+        assertTrue(task.isSuccessful());
+        assertNull(finished.get(0));
+    }
+
+    // -------------------- helpers --------------------
+
+    private static DataSnapshot waiting(String... ids) {
+        List<DataSnapshot> children = new ArrayList<>();
+        for (String id : ids) children.add(child(id));
+
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getChildren()).thenAnswer(i -> children);
+        when(snap.getChildrenCount()).thenReturn((long) ids.length);
+        return snap;
+    }
+
+    /**
+     * A checkpoint snapshot with the given winners and population; a {@code null} population
+     * leaves that child missing.
+     */
+    private static DataSnapshot checkpoint(List<String> invited, List<String> population) {
+        DataSnapshot checkpoint = mock(DataSnapshot.class);
+        DataSnapshot winners = waiting(invited.toArray(new String[0]));
+        DataSnapshot drawn = population != null ? waiting(population.toArray(new String[0])) : mock(DataSnapshot.class);
+        when(drawn.exists()).thenReturn(population != null);
+        when(checkpoint.child("invited")).thenReturn(winners);
+        when(checkpoint.child("population")).thenReturn(drawn);
+        return checkpoint;
+    }
+
+    private static DataSnapshot child(String id) {
+        DataSnapshot child = mock(DataSnapshot.class);
+        when(child.getKey()).thenReturn(id);
+        when(child.getValue()).thenReturn(Boolean.TRUE);
+        return child;
+    }
+
+    /** @return how many entrants a chunk moves, counted by their {@code UserEvents} entries */
+    private static int entrantsIn(Write write) {
+        int n = 0;
+        for (String path : write.updates.keySet()) {
+            if (path.startsWith("UserEvents/")) n++;
+        }
+        return n;
+    }
+
+    private void succeed(int index) {
+        writes.get(index).listener.onComplete(null, root);
+    }
+
+    private void fail(int index) {
+        DatabaseError error = mock(DatabaseError.class);
+        when(error.getMessage()).thenReturn("write too large");
+        when(error.toException()).thenReturn(new DatabaseException("write too large"));
+        writes.get(index).listener.onComplete(error, root);
+    }
+
+    private void runRetries() {
+        List<Runnable> due = new ArrayList<>(retries);
+        retries.clear();
+        for (Runnable r : due) r.run();
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.chicksevent;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.*;
 
 import android.content.Context;
@@ -7,15 +10,22 @@ import android.content.Context;
 import com.example.chicksevent.adapter.EntrantAdapter;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Unit tests for {@link EntrantAdapter} cancel logic.
@@ -26,6 +36,7 @@ import java.util.ArrayList;
  * ensuring that:
  * <ul>
  *     <li>Invited entrants that are marked as cancelled are correctly recognized as cancelled.</li>
+ *     <li>The cancel is one atomic update that also moves the UserEvents index and the Counters.</li>
  *     <li>Adapter data updates properly reflect cancellation status in the UI.</li>
  *     <li>No real Firebase interactions are required; all entrant data is mocked.</li>
  * </ul>
@@ -42,6 +53,7 @@ public class EntrantAdapterCancelTest {
     private DatabaseReference mockRootRef;
     private DatabaseReference mockInvitedRef;
     private DatabaseReference mockCancelledRef;
+    private DatabaseReference mockDbRoot;
 
     @Before
     public void setup() {
@@ -51,6 +63,7 @@ public class EntrantAdapterCancelTest {
         mockRootRef = mock(DatabaseReference.class);
         mockInvitedRef = mock(DatabaseReference.class);
         mockCancelledRef = mock(DatabaseReference.class);
+        mockDbRoot = mock(DatabaseReference.class);
 
         // IMPORTANT: mock both overloads of getInstance()
         firebaseDbStatic.when(FirebaseDatabase::getInstance)
@@ -58,6 +71,7 @@ public class EntrantAdapterCancelTest {
         firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString()))
                 .thenReturn(mockDB);
 
+        when(mockDB.getReference()).thenReturn(mockDbRoot);
         when(mockDB.getReference("WaitingList")).thenReturn(mockRootRef);
         when(mockRootRef.child("E1")).thenReturn(mockRootRef);
         when(mockRootRef.child("INVITED")).thenReturn(mockInvitedRef);
@@ -65,6 +79,9 @@ public class EntrantAdapterCancelTest {
 
         when(mockInvitedRef.child("U1")).thenReturn(mockInvitedRef);
         when(mockCancelledRef.child("U1")).thenReturn(mockCancelledRef);
+
+        when(mockRootRef.getRoot()).thenReturn(mockDbRoot);
+        when(mockDbRoot.updateChildren(anyMap())).thenReturn(Tasks.forResult(null));
     }
 
     @After
@@ -83,9 +100,50 @@ public class EntrantAdapterCancelTest {
 
         EntrantAdapter adapter = new EntrantAdapter(mockContext, list);
 
+        // The invited entry holds the location recorded on join
+        Map<String, Object> invitedEntry = new HashMap<>();
+        invitedEntry.put(" ", "");
+        invitedEntry.put("latitude", 53.5461);
+        invitedEntry.put("longitude", -113.4938);
+        Object[] leftInvited = { invitedEntry };
+        stubTransaction(mockInvitedRef, leftInvited);
+
         adapter.cancelEntrantForTest(invited);
 
-        verify(mockInvitedRef, times(1)).removeValue();
-        verify(mockCancelledRef, times(1)).setValue(true);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(mockDbRoot, times(1)).updateChildren(captor.capture());
+        Map<String, Object> updates = captor.getValue();
+
+        // The claim transaction removed the invited entry; the update only places it
+        assertNull(leftInvited[0]);
+        assertFalse(updates.containsKey("WaitingList/E1/INVITED/U1"));
+        assertEquals(invitedEntry, updates.get("WaitingList/E1/CANCELLED/U1"));
+        assertEquals("CANCELLED", updates.get("UserEvents/U1/E1"));
+        assertEquals(ServerValue.increment(-1), updates.get("Counters/E1/INVITED"));
+        assertEquals(ServerValue.increment(1), updates.get("Counters/E1/CANCELLED"));
+
+        // The old per-path writes are gone
+        verify(mockInvitedRef, never()).removeValue();
+        verify(mockCancelledRef, never()).setValue(true);
+    }
+
+    /**
+     * Makes transactions on {@code ref} run immediately against {@code value[0]}, leaving the
+     * value they set there.
+     */
+    private static void stubTransaction(DatabaseReference ref, Object[] value) {
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            MutableData current = mock(MutableData.class);
+            when(current.getValue()).thenReturn(value[0]);
+            doAnswer(set -> {
+                value[0] = set.getArgument(0);
+                return null;
+            }).when(current).setValue(any());
+            handler.doTransaction(current);
+            handler.onComplete(null, true, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
     }
 }
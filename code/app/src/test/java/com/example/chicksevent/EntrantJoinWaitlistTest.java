@@ -8,15 +8,21 @@ import android.util.Log;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusCounters;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentMatcher;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Unit tests for US 01.06.02: As an entrant I want to be able to join 
@@ -47,6 +53,9 @@ public class EntrantJoinWaitlistTest {
 
     private Entrant entrant;
 
+    /** Values written by membership transactions, keyed by root-relative entry path. */
+    private final Map<String, Object> entryWrites = new HashMap<>();
+
     @Before
     public void setUp() throws Exception {
         // Block FirebaseApp init from FirebaseService constructor(s)
@@ -75,12 +84,7 @@ public class EntrantJoinWaitlistTest {
         setPrivate(entrant, "waitingListService", mockWaitingSvc);
         setPrivate(entrant, "entrantService", mockEntrantSvc);
         setPrivate(entrant, "eventService", mockEventSvc);
-
-        // Make void methods safe
-        doNothing().when(mockWaitingSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
-        doNothing().when(mockWaitingSvc).deleteSubCollectionEntry(
-                anyString(), anyString(), anyString());
+        stubMembership(mockWaitingSvc);
     }
 
     @After
@@ -132,11 +136,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList();
 
         // Verify Firebase operation was called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Verify status is set to WAITING
         assertEquals("Status should be WAITING after joining", 
@@ -174,13 +175,9 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(latitude, longitude);
 
         // Verify Firebase operation was called with location data
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                argThat(data -> {
-                    HashMap<String, Object> map = (HashMap<String, Object>) data;
-                    return map.containsKey("latitude") && 
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(updates -> {
+                    Map<String, Object> map = entry(updates, EVENT_ID, "WAITING", ENTRANT_ID);
+                    return map != null && map.containsKey("latitude") && 
                            map.containsKey("longitude") &&
                            map.get("latitude").equals(latitude) &&
                            map.get("longitude").equals(longitude);
@@ -203,11 +200,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList();
 
         // Verify Firebase operation was called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Verify status is set
         assertEquals("Status should be WAITING", 
@@ -225,12 +219,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList();
 
         // Verify correct path structure
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID),      // eventId
-                eq("WAITING"),     // status
-                eq(ENTRANT_ID),    // entrantId
-                any(HashMap.class) // data
-        );
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
     }
 
     /**
@@ -247,11 +237,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList();
 
         // Verify Firebase operation was called multiple times
-        verify(mockWaitingSvc, times(3)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(3)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Status should still be WAITING
         assertEquals("Status should remain WAITING", 
@@ -270,11 +257,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(null, null);
 
         // Verify Firebase operation was called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Verify status is set
         assertEquals("Status should be WAITING", 
@@ -295,11 +279,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(EntrantStatus.WAITING, latitude, null);
 
         // Verify Firebase operation was called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Status should be set
         assertEquals("Status should be WAITING", 
@@ -320,11 +301,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(EntrantStatus.WAITING, null, longitude);
 
         // Verify Firebase operation was called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Status should be set
         assertEquals("Status should be WAITING", 
@@ -343,11 +321,8 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(EntrantStatus.WAITING);
 
         // Verify Firebase operation was called with correct status
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
 
         // Verify status is set
         assertEquals("Status should match", 
@@ -395,10 +370,10 @@ public class EntrantJoinWaitlistTest {
         entrant2.joinWaitingList();
 
         // Verify both operations were called
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), any(HashMap.class));
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(entrantId2), any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", entrantId2)));
     }
 
     /**
@@ -414,8 +389,7 @@ public class EntrantJoinWaitlistTest {
 
         // Inject mocked services
         FirebaseService mockWaitingSvc2 = mock(FirebaseService.class);
-        doNothing().when(mockWaitingSvc2).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
+        stubMembership(mockWaitingSvc2);
         setPrivate(entrant2, "waitingListService", mockWaitingSvc2);
         setPrivate(entrant2, "entrantService", mockEntrantSvc);
         setPrivate(entrant2, "eventService", mockEventSvc);
@@ -425,10 +399,10 @@ public class EntrantJoinWaitlistTest {
         entrant2.joinWaitingList();
 
         // Verify both operations were called with different event IDs
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), any(HashMap.class));
-        verify(mockWaitingSvc2, times(1)).updateSubCollectionEntry(
-                eq(eventId2), eq("WAITING"), eq(ENTRANT_ID), any(HashMap.class));
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(
+                joins(EVENT_ID, "WAITING", ENTRANT_ID)));
+        verify(mockWaitingSvc2, times(1)).updateMultiPath(argThat(
+                joins(eventId2, "WAITING", ENTRANT_ID)));
     }
 
     /**
@@ -442,13 +416,9 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList();
 
         // Verify data includes placeholder
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                argThat(data -> {
-                    HashMap<String, Object> map = (HashMap<String, Object>) data;
-                    return map.containsKey(" "); // Placeholder key
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(updates -> {
+                    Map<String, Object> map = entry(updates, EVENT_ID, "WAITING", ENTRANT_ID);
+                    return map != null && map.containsKey(" "); // Placeholder key
                 }));
     }
 
@@ -466,13 +436,9 @@ public class EntrantJoinWaitlistTest {
         entrant.joinWaitingList(latitude, longitude);
 
         // Verify both coordinates are included
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), 
-                eq("WAITING"), 
-                eq(ENTRANT_ID), 
-                argThat(data -> {
-                    HashMap<String, Object> map = (HashMap<String, Object>) data;
-                    return map.containsKey("latitude") && 
+        verify(mockWaitingSvc, times(1)).updateMultiPath(argThat(updates -> {
+                    Map<String, Object> map = entry(updates, EVENT_ID, "WAITING", ENTRANT_ID);
+                    return map != null && map.containsKey("latitude") && 
                            map.containsKey("longitude") &&
                            map.get("latitude").equals(latitude) &&
                            map.get("longitude").equals(longitude);
@@ -533,6 +499,52 @@ public class EntrantJoinWaitlistTest {
 
     // ==================== Helper Methods ====================
 
+    /**
+     * Matches the follow-up update of a join that placed the entrant's node under
+     * {@code status}: the matching {@code UserEvents} reverse-index entry and a +1 delta.
+     */
+    private ArgumentMatcher<Map<String, Object>> joins(String eventId, String status, String entrantId) {
+        return updates -> entry(updates, eventId, status, entrantId) != null
+                && status.equals(updates.get("UserEvents/" + entrantId + "/" + eventId))
+                && updates.containsKey(StatusCounters.path(eventId, status));
+    }
+
+    /**
+     * Extracts the waiting-list payload the membership transaction wrote for the entrant, or
+     * {@code null} if absent. {@code updates} is the follow-up update being matched.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> entry(Map<String, Object> updates, String eventId, String status, String entrantId) {
+        Object value = entryWrites.get("WaitingList/" + eventId + "/" + status + "/" + entrantId);
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    /**
+     * Answers every membership transaction under {@code service} immediately against an absent
+     * entry, recording the value written by its path.
+     */
+    private void stubMembership(FirebaseService service) {
+        DatabaseReference root = entryRef("WaitingList");
+        when(service.getReference()).thenReturn(root);
+    }
+
+    private DatabaseReference entryRef(String path) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(ref.child(anyString())).thenAnswer(inv -> entryRef(path + "/" + inv.getArgument(0)));
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            MutableData current = mock(MutableData.class);
+            doAnswer(set -> {
+                entryWrites.put(path, set.getArgument(0));
+                return null;
+            }).when(current).setValue(any());
+            handler.doTransaction(current);
+            handler.onComplete(null, true, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
+        return ref;
+    }
+
     /**
      * Helper method to set private fields via reflection.
      */
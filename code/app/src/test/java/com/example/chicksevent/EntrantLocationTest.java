@@ -8,7 +8,11 @@ import android.util.Log;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
 
 import org.junit.After;
 import org.junit.Before;
@@ -18,6 +22,7 @@ import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Unit tests for {@link Entrant} location functionality.
@@ -38,6 +43,9 @@ public class EntrantLocationTest {
     private FirebaseService mockWaitingSvc;
     private Entrant entrant;
 
+    /** Waiting-list entries as left by membership transactions, keyed by root-relative path. */
+    private final Map<String, Object> entries = new HashMap<>();
+
     @Before
     public void setUp() throws Exception {
         firebaseDbStatic = mockStatic(FirebaseDatabase.class);
@@ -53,15 +61,14 @@ public class EntrantLocationTest {
         entrant = new Entrant(ENTRANT_ID, EVENT_ID);
 
         mockWaitingSvc = mock(FirebaseService.class);
+        when(mockWaitingSvc.updateMultiPath(any())).thenReturn(Tasks.forResult(null));
         FirebaseService mockEntrantSvc = mock(FirebaseService.class);
         FirebaseService mockEventSvc = mock(FirebaseService.class);
 
         setPrivate(entrant, "waitingListService", mockWaitingSvc);
         setPrivate(entrant, "entrantService", mockEntrantSvc);
         setPrivate(entrant, "eventService", mockEventSvc);
-
-        doNothing().when(mockWaitingSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
+        when(mockWaitingSvc.getReference()).thenReturn(entryRef("WaitingList"));
     }
 
     @After
@@ -77,11 +84,7 @@ public class EntrantLocationTest {
 
         entrant.joinWaitingList(latitude, longitude);
 
-        ArgumentCaptor<HashMap> mapCaptor = ArgumentCaptor.forClass(HashMap.class);
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), mapCaptor.capture());
-
-        HashMap<String, Object> data = mapCaptor.getValue();
+        Map<String, Object> data = capturedEntry("WAITING");
         assertTrue("Should contain latitude", data.containsKey("latitude"));
         assertTrue("Should contain longitude", data.containsKey("longitude"));
         assertEquals(latitude, data.get("latitude"));
@@ -96,11 +99,7 @@ public class EntrantLocationTest {
 
         entrant.joinWaitingList(status, latitude, longitude);
 
-        ArgumentCaptor<HashMap> mapCaptor = ArgumentCaptor.forClass(HashMap.class);
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("INVITED"), eq(ENTRANT_ID), mapCaptor.capture());
-
-        HashMap<String, Object> data = mapCaptor.getValue();
+        Map<String, Object> data = capturedEntry("INVITED");
         assertEquals(latitude, data.get("latitude"));
         assertEquals(longitude, data.get("longitude"));
         assertEquals(EntrantStatus.INVITED, entrant.getStatus());
@@ -110,11 +109,7 @@ public class EntrantLocationTest {
     public void joinWaitingList_withoutLocation_doesNotIncludeLocationData() {
         entrant.joinWaitingList();
 
-        ArgumentCaptor<HashMap> mapCaptor = ArgumentCaptor.forClass(HashMap.class);
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), mapCaptor.capture());
-
-        HashMap<String, Object> data = mapCaptor.getValue();
+        Map<String, Object> data = capturedEntry("WAITING");
         assertFalse("Should not contain latitude when no location provided", 
                    data.containsKey("latitude"));
         assertFalse("Should not contain longitude when no location provided", 
@@ -125,11 +120,7 @@ public class EntrantLocationTest {
     public void joinWaitingList_withNullLocation_doesNotIncludeLocationData() {
         entrant.joinWaitingList(EntrantStatus.WAITING, null, null);
 
-        ArgumentCaptor<HashMap> mapCaptor = ArgumentCaptor.forClass(HashMap.class);
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), mapCaptor.capture());
-
-        HashMap<String, Object> data = mapCaptor.getValue();
+        Map<String, Object> data = capturedEntry("WAITING");
         assertFalse("Should not contain latitude when null", data.containsKey("latitude"));
         assertFalse("Should not contain longitude when null", data.containsKey("longitude"));
     }
@@ -141,11 +132,7 @@ public class EntrantLocationTest {
 
         entrant.joinWaitingList(latitude, longitude);
 
-        ArgumentCaptor<HashMap> mapCaptor = ArgumentCaptor.forClass(HashMap.class);
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), eq("WAITING"), eq(ENTRANT_ID), mapCaptor.capture());
-
-        HashMap<String, Object> data = mapCaptor.getValue();
+        Map<String, Object> data = capturedEntry("WAITING");
         // Should still contain the placeholder for backward compatibility
         assertTrue("Should contain placeholder", data.containsKey(" "));
         // And also contain location data
@@ -154,45 +141,51 @@ public class EntrantLocationTest {
     }
 
     @Test
-    public void swapStatus_attemptsToReadLocationFromFirebase() throws Exception {
-        // First join with location
+    @SuppressWarnings("unchecked")
+    public void swapStatus_carriesLocationIntoNewBucket() {
         entrant.joinWaitingList(EntrantStatus.WAITING, 53.5461, -113.4938);
-        
-        // Mock the Firebase chain for async swapStatus
-        com.google.firebase.database.DatabaseReference mockRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockEventRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockStatusRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockEntrantRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.android.gms.tasks.Task<com.google.firebase.database.DataSnapshot> mockTask = mock(com.google.android.gms.tasks.Task.class);
-        com.google.firebase.database.DataSnapshot mockSnapshot = mock(com.google.firebase.database.DataSnapshot.class);
-        com.google.firebase.database.DataSnapshot mockLatSnapshot = mock(com.google.firebase.database.DataSnapshot.class);
-        com.google.firebase.database.DataSnapshot mockLngSnapshot = mock(com.google.firebase.database.DataSnapshot.class);
-        
-        when(mockWaitingSvc.getReference()).thenReturn(mockRef);
-        when(mockRef.child(EVENT_ID)).thenReturn(mockEventRef);
-        when(mockEventRef.child("WAITING")).thenReturn(mockStatusRef);
-        when(mockStatusRef.child(ENTRANT_ID)).thenReturn(mockEntrantRef);
-        when(mockEntrantRef.get()).thenReturn(mockTask);
-        when(mockTask.isSuccessful()).thenReturn(true);
-        when(mockTask.getResult()).thenReturn(mockSnapshot);
-        when(mockSnapshot.child("latitude")).thenReturn(mockLatSnapshot);
-        when(mockSnapshot.child("longitude")).thenReturn(mockLngSnapshot);
-        when(mockLatSnapshot.getValue()).thenReturn(53.5461);
-        when(mockLngSnapshot.getValue()).thenReturn(-113.4938);
-        
-        // Make the task complete immediately
-        when(mockTask.addOnCompleteListener(any())).thenAnswer(invocation -> {
-            com.google.android.gms.tasks.OnCompleteListener<com.google.firebase.database.DataSnapshot> listener = 
-                invocation.getArgument(0);
-            listener.onComplete(mockTask);
-            return mockTask;
-        });
-        
-        // Swap status - this should attempt to read location from Firebase
+
         entrant.swapStatus(EntrantStatus.INVITED);
 
-        // Verify that getReference is called (indicating Firebase read attempt)
-        verify(mockWaitingSvc, atLeastOnce()).getReference();
+        // The claim removed the old entry; the move wrote its value under INVITED
+        assertNull(entries.get(entryPath("WAITING")));
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(mockWaitingSvc, times(2)).updateMultiPath(captor.capture());
+        Map<String, Object> data = (Map<String, Object>) captor.getValue().get(entryPath("INVITED"));
+        assertEquals(53.5461, data.get("latitude"));
+        assertEquals(-113.4938, data.get("longitude"));
+    }
+
+    /** Returns the payload the membership transaction left under {@code status}. */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> capturedEntry(String status) {
+        return (Map<String, Object>) entries.get(entryPath(status));
+    }
+
+    private static String entryPath(String status) {
+        return "WaitingList/" + EVENT_ID + "/" + status + "/" + ENTRANT_ID;
+    }
+
+    /**
+     * A reference that runs transactions immediately against {@link #entries}, handing out
+     * child references for longer paths.
+     */
+    private DatabaseReference entryRef(String path) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(ref.child(anyString())).thenAnswer(inv -> entryRef(path + "/" + inv.getArgument(0)));
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            MutableData current = mock(MutableData.class);
+            when(current.getValue()).thenReturn(entries.get(path));
+            doAnswer(set -> {
+                entries.put(path, set.getArgument(0));
+                return null;
+            }).when(current).setValue(any());
+            handler.doTransaction(current);
+            handler.onComplete(null, true, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
+        return ref;
     }
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
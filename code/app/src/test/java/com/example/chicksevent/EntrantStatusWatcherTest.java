@@ -0,0 +1,209 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.enums.EntrantStatus;
+import com.example.chicksevent.misc.EntrantStatusWatcher;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusCounters;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EntrantStatusWatcher}.
+ *
+ * <p>
+ * Every watched reference is a mock that records the {@link ValueEventListener} attached to it,
+ * so the tests can push values exactly as Firebase would and check what reaches the UI.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Only the user's key in each bucket and the WAITING counter are subscribed</li>
+ *   <li>The first status is delivered once every bucket has reported</li>
+ *   <li>Repeated identical values do not trigger callbacks</li>
+ *   <li>Stopping detaches every listener</li>
+ *   <li>Counters without a rebuild marker are recounted once</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EntrantStatusWatcherTest {
+
+    private static final String EVENT_ID = "E1";
+    private static final String USER_ID = "U1";
+    private static final String[] BUCKETS = {
+            "WAITING", "INVITED", "UNINVITED", "ACCEPTED", "DECLINED", "CANCELLED"
+    };
+
+    /** Listener attached per watched path ("WAITING", ..., "counter"). */
+    private final Map<String, ValueEventListener> listeners = new HashMap<>();
+    private final Map<String, DatabaseReference> refs = new HashMap<>();
+
+    private final List<EntrantStatus> statuses = new ArrayList<>();
+    private final List<Integer> counts = new ArrayList<>();
+
+    private DatabaseReference waitingEvent;
+    private Task<DataSnapshot> markerRead;
+
+    private EntrantStatusWatcher watcher;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        DatabaseReference waitingRoot = mock(DatabaseReference.class);
+        waitingEvent = mock(DatabaseReference.class);
+        when(waitingRoot.child(EVENT_ID)).thenReturn(waitingEvent);
+        for (String bucket : BUCKETS) {
+            DatabaseReference bucketRef = mock(DatabaseReference.class);
+            DatabaseReference userRef = watched(bucket);
+            when(waitingEvent.child(bucket)).thenReturn(bucketRef);
+            when(bucketRef.child(USER_ID)).thenReturn(userRef);
+        }
+
+        DatabaseReference counterRoot = mock(DatabaseReference.class);
+        DatabaseReference counterEvent = mock(DatabaseReference.class);
+        when(counterRoot.child(EVENT_ID)).thenReturn(counterEvent);
+        DatabaseReference counterRef = watched("counter");
+        when(counterEvent.child("WAITING")).thenReturn(counterRef);
+        DatabaseReference markerRef = mock(DatabaseReference.class);
+        markerRead = mock(Task.class);
+        when(counterEvent.child(StatusCounters.MARKER)).thenReturn(markerRef);
+        when(markerRef.get()).thenReturn(markerRead);
+
+        FirebaseService waitingSvc = mock(FirebaseService.class);
+        FirebaseService counterSvc = mock(FirebaseService.class);
+        when(waitingSvc.getReference()).thenReturn(waitingRoot);
+        when(counterSvc.getReference()).thenReturn(counterRoot);
+
+        watcher = new EntrantStatusWatcher(EVENT_ID, USER_ID, new EntrantStatusWatcher.Listener() {
+            @Override public void onStatusChanged(EntrantStatus status) { statuses.add(status); }
+            @Override public void onWaitingCountChanged(int waitingCount) { counts.add(waitingCount); }
+        }, waitingSvc, counterSvc);
+    }
+
+    @Test
+    public void start_subscribesToUserKeysAndCounterOnly() {
+        watcher.start();
+
+        assertEquals(BUCKETS.length + 1, listeners.size());
+        for (DatabaseReference ref : refs.values()) {
+            verify(ref, times(1)).addValueEventListener(any(ValueEventListener.class));
+        }
+    }
+
+    @Test
+    public void firstStatus_waitsForEveryBucket() {
+        watcher.start();
+
+        push("WAITING", true);
+        push("INVITED", false);
+        push("UNINVITED", false);
+        push("ACCEPTED", false);
+        push("DECLINED", false);
+        assertEquals(0, statuses.size());
+
+        push("CANCELLED", false);
+        assertEquals(1, statuses.size());
+        assertEquals(EntrantStatus.WAITING, statuses.get(0));
+    }
+
+    @Test
+    public void onlyChangesReachTheUi() {
+        watcher.start();
+        for (String bucket : BUCKETS) push(bucket, "WAITING".equals(bucket));
+        pushCount(12L);
+        assertEquals(1, statuses.size());
+        assertEquals(EntrantStatus.WAITING, statuses.get(0));
+
+        // Unchanged values (e.g. a listener re-firing) are swallowed
+        push("WAITING", true);
+        push("ACCEPTED", false);
+        pushCount(12L);
+        assertEquals(1, statuses.size());
+        assertEquals(1, counts.size());
+
+        // Lottery moves the user WAITING -> INVITED and the counter drops
+        push("WAITING", false);
+        push("INVITED", true);
+        pushCount(11L);
+
+        assertEquals(EntrantStatus.INVITED, statuses.get(statuses.size() - 1));
+        assertEquals(2, counts.size());
+        assertEquals(Integer.valueOf(11), counts.get(1));
+    }
+
+    @Test
+    public void stop_detachesEveryListener() {
+        watcher.start();
+        watcher.stop();
+
+        for (Map.Entry<String, DatabaseReference> e : refs.entrySet()) {
+            verify(e.getValue()).removeEventListener(listeners.get(e.getKey()));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void missingMarker_rebuildsCountersOnce() {
+        DataSnapshot noMarker = mock(DataSnapshot.class);
+        when(markerRead.isSuccessful()).thenReturn(true);
+        when(markerRead.getResult()).thenReturn(noMarker);
+        when(markerRead.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(markerRead);
+            return markerRead;
+        });
+        Task<DataSnapshot> recount = mock(Task.class);
+        when(waitingEvent.get()).thenReturn(recount);
+
+        watcher.start();
+        watcher.stop();
+        watcher.start();
+
+        // One recount of WaitingList/{eventId}, however often the screen restarts
+        verify(waitingEvent, times(1)).get();
+    }
+
+    // -------------------- helpers --------------------
+
+    private DatabaseReference watched(String name) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        doAnswer(inv -> {
+            ValueEventListener l = inv.getArgument(0);
+            listeners.put(name, l);
+            return l;
+        }).when(ref).addValueEventListener(any(ValueEventListener.class));
+        refs.put(name, ref);
+        return ref;
+    }
+
+    private void push(String bucket, boolean exists) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(exists);
+        listeners.get(bucket).onDataChange(snap);
+    }
+
+    private void pushCount(long count) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(true);
+        when(snap.getValue()).thenReturn(count);
+        listeners.get("counter").onDataChange(snap);
+    }
+}
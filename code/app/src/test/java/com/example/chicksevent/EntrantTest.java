@@ -8,16 +8,24 @@ import android.util.Log;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.InOrder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Robust unit tests for Entrant (no real Firebase, no Android main thread).
@@ -38,6 +46,9 @@ public class EntrantTest {
 
     private Entrant entrant;
 
+    /** Values left in this entrant's entry by membership transactions, in order. */
+    private final List<Object> entryWrites = new ArrayList<>();
+
     @Before
     public void setUp() throws Exception {
         // Block FirebaseApp init from FirebaseService constructor(s)
@@ -56,18 +67,15 @@ public class EntrantTest {
         entrant = new Entrant(ENTRANT_ID, EVENT_ID);
 
         mockWaitingSvc = mock(FirebaseService.class);
+        when(mockWaitingSvc.updateMultiPath(any())).thenReturn(Tasks.forResult(null));
         mockEntrantSvc = mock(FirebaseService.class);
         mockEventSvc   = mock(FirebaseService.class);
 
         setPrivate(entrant, "waitingListService", mockWaitingSvc);
         setPrivate(entrant, "entrantService",     mockEntrantSvc);
         setPrivate(entrant, "eventService",       mockEventSvc);
+        stubMembership(false);
 
-        // Make void methods safe; explicit but optional
-        doNothing().when(mockWaitingSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
-        doNothing().when(mockWaitingSvc).deleteSubCollectionEntry(
-                anyString(), anyString(), anyString());
     }
 
     @After
@@ -82,8 +90,11 @@ public class EntrantTest {
     public void joinWaitingList_default_callsUpdate_onWaitingPath_andSetsStatus() {
         entrant.joinWaitingList(); // default WAITING
 
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), anyString(), eq(ENTRANT_ID), any(HashMap.class));
+        Map<String, Object> updates = lastUpdate();
+        assertEquals(1, entryWrites.size());
+        assertNotNull(entryWrites.get(0));
+        assertEquals("WAITING", updates.get(userEventPath()));
+        assertEquals(ServerValue.increment(1), updates.get(counterPath("WAITING")));
 
         assertEquals(EntrantStatus.WAITING, entrant.getStatus());
     }
@@ -92,31 +103,70 @@ public class EntrantTest {
     public void joinWaitingList_specificStatus_invited_callsUpdate_andSetsStatus() {
         entrant.joinWaitingList(EntrantStatus.INVITED);
 
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID), anyString(), eq(ENTRANT_ID), any(HashMap.class));
+        Map<String, Object> updates = lastUpdate();
+        assertNotNull(entryWrites.get(0));
+        assertEquals("INVITED", updates.get(userEventPath()));
 
         assertEquals(EntrantStatus.INVITED, entrant.getStatus());
     }
 
+    @Test
+    public void joinWaitingList_alreadyPresent_rewritesEntry_withoutCountingTwice() {
+        stubMembership(true);
+
+        entrant.joinWaitingList();
+
+        Map<String, Object> updates = lastUpdate();
+        assertNotNull(entryWrites.get(0));
+        assertEquals("WAITING", updates.get(userEventPath()));
+        assertFalse(updates.containsKey(counterPath("WAITING")));
+    }
+
+    @Test
+    public void joinWaitingList_failedTransaction_writesNothing() {
+        stubFailedMembershipTransaction();
+
+        entrant.joinWaitingList();
+
+        verify(mockWaitingSvc, never()).updateMultiPath(any());
+    }
+
     // ---------------------- leaveWaitingList ----------------------
 
     @Test
     public void leaveWaitingList_default_waiting_callsDelete_andClearsStatus() {
+        stubMembership(true);
         entrant.leaveWaitingList(); // default WAITING
 
-        verify(mockWaitingSvc, times(1)).deleteSubCollectionEntry(
-                eq(EVENT_ID), anyString(), eq(ENTRANT_ID));
+        Map<String, Object> updates = lastUpdate();
+        assertNull(entryWrites.get(0));
+        assertTrue(updates.containsKey(userEventPath()));
+        assertNull(updates.get(userEventPath()));
+        assertEquals(ServerValue.increment(-1), updates.get(counterPath("WAITING")));
 
         assertNull(entrant.getStatus());
     }
 
+    @Test
+    public void leaveWaitingList_notPresent_keepsIndexEntry_withoutDecrementing() {
+        entrant.leaveWaitingList();
+
+        assertEquals(1, entryWrites.size());
+        // The entrant may be listed in another bucket, whose index entry must survive
+        verify(mockWaitingSvc, never()).updateMultiPath(any());
+    }
+
     @Test
     public void leaveWaitingList_specificStatus_invited_callsDelete_andClearsStatus() {
         entrant.joinWaitingList(EntrantStatus.INVITED);
+        stubMembership(true);
         entrant.leaveWaitingList(EntrantStatus.INVITED);
 
-        verify(mockWaitingSvc, times(1)).deleteSubCollectionEntry(
-                eq(EVENT_ID), anyString(), eq(ENTRANT_ID));
+        Map<String, Object> updates = lastUpdate(2);
+        assertNull(entryWrites.get(entryWrites.size() - 1));
+        assertTrue(updates.containsKey(userEventPath()));
+        assertNull(updates.get(userEventPath()));
+        assertEquals(ServerValue.increment(-1), updates.get(counterPath("INVITED")));
 
         assertNull(entrant.getStatus());
     }
@@ -124,38 +174,19 @@ public class EntrantTest {
     // ---------------------- swapStatus ----------------------
 
     @Test
-    public void swapStatus_fromWaitingToInvited_deletesOld_thenAddsNew_andUpdatesStatus() throws Exception {
-        // Mock the Firebase chain for async swapStatus
-        com.google.firebase.database.DatabaseReference mockRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockEventRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockStatusRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.firebase.database.DatabaseReference mockEntrantRef = mock(com.google.firebase.database.DatabaseReference.class);
-        com.google.android.gms.tasks.Task<com.google.firebase.database.DataSnapshot> mockTask = mock(com.google.android.gms.tasks.Task.class);
-        com.google.firebase.database.DataSnapshot mockSnapshot = mock(com.google.firebase.database.DataSnapshot.class);
-        
-        when(mockWaitingSvc.getReference()).thenReturn(mockRef);
-        when(mockRef.child(EVENT_ID)).thenReturn(mockEventRef);
-        when(mockEventRef.child("WAITING")).thenReturn(mockStatusRef);
-        when(mockStatusRef.child(ENTRANT_ID)).thenReturn(mockEntrantRef);
-        when(mockEntrantRef.get()).thenReturn(mockTask);
-        when(mockTask.isSuccessful()).thenReturn(true);
-        when(mockTask.getResult()).thenReturn(mockSnapshot);
-        when(mockSnapshot.child("latitude")).thenReturn(mock(com.google.firebase.database.DataSnapshot.class));
-        when(mockSnapshot.child("longitude")).thenReturn(mock(com.google.firebase.database.DataSnapshot.class));
-        
-        // Make the task complete immediately so callback executes synchronously
-        when(mockTask.addOnCompleteListener(any())).thenAnswer(invocation -> {
-            com.google.android.gms.tasks.OnCompleteListener<com.google.firebase.database.DataSnapshot> listener = 
-                invocation.getArgument(0);
-            listener.onComplete(mockTask);
-            return mockTask;
-        });
-        
+    public void swapStatus_fromWaitingToInvited_movesEntry_andUpdatesStatus() {
+        // The WAITING entry is claimed (removed) in a transaction; the rest is one write
+        stubMembership(true);
+
         entrant.swapStatus(EntrantStatus.INVITED);
 
-        InOrder inOrder = inOrder(mockWaitingSvc);
-        inOrder.verify(mockWaitingSvc).deleteSubCollectionEntry(eq(EVENT_ID), anyString(), eq(ENTRANT_ID));
-        inOrder.verify(mockWaitingSvc).updateSubCollectionEntry(eq(EVENT_ID), anyString(), eq(ENTRANT_ID), any(HashMap.class));
+        assertNull(entryWrites.get(0));
+        Map<String, Object> updates = lastUpdate();
+        assertFalse(updates.containsKey(path("WAITING")));
+        assertEquals(Boolean.TRUE, updates.get(path("INVITED"))); // old entry carried over
+        assertEquals("INVITED", updates.get(userEventPath()));
+        assertEquals(ServerValue.increment(-1), updates.get(counterPath("WAITING")));
+        assertEquals(ServerValue.increment(1), updates.get(counterPath("INVITED")));
 
         assertEquals(EntrantStatus.INVITED, entrant.getStatus());
     }
@@ -171,6 +202,66 @@ public class EntrantTest {
 
     // ---------------------- helper ----------------------
 
+    /** Returns the single multi-path update issued on the waiting-list service. */
+    private Map<String, Object> lastUpdate() {
+        return lastUpdate(1);
+    }
+
+    /** Verifies {@code count} multi-path updates were issued and returns the last one. */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lastUpdate(int count) {
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(mockWaitingSvc, times(count)).updateMultiPath(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String path(String status) {
+        return "WaitingList/" + EVENT_ID + "/" + status + "/" + ENTRANT_ID;
+    }
+
+    private static String counterPath(String status) {
+        return "Counters/" + EVENT_ID + "/" + status;
+    }
+
+    private static String userEventPath() {
+        return "UserEvents/" + ENTRANT_ID + "/" + EVENT_ID;
+    }
+
+    /**
+     * Makes every transaction on this entrant's own waiting-list entry run once and commit,
+     * starting from an entry that is {@code present} ({@code true}) or absent. Values the
+     * transactions leave are recorded in {@link #entryWrites}.
+     */
+    private void stubMembership(boolean present) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(mockWaitingSvc.getReference()).thenReturn(ref);
+        when(ref.child(anyString())).thenReturn(ref);
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            MutableData current = mock(MutableData.class);
+            when(current.getValue()).thenReturn(present ? Boolean.TRUE : null);
+            doAnswer(set -> {
+                entryWrites.add(set.getArgument(0));
+                return null;
+            }).when(current).setValue(any());
+            handler.doTransaction(current);
+            handler.onComplete(null, true, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
+    }
+
+    /** Makes every transaction on this entrant's own waiting-list entry fail. */
+    private void stubFailedMembershipTransaction() {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(mockWaitingSvc.getReference()).thenReturn(ref);
+        when(ref.child(anyString())).thenReturn(ref);
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            handler.onComplete(DatabaseError.fromException(new Exception("offline")), false, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
+    }
+
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
         Field f = target.getClass().getDeclaredField(fieldName);
         f.setAccessible(true);
@@ -0,0 +1,243 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventDates;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.util.DateFormatter;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EventDates} and {@link DateFormatter#toEpochDay(String)}.
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Dates map to the same epoch day as {@link LocalDate#toEpochDay()}</li>
+ *   <li>A window becomes one {@code orderByChild/startAt/endAt} query</li>
+ *   <li>The backfill runs once and only fills events that lack the fields</li>
+ *   <li>A failed marker read fails the query without backfilling</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventDatesTest {
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private FirebaseService eventService;
+    private DatabaseReference eventRef;
+    private DatabaseReference markerRef;
+    private Query byStart;
+    private EventDates dates;
+
+    @Before
+    public void setUp() {
+        // Event constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+
+        eventRef = mock(DatabaseReference.class);
+        markerRef = mock(DatabaseReference.class);
+        DatabaseReference dbRoot = mock(DatabaseReference.class);
+        when(eventRef.getRoot()).thenReturn(dbRoot);
+        when(dbRoot.child("Migrations/epochDays")).thenReturn(markerRef);
+
+        byStart = mock(Query.class);
+        when(eventRef.orderByChild(EventDates.START_FIELD)).thenReturn(byStart);
+        when(byStart.startAt(any(Double.class))).thenReturn(byStart);
+        when(byStart.endAt(any(Double.class))).thenReturn(byStart);
+
+        eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRef);
+        when(eventService.updateMultiPath(any())).thenAnswer(inv -> written());
+
+        dates = new EventDates(eventService);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void toEpochDay_matchesLocalDate() {
+        assertEquals(Long.valueOf(0), DateFormatter.toEpochDay("01-01-1970"));
+        assertEquals(Long.valueOf(LocalDate.of(2026, 5, 2).toEpochDay()),
+                DateFormatter.toEpochDay("05-02-2026"));
+        assertNull(DateFormatter.toEpochDay("13-45-2026"));
+        assertNull(DateFormatter.toEpochDay(""));
+    }
+
+    @Test
+    public void window_isOneRangeQuery() {
+        stubRead(markerRef, snapshot(true));
+        DataSnapshot result = snapshot(true);
+        List<DataSnapshot> children = new ArrayList<>();
+        children.add(event("E1", "05-02-2026", "05-02-2026"));
+        when(result.getChildren()).thenReturn(children);
+        stubQuery(byStart, result);
+
+        long from = LocalDate.of(2026, 5, 2).toEpochDay();
+        long to = LocalDate.of(2026, 5, 3).toEpochDay();
+        Task<List<Event>> t = dates.startingBetween(from, to);
+
+        assertTrue(t.isSuccessful());
+        assertEquals(1, t.getResult().size());
+        assertEquals("E1", t.getResult().get(0).getId());
+        verify(byStart).startAt((double) from);
+        verify(byStart).endAt((double) to);
+        verify(eventRef, never()).get();
+    }
+
+    @Test
+    public void missingMarker_backfillsOnce() {
+        stubRead(markerRef, snapshot(false));
+        DataSnapshot catalogue = snapshot(true);
+        List<DataSnapshot> events = new ArrayList<>();
+        events.add(event("E1", "05-02-2026", "05-03-2026"));
+        DataSnapshot done = event("E2", "06-01-2026", "06-01-2026");
+        when(done.hasChild(EventDates.START_FIELD)).thenReturn(true);
+        events.add(done);
+        events.add(event("E3", "", null));
+        when(catalogue.getChildren()).thenReturn(events);
+        stubRead(eventRef, catalogue);
+        stubQuery(byStart, snapshot(false));
+
+        dates.startingBetween(0, 1);
+        dates.startingBetween(0, 1);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(eventService, times(1)).updateMultiPath(captor.capture());
+        Map<String, Object> updates = captor.getValue();
+        assertEquals(LocalDate.of(2026, 5, 2).toEpochDay(), updates.get("Event/E1/startEpochDay"));
+        assertEquals(LocalDate.of(2026, 5, 3).toEpochDay(), updates.get("Event/E1/endEpochDay"));
+        assertFalse(updates.containsKey("Event/E2/startEpochDay"));
+        assertFalse(updates.containsKey("Event/E3/startEpochDay"));
+        assertEquals(Boolean.TRUE, updates.get("Migrations/epochDays"));
+        verify(eventRef, times(1)).get();
+    }
+
+    @Test
+    public void putFields_writesBothDays() {
+        Map<String, Object> fields = new HashMap<>();
+
+        EventDates.putFields(fields, "12-31-2025", "not a date");
+
+        assertEquals(LocalDate.of(2025, 12, 31).toEpochDay(), fields.get(EventDates.START_FIELD));
+        assertTrue(fields.containsKey(EventDates.END_FIELD));
+        assertNull(fields.get(EventDates.END_FIELD));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void failedMarkerRead_failsWithoutBackfilling() {
+        Task<DataSnapshot> read = mock(Task.class);
+        when(markerRef.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(false);
+        when(read.getException()).thenReturn(new Exception("offline"));
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+
+        Task<List<Event>> t = dates.startingBetween(0, 1);
+
+        assertTrue(t.isComplete());
+        assertFalse(t.isSuccessful());
+        verify(eventRef, never()).get();
+        verify(eventService, never()).updateMultiPath(any());
+    }
+
+    // -------------------- helpers --------------------
+
+    private static DataSnapshot event(String id, String startDate, String endDate) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", id);
+        value.put("name", "Event " + id);
+        value.put("eventStartDate", startDate);
+        value.put("eventEndDate", endDate);
+
+        DataSnapshot event = mock(DataSnapshot.class);
+        when(event.getKey()).thenReturn(id);
+        when(event.getValue()).thenReturn(value);
+        DataSnapshot start = mock(DataSnapshot.class);
+        DataSnapshot end = mock(DataSnapshot.class);
+        when(start.getValue()).thenReturn(startDate);
+        when(end.getValue()).thenReturn(endDate);
+        when(event.child("eventStartDate")).thenReturn(start);
+        when(event.child("eventEndDate")).thenReturn(end);
+        return event;
+    }
+
+    private static DataSnapshot snapshot(boolean exists) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(exists);
+        return snap;
+    }
+
+    /** @return a write task that completes as soon as a listener is attached */
+    @SuppressWarnings("unchecked")
+    private static Task<Void> written() {
+        Task<Void> write = mock(Task.class);
+        when(write.isSuccessful()).thenReturn(true);
+        when(write.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<Void>) inv.getArgument(0)).onComplete(write);
+            return write;
+        });
+        return write;
+    }
+
+    private static void stubRead(DatabaseReference ref, DataSnapshot result) {
+        Task<DataSnapshot> read = answered(result);
+        when(ref.get()).thenReturn(read);
+    }
+
+    private static void stubQuery(Query query, DataSnapshot result) {
+        Task<DataSnapshot> read = answered(result);
+        when(query.get()).thenReturn(read);
+    }
+
+    /** @return a read task that answers {@code result} as soon as a listener is attached */
+    @SuppressWarnings("unchecked")
+    private static Task<DataSnapshot> answered(DataSnapshot result) {
+        Task<DataSnapshot> read = mock(Task.class);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(result);
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+        return read;
+    }
+}
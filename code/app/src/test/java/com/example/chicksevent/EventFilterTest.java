@@ -0,0 +1,247 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import android.util.Log;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventDates;
+import com.example.chicksevent.misc.EventFilter;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link EventFilter}.
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Terms match tags (normalized, ignoring case) or the exact event name</li>
+ *   <li>The window keeps events that start inside it and do not end after it</li>
+ *   <li>Where it departs from the original loop (tag case and spacing, missing dates), it does
+ *       so as documented on {@link EventFilter}</li>
+ *   <li>Cached epoch days follow date edits, and stored epoch days are used as-is</li>
+ *   <li>Over 10k generated events the compiled filter returns the same ids as the original
+ *       per-row loop (throughput and allocation are measured in {@link Benchmarks})</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventFilterTest {
+
+    /** The query {@link #compiledFilter_matchesOriginalLoop()} and the benchmark run. */
+    static final ArrayList<String> FILTER_TERMS = new ArrayList<>(Arrays.asList("music", "art"));
+    static final LocalDate FILTER_START = LocalDate.of(2025, 6, 1);
+    static final LocalDate FILTER_END = LocalDate.of(2025, 6, 30);
+
+    private static final String[] WORDS = {
+            "music", "art", "sports", "food", "tech", "games", "outdoor", "family", "film", "books",
+            "dance", "yoga", "science", "history", "travel", "charity", "comedy", "theatre", "kids", "pets"
+    };
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+
+    @Before
+    public void setUp() {
+        // Event/Organizer constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        DatabaseReference ref = mock(DatabaseReference.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenReturn(ref);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void terms_matchTagsIgnoringCase_orExactName() {
+        EventFilter filter = new EventFilter(Arrays.asList("Music", " board.games "), null, null);
+
+        assertTrue(filter.matches(event("E1", "Open Air", "outdoor, music", "06-01-2025", "06-01-2025")));
+        assertTrue(filter.matches(event("E2", "Chess", "boardgames", "06-01-2025", "06-01-2025")));
+        assertTrue(filter.matches(event("E3", "Music", "", "06-01-2025", "06-01-2025")));
+        assertFalse(filter.matches(event("E6", "MUSIC", "", "06-01-2025", "06-01-2025")));
+        assertFalse(filter.matches(event("E4", "Music Night", "jazz", "06-01-2025", "06-01-2025")));
+
+        assertTrue(new EventFilter(Collections.emptyList(), null, null)
+                .matches(event("E5", "Any", null, null, null)));
+    }
+
+    @Test
+    public void window_keepsEventsStartingInside_andNotEndingAfter() {
+        long from = LocalDate.of(2025, 6, 7).toEpochDay();
+        long to = LocalDate.of(2025, 6, 8).toEpochDay();
+        EventFilter filter = new EventFilter(null, from, to);
+
+        assertTrue(filter.matches(event("E1", "a", "", "06-07-2025", "06-08-2025")));
+        assertTrue(filter.matches(event("E2", "b", "", "06-08-2025", "")));
+        assertFalse(filter.matches(event("E3", "c", "", "06-06-2025", "06-07-2025")));
+        assertFalse(filter.matches(event("E4", "d", "", "06-08-2025", "06-09-2025")));
+        assertFalse(filter.matches(event("E5", "e", "", "", "06-08-2025")));
+    }
+
+    @Test
+    public void departuresFromOriginalLoop_areTheDocumentedOnes() {
+        ArrayList<String> music = new ArrayList<>(Arrays.asList("music"));
+        List<Map<String, Object>> rows = Arrays.asList(
+                eventMap("E1", "a", "Music", "06-07-2025", "06-07-2025"),
+                eventMap("E2", "b", "art, music", "06-07-2025", "06-07-2025"));
+        List<Event> events = new ArrayList<>();
+        for (Map<String, Object> row : rows) events.add(Event.fromMap((String) row.get("id"), row));
+
+        // Tags match as index keys here, as exact tokens in the original
+        assertEquals(Arrays.asList("E1", "E2"), new EventFilter(music, null, null).matchingIds(events));
+        assertTrue(originalLoop(rows, music, null, null).isEmpty());
+
+        // A missing start date is excluded under a window here, let through in the original
+        LocalDate day = LocalDate.of(2025, 6, 7);
+        Map<String, Object> undated = eventMap("E3", "c", "", null, null);
+        assertFalse(new EventFilter(null, day.toEpochDay(), day.toEpochDay())
+                .matches(Event.fromMap("E3", undated)));
+        assertEquals(Collections.singletonList("E3"),
+                originalLoop(Collections.singletonList(undated), new ArrayList<>(), day, day));
+    }
+
+    @Test
+    public void epochDays_areCached_untilTheDateChanges() {
+        Event e = event("E1", "a", "", "01-02-1970", "01-03-1970");
+        assertEquals(Long.valueOf(1), e.getStartEpochDay());
+        assertEquals(Long.valueOf(2), e.getEndEpochDay());
+
+        e.setEventStartDate("01-01-1970");
+        assertEquals(Long.valueOf(0), e.getStartEpochDay());
+
+        // Stored sortable copies win over re-parsing the strings
+        Map<String, Object> stored = eventMap("E2", "b", "", "01-02-1970", "01-03-1970");
+        stored.put(EventDates.START_FIELD, 40L);
+        stored.put(EventDates.END_FIELD, 41L);
+        Event fromStore = Event.fromMap("E2", stored);
+        assertEquals(Long.valueOf(40), fromStore.getStartEpochDay());
+        assertEquals(Long.valueOf(41), fromStore.getEndEpochDay());
+    }
+
+    @Test
+    public void compiledFilter_matchesOriginalLoop() {
+        List<Map<String, Object>> rows = catalogue(10_000);
+        List<Event> events = new ArrayList<>();
+        for (Map<String, Object> row : rows) events.add(Event.fromMap((String) row.get("id"), row));
+
+        ArrayList<String> expected = originalLoop(rows, FILTER_TERMS, FILTER_START, FILTER_END);
+        ArrayList<String> actual = new EventFilter(FILTER_TERMS, FILTER_START.toEpochDay(), FILTER_END.toEpochDay())
+                .matchingIds(events);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    // -------------------- helpers --------------------
+
+    /**
+     * Generates {@code count} stored event rows over 2025 with two random tags each; one in 50 is
+     * named after a tag. The same rows every call.
+     */
+    static List<Map<String, Object>> catalogue(int count) {
+        Random random = new Random(7);
+        long base = LocalDate.of(2025, 1, 1).toEpochDay();
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate start = LocalDate.ofEpochDay(base + random.nextInt(365));
+            LocalDate end = start.plusDays(random.nextInt(4));
+            String tags = WORDS[random.nextInt(WORDS.length)] + "," + WORDS[random.nextInt(WORDS.length)];
+            String name = random.nextInt(50) == 0 ? WORDS[random.nextInt(WORDS.length)] : "Event " + i;
+
+            Map<String, Object> row = eventMap("E" + i, name, tags, start.format(format), end.format(format));
+            EventDates.putFields(row, start.format(format), end.format(format));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * The per-row loop {@code User.filterEvents} originally ran over the downloaded catalogue,
+     * including its logging, minus the network read.
+     */
+    @SuppressWarnings("unchecked")
+    static ArrayList<String> originalLoop(List<Map<String, Object>> rows, ArrayList<String> filterList,
+                                                  LocalDate filterStart, LocalDate filterEnd) {
+        ArrayList<String> eventList = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            Map<String, String> value2 = (Map<String, String>) (Map<String, ?>) row;
+            String key = value2.get("id");
+            String[] value = value2.get("tag").split(",");
+            boolean addEvent = false;
+
+            Log.d("User", "Key: " + key);
+            for (String val : value) {
+                Log.d("User", "Value: " + val);
+                if (filterList.contains(val)) addEvent = true;
+            }
+            if (filterList.size() == 0 || filterList.contains(value2.get("name"))) addEvent = true;
+            Log.i("filter event", addEvent ? "yes" : "no");
+
+            try {
+                if (filterStart != null && value2.get("eventStartDate") != null) {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+                    LocalDate date = LocalDate.parse(value2.get("eventStartDate"), formatter);
+                    if (date.isBefore(filterStart)) addEvent = false;
+                    Log.i("filter event", "set false a");
+                    Log.i("filter event", date.toString());
+                    Log.i("filter event", filterStart.toString());
+                }
+                if (filterEnd != null && value2.get("eventEndDate") != null) {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+                    LocalDate date = LocalDate.parse(value2.get("eventEndDate"), formatter);
+                    if (date.isAfter(filterEnd)) addEvent = false;
+                    Log.i("filter event", "set false b");
+                    Log.i("filter event", date.toString());
+                    Log.i("filter event", filterEnd.toString());
+                }
+            } catch (Exception e) {
+                addEvent = false;
+            }
+
+            if (addEvent) eventList.add(key);
+            Log.d("User", "---");
+        }
+        return eventList;
+    }
+
+    private static Event event(String id, String name, String tag, String start, String end) {
+        return Event.fromMap(id, eventMap(id, name, tag, start, end));
+    }
+
+    private static Map<String, Object> eventMap(String id, String name, String tag, String start, String end) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", id);
+        m.put("name", name);
+        m.put("tag", tag);
+        m.put("eventStartDate", start);
+        m.put("eventEndDate", end);
+        return m;
+    }
+}
@@ -5,6 +5,9 @@ import static org.mockito.Mockito.*;
 
 import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
@@ -44,6 +47,8 @@ public class EventGeolocationTest {
         when(mockDb.getReference("Event")).thenReturn(mockEventRef);
         when(mockEventRef.push()).thenReturn(mockPushedRef);
         when(mockPushedRef.getKey()).thenReturn("E123");
+
+        stubStoredTags(null);
     }
 
     @After
@@ -62,7 +67,7 @@ public class EventGeolocationTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(e, "eventService", mockService);
 
         e.createEvent();
@@ -71,7 +76,7 @@ public class EventGeolocationTest {
         verify(mockService, times(1)).addEntry(argThat(map -> {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(true);
-        }), eq("E123"));
+        }), eq("E123"), anyMap());
     }
 
     @Test
@@ -85,7 +90,7 @@ public class EventGeolocationTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(e, "eventService", mockService);
 
         e.createEvent();
@@ -94,7 +99,7 @@ public class EventGeolocationTest {
         verify(mockService, times(1)).addEntry(argThat(map -> {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(false);
-        }), eq("E123"));
+        }), eq("E123"), anyMap());
     }
 
     @Test
@@ -160,7 +165,7 @@ public class EventGeolocationTest {
         // Mock Firebase service
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E456"), any(HashMap.class))).thenReturn("E456");
+        when(mockService.editEntry(eq("E456"), any(HashMap.class), anyMap())).thenReturn("E456");
         setPrivate(event, "eventService", mockService);
         
         // Organizer saves the change
@@ -170,7 +175,7 @@ public class EventGeolocationTest {
         verify(mockService, times(1)).editEntry(eq("E456"), argThat(map -> {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(true);
-        }));
+        }), anyMap());
     }
 
     /**
@@ -197,7 +202,7 @@ public class EventGeolocationTest {
         // Mock Firebase service
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E456"), any(HashMap.class))).thenReturn("E456");
+        when(mockService.editEntry(eq("E456"), any(HashMap.class), anyMap())).thenReturn("E456");
         setPrivate(event, "eventService", mockService);
         
         // Organizer saves the change
@@ -207,7 +212,7 @@ public class EventGeolocationTest {
         verify(mockService, times(1)).editEntry(eq("E456"), argThat(map -> {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(false);
-        }));
+        }), anyMap());
     }
 
     /**
@@ -256,7 +261,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(event, "eventService", mockService);
         
         // Organizer creates event with geolocation enabled
@@ -267,7 +272,7 @@ public class EventGeolocationTest {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(true) &&
                    map.get("name").equals("New Event");
-        }), eq("E123"));
+        }), eq("E123"), anyMap());
     }
 
     /**
@@ -287,7 +292,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(event, "eventService", mockService);
         
         // Organizer creates event with geolocation disabled
@@ -298,7 +303,7 @@ public class EventGeolocationTest {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(false) &&
                    map.get("name").equals("New Event");
-        }), eq("E123"));
+        }), eq("E123"), anyMap());
     }
 
     /**
@@ -319,7 +324,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E789"), any(HashMap.class))).thenReturn("E789");
+        when(mockService.editEntry(eq("E789"), any(HashMap.class), anyMap())).thenReturn("E789");
         setPrivate(event, "eventService", mockService);
         
         // Organizer changes mind and enables geolocation
@@ -330,7 +335,7 @@ public class EventGeolocationTest {
         verify(mockService, times(1)).editEntry(eq("E789"), argThat(map -> {
             return map.containsKey("geolocationRequired") && 
                    map.get("geolocationRequired").equals(true);
-        }));
+        }), anyMap());
     }
 
     /**
@@ -350,7 +355,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E999"), any(HashMap.class))).thenReturn("E999");
+        when(mockService.editEntry(eq("E999"), any(HashMap.class), anyMap())).thenReturn("E999");
         setPrivate(event, "eventService", mockService);
         
         // Organizer only changes geolocation
@@ -364,7 +369,7 @@ public class EventGeolocationTest {
                    map.get("eventDetails").equals("Original Description") &&
                    map.get("entrantLimit").equals(75) &&
                    map.get("tag").equals("music");
-        }));
+        }), anyMap());
     }
 
     /**
@@ -389,7 +394,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E111"), any(HashMap.class))).thenReturn("E111");
+        when(mockService.editEntry(eq("E111"), any(HashMap.class), anyMap())).thenReturn("E111");
         setPrivate(event, "eventService", mockService);
         
         // Organizer only changes geolocation
@@ -448,7 +453,7 @@ public class EventGeolocationTest {
         
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq("E333"), any(HashMap.class))).thenReturn("E333");
+        when(mockService.editEntry(eq("E333"), any(HashMap.class), anyMap())).thenReturn("E333");
         setPrivate(event, "eventService", mockService);
         
         // Organizer enables geolocation
@@ -465,7 +470,23 @@ public class EventGeolocationTest {
         // Verify Firebase was called with correct value
         verify(mockService, times(1)).editEntry(eq("E333"), argThat(map -> {
             return map.get("geolocationRequired").equals(true);
-        }));
+        }), anyMap());
+    }
+
+    /** Makes the stored-tag read done by {@code editEvent(String)} answer at once with {@code tags}. */
+    @SuppressWarnings("unchecked")
+    private void stubStoredTags(String tags) {
+        Task<DataSnapshot> read = mock(Task.class);
+        DataSnapshot snapshot = mock(DataSnapshot.class);
+        when(mockEventRef.child(anyString())).thenReturn(mockEventRef);
+        when(mockEventRef.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(snapshot);
+        when(snapshot.getValue()).thenReturn(tags);
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
     }
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
@@ -0,0 +1,278 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventLookup;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EventLookup}.
+ *
+ * <p>
+ * Each {@code Event/{id}} reference returns a mocked read {@link Task} whose completion
+ * listeners are captured, so a test decides when the "network" answers and can issue
+ * overlapping requests in between.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>A lookup is one keyed read; the {@code Event} root is never downloaded</li>
+ *   <li>Concurrent requests for the same id share one read</li>
+ *   <li>Resolved events are served from cache until invalidated</li>
+ *   <li>A fresh lookup skips the cache, reads again and refreshes it</li>
+ *   <li>Invalidation listeners hear of explicit invalidations, repository changes and re-reads</li>
+ *   <li>Events already in the synced {@link EventRepository} cost no read</li>
+ *   <li>Missing events resolve to {@code null}</li>
+ *   <li>A batch reads only unknown ids, keeps the requested order and drops missing events</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventLookupTest {
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private DatabaseReference eventRoot;
+    private EventRepository repository;
+    private EventLookup lookup;
+
+    /** Keyed reads issued so far, by event id. */
+    private final Map<String, Integer> reads = new HashMap<>();
+
+    /** Completion listeners waiting on each id's read. */
+    private final Map<String, List<OnCompleteListener<DataSnapshot>>> waiting = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        // Event constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+
+        eventRoot = mock(DatabaseReference.class);
+        when(eventRoot.child(anyString())).thenAnswer(inv -> keyedRef(inv.getArgument(0)));
+
+        FirebaseService eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRoot);
+
+        repository = mock(EventRepository.class);
+        lookup = new EventLookup(eventService, repository);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void get_isOneKeyedRead() {
+        Task<Event> t = lookup.get("E1");
+        answer("E1", eventSnapshot("E1", "Gala"));
+
+        assertTrue(t.isSuccessful());
+        assertEquals("Gala", t.getResult().getName());
+        assertEquals(Integer.valueOf(1), reads.get("E1"));
+        verify(eventRoot, never()).get();
+    }
+
+    @Test
+    public void concurrentRequests_shareOneRead() {
+        Task<Event> first = lookup.get("E1");
+        Task<Event> second = lookup.get("E1");
+        Task<Event> third = lookup.get("E1");
+        assertFalse(first.isComplete());
+
+        answer("E1", eventSnapshot("E1", "Gala"));
+
+        assertSame(first, second);
+        assertSame(first, third);
+        assertTrue(third.isSuccessful());
+        assertEquals(Integer.valueOf(1), reads.get("E1"));
+    }
+
+    @Test
+    public void resolvedEvents_areCachedUntilInvalidated() {
+        lookup.get("E1");
+        answer("E1", eventSnapshot("E1", "Gala"));
+
+        Task<Event> cached = lookup.get("E1");
+        assertTrue(cached.isSuccessful());
+        assertEquals(Integer.valueOf(1), reads.get("E1"));
+
+        lookup.invalidate("E1");
+        lookup.get("E1");
+        assertEquals(Integer.valueOf(2), reads.get("E1"));
+    }
+
+    @Test
+    public void getFresh_skipsCache_andRefreshesIt() {
+        lookup.get("E1");
+        answer("E1", eventSnapshot("E1", "Gala"));
+
+        Task<Event> fresh = lookup.getFresh("E1");
+        assertFalse(fresh.isComplete());
+        answer("E1", eventSnapshot("E1", "Gala (on hold)"));
+
+        assertEquals("Gala (on hold)", fresh.getResult().getName());
+        assertEquals("Gala (on hold)", lookup.peek("E1").getName());
+        assertEquals(Integer.valueOf(2), reads.get("E1"));
+    }
+
+    @Test
+    public void invalidationListeners_followEveryInvalidation() {
+        List<String> invalidated = new ArrayList<>();
+        lookup.addInvalidationListener(invalidated::add);
+        ArgumentCaptor<EventRepository.Listener> repoListener = ArgumentCaptor.forClass(EventRepository.Listener.class);
+        verify(repository).addListener(repoListener.capture());
+
+        lookup.get("E1");
+        answer("E1", eventSnapshot("E1", "Gala"));
+        assertTrue(invalidated.isEmpty());
+
+        lookup.getFresh("E1");
+        answer("E1", eventSnapshot("E1", "Gala"));
+        lookup.invalidate("E1");
+        repoListener.getValue().onEventRemoved("E2");
+
+        assertEquals(Arrays.asList("E1", "E1", "E2"), invalidated);
+    }
+
+    @Test
+    public void repositoryHit_costsNoRead() {
+        Event known = mock(Event.class);
+        when(repository.peek("E1")).thenReturn(known);
+
+        Task<Event> t = lookup.get("E1");
+
+        assertSame(known, t.getResult());
+        verify(eventRoot, times(0)).child("E1");
+    }
+
+    @Test
+    public void missingEvent_resolvesToNull() {
+        DataSnapshot empty = mock(DataSnapshot.class);
+        when(empty.getKey()).thenReturn("GONE");
+        when(empty.getValue()).thenReturn(null);
+
+        Task<Event> t = lookup.get("GONE");
+        answer("GONE", empty);
+
+        assertTrue(t.isSuccessful());
+        assertNull(t.getResult());
+        assertNull(lookup.peek("GONE"));
+    }
+
+    @Test
+    public void getAll_readsUnknownIds_keepsOrder_andDropsMissing() {
+        Event known = mock(Event.class);
+        when(repository.peek("E2")).thenReturn(known);
+        DataSnapshot empty = mock(DataSnapshot.class);
+        when(empty.getKey()).thenReturn("GONE");
+
+        Task<List<Event>> t = lookup.getAll(Arrays.asList("E3", "E2", "GONE", "E1"));
+        answer("E1", eventSnapshot("E1", "Gala"));
+        answer("GONE", empty);
+        assertFalse(t.isComplete());
+        answer("E3", eventSnapshot("E3", "Fair"));
+
+        assertTrue(t.isSuccessful());
+        List<Event> events = t.getResult();
+        assertEquals(3, events.size());
+        assertEquals("Fair", events.get(0).getName());
+        assertSame(known, events.get(1));
+        assertEquals("Gala", events.get(2).getName());
+        assertNull(reads.get("E2"));
+    }
+
+    @Test
+    public void getAll_failsWhenAReadFails() {
+        Task<List<Event>> t = lookup.getAll(Arrays.asList("E1", "E2"));
+        answer("E1", eventSnapshot("E1", "Gala"));
+        failRead("E2");
+
+        assertTrue(t.isComplete());
+        assertFalse(t.isSuccessful());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Returns a fresh reference for {@code Event/{id}} whose {@code get()} is counted and held open. */
+    @SuppressWarnings("unchecked")
+    private DatabaseReference keyedRef(String id) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(ref.get()).thenAnswer(inv -> {
+            reads.merge(id, 1, Integer::sum);
+            Task<DataSnapshot> read = mock(Task.class);
+            when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(a -> {
+                waiting.computeIfAbsent(id, k -> new ArrayList<>()).add(a.getArgument(0));
+                return read;
+            });
+            return read;
+        });
+        return ref;
+    }
+
+    /** Completes every pending read of {@code id} successfully with {@code snapshot}. */
+    @SuppressWarnings("unchecked")
+    private void answer(String id, DataSnapshot snapshot) {
+        Task<DataSnapshot> done = mock(Task.class);
+        when(done.isSuccessful()).thenReturn(true);
+        when(done.getResult()).thenReturn(snapshot);
+        List<OnCompleteListener<DataSnapshot>> pending = waiting.remove(id);
+        if (pending == null) return;
+        for (OnCompleteListener<DataSnapshot> l : pending) l.onComplete(done);
+    }
+
+    /** Fails every pending read of {@code id}. */
+    @SuppressWarnings("unchecked")
+    private void failRead(String id) {
+        Task<DataSnapshot> failed = mock(Task.class);
+        when(failed.isSuccessful()).thenReturn(false);
+        when(failed.getException()).thenReturn(new Exception("offline"));
+        List<OnCompleteListener<DataSnapshot>> pending = waiting.remove(id);
+        if (pending == null) return;
+        for (OnCompleteListener<DataSnapshot> l : pending) l.onComplete(failed);
+    }
+
+    private static DataSnapshot eventSnapshot(String id, String name) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("id", id);
+        value.put("name", name);
+        value.put("organizer", "org-1");
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getKey()).thenReturn(id);
+        when(snap.getValue()).thenReturn(value);
+        return snap;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventPager;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Unit tests for {@link EventPager}.
+ *
+ * <p>
+ * The {@code Event} root is backed by an in-memory, key-ordered fixture. Queries built with
+ * {@code orderByKey / startAfter / endBefore / limitToFirst / limitToLast} are evaluated against
+ * it, and every answered query adds the approximate serialized size of the returned events to
+ * {@link #bytesDownloaded}.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>The first page of a 10k-event catalogue downloads one page worth of bytes</li>
+ *   <li>The whole {@code Event} root is never read</li>
+ *   <li>The resident window stays bounded while scrolling forward</li>
+ *   <li>Dropped pages are reloaded when scrolling back</li>
+ *   <li>The filter hides events without breaking the key cursor</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventPagerTest {
+
+    private static final int CATALOGUE = 10_000;
+    private static final int PAGE = 20;
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private DatabaseReference eventRoot;
+    private FirebaseService eventService;
+
+    /** Key-ordered fixture standing in for the {@code Event} root. */
+    private final TreeMap<String, Map<String, Object>> fixture = new TreeMap<>();
+
+    private long bytesDownloaded = 0;
+
+    @Before
+    public void setUp() {
+        // Event constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+
+        fill(CATALOGUE);
+
+        eventRoot = mock(DatabaseReference.class);
+        when(eventRoot.orderByKey()).thenAnswer(inv -> query(null, null, 0, 0));
+        eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRoot);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void firstPage_downloadsOnePageOfTenThousand() {
+        EventPager pager = new EventPager(eventService, PAGE, 3, null);
+
+        Task<Integer> t = pager.loadNext();
+
+        assertTrue(t.isSuccessful());
+        assertEquals(PAGE, pager.getWindow().size());
+        assertEquals("E00000", pager.getWindow().get(0).getId());
+
+        long total = 0;
+        long firstPage = 0;
+        int i = 0;
+        for (Map<String, Object> event : fixture.values()) {
+            long size = sizeOf(event);
+            total += size;
+            if (i++ < PAGE) firstPage += size;
+        }
+        assertEquals(firstPage, bytesDownloaded);
+        assertTrue("first page should be well under 1% of the catalogue", bytesDownloaded * 100 < total);
+        verify(eventRoot, never()).get();
+    }
+
+    @Test
+    public void scrollingForward_keepsWindowBounded() {
+        EventPager pager = new EventPager(eventService, PAGE, 3, null);
+        pager.loadNext();
+        pager.loadNext();
+        pager.loadNext();
+        assertFalse(pager.hasPrevious());
+
+        int shift = pager.loadNext().getResult();
+
+        assertEquals(-PAGE, shift);
+        assertEquals(3 * PAGE, pager.getWindow().size());
+        assertEquals("E00020", pager.getWindow().get(0).getId());
+        assertTrue(pager.hasPrevious());
+
+        for (int i = 0; i < 20; i++) pager.loadNext();
+        assertEquals(3 * PAGE, pager.getWindow().size());
+    }
+
+    @Test
+    public void scrollingBack_reloadsDroppedPage() {
+        EventPager pager = new EventPager(eventService, PAGE, 3, null);
+        for (int i = 0; i < 5; i++) pager.loadNext();
+        assertEquals("E00040", pager.getWindow().get(0).getId());
+
+        int shift = pager.loadPrevious().getResult();
+
+        assertEquals(PAGE, shift);
+        assertEquals("E00020", pager.getWindow().get(0).getId());
+        assertEquals("E00079", pager.getWindow().get(3 * PAGE - 1).getId());
+        assertTrue(pager.hasNext());
+    }
+
+    @Test
+    public void filter_hidesEventsButCursorAdvances() {
+        EventPager pager = new EventPager(eventService, PAGE, 3, e -> !e.isOnHold());
+
+        pager.loadNext();
+        pager.loadNext();
+
+        List<Event> window = pager.getWindow();
+        for (Event e : window) assertFalse(e.isOnHold());
+        // Every 10th fixture event is on hold
+        assertEquals(2 * PAGE - 4, window.size());
+        assertEquals("E00038", window.get(window.size() - 1).getId());
+    }
+
+    @Test
+    public void endOfCatalogue_stopsPaging() {
+        fill(45);
+        EventPager pager = new EventPager(eventService, PAGE, 3, null);
+
+        pager.loadNext();
+        pager.loadNext();
+        assertTrue(pager.hasNext());
+        pager.loadNext();
+
+        assertFalse(pager.hasNext());
+        assertEquals(45, pager.getWindow().size());
+    }
+
+    // -------------------- helpers --------------------
+
+    private void fill(int count) {
+        fixture.clear();
+        for (int i = 0; i < count; i++) {
+            String id = String.format("E%05d", i);
+            Map<String, Object> value = new HashMap<>();
+            value.put("id", id);
+            value.put("name", "Event number " + i);
+            value.put("eventDetails", "Weekly community session with snacks and a short talk.");
+            value.put("organizer", "org-" + (i % 50));
+            value.put("eventStartDate", "05-01-2026");
+            value.put("eventEndDate", "05-02-2026");
+            value.put("eventStartTime", "18:00");
+            value.put("eventEndTime", "20:00");
+            value.put("entrantLimit", 50);
+            value.put("onHold", i % 10 == 9);
+            fixture.put(id, value);
+        }
+    }
+
+    /** Returns a query mock over the fixture with the given bounds (null/0 meaning unbounded). */
+    @SuppressWarnings("unchecked")
+    private Query query(String startAfter, String endBefore, int first, int last) {
+        Query q = mock(Query.class);
+        when(q.startAfter(anyString())).thenAnswer(inv -> query(inv.getArgument(0), endBefore, first, last));
+        when(q.endBefore(anyString())).thenAnswer(inv -> query(startAfter, inv.getArgument(0), first, last));
+        when(q.limitToFirst(anyInt())).thenAnswer(inv -> query(startAfter, endBefore, inv.getArgument(0), last));
+        when(q.limitToLast(anyInt())).thenAnswer(inv -> query(startAfter, endBefore, first, inv.getArgument(0)));
+        when(q.get()).thenAnswer(inv -> {
+            DataSnapshot result = evaluate(startAfter, endBefore, first, last);
+            Task<DataSnapshot> read = mock(Task.class);
+            when(read.isSuccessful()).thenReturn(true);
+            when(read.getResult()).thenReturn(result);
+            when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(a -> {
+                ((OnCompleteListener<DataSnapshot>) a.getArgument(0)).onComplete(read);
+                return read;
+            });
+            return read;
+        });
+        return q;
+    }
+
+    private DataSnapshot evaluate(String startAfter, String endBefore, int first, int last) {
+        NavigableMap<String, Map<String, Object>> range = fixture;
+        if (startAfter != null) range = range.tailMap(startAfter, false);
+        if (endBefore != null) range = range.headMap(endBefore, false);
+
+        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(range.entrySet());
+        if (first > 0 && entries.size() > first) entries = entries.subList(0, first);
+        if (last > 0 && entries.size() > last) entries = entries.subList(entries.size() - last, entries.size());
+
+        List<DataSnapshot> children = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> e : entries) {
+            bytesDownloaded += sizeOf(e.getValue());
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn(e.getKey());
+            when(child.getValue()).thenReturn(e.getValue());
+            children.add(child);
+        }
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getChildren()).thenReturn(children);
+        return snap;
+    }
+
+    /** Approximate JSON size of a flat event map: keys, values and punctuation. */
+    private static long sizeOf(Map<String, Object> value) {
+        long size = 2;
+        for (Map.Entry<String, Object> e : value.entrySet()) {
+            size += e.getKey().length() + 4 + String.valueOf(e.getValue()).length();
+        }
+        return size;
+    }
+}
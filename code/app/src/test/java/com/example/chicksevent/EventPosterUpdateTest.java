@@ -5,6 +5,9 @@ import static org.mockito.Mockito.*;
 
 import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
@@ -51,6 +54,8 @@ public class EventPosterUpdateTest {
         firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString()))
                 .thenReturn(mockDb);
         when(mockDb.getReference("Event")).thenReturn(mockEventRef);
+
+        stubStoredTags(null);
     }
 
     @After
@@ -82,7 +87,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // Update event
@@ -114,7 +119,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -126,7 +131,8 @@ public class EventPosterUpdateTest {
                     HashMap<String, Object> data = (HashMap<String, Object>) map;
                     return data.containsKey("poster") &&
                            data.get("poster").equals(NEW_POSTER);
-                })
+                }),
+                anyMap()
         );
     }
 
@@ -155,7 +161,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -188,7 +194,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -219,7 +225,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -249,7 +255,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // Update event
@@ -278,7 +284,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // First update
@@ -320,7 +326,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -353,7 +359,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -364,7 +370,8 @@ public class EventPosterUpdateTest {
                 argThat(map -> {
                     HashMap<String, Object> data = (HashMap<String, Object>) map;
                     return data.containsKey("poster");
-                })
+                }),
+                anyMap()
         );
     }
 
@@ -393,7 +400,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -424,7 +431,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -454,7 +461,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -484,7 +491,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -513,7 +520,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -556,8 +563,8 @@ public class EventPosterUpdateTest {
         FirebaseService mockService2 = mock(FirebaseService.class);
         when(mockService1.getReference()).thenReturn(mockEventRef);
         when(mockService2.getReference()).thenReturn(mockEventRef);
-        when(mockService1.editEntry(eq(eventId1), any(HashMap.class))).thenReturn(eventId1);
-        when(mockService2.editEntry(eq(eventId2), any(HashMap.class))).thenReturn(eventId2);
+        when(mockService1.editEntry(eq(eventId1), any(HashMap.class), anyMap())).thenReturn(eventId1);
+        when(mockService2.editEntry(eq(eventId2), any(HashMap.class), anyMap())).thenReturn(eventId2);
         setPrivate(event1, "eventService", mockService1);
         setPrivate(event2, "eventService", mockService2);
 
@@ -590,7 +597,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // Update event
@@ -622,7 +629,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -635,7 +642,8 @@ public class EventPosterUpdateTest {
                     Object posterValue = data.get("poster");
                     return posterValue != null && 
                            posterValue.toString().equals(NEW_POSTER);
-                })
+                }),
+                anyMap()
         );
     }
 
@@ -663,7 +671,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -677,7 +685,8 @@ public class EventPosterUpdateTest {
                     return posterValue != null && 
                            posterValue.toString().equals(NEW_POSTER) &&
                            !posterValue.toString().equals(ORIGINAL_POSTER);
-                })
+                }),
+                anyMap()
         );
     }
 
@@ -702,7 +711,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -740,7 +749,7 @@ public class EventPosterUpdateTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class))).thenReturn(EVENT_ID);
+        when(mockService.editEntry(eq(EVENT_ID), any(HashMap.class), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.editEvent(EVENT_ID);
@@ -758,6 +767,22 @@ public class EventPosterUpdateTest {
 
     // ==================== Helper Methods ====================
 
+    /** Makes the stored-tag read done by {@code editEvent(String)} answer at once with {@code tags}. */
+    @SuppressWarnings("unchecked")
+    private void stubStoredTags(String tags) {
+        Task<DataSnapshot> read = mock(Task.class);
+        DataSnapshot snapshot = mock(DataSnapshot.class);
+        when(mockEventRef.child(anyString())).thenReturn(mockEventRef);
+        when(mockEventRef.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(snapshot);
+        when(snapshot.getValue()).thenReturn(tags);
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+    }
+
     /**
      * Helper method to set private fields via reflection.
      */
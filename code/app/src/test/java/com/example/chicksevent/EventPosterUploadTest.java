@@ -81,7 +81,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         String eventId = event.createEvent();
@@ -112,7 +112,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.createEvent();
@@ -124,7 +124,8 @@ public class EventPosterUploadTest {
                     return data.containsKey("poster") &&
                            data.get("poster").equals(POSTER_URL);
                 }),
-                eq(EVENT_ID)
+                eq(EVENT_ID),
+                anyMap()
         );
     }
 
@@ -146,7 +147,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         String eventId = event.createEvent();
@@ -177,7 +178,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         String eventId = event.createEvent();
@@ -323,7 +324,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.createEvent();
@@ -334,7 +335,8 @@ public class EventPosterUploadTest {
                     HashMap<String, Object> data = (HashMap<String, Object>) map;
                     return data.containsKey("poster");
                 }),
-                eq(EVENT_ID)
+                eq(EVENT_ID),
+                anyMap()
         );
     }
 
@@ -376,7 +378,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // Store poster before creation
@@ -410,7 +412,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.createEvent();
@@ -578,7 +580,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         event.createEvent();
@@ -591,7 +593,8 @@ public class EventPosterUploadTest {
                     return posterValue != null && 
                            posterValue.toString().equals(POSTER_URL);
                 }),
-                eq(EVENT_ID)
+                eq(EVENT_ID),
+                anyMap()
         );
     }
 
@@ -613,7 +616,7 @@ public class EventPosterUploadTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID))).thenReturn(EVENT_ID);
+        when(mockService.addEntry(any(HashMap.class), eq(EVENT_ID), anyMap())).thenReturn(EVENT_ID);
         setPrivate(event, "eventService", mockService);
 
         // Save to Firebase
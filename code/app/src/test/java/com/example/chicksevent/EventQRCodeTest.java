@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -86,7 +87,7 @@ public class EventQRCodeTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(event, "eventService", mockService);
 
         // Organizer creates event
@@ -238,7 +239,7 @@ public class EventQRCodeTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(event, "eventService", mockService);
 
         // Organizer creates event
@@ -341,7 +342,7 @@ public class EventQRCodeTest {
 
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(event, "eventService", mockService);
 
         // Organizer creates event
@@ -0,0 +1,267 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EventRepository}.
+ *
+ * <p>
+ * A fake {@link FirebaseService} backed by an in-memory fixture stands in for the
+ * {@code Event} root. Every child delivered to the repository is charged its serialized size,
+ * so the tests can compare the bytes downloaded through the shared subscription with the
+ * per-screen full reads it replaces.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Several screens asking for events share one subscription and one catalogue download</li>
+ *   <li>Edits after the initial load cost only the changed event</li>
+ *   <li>Removed events leave the cache and notify listeners</li>
+ *   <li>A cancelled subscription fails waiting callers and re-subscribes on the next request</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventRepositoryTest {
+
+    private static final int EVENT_COUNT = 200;
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private DatabaseReference eventRoot;
+    private EventRepository repository;
+
+    /** Fixture of the /Event root, keyed by event id. */
+    private final Map<String, Map<String, Object>> fixture = new LinkedHashMap<>();
+
+    /** Bytes charged to the fake network so far. */
+    private long bytesDownloaded;
+
+    /** The child listener the repository attached, once it has subscribed. */
+    private ChildEventListener attached;
+
+    /** When set, the initial-load marker is cancelled with this error instead of delivered. */
+    private DatabaseError initialLoadError;
+
+    @Before
+    public void setUp() {
+        // Event/Organizer constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            String id = String.format("E%04d", i);
+            fixture.put(id, eventMap(id, "Event " + i));
+        }
+
+        eventRoot = mock(DatabaseReference.class);
+
+        // Subscribing streams every child once and charges its size
+        doAnswer(inv -> {
+            attached = inv.getArgument(0);
+            String previous = null;
+            for (Map.Entry<String, Map<String, Object>> e : fixture.entrySet()) {
+                attached.onChildAdded(deliver(e.getKey(), e.getValue()), previous);
+                previous = e.getKey();
+            }
+            return attached;
+        }).when(eventRoot).addChildEventListener(any(ChildEventListener.class));
+
+        // The initial-load marker is served from the synced local tree: no bytes charged
+        doAnswer(inv -> {
+            ValueEventListener l = inv.getArgument(0);
+            if (initialLoadError != null) {
+                l.onCancelled(initialLoadError);
+            } else {
+                l.onDataChange(mock(DataSnapshot.class));
+            }
+            return null;
+        }).when(eventRoot).addListenerForSingleValueEvent(any(ValueEventListener.class));
+
+        FirebaseService eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRoot);
+
+        repository = new EventRepository(eventService);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void severalScreens_shareOneDownloadOfTheCatalogue() {
+        long catalogueBytes = catalogueBytes();
+        int screens = 5; // event list, search, hosted events, admin browser, filter
+
+        for (int i = 0; i < screens; i++) {
+            Task<List<Event>> t = repository.getEvents();
+            assertTrue(t.isComplete());
+            assertEquals(EVENT_COUNT, t.getResult().size());
+        }
+
+        verify(eventRoot, times(1)).addChildEventListener(any(ChildEventListener.class));
+        verify(eventRoot, never()).get();
+        assertEquals(catalogueBytes, bytesDownloaded);
+
+        long legacyBytes = catalogueBytes * screens; // one full read per screen open
+        assertEquals(catalogueBytes * (screens - 1), legacyBytes - bytesDownloaded);
+    }
+
+    @Test
+    public void edit_afterLoad_costsOnlyTheChangedEvent() {
+        repository.getEvents();
+        long afterLoad = bytesDownloaded;
+
+        List<String> upserted = new ArrayList<>();
+        repository.addListener(new EventRepository.Listener() {
+            @Override public void onEventUpserted(Event event) { upserted.add(event.getId()); }
+            @Override public void onEventRemoved(String eventId) { }
+        });
+
+        Map<String, Object> edited = eventMap("E0007", "Renamed");
+        fixture.put("E0007", edited);
+        attached.onChildChanged(deliver("E0007", edited), "E0006");
+
+        assertEquals(sizeOf("E0007", edited), bytesDownloaded - afterLoad);
+        assertEquals("Renamed", repository.peek("E0007").getName());
+        assertEquals(1, upserted.size());
+
+        Task<List<Event>> again = repository.getEvents();
+        assertTrue(again.isComplete());
+        assertEquals(EVENT_COUNT, again.getResult().size());
+    }
+
+    @Test
+    public void remove_dropsEventAndNotifies() {
+        repository.getEvents();
+
+        List<String> removed = new ArrayList<>();
+        repository.addListener(new EventRepository.Listener() {
+            @Override public void onEventUpserted(Event event) { }
+            @Override public void onEventRemoved(String eventId) { removed.add(eventId); }
+        });
+
+        DataSnapshot gone = mock(DataSnapshot.class);
+        when(gone.getKey()).thenReturn("E0001");
+        attached.onChildRemoved(gone);
+
+        assertNull(repository.peek("E0001"));
+        assertEquals(EVENT_COUNT - 1, repository.getCachedEvents().size());
+        assertEquals(1, removed.size());
+    }
+
+    @Test
+    public void onHoldAndOrganizer_areParsedFromRawMap() {
+        Map<String, Object> held = eventMap("E0003", "Held");
+        held.put("onHold", true);
+        fixture.put("E0003", held);
+
+        repository.getEvents();
+
+        Event e = repository.peek("E0003");
+        assertTrue(e.isOnHold());
+        assertEquals("org-1", e.getOrganizer().getOrganizerId());
+        assertFalse(repository.peek("E0004").isOnHold());
+    }
+
+    @Test
+    public void cancelledLoad_failsCallers_andResubscribesNextTime() {
+        initialLoadError = mock(DatabaseError.class);
+        when(initialLoadError.toException()).thenReturn(new DatabaseException("permission denied"));
+
+        Task<List<Event>> failed = repository.getEvents();
+        assertTrue(failed.isComplete());
+        assertFalse(failed.isSuccessful());
+        assertFalse(repository.isLoaded());
+
+        initialLoadError = null;
+        Task<List<Event>> retried = repository.getEvents();
+        assertTrue(retried.isSuccessful());
+        verify(eventRoot, times(2)).addChildEventListener(any(ChildEventListener.class));
+    }
+
+    // -------------------- helpers --------------------
+
+    private static Map<String, Object> eventMap(String id, String name) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", id);
+        m.put("name", name);
+        m.put("eventDetails", "Details for " + name + " with enough text to look like a real description.");
+        m.put("eventStartTime", "10:00");
+        m.put("eventEndTime", "12:00");
+        m.put("eventStartDate", "01-15-2026");
+        m.put("eventEndDate", "01-15-2026");
+        m.put("registrationStartDate", "01-01-2026");
+        m.put("registrationEndDate", "01-10-2026");
+        m.put("entrantLimit", 50L);
+        m.put("organizer", "org-1");
+        m.put("tag", "music,outdoor");
+        m.put("geolocationRequired", false);
+        m.put("onHold", false);
+        return m;
+    }
+
+    private DataSnapshot deliver(String key, Map<String, Object> value) {
+        bytesDownloaded += sizeOf(key, value);
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getKey()).thenReturn(key);
+        when(snap.getValue()).thenReturn(new HashMap<>(value));
+        return snap;
+    }
+
+    private long catalogueBytes() {
+        long total = 0;
+        for (Map.Entry<String, Map<String, Object>> e : fixture.entrySet()) {
+            total += sizeOf(e.getKey(), e.getValue());
+        }
+        return total;
+    }
+
+    /** Approximates the wire size of one child as the UTF-8 length of its key and fields. */
+    private static long sizeOf(String key, Map<String, Object> value) {
+        long size = key.getBytes(StandardCharsets.UTF_8).length;
+        for (Map.Entry<String, Object> f : value.entrySet()) {
+            size += f.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += String.valueOf(f.getValue()).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+}
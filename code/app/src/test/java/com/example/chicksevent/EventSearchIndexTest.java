@@ -0,0 +1,180 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.EventSearchIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link EventSearchIndex}.
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Terms prefix-match tokens of the name, details and tags, and all terms must match</li>
+ *   <li>Name matches outrank tag matches, which outrank details; exact tokens outrank prefixes</li>
+ *   <li>Changed events replace their postings and removed events disappear</li>
+ *   <li>The shared wiring follows repository upserts and removals</li>
+ *   <li>Keystroke prefixes over 50k events find matches and respect the limit (timing is
+ *       measured separately, in {@link Benchmarks})</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventSearchIndexTest {
+
+    private EventSearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new EventSearchIndex();
+    }
+
+    @Test
+    public void tokenize_lowercasesAndSplitsOnPunctuation() {
+        assertEquals(Arrays.asList("jazz", "night", "2025", "caf\u00e9"),
+                EventSearchIndex.tokenize("Jazz-Night, 2025 @ Caf\u00e9!"));
+        assertTrue(EventSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    public void allTermsMustPrefixMatch_acrossFields() {
+        index.put("E1", "Summer Jazz Night", "Live music by the river", "music,outdoor");
+        index.put("E2", "Chess Club", "Weekly games", "board");
+        index.put("E3", "Winter Jazz", "Indoor concert", "music");
+
+        assertEquals(Arrays.asList("E1", "E3"), index.search("jaz"));
+        assertEquals(Collections.singletonList("E1"), index.search("jazz riv"));
+        assertEquals(Collections.singletonList("E2"), index.search("BOARD"));
+        assertTrue(index.search("jazz chess").isEmpty());
+        assertTrue(index.search("  ,, ").isEmpty());
+    }
+
+    @Test
+    public void ranking_prefersNameThenTagThenDetails_andExactTokens() {
+        index.put("details", "Picnic", "bring a guitar", "");
+        index.put("tag", "Open Mic", "all welcome", "guitar");
+        index.put("name", "Guitar Workshop", "beginners", "");
+        index.put("prefix", "Guitarists Meetup", "", "");
+
+        assertEquals(Arrays.asList("name", "prefix", "tag", "details"), index.search("guitar"));
+        assertEquals(Arrays.asList("name", "prefix"), index.search("guitar", 2));
+    }
+
+    @Test
+    public void put_replacesOldPostings_andRemoveDropsThem() {
+        index.put("E1", "Pottery Class", "", "art");
+        index.put("E1", "Yoga Class", "", "fitness");
+
+        assertTrue(index.search("pottery").isEmpty());
+        assertTrue(index.search("art").isEmpty());
+        assertEquals(Collections.singletonList("E1"), index.search("yoga"));
+
+        index.remove("E1");
+        assertTrue(index.search("class").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void repositoryListener_keepsIndexInStep() {
+        EventRepository repository = mock(EventRepository.class);
+        when(repository.getCachedEvents()).thenReturn(Collections.singletonList(event("E1", "Book Fair", "books")));
+
+        EventSearchIndex live = new EventSearchIndex(repository);
+        ArgumentCaptor<EventRepository.Listener> captor = ArgumentCaptor.forClass(EventRepository.Listener.class);
+        verify(repository).addListener(captor.capture());
+        EventRepository.Listener listener = captor.getValue();
+
+        assertEquals(Collections.singletonList("E1"), live.search("book"));
+
+        listener.onEventUpserted(event("E2", "Bookbinding", "craft"));
+        listener.onEventUpserted(event("E1", "Film Fair", "movies"));
+        assertEquals(Collections.singletonList("E2"), live.search("book"));
+
+        listener.onEventRemoved("E2");
+        assertTrue(live.search("book").isEmpty());
+        assertFalse(live.search("fair").isEmpty());
+    }
+
+    @Test
+    public void search_over50kEvents_findsMatches_withinTheLimit() {
+        populate(index, 50_000);
+        assertEquals(50_000, index.size());
+
+        int found = 0;
+        for (String q : typedQueries()) {
+            List<String> hits = index.search(q, 50);
+            assertTrue(q + " returned " + hits.size(), hits.size() <= 50);
+            found += hits.size();
+        }
+        assertTrue("no query matched", found > 0);
+        assertEquals(index.search("summer jazz", 50), index.search("summer jazz", 50));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Fills {@code index} with {@code count} events of random words; the same words every call. */
+    static void populate(EventSearchIndex index, int count) {
+        String[] words = {
+                "summer", "winter", "spring", "autumn", "jazz", "rock", "folk", "classical", "chess",
+                "yoga", "pottery", "painting", "robotics", "coding", "hackathon", "soccer", "hockey",
+                "swim", "marathon", "cycling", "book", "film", "poetry", "theatre", "dance", "salsa",
+                "tango", "cooking", "baking", "wine", "coffee", "tea", "garden", "hiking", "camping",
+                "birding", "astronomy", "science", "math", "history", "museum", "gallery", "market",
+                "festival", "concert", "workshop", "seminar", "lecture", "meetup", "club", "night",
+                "morning", "family", "kids", "seniors", "students", "community", "charity", "gala",
+                "auction", "parade", "carnival", "fair", "expo", "trivia", "karaoke", "comedy",
+                "improv", "magic", "circus", "photography", "knitting", "quilting", "woodworking",
+                "pets", "dogs", "cats", "volunteer", "cleanup", "recycling", "startup", "career"
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            index.put("E" + i,
+                    phrase(random, words, 3) + " " + i,
+                    phrase(random, words, 12),
+                    phrase(random, words, 2));
+        }
+    }
+
+    /** Keystroke-by-keystroke prefixes as a user would type them. */
+    static List<String> typedQueries() {
+        List<String> queries = new ArrayList<>();
+        for (String typed : new String[] { "summer jazz", "pottery workshop", "kids cooking", "night market" }) {
+            for (int end = 2; end <= typed.length(); end++) queries.add(typed.substring(0, end));
+        }
+        return queries;
+    }
+
+    private static Event event(String id, String name, String tag) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.getName()).thenReturn(name);
+        when(event.getEventDetails()).thenReturn("");
+        when(event.getTag()).thenReturn(tag);
+        return event;
+    }
+
+    private static String phrase(Random random, String[] words, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        return sb.toString();
+    }
+}
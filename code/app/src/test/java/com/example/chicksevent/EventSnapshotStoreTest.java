@@ -0,0 +1,117 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventSnapshotStore;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.MockedStatic;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EventSnapshotStore}.
+ *
+ * <p>
+ * The store writes into a JUnit temporary folder and uses a same-thread executor, so a save is
+ * on disk by the time {@code save} returns.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Saved rows load back with the fields a feed row shows</li>
+ *   <li>Only the first {@link EventSnapshotStore#MAX_EVENTS} rows are kept</li>
+ *   <li>A missing or corrupt file reads as empty</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventSnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private EventSnapshotStore store;
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        // Event constructors create FirebaseService instances; keep them off the network
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+
+        dir = tmp.newFolder();
+        store = new EventSnapshotStore(dir, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void savedRows_loadBack() {
+        List<Event> events = new ArrayList<>();
+        events.add(event("E1", "Swim", "05-01-2026", null));
+        events.add(event("E2", "Chess", "06-12-2026", "games"));
+
+        store.save(events);
+        List<Event> loaded = store.load();
+
+        assertEquals(2, loaded.size());
+        assertEquals("E1", loaded.get(0).getId());
+        assertEquals("Swim", loaded.get(0).getName());
+        assertEquals("05-01-2026", loaded.get(0).getEventStartDate());
+        assertNull(loaded.get(0).getTag());
+        assertEquals("games", loaded.get(1).getTag());
+    }
+
+    @Test
+    public void onlyTopRowsAreKept() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) events.add(event("E" + i, "Event " + i, "05-01-2026", null));
+
+        store.save(events);
+        List<Event> loaded = store.load();
+
+        assertEquals(EventSnapshotStore.MAX_EVENTS, loaded.size());
+        assertEquals("E0", loaded.get(0).getId());
+        assertTrue(new File(dir, "event_feed_snapshot.bin").length() < 4096);
+    }
+
+    @Test
+    public void missingOrCorruptFile_readsEmpty() throws Exception {
+        assertTrue(store.load().isEmpty());
+
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "event_feed_snapshot.bin"))) {
+            out.write(new byte[] { 0, 0, 0, 1, 0, 0, 0, 5, 1 });
+        }
+        assertTrue(store.load().isEmpty());
+    }
+
+    // -------------------- helpers --------------------
+
+    private static Event event(String id, String name, String startDate, String tag) {
+        return new Event("org-1", id, name, "details", "18:00", "20:00",
+                startDate, startDate, null, null, 50, null, tag, false);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventLookup;
+import com.example.chicksevent.misc.EventSummaryResolver;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link EventSummaryResolver}.
+ *
+ * <p>
+ * The {@link EventLookup} is mocked so that every {@code get(id)} is counted and held open until
+ * the test answers it, which makes the number of event reads per inbox observable.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>A 200-notification inbox costs one read per distinct event</li>
+ *   <li>Prefetch completes only once every distinct event has answered</li>
+ *   <li>Later binds are served from cache without further reads</li>
+ *   <li>Deleted events resolve to the "NO NAME" placeholder, which is not cached</li>
+ *   <li>A summary is dropped when the lookup invalidates its event</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class EventSummaryResolverTest {
+
+    private EventLookup lookup;
+    private EventSummaryResolver resolver;
+
+    /** Lookups issued so far, by event id. */
+    private final Map<String, Integer> reads = new HashMap<>();
+
+    /** Completion listeners waiting on each id's lookup. */
+    private final Map<String, List<OnCompleteListener<Event>>> waiting = new HashMap<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        lookup = mock(EventLookup.class);
+        when(lookup.get(anyString())).thenAnswer(inv -> {
+            String id = inv.getArgument(0);
+            reads.merge(id, 1, Integer::sum);
+            Task<Event> t = mock(Task.class);
+            when(t.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(a -> {
+                waiting.computeIfAbsent(id, k -> new ArrayList<>()).add(a.getArgument(0));
+                return t;
+            });
+            return t;
+        });
+        resolver = new EventSummaryResolver(lookup);
+    }
+
+    @Test
+    public void largeInbox_readsEachDistinctEventOnce() {
+        List<String> inbox = new ArrayList<>();
+        for (int i = 0; i < 200; i++) inbox.add("E" + (i % 7));
+
+        Task<Void> done = resolver.prefetch(inbox);
+
+        assertEquals(7, reads.size());
+        for (Integer n : reads.values()) assertEquals(Integer.valueOf(1), n);
+
+        for (int i = 0; i < 6; i++) answer("E" + i, event("E" + i, "Event " + i, "01-0" + (i + 1) + "-2026"));
+        assertFalse(done.isComplete());
+        answer("E6", event("E6", "Event 6", "01-07-2026"));
+        assertTrue(done.isComplete());
+
+        assertEquals("Event 3", resolver.peek("E3").getName());
+        assertEquals("01-04-2026", resolver.peek("E3").getStartDate());
+    }
+
+    @Test
+    public void cachedSummaries_costNoFurtherReads() {
+        List<String> ids = new ArrayList<>();
+        ids.add("E1");
+        resolver.prefetch(ids);
+        answer("E1", event("E1", "Gala", "05-01-2026"));
+
+        // Rebinding while scrolling and re-opening the inbox
+        for (int i = 0; i < 50; i++) {
+            assertEquals("Gala", resolver.get("E1").getResult().getName());
+        }
+        assertTrue(resolver.prefetch(ids).isComplete());
+
+        assertEquals(Integer.valueOf(1), reads.get("E1"));
+    }
+
+    @Test
+    public void deletedEvent_resolvesToPlaceholder() {
+        Task<EventSummaryResolver.Summary> t = resolver.get("GONE");
+        answer("GONE", null);
+
+        assertTrue(t.isSuccessful());
+        assertEquals(EventSummaryResolver.MISSING_NAME, t.getResult().getName());
+        assertNull(t.getResult().getStartDate());
+
+        // Not cached: the next bind asks again
+        assertNull(resolver.peek("GONE"));
+        resolver.get("GONE");
+        assertEquals(Integer.valueOf(2), reads.get("GONE"));
+    }
+
+    @Test
+    public void invalidatedEvent_isDropped_andReadAgain() {
+        ArgumentCaptor<EventLookup.InvalidationListener> captor =
+                ArgumentCaptor.forClass(EventLookup.InvalidationListener.class);
+        verify(lookup).addInvalidationListener(captor.capture());
+
+        resolver.get("E1");
+        answer("E1", event("E1", "Gala", "05-01-2026"));
+        assertEquals("Gala", resolver.peek("E1").getName());
+
+        captor.getValue().onInvalidated("E1");
+
+        assertNull(resolver.peek("E1"));
+        resolver.get("E1");
+        answer("E1", event("E1", "Winter Gala", "05-01-2026"));
+        assertEquals("Winter Gala", resolver.peek("E1").getName());
+        assertEquals(Integer.valueOf(2), reads.get("E1"));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Completes every pending lookup of {@code id} successfully with {@code event}. */
+    @SuppressWarnings("unchecked")
+    private void answer(String id, Event event) {
+        Task<Event> done = mock(Task.class);
+        when(done.isSuccessful()).thenReturn(true);
+        when(done.getResult()).thenReturn(event);
+        List<OnCompleteListener<Event>> pending = waiting.remove(id);
+        if (pending == null) return;
+        for (OnCompleteListener<Event> l : pending) l.onComplete(done);
+    }
+
+    private static Event event(String id, String name, String startDate) {
+        Event e = mock(Event.class);
+        when(e.getId()).thenReturn(id);
+        when(e.getName()).thenReturn(name);
+        when(e.getEventStartDate()).thenReturn(startDate);
+        return e;
+    }
+}
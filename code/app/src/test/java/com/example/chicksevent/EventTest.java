@@ -6,6 +6,9 @@ import static org.mockito.Mockito.*;
 import com.example.chicksevent.misc.Event;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Organizer;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
@@ -16,6 +19,7 @@ import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Unit tests for {@link Event}.
@@ -30,7 +34,8 @@ import java.util.HashMap;
  * <h2>Key Behaviours Verified</h2>
  * <ul>
  *   <li>{@link Event#createEvent()} correctly pushes a new event and calls
- *       {@link FirebaseService#addEntry(HashMap, String)} with the expected key</li>
+ *       {@link FirebaseService#addEntry(HashMap, String, Map)} with the expected key</li>
+ *   <li>Tag index entries are written in the same update as the event they describe</li>
  *   <li>All getters and setters behave consistently and preserve state</li>
  *   <li>Graceful handling of {@code null} and optional fields in event creation</li>
  * </ul>
@@ -92,7 +97,7 @@ public class EventTest {
         // Prepare a mock FirebaseService and inject it into the private field
         FirebaseService mockService = mock(FirebaseService.class);
         when(mockService.getReference()).thenReturn(mockEventRef);
-        when(mockService.addEntry(any(HashMap.class), eq("E123"))).thenReturn("E123");
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
         setPrivate(e, "eventService", mockService);
 
         // Exercise
@@ -101,7 +106,7 @@ public class EventTest {
         // Verify behaviour and state
         verify(mockEventRef, times(1)).push();
         verify(mockService, times(1))
-                .addEntry(any(HashMap.class), eq("E123"));
+                .addEntry(any(HashMap.class), eq("E123"), anyMap());
         assertEquals("E123", e.getId());
         assertEquals("Test Event", e.getName());
         assertEquals("fun", e.getTag());
@@ -151,15 +156,78 @@ public class EventTest {
         when(mockService.getReference()).thenReturn(mockEventRef);
         when(mockEventRef.push()).thenReturn(mockPushedRef);
         when(mockPushedRef.getKey()).thenReturn("E999");
-        when(mockService.addEntry(any(HashMap.class), eq("E999"))).thenReturn("E999");
+        when(mockService.addEntry(any(HashMap.class), eq("E999"), anyMap())).thenReturn("E999");
         setPrivate(e, "eventService", mockService);
 
         e.createEvent();
 
-        verify(mockService, times(1)).addEntry(any(HashMap.class), eq("E999"));
+        verify(mockService, times(1)).addEntry(any(HashMap.class), eq("E999"), anyMap());
         assertEquals("E999", e.getId());
     }
 
+    @Test
+    public void createEvent_writesTagEntries_withTheEvent() throws Exception {
+        Event e = new Event(
+                "U1", null, "Tagged", "Desc", "10:00", "18:00",
+                "2025-01-01", "2025-01-02",
+                "2024-12-01", "2024-12-15",
+                50, "poster.png", "Sports, fun", false
+        );
+
+        FirebaseService mockService = mock(FirebaseService.class);
+        when(mockService.getReference()).thenReturn(mockEventRef);
+        when(mockService.addEntry(any(HashMap.class), eq("E123"), anyMap())).thenReturn("E123");
+        setPrivate(e, "eventService", mockService);
+
+        e.createEvent();
+
+        verify(mockService, times(1)).addEntry(any(HashMap.class), eq("E123"), argThat(index ->
+                index.size() == 2
+                        && Boolean.TRUE.equals(index.get("Tags/sports/E123"))
+                        && Boolean.TRUE.equals(index.get("Tags/fun/E123"))));
+        verify(mockService, never()).updateMultiPath(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void editEvent_readsStoredTags_andMovesEntriesWithTheEdit() throws Exception {
+        Event e = new Event(
+                "U1", "E5", "Tagged", "Desc", "10:00", "18:00",
+                "2025-01-01", "2025-01-02",
+                "2024-12-01", "2024-12-15",
+                50, "poster.png", "fun art", false
+        );
+
+        // The event currently stores "sports, fun"
+        DatabaseReference eventNode = mock(DatabaseReference.class);
+        DatabaseReference tagNode = mock(DatabaseReference.class);
+        Task<DataSnapshot> read = mock(Task.class);
+        DataSnapshot stored = mock(DataSnapshot.class);
+        when(mockEventRef.child("E5")).thenReturn(eventNode);
+        when(eventNode.child("tag")).thenReturn(tagNode);
+        when(tagNode.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(stored);
+        when(stored.getValue()).thenReturn("sports, fun");
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+
+        FirebaseService mockService = mock(FirebaseService.class);
+        when(mockService.getReference()).thenReturn(mockEventRef);
+        when(mockService.editEntry(eq("E5"), any(HashMap.class), anyMap())).thenReturn("E5");
+        setPrivate(e, "eventService", mockService);
+
+        e.editEvent("E5");
+
+        verify(mockService, times(1)).editEntry(eq("E5"), any(HashMap.class), argThat(index ->
+                index.size() == 2
+                        && index.containsKey("Tags/sports/E5") && index.get("Tags/sports/E5") == null
+                        && Boolean.TRUE.equals(index.get("Tags/art/E5"))));
+        verify(mockService, never()).updateMultiPath(any());
+    }
+
     // -------------------- helpers --------------------
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
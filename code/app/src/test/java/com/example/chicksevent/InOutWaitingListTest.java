@@ -8,15 +8,23 @@ import android.util.Log;
 import com.example.chicksevent.enums.EntrantStatus;
 import com.example.chicksevent.misc.Entrant;
 import com.example.chicksevent.misc.FirebaseService;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for US 01.05.02: As an entrant I want to be able to accept the invitation to
@@ -41,6 +49,7 @@ public class InOutWaitingListTest {
 
     private static final String EVENT_ID = "event-123";
     private static final String ENTRANT_ID = "entrant-456";
+    private static final String USER_EVENT_PATH = "UserEvents/" + ENTRANT_ID + "/" + EVENT_ID;
 
     private MockedStatic<FirebaseDatabase> firebaseDbStatic;
     private MockedStatic<Log> logStatic;
@@ -51,6 +60,9 @@ public class InOutWaitingListTest {
 
     private Entrant entrant;
 
+    /** Values left in this entrant's entry by membership transactions, in order. */
+    private final List<Object> entryWrites = new ArrayList<>();
+
     @Before
     public void setUp() throws Exception {
         // Block FirebaseApp init from FirebaseService constructor(s)
@@ -72,6 +84,7 @@ public class InOutWaitingListTest {
 
         // Create mock services
         mockWaitingSvc = mock(FirebaseService.class);
+        when(mockWaitingSvc.updateMultiPath(any())).thenReturn(Tasks.forResult(null));
         mockEntrantSvc = mock(FirebaseService.class);
         mockEventSvc = mock(FirebaseService.class);
 
@@ -79,12 +92,7 @@ public class InOutWaitingListTest {
         setPrivate(entrant, "waitingListService", mockWaitingSvc);
         setPrivate(entrant, "entrantService", mockEntrantSvc);
         setPrivate(entrant, "eventService", mockEventSvc);
-
-        // Make void methods safe
-        doNothing().when(mockWaitingSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
-        doNothing().when(mockWaitingSvc).deleteSubCollectionEntry(
-                anyString(), anyString(), anyString());
+        stubMembership(false);
     }
 
     @After
@@ -103,16 +111,16 @@ public class InOutWaitingListTest {
     public void entrant_canLeaveWaitingList() {
         // First join the waiting list so status = WAITING
         entrant.joinWaitingList();
+        stubMembership(true);
 
         // Act: leave waiting list
         entrant.leaveWaitingList();
 
-        // Firebase deletion should be called ONCE for WAITING/{entrantId}
-        verify(mockWaitingSvc, times(1)).deleteSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("WAITING"),
-                eq(ENTRANT_ID)
-        );
+        // The leave removes WAITING/{entrantId} in a transaction, then clears the UserEvents entry
+        assertNull(entryWrites.get(entryWrites.size() - 1));
+        Map<String, Object> updates = lastUpdate(2);
+        assertTrue(updates.containsKey(USER_EVENT_PATH));
+        assertNull(updates.get(USER_EVENT_PATH));
 
         // Entrant status should now be null (your implementation sets it null)
         assertNull("Status should be null after leaving the waiting list",
@@ -127,23 +135,19 @@ public class InOutWaitingListTest {
      */
     @Test
     public void entrant_canAcceptWaitingList() {
+        Map<String, Object> invitedEntry = stubInvitedEntry();
+
         // Act
         entrant.acceptWaitingList();   // default ACCEPTED
 
-        // 1. updateSubCollectionEntry should be called for ACCEPTED
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("ACCEPTED"),
-                eq(ENTRANT_ID),
-                any(HashMap.class)
-        );
-
-        // 2. delete from INVITED node
-        verify(mockWaitingSvc, times(1)).deleteSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("INVITED"),
-                eq(ENTRANT_ID)
-        );
+        // 1. the INVITED entry is claimed in a transaction, then one write adds ACCEPTED carrying it
+        assertNull(entryWrites.get(0));
+        Map<String, Object> updates = lastUpdate(1);
+        assertEquals(invitedEntry, updates.get(path("ACCEPTED")));
+        assertFalse(updates.containsKey(path("INVITED")));
+
+        // 2. the reverse index follows the move
+        assertEquals("ACCEPTED", updates.get(USER_EVENT_PATH));
 
         // 3. Entrant status is updated
         assertEquals(EntrantStatus.ACCEPTED, entrant.getStatus());
@@ -157,23 +161,19 @@ public class InOutWaitingListTest {
      */
     @Test
     public void entrant_canDeclineWaitingList() {
+        Map<String, Object> invitedEntry = stubInvitedEntry();
+
         // Act
         entrant.declineWaitingList();   // default DECLINED
 
-        // 1. updateSubCollectionEntry should be called for DECLINED
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("DECLINED"),
-                eq(ENTRANT_ID),
-                any(HashMap.class)
-        );
-
-        // 2. delete from INVITED node
-        verify(mockWaitingSvc, times(1)).deleteSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("INVITED"),
-                eq(ENTRANT_ID)
-        );
+        // 1. the INVITED entry is claimed in a transaction, then one write adds DECLINED carrying it
+        assertNull(entryWrites.get(0));
+        Map<String, Object> updates = lastUpdate(1);
+        assertEquals(invitedEntry, updates.get(path("DECLINED")));
+        assertFalse(updates.containsKey(path("INVITED")));
+
+        // 2. the reverse index follows the move
+        assertEquals("DECLINED", updates.get(USER_EVENT_PATH));
 
         // 3. Entrant status is updated
         assertEquals(EntrantStatus.DECLINED, entrant.getStatus());
@@ -196,17 +196,70 @@ public class InOutWaitingListTest {
         entrant.joinWaitingList(); // default -> WAITING
 
         // Assert: Firebase write happened
-        verify(mockWaitingSvc, times(1)).updateSubCollectionEntry(
-                eq(EVENT_ID),
-                eq("WAITING"),
-                eq(ENTRANT_ID),
-                any(HashMap.class)
-        );
+        assertNotNull(entryWrites.get(0));
+        Map<String, Object> updates = lastUpdate(1);
+        assertEquals("WAITING", updates.get(USER_EVENT_PATH));
 
         // Assert: Entrant status is now WAITING
         assertEquals(EntrantStatus.WAITING, entrant.getStatus());
     }
 
+    /** Verifies {@code count} multi-path updates were issued and returns the last one. */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lastUpdate(int count) {
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(mockWaitingSvc, times(count)).updateMultiPath(captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * Makes the INVITED entry hold a stored location when it is claimed.
+     *
+     * @return the stored entry
+     */
+    private Map<String, Object> stubInvitedEntry() {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(" ", "");
+        entry.put("latitude", 53.5461);
+        entry.put("longitude", -113.4938);
+        stubEntry(entry);
+        return entry;
+    }
+
+    private static String path(String status) {
+        return "WaitingList/" + EVENT_ID + "/" + status + "/" + ENTRANT_ID;
+    }
+
+    /**
+     * Makes every transaction on this entrant's own waiting-list entry run once and commit,
+     * starting from an entry that is {@code present} or absent.
+     */
+    private void stubMembership(boolean present) {
+        stubEntry(present ? Boolean.TRUE : null);
+    }
+
+    /**
+     * Makes every transaction on this entrant's own waiting-list entry run once and commit,
+     * starting from {@code value}. Values the transactions leave are recorded in
+     * {@link #entryWrites}.
+     */
+    private void stubEntry(Object value) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(mockWaitingSvc.getReference()).thenReturn(ref);
+        when(ref.child(anyString())).thenReturn(ref);
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            MutableData current = mock(MutableData.class);
+            when(current.getValue()).thenReturn(value);
+            doAnswer(set -> {
+                entryWrites.add(set.getArgument(0));
+                return null;
+            }).when(current).setValue(any());
+            handler.doTransaction(current);
+            handler.onComplete(null, true, null);
+            return null;
+        }).when(ref).runTransaction(any(Transaction.Handler.class));
+    }
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
         Field f = target.getClass().getDeclaredField(fieldName);
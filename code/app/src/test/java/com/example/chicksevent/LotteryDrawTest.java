@@ -0,0 +1,120 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.chicksevent.misc.LotteryDraw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link LotteryDraw}.
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Every entrant is drawn with the same probability</li>
+ *   <li>Small pools are drawn entirely; {@code k = 0} draws nobody</li>
+ *   <li>The pool is iterated exactly once</li>
+ *   <li>Drawing and the original copy-and-shuffle route the same number of entrants (time and
+ *       allocation at up to 1M entrants are measured in {@link Benchmarks})</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class LotteryDrawTest {
+
+    @Test
+    public void everyEntrant_hasTheSameChance() {
+        List<String> pool = ids(20);
+        LotteryDraw draw = new LotteryDraw(new Random(1));
+        int trials = 50_000;
+        int k = 3;
+
+        int[] wins = new int[pool.size()];
+        for (int t = 0; t < trials; t++) {
+            Set<String> winners = draw.pick(pool, k);
+            assertEquals(k, winners.size());
+            for (String id : winners) wins[Integer.parseInt(id.substring(1))]++;
+        }
+
+        double expected = (double) trials * k / pool.size();
+        for (int w : wins) {
+            assertTrue("win count " + w + " too far from " + expected, Math.abs(w - expected) < expected * 0.05);
+        }
+    }
+
+    @Test
+    public void smallPool_isDrawnEntirely_andZeroDrawsNobody() {
+        List<String> pool = ids(5);
+        LotteryDraw draw = new LotteryDraw(new Random(2));
+
+        assertEquals(new HashSet<>(pool), draw.pick(pool, 5));
+        assertEquals(new HashSet<>(pool), draw.pick(pool, 50));
+        assertTrue(draw.pick(pool, 0).isEmpty());
+        assertTrue(draw.pick(Collections.emptyList(), 3).isEmpty());
+    }
+
+    @Test
+    public void pool_isIteratedOnce() {
+        List<String> pool = ids(1_000);
+        int[] iterators = { 0 };
+        Iterable<String> once = () -> {
+            iterators[0]++;
+            return pool.iterator();
+        };
+
+        Set<String> winners = new LotteryDraw(new Random(3)).pick(once, 10);
+
+        assertEquals(1, iterators[0]);
+        assertEquals(10, winners.size());
+        assertTrue(pool.containsAll(winners));
+    }
+
+    /**
+     * Both approaches route every entrant to invited or uninvited, as the lottery does; they
+     * must agree on how many are left uninvited.
+     */
+    @Test
+    public void draw_andShuffle_routeTheSameCounts() {
+        List<String> pool = ids(10_000);
+
+        assertEquals(shuffleRoute(pool, 100, new Random(4)), drawRoute(pool, 100, new LotteryDraw(new Random(4))));
+        assertEquals(0, drawRoute(pool.subList(0, 50), 100, new LotteryDraw(new Random(5))));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** The original approach; returns the number of uninvited entrants. */
+    static int shuffleRoute(List<String> pool, int k, Random random) {
+        List<String> waiting = new ArrayList<>(pool);
+        Collections.shuffle(waiting, random);
+        int invited = Math.min(k, waiting.size());
+        int uninvited = 0;
+        for (String ignored : waiting.subList(invited, waiting.size())) uninvited++;
+        return uninvited;
+    }
+
+    /** The streaming approach; returns the number of uninvited entrants. */
+    static int drawRoute(List<String> pool, int k, LotteryDraw draw) {
+        Set<String> invited = draw.pick(pool, k);
+        int uninvited = 0;
+        for (Iterator<String> it = pool.iterator(); it.hasNext(); ) {
+            if (!invited.contains(it.next())) uninvited++;
+        }
+        return uninvited;
+    }
+
+    private static List<String> ids(int n) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add("u" + i);
+        return ids;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.LotteryRunLedger;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link LotteryRunLedger}.
+ *
+ * <p>
+ * The claim logic runs against mocked {@link MutableData}; {@code runTransaction} is answered
+ * synchronously, the way the server would after retrying the handler on the latest data.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>An empty or idle ledger hands out the next sequential run with its seed</li>
+ *   <li>A live run blocks every further claim, so concurrent triggers draw once</li>
+ *   <li>A run whose lease expired is marked abandoned and no longer blocks</li>
+ *   <li>Leases are stamped and measured on the server's clock, and renewed per chunk</li>
+ *   <li>Finishing records the outcome; a recorded seed replays the same winners</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class LotteryRunLedgerTest {
+
+    private static final String EVENT_ID = "evt-1";
+    private static final long NOW = 1_700_000_000_000L;
+
+    private FirebaseService runService;
+    private DatabaseReference eventRuns;
+
+    /** Value reported by {@code .info/serverTimeOffset}. */
+    private long serverTimeOffset = 0L;
+
+    @Before
+    public void setUp() {
+        runService = mock(FirebaseService.class);
+        DatabaseReference root = mock(DatabaseReference.class);
+        DatabaseReference offsetRef = mock(DatabaseReference.class);
+        eventRuns = mock(DatabaseReference.class);
+        when(runService.getReference()).thenReturn(root);
+        when(root.getRoot()).thenReturn(root);
+        when(root.child(".info/serverTimeOffset")).thenReturn(offsetRef);
+        when(root.child(EVENT_ID)).thenReturn(eventRuns);
+        doAnswer(inv -> {
+            DataSnapshot offset = mock(DataSnapshot.class);
+            when(offset.getValue(Long.class)).thenReturn(serverTimeOffset);
+            ((ValueEventListener) inv.getArgument(0)).onDataChange(offset);
+            return null;
+        }).when(offsetRef).addListenerForSingleValueEvent(any(ValueEventListener.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void emptyLedger_claimsFirstRun_withSeed() {
+        Ledger ledger = new Ledger();
+
+        String runId = LotteryRunLedger.claimIn(ledger.data, 42L, NOW);
+
+        assertEquals("run-0001", runId);
+        ArgumentCaptor<Object> entry = ArgumentCaptor.forClass(Object.class);
+        verify(ledger.child("run-0001").data).setValue(entry.capture());
+        Map<String, Object> written = (Map<String, Object>) entry.getValue();
+        assertEquals(LotteryRunLedger.RUNNING, written.get("state"));
+        assertEquals(42L, written.get("seed"));
+        assertEquals(ServerValue.TIMESTAMP, written.get("startedAt"));
+    }
+
+    @Test
+    public void liveRun_blocksFurtherClaims() {
+        Ledger ledger = new Ledger();
+        ledger.run("run-0001", LotteryRunLedger.DONE, NOW - 60_000);
+        ledger.run("run-0002", LotteryRunLedger.RUNNING, NOW - 1_000);
+
+        assertNull(LotteryRunLedger.claimIn(ledger.data, 7L, NOW));
+        verify(ledger.child("run-0003").data, never()).setValue(any());
+    }
+
+    @Test
+    public void expiredRun_isAbandoned_andNextRunClaimed() {
+        Ledger ledger = new Ledger();
+        Ledger.Node stale = ledger.run("run-0001", LotteryRunLedger.RUNNING, NOW - LotteryRunLedger.LEASE_MS);
+
+        assertEquals("run-0002", LotteryRunLedger.claimIn(ledger.data, 7L, NOW));
+        verify(stale.state).setValue(LotteryRunLedger.ABANDONED);
+    }
+
+    @Test
+    public void renewedRun_keepsItsLease() {
+        Ledger ledger = new Ledger();
+        Ledger.Node running = ledger.run("run-0001", LotteryRunLedger.RUNNING, NOW - LotteryRunLedger.LEASE_MS);
+        running.renewedAtValue = NOW - 1_000;
+
+        assertNull(LotteryRunLedger.claimIn(ledger.data, 7L, NOW));
+        verify(running.state, never()).setValue(any());
+    }
+
+    @Test
+    public void claim_measuresLeaseOnServerClock() {
+        // The device runs an hour ahead of the server; the live run started a second ago
+        serverTimeOffset = -60 * 60 * 1000L;
+        Ledger ledger = new Ledger();
+        ledger.run("run-0001", LotteryRunLedger.RUNNING,
+                System.currentTimeMillis() + serverTimeOffset - 1_000);
+        answerTransactions(ledger);
+
+        Task<LotteryRunLedger.Run> claim = new LotteryRunLedger(runService, EVENT_ID, new Random(1)).claim();
+
+        assertTrue(claim.isSuccessful());
+        assertNull(claim.getResult());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void renew_stampsServerTime() {
+        LotteryRunLedger ledger = new LotteryRunLedger(runService, EVENT_ID, new Random(3));
+        answerTransactions(new Ledger());
+        LotteryRunLedger.Run run = ledger.claim().getResult();
+
+        ledger.renew(run);
+
+        ArgumentCaptor<Map<String, Object>> lease = ArgumentCaptor.forClass((Class) Map.class);
+        verify(runService).updateEntry(eq(EVENT_ID + "/run-0001"), lease.capture());
+        assertEquals(ServerValue.TIMESTAMP, lease.getValue().get("renewedAt"));
+    }
+
+    @Test
+    public void concurrentClaims_produceOneRun() {
+        // The server applies transactions one after another; the second sees the first's entry
+        Ledger ledger = new Ledger();
+        answerTransactions(ledger);
+        LotteryRunLedger a = new LotteryRunLedger(runService, EVENT_ID, new Random(1));
+        LotteryRunLedger b = new LotteryRunLedger(runService, EVENT_ID, new Random(2));
+
+        Task<LotteryRunLedger.Run> first = a.claim();
+        Task<LotteryRunLedger.Run> second = b.claim();
+
+        assertTrue(first.isSuccessful());
+        assertTrue(second.isSuccessful());
+        assertEquals("run-0001", first.getResult().runId);
+        assertEquals(new Random(1).nextLong(), first.getResult().seed);
+        assertNull(second.getResult());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void finish_recordsOutcome_andSeedReplaysDraw() {
+        LotteryRunLedger ledger = new LotteryRunLedger(runService, EVENT_ID, new Random(3));
+        answerTransactions(new Ledger());
+        LotteryRunLedger.Run run = ledger.claim().getResult();
+
+        ledger.finish(run, "DRAW", 2, 5, null);
+
+        ArgumentCaptor<Map<String, Object>> outcome = ArgumentCaptor.forClass((Class) Map.class);
+        verify(runService).updateEntry(eq(EVENT_ID + "/run-0001"), outcome.capture());
+        assertEquals(LotteryRunLedger.DONE, outcome.getValue().get("state"));
+        assertEquals("DRAW", outcome.getValue().get("kind"));
+        assertEquals(2, outcome.getValue().get("drawSize"));
+        assertEquals(5, outcome.getValue().get("poolSize"));
+
+        List<String> pool = Arrays.asList("u1", "u2", "u3", "u4", "u5");
+        assertEquals(run.draw().pick(pool, 2), LotteryRunLedger.replay(run.seed, pool, 2));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Answers {@code runTransaction} by running the handler once against {@code ledger}. */
+    private void answerTransactions(Ledger ledger) {
+        doAnswer(inv -> {
+            Transaction.Handler handler = inv.getArgument(0);
+            Transaction.Result result = handler.doTransaction(ledger.data);
+            handler.onComplete(null, result.isSuccess(), null);
+            return null;
+        }).when(eventRuns).runTransaction(any(Transaction.Handler.class));
+    }
+
+    /**
+     * In-memory stand-in for {@code LotteryRuns/{eventId}}. Entries written through
+     * {@code setValue} become visible to later claims.
+     */
+    private static final class Ledger {
+
+        /** A mocked run entry. */
+        static final class Node {
+            final MutableData data = mock(MutableData.class);
+            final MutableData state = mock(MutableData.class);
+            final MutableData startedAt = mock(MutableData.class);
+            final MutableData renewedAt = mock(MutableData.class);
+            String stateValue;
+            Long startedAtValue;
+            Long renewedAtValue;
+
+            Node() {
+                when(data.child("state")).thenReturn(state);
+                when(data.child("startedAt")).thenReturn(startedAt);
+                when(data.child("renewedAt")).thenReturn(renewedAt);
+                when(state.getValue(String.class)).thenAnswer(i -> stateValue);
+                when(startedAt.getValue(Long.class)).thenAnswer(i -> startedAtValue);
+                when(renewedAt.getValue(Long.class)).thenAnswer(i -> renewedAtValue);
+            }
+        }
+
+        final MutableData data = mock(MutableData.class);
+        final Map<String, Node> nodes = new HashMap<>();
+        final List<MutableData> runs = new ArrayList<>();
+
+        Ledger() {
+            when(data.getChildren()).thenAnswer(i -> new ArrayList<>(runs));
+            when(data.child(anyString())).thenAnswer(i -> child(i.getArgument(0)).data);
+        }
+
+        @SuppressWarnings("unchecked")
+        Node child(String runId) {
+            Node node = nodes.get(runId);
+            if (node != null) return node;
+
+            Node created = new Node();
+            nodes.put(runId, created);
+            doAnswer(i -> {
+                Map<String, Object> entry = (Map<String, Object>) i.getArgument(0);
+                created.stateValue = (String) entry.get("state");
+                // The server resolves the timestamp placeholder when the claim commits
+                Object startedAt = entry.get("startedAt");
+                created.startedAtValue = startedAt instanceof Long
+                        ? (Long) startedAt : System.currentTimeMillis();
+                runs.add(created.data);
+                return null;
+            }).when(created.data).setValue(anyMap());
+            return created;
+        }
+
+        Node run(String runId, String state, long startedAt) {
+            Node node = child(runId);
+            node.stateValue = state;
+            node.startedAtValue = startedAt;
+            runs.add(node.data);
+            return node;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventRepository;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.Lottery;
+import com.example.chicksevent.misc.LotteryRunLedger;
+import com.example.chicksevent.misc.LotteryScheduler;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link LotteryScheduler}.
+ *
+ * <p>
+ * The catalogue and ledger reads answer synchronously; each event's
+ * {@link Lottery#drawIfNotDrawn()} returns a task the test completes by hand, so the tests
+ * control how many draws are in flight at any moment.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Only events whose registration closed before today are swept</li>
+ *   <li>Events whose ledger already holds a finished run are skipped without drawing</li>
+ *   <li>No more than {@code maxConcurrent} draws run at once, and the queue drains as they end</li>
+ *   <li>Draws claimed elsewhere count as skipped; failures are reported per event</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class LotterySchedulerTest {
+
+    /** 2024-01-10 as days since 1970-01-01. */
+    private static final long TODAY = 19732L;
+
+    /** A mocked task whose outcome the test sets. */
+    private static final class Pending<T> {
+        @SuppressWarnings("unchecked")
+        final Task<T> task = mock(Task.class);
+        final List<OnCompleteListener<T>> listeners = new ArrayList<>();
+        boolean done;
+
+        @SuppressWarnings("unchecked")
+        Pending() {
+            doAnswer(inv -> {
+                OnCompleteListener<T> l = inv.getArgument(0);
+                if (done) l.onComplete(task);
+                else listeners.add(l);
+                return task;
+            }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        }
+
+        void succeed(T result) {
+            when(task.isSuccessful()).thenReturn(true);
+            when(task.getResult()).thenReturn(result);
+            complete();
+        }
+
+        void fail(Exception e) {
+            when(task.isSuccessful()).thenReturn(false);
+            when(task.getException()).thenReturn(e);
+            complete();
+        }
+
+        private void complete() {
+            when(task.isComplete()).thenReturn(true);
+            done = true;
+            for (OnCompleteListener<T> l : new ArrayList<>(listeners)) l.onComplete(task);
+            listeners.clear();
+        }
+    }
+
+    private EventRepository repository;
+    private DatabaseReference runs;
+    private final Map<String, Pending<Boolean>> draws = new HashMap<>();
+    private final List<String> started = new ArrayList<>();
+    private final List<String> finished = new ArrayList<>();
+    private LotteryScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        repository = mock(EventRepository.class);
+        FirebaseService runService = mock(FirebaseService.class);
+        runs = mock(DatabaseReference.class);
+        when(runService.getReference()).thenReturn(runs);
+        when(runs.child(anyString())).thenAnswer(inv -> ledger());
+
+        scheduler = new LotteryScheduler(repository, runService, eventId -> {
+            started.add(eventId);
+            Pending<Boolean> draw = new Pending<>();
+            draws.put(eventId, draw);
+            Lottery lottery = mock(Lottery.class);
+            when(lottery.drawIfNotDrawn()).thenReturn(draw.task);
+            return lottery;
+        }, 2);
+        scheduler.setListener((eventId, outcome, error) -> finished.add(eventId + ":" + outcome));
+    }
+
+    @Test
+    public void onlyClosedEvents_areSwept() {
+        catalogue(event("past", "01-09-2024"), event("today", "01-10-2024"),
+                event("future", "02-01-2024"), event("undated", null));
+
+        Task<LotteryScheduler.Report> sweep = scheduler.sweep(TODAY);
+
+        assertEquals(Collections.singletonList("past"), started);
+        draws.get("past").succeed(true);
+        assertTrue(sweep.isSuccessful());
+        assertEquals(1, sweep.getResult().candidates);
+        assertEquals(1, sweep.getResult().drawn);
+    }
+
+    @Test
+    public void finishedLedger_isSkipped_withoutDrawing() {
+        catalogue(event("drawn", "01-01-2024"), event("fresh", "01-01-2024"));
+        DatabaseReference drawnRuns = ledgerWith(LotteryRunLedger.FAILED, LotteryRunLedger.DONE);
+        when(runs.child("drawn")).thenReturn(drawnRuns);
+
+        Task<LotteryScheduler.Report> sweep = scheduler.sweep(TODAY);
+
+        assertEquals(Collections.singletonList("fresh"), started);
+        draws.get("fresh").succeed(true);
+        assertEquals(Arrays.asList("drawn:SKIPPED", "fresh:DRAWN"), finished);
+        assertEquals(1, sweep.getResult().skipped);
+        assertEquals(1, sweep.getResult().drawn);
+    }
+
+    @Test
+    public void draws_areBoundedByMaxConcurrent() {
+        catalogue(event("e1", "01-01-2024"), event("e2", "01-01-2024"), event("e3", "01-01-2024"),
+                event("e4", "01-01-2024"), event("e5", "01-01-2024"));
+
+        Task<LotteryScheduler.Report> sweep = scheduler.sweep(TODAY);
+
+        assertEquals(Arrays.asList("e1", "e2"), started);
+        draws.get("e2").succeed(true);
+        assertEquals(Arrays.asList("e1", "e2", "e3"), started);
+        draws.get("e1").succeed(true);
+        draws.get("e3").succeed(true);
+        assertEquals(5, started.size());
+        assertFalse(sweep.isComplete());
+
+        draws.get("e4").succeed(true);
+        draws.get("e5").succeed(true);
+        assertTrue(sweep.isSuccessful());
+        assertEquals(5, sweep.getResult().drawn);
+    }
+
+    @Test
+    public void claimedElsewhere_isSkipped_andFailuresAreReported() {
+        catalogue(event("busy", "01-01-2024"), event("broken", "01-01-2024"));
+        Exception error = new Exception("write too large");
+
+        Task<LotteryScheduler.Report> sweep = scheduler.sweep(TODAY);
+        draws.get("busy").succeed(false);
+        draws.get("broken").fail(error);
+
+        LotteryScheduler.Report report = sweep.getResult();
+        assertEquals(0, report.drawn);
+        assertEquals(1, report.skipped);
+        assertSame(error, report.failures.get("broken"));
+        assertEquals(Arrays.asList("busy:SKIPPED", "broken:FAILED"), finished);
+    }
+
+    @Test
+    public void failedCatalogueRead_failsSweep() {
+        Pending<List<Event>> read = new Pending<>();
+        when(repository.getEvents()).thenReturn(read.task);
+        read.fail(new Exception("offline"));
+
+        Task<LotteryScheduler.Report> sweep = scheduler.sweep(TODAY);
+
+        assertTrue(sweep.isComplete());
+        assertFalse(sweep.isSuccessful());
+        assertTrue(started.isEmpty());
+    }
+
+    // -------------------- helpers --------------------
+
+    private void catalogue(Event... events) {
+        Pending<List<Event>> read = new Pending<>();
+        read.succeed(Arrays.asList(events));
+        when(repository.getEvents()).thenReturn(read.task);
+    }
+
+    private static Event event(String id, String registrationEndDate) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.getRegistrationEndDate()).thenReturn(registrationEndDate);
+        return event;
+    }
+
+    /** @return a ledger reference whose read yields no runs */
+    private static DatabaseReference ledger() {
+        return ledgerWith();
+    }
+
+    /** @return a ledger reference whose read yields runs in the given states */
+    private static DatabaseReference ledgerWith(String... states) {
+        List<DataSnapshot> entries = new ArrayList<>();
+        for (String state : states) {
+            DataSnapshot run = mock(DataSnapshot.class);
+            DataSnapshot stateSnap = mock(DataSnapshot.class);
+            when(run.child("state")).thenReturn(stateSnap);
+            when(stateSnap.getValue(String.class)).thenReturn(state);
+            entries.add(run);
+        }
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getChildren()).thenAnswer(i -> entries);
+
+        Pending<DataSnapshot> read = new Pending<>();
+        read.succeed(snap);
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(ref.get()).thenReturn(read.task);
+        return ref;
+    }
+}
@@ -5,10 +5,12 @@ import static org.mockito.Mockito.*;
 
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Lottery;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.ServerValue;
 
 import org.junit.After;
 import org.junit.Before;
@@ -18,6 +20,7 @@ import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -34,9 +37,10 @@ import java.util.Map;
  *
  * <h2>Key Behaviours Verified</h2>
  * <ul>
- *   <li>Correct listener attachment and event handling on {@code entrantLimit} and {@code WAITING} nodes</li>
+ *   <li>{@code entrantLimit} and {@code WAITING} are read with {@code get()}, past the persistence cache</li>
  *   <li>No writes occur when no waiting entrants exist</li>
  *   <li>Atomic update payload correctly includes {@code INVITED} entries and deletions from {@code WAITING}</li>
+ *   <li>The same update carries the {@code UserEvents} index entries and {@code Counters} increments</li>
  *   <li>Ensures that no {@code UNINVITED} nodes are created when all entrants fit within the limit</li>
  * </ul>
  *
@@ -44,7 +48,7 @@ import java.util.Map;
  * <ul>
  *   <li>Mocks Firebase structure under {@code /Event} and {@code /WaitingList}</li>
  *   <li>Injects {@link FirebaseService} instances using reflection to isolate test behaviour</li>
- *   <li>Triggers {@link ValueEventListener#onDataChange(DataSnapshot)} manually to simulate database reads</li>
+ *   <li>Answers each {@code get()} with a mocked task that completes as its listener is attached</li>
  *   <li>Uses {@link ArgumentCaptor} to validate the correctness of atomic update payloads</li>
  * </ul>
  *
@@ -66,6 +70,7 @@ public class LotteryTest {
 
     // RTDB references used by FirebaseService("WaitingList") and ("Event")
     private DatabaseReference waitingRoot;     // /WaitingList
+    private DatabaseReference dbRoot;          // / (multi-path updates are root-relative)
     private DatabaseReference eventRoot;       // /Event
 
     // Chained refs for paths
@@ -89,6 +94,7 @@ public class LotteryTest {
         mockDb = mock(FirebaseDatabase.class);
 
         waitingRoot      = mock(DatabaseReference.class);
+        dbRoot           = mock(DatabaseReference.class);
         eventRoot        = mock(DatabaseReference.class);
         eventNode        = mock(DatabaseReference.class);
         entrantLimitRef  = mock(DatabaseReference.class);
@@ -120,6 +126,7 @@ public class LotteryTest {
 
         when(waitingRoot.child(EVENT_ID)).thenReturn(waitingEventRef);
         when(waitingEventRef.child("WAITING")).thenReturn(waitingStatusRef);
+        when(waitingRoot.getRoot()).thenReturn(dbRoot);
     }
 
     @After
@@ -141,24 +148,17 @@ public class LotteryTest {
         when(waitSnap.exists()).thenReturn(false);
         when(waitSnap.getChildren()).thenAnswer(i -> iterable());
 
-        // Fire both listeners immediately
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(limitSnap);
-            return null;
-        }).when(entrantLimitRef).addListenerForSingleValueEvent(any(ValueEventListener.class));
-
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(waitSnap);
-            return null;
-        }).when(waitingStatusRef).addListenerForSingleValueEvent(any(ValueEventListener.class));
+        // Both reads answer immediately
+        Task<DataSnapshot> limitRead = done(limitSnap);
+        Task<DataSnapshot> waitRead = done(waitSnap);
+        when(entrantLimitRef.get()).thenReturn(limitRead);
+        when(waitingStatusRef.get()).thenReturn(waitRead);
 
         // Run
         lottery.runLottery();
 
         // Because updates would be empty, no atomic update should be attempted
-        verify(waitingRoot, never()).updateChildren(anyMap(), any());
+        verify(dbRoot, never()).updateChildren(anyMap(), any());
     }
 
     @Test
@@ -178,27 +178,28 @@ public class LotteryTest {
         when(u2.getKey()).thenReturn("u2");
         when(waitSnap.getChildren()).thenAnswer(i -> iterable(u1, u2));
 
-        // Fire both listeners immediately
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(limitSnap);
-            return null;
-        }).when(entrantLimitRef).addListenerForSingleValueEvent(any(ValueEventListener.class));
+        // u1 joined with a location; u2 has a legacy boolean entry
+        Map<String, Object> u1Entry = new HashMap<>();
+        u1Entry.put(" ", "");
+        u1Entry.put("latitude", 53.5461);
+        u1Entry.put("longitude", -113.4938);
+        when(u1.getValue()).thenReturn(u1Entry);
+        when(u2.getValue()).thenReturn(Boolean.TRUE);
 
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(waitSnap);
-            return null;
-        }).when(waitingStatusRef).addListenerForSingleValueEvent(any(ValueEventListener.class));
+        // Both reads answer immediately
+        Task<DataSnapshot> limitRead = done(limitSnap);
+        Task<DataSnapshot> waitRead = done(waitSnap);
+        when(entrantLimitRef.get()).thenReturn(limitRead);
+        when(waitingStatusRef.get()).thenReturn(waitRead);
 
         // Make updateChildren invoke completion (as success)
         doAnswer(inv -> {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = inv.getArgument(0);
             DatabaseReference.CompletionListener cl = inv.getArgument(1);
-            cl.onComplete(null, waitingRoot);
+            cl.onComplete(null, dbRoot);
             return null;
-        }).when(waitingRoot).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
+        }).when(dbRoot).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
 
         // Capture payload
         @SuppressWarnings("unchecked")
@@ -208,32 +209,56 @@ public class LotteryTest {
         // Run
         lottery.runLottery();
 
-        verify(waitingRoot, times(1))
+        verify(dbRoot, times(1))
                 .updateChildren(mapCap.capture(), any(DatabaseReference.CompletionListener.class));
 
         Map<String, Object> updates = mapCap.getValue();
 
-        // Expect invited entries and deletions from WAITING; no UNINVITED keys
-        assertEquals(Boolean.TRUE, updates.get(EVENT_ID + "/INVITED/u1"));
-        assertEquals(Boolean.TRUE, updates.get(EVENT_ID + "/INVITED/u2"));
-        assertTrue(updates.containsKey(EVENT_ID + "/WAITING/u1"));
-        assertTrue(updates.containsKey(EVENT_ID + "/WAITING/u2"));
-        assertNull(updates.get(EVENT_ID + "/WAITING/u1")); // deletion is null
-        assertNull(updates.get(EVENT_ID + "/WAITING/u2"));
+        // Expect invited entries (payloads carried over) and deletions from WAITING; no UNINVITED keys
+        assertEquals(u1Entry, updates.get(wl("INVITED/u1")));
+        assertEquals(Boolean.TRUE, updates.get(wl("INVITED/u2")));
+        assertTrue(updates.containsKey(wl("WAITING/u1")));
+        assertTrue(updates.containsKey(wl("WAITING/u2")));
+        assertNull(updates.get(wl("WAITING/u1"))); // deletion is null
+        assertNull(updates.get(wl("WAITING/u2")));
 
         // No UNINVITED keys should be present
-        assertFalse(updates.containsKey(EVENT_ID + "/UNINVITED/u1"));
-        assertFalse(updates.containsKey(EVENT_ID + "/UNINVITED/u2"));
+        assertFalse(updates.containsKey(wl("UNINVITED/u1")));
+        assertFalse(updates.containsKey(wl("UNINVITED/u2")));
+
+        // Reverse index and counters travel in the same atomic update
+        assertEquals("INVITED", updates.get("UserEvents/u1/" + EVENT_ID));
+        assertEquals("INVITED", updates.get("UserEvents/u2/" + EVENT_ID));
+        assertEquals(ServerValue.increment(-2), updates.get("Counters/" + EVENT_ID + "/WAITING"));
+        assertEquals(ServerValue.increment(2), updates.get("Counters/" + EVENT_ID + "/INVITED"));
+        assertFalse(updates.containsKey("Counters/" + EVENT_ID + "/UNINVITED"));
     }
 
     // -------------------- helpers --------------------
 
+    private static String wl(String rest) {
+        return "WaitingList/" + EVENT_ID + "/" + rest;
+    }
+
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
         Field f = target.getClass().getDeclaredField(fieldName);
         f.setAccessible(true);
         f.set(target, value);
     }
 
+    /** A mocked successful read that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static Task<DataSnapshot> done(DataSnapshot result) {
+        Task<DataSnapshot> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        doAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
     private static Iterable<DataSnapshot> iterable(DataSnapshot... snaps) {
         List<DataSnapshot> list = Arrays.asList(snaps);
         return new Iterable<DataSnapshot>() {
@@ -1,170 +1,124 @@
 package com.example.chicksevent;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyString;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import android.content.Context;
-import android.util.Log;
-import android.widget.ListView;
-
+import com.example.chicksevent.adapter.NotificationAdapter;
 import com.example.chicksevent.fragment_admin.NotificationAdminFragment;
-import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.EventSummaryResolver;
 import com.example.chicksevent.misc.Notification;
-import com.google.android.gms.tasks.Continuation;
+import com.example.chicksevent.misc.NotificationLog;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
-import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Unit tests for {@link NotificationAdminFragment} notification log functionality.
  *
  * <h2>User stories handled</h2>
  *   <p>US 03.08.01: As an administrator, I want to review logs of all notifications sent to entrants by organizers.</p>
- * These tests validate that the fragment correctly retrieves and displays notification logs from Firebase,
- * ensuring that:
+ * These tests validate that the fragment pages through the {@link NotificationLog}, ensuring that:
  * <ul>
- *     <li>The adapter is properly set up with the retrieved {@link com.example.chicksevent.misc.Notification} objects.</li>
- *     <li>Data from mocked Firebase snapshots is correctly transformed into Notification objects with the correct type and message.</li>
- *     <li>Fragment handles the Firebase database reference chain correctly without requiring real Firebase initialization.</li>
+ *     <li>Showing a log clears the list and appends its first page to the adapter.</li>
+ *     <li>A page that arrives after the filter changed is dropped.</li>
+ *     <li>An exhausted log is not read again.</li>
  * </ul>
  *
  * <p>
- * All Firebase interactions are mocked to allow isolated unit testing without network dependencies.
+ * The log, adapter and event summaries are mocked, so no Firebase or Android view is involved.
  * </p>
  */
 
 public class NotificationAdminFragmentTest {
 
+    /** A mocked page load whose success listener the test fires. */
+    private static final class Load {
+        @SuppressWarnings("unchecked")
+        final Task<List<Notification>> task = mock(Task.class);
+        OnSuccessListener<List<Notification>> listener;
+
+        @SuppressWarnings("unchecked")
+        Load() {
+            doAnswer(inv -> {
+                listener = inv.getArgument(0);
+                return task;
+            }).when(task).addOnSuccessListener(any(OnSuccessListener.class));
+            when(task.addOnFailureListener(any(OnFailureListener.class))).thenReturn(task);
+        }
+    }
+
     private NotificationAdminFragment fragment;
-    private FirebaseService mockService;
-    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
-    private MockedStatic<Log> logStatic;
+    private NotificationAdapter adapter;
+    private EventSummaryResolver summaries;
 
     @Before
     public void setUp() throws Exception {
-        // Mock FirebaseDatabase.getInstance()
-        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
-        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
-        firebaseDbStatic.when(() -> FirebaseDatabase.getInstance(anyString()))
-                .thenReturn(mockDb);
-
-        DatabaseReference mockRef = mock(DatabaseReference.class);
-        when(mockDb.getReference(anyString())).thenReturn(mockRef);
-        when(mockRef.child(anyString())).thenReturn(mockRef);
-
-        // Mock android.util.Log
-        logStatic = mockStatic(Log.class);
-        when(Log.i(anyString(), anyString())).thenReturn(0);
-        when(Log.e(anyString(), anyString())).thenReturn(0);
-
-        // Construct fragment
         fragment = new NotificationAdminFragment();
-
-        // Inject mocked FirebaseService
-        mockService = mock(FirebaseService.class);
-        setPrivate(fragment, "notificationService", mockService);
-
-        // Inject ListView mock
-        setPrivate(fragment, "notificationView", mock(ListView.class));
-    }
-
-    @After
-    public void tearDown() {
-        if (firebaseDbStatic != null) firebaseDbStatic.close();
-        if (logStatic != null) logStatic.close();
+        adapter = mock(NotificationAdapter.class);
+        summaries = mock(EventSummaryResolver.class);
+        setPrivate(fragment, "adapter", adapter);
+        setPrivate(fragment, "summaries", summaries);
     }
 
     @Test
-    public void listNotifications_populatesAdapter_whenSnapshotsReturned() throws Exception {
-
-        // Spy fragment to mock getContext()
-        NotificationAdminFragment spyFragment = spy(fragment);
-        doReturn(mock(Context.class)).when(spyFragment).getContext();
-
-        // Prepare DataSnapshots for two notifications
-        DataSnapshot rootSnap = mock(DataSnapshot.class);
-        DataSnapshot eventSnap = mock(DataSnapshot.class);
-        DataSnapshot n1 = mock(DataSnapshot.class);
-        DataSnapshot n2 = mock(DataSnapshot.class);
-
-        // event-1 and event-2 are children of eventSnapshot
-        when(eventSnap.getChildren()).thenReturn(Arrays.asList(n1, n2));
-
-        // The root contains 1 event snapshot
-        when(rootSnap.getChildren()).thenReturn(Arrays.asList(eventSnap));
-
-        when(n1.getKey()).thenReturn("event-1");
-        when(n2.getKey()).thenReturn("event-2");
-
-        // Fake data structure for both notifications
-        HashMap<String, HashMap<String, String>> waitingValue = new HashMap<>();
-        HashMap<String, String> message = new HashMap<>();
-        message.put("message", "Hello world");
-        waitingValue.put("WAITING", message);
+    public void showLog_clearsList_andAppendsFirstPage() {
+        Load load = new Load();
+        NotificationLog log = log(load);
+        List<Notification> page = Collections.singletonList(mock(Notification.class));
 
-        when(n1.getValue()).thenReturn(waitingValue);
-        when(n2.getValue()).thenReturn(waitingValue);
+        fragment.showLog(log);
+        load.listener.onSuccess(page);
 
-        // --- Mock DatabaseReference ---
-        DatabaseReference mockRef = mock(DatabaseReference.class);
-        when(mockService.getReference()).thenReturn(mockRef);
-
-        // --- Mock Task<DataSnapshot> for get() ---
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(mockRef.get()).thenReturn(mockGetTask);
-        when(mockGetTask.getResult()).thenReturn(rootSnap);
-
-        // --- Mock continueWith() ---
-        Task<ArrayList<Notification>> mockReturnTask = mock(Task.class);
-
-        when(mockGetTask.continueWith(any())).thenAnswer(invocation -> {
-            Continuation<DataSnapshot, ArrayList<Notification>> cont = invocation.getArgument(0);
-
-            ArrayList<Notification> resultList = cont.then(mockGetTask);
-            when(mockReturnTask.getResult()).thenReturn(resultList);
+        verify(adapter).clear();
+        verify(summaries).prefetchFor(page);
+        verify(adapter).addAll(page);
+    }
 
-            return mockReturnTask;
-        });
+    @Test
+    public void pageOfReplacedLog_isDropped() {
+        Load stale = new Load();
+        Load current = new Load();
+        NotificationLog byType = log(stale);
+        NotificationLog all = log(current);
+        List<Notification> page = Collections.singletonList(mock(Notification.class));
+
+        fragment.showLog(byType);
+        fragment.showLog(all);
+        stale.listener.onSuccess(page);
+
+        verify(adapter, never()).addAll(page);
+    }
 
-        // Call the method normally (no reflection)
-        Task<ArrayList<Notification>> resultTask = spyFragment.getNotificationList();
+    @Test
+    public void exhaustedLog_isNotReadAgain() {
+        NotificationLog log = mock(NotificationLog.class);
+        when(log.hasNext()).thenReturn(false);
 
-        // Now simply assert the returned value
-        ArrayList<Notification> list = resultTask.getResult();
+        fragment.showLog(log);
+        fragment.loadNextPage();
 
-        assertNotNull(list);
-        assertEquals(2, list.size());
-        assertEquals("event-1", list.get(0).getEventId());
-        assertEquals("event-2", list.get(1).getEventId());
+        verify(log, never()).loadNext();
     }
 
     // ---------------------- helpers ----------------------
-    private static Iterable<DataSnapshot> iterable(DataSnapshot... snaps) {
-        return new Iterable<DataSnapshot>() {
-            @Override
-            public Iterator<DataSnapshot> iterator() {
-                return Arrays.asList(snaps).iterator();
-            }
-        };
+
+    /** A log with more pages whose next load is {@code load}. */
+    private static NotificationLog log(Load load) {
+        NotificationLog log = mock(NotificationLog.class);
+        when(log.hasNext()).thenReturn(true);
+        when(log.loadNext()).thenReturn(load.task);
+        return log;
     }
 
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
@@ -172,10 +126,4 @@ public class NotificationAdminFragmentTest {
         f.setAccessible(true);
         f.set(target, value);
     }
-
-    private static Object getPrivate(Object target, String fieldName) throws Exception {
-        Field f = target.getClass().getDeclaredField(fieldName);
-        f.setAccessible(true);
-        return f.get(target);
-    }
 }
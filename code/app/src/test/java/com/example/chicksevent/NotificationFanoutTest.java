@@ -0,0 +1,215 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.NotificationFanout;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseException;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link NotificationFanout}.
+ *
+ * <p>
+ * Every {@code updateChildren} call is recorded and answered by the test, so the tests see
+ * exactly how a broadcast is split and control which chunks succeed.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Recipients get an inbox entry under one shared push key and an unread increment,
+ *       in chunks of the configured size, one chunk in flight at a time</li>
+ *   <li>The broadcast is logged once, after the chunks, with the delivered count</li>
+ *   <li>A 5,000-recipient broadcast takes ten delivery writes at the default chunk size</li>
+ *   <li>A failed chunk is retried with doubling backoff</li>
+ *   <li>A chunk that runs out of attempts is skipped and excluded from the delivered count</li>
+ *   <li>An empty broadcast writes nothing</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class NotificationFanoutTest {
+
+    private static final String EVENT_ID = "evt-1";
+    private static final String MSG = "Doors open at 6";
+    private static final String KEY = "-K1";
+
+    /** A recorded {@code updateChildren} call awaiting its answer. */
+    private static final class Write {
+        final Map<String, Object> updates;
+        final DatabaseReference.CompletionListener listener;
+
+        Write(Map<String, Object> updates, DatabaseReference.CompletionListener listener) {
+            this.updates = updates;
+            this.listener = listener;
+        }
+    }
+
+    private final List<Write> writes = new ArrayList<>();
+    private final List<Runnable> retries = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final NotificationFanout.Scheduler scheduler = (task, delayMs) -> {
+        retries.add(task);
+        delays.add(delayMs);
+    };
+    private DatabaseReference root;
+
+    @Before
+    public void setUp() {
+        root = mock(DatabaseReference.class);
+        DatabaseReference inboxes = mock(DatabaseReference.class);
+        DatabaseReference pushed = mock(DatabaseReference.class);
+        when(root.child("Notification")).thenReturn(inboxes);
+        when(inboxes.push()).thenReturn(pushed);
+        when(pushed.getKey()).thenReturn(KEY);
+        doAnswer(inv -> {
+            writes.add(new Write(inv.getArgument(0), inv.getArgument(1)));
+            return null;
+        }).when(root).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
+    }
+
+    @Test
+    public void recipients_areWrittenInSequentialChunks() {
+        NotificationFanout fanout = new NotificationFanout(root, 2, scheduler);
+
+        Task<NotificationFanout.Delivery> task = fanout.send(EVENT_ID, NotificationType.INVITED, MSG,
+                Arrays.asList("u1", "u2", "u3", "u4", "u5"));
+
+        assertEquals(1, writes.size());
+        assertEquals(Arrays.asList("u1", "u2"), recipients(0));
+        Map<?, ?> entry = (Map<?, ?>) writes.get(0).updates.get("Notification/u1/" + KEY);
+        assertEquals(MSG, entry.get("message"));
+        assertEquals(EVENT_ID, entry.get("eventId"));
+        assertEquals("INVITED", entry.get("type"));
+        assertTrue(writes.get(0).updates.containsKey("UnreadCount/u1"));
+        assertFalse(writes.get(0).updates.containsKey("NotificationLog/" + KEY));
+
+        succeed(0);
+        assertEquals(2, writes.size());
+        succeed(1);
+        assertEquals(3, writes.size());
+        assertEquals(Collections.singletonList("u5"), recipients(2));
+        succeed(2);
+
+        // The log entry goes last, on its own
+        assertEquals(4, writes.size());
+        assertEquals(1, writes.get(3).updates.size());
+        Map<?, ?> logged = (Map<?, ?>) writes.get(3).updates.get("NotificationLog/" + KEY);
+        assertEquals(5, logged.get("recipients"));
+        assertFalse(task.isComplete());
+
+        succeed(3);
+        assertTrue(task.isSuccessful());
+        assertEquals(5, task.getResult().getDelivered());
+        assertTrue(task.getResult().isComplete());
+    }
+
+    @Test
+    public void largeBroadcast_takesFewWrites() {
+        NotificationFanout fanout = new NotificationFanout(root, NotificationFanout.DEFAULT_CHUNK_SIZE, scheduler);
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) recipients.add("u" + i);
+
+        Task<NotificationFanout.Delivery> task = fanout.send(EVENT_ID, NotificationType.WAITING, MSG, recipients);
+        for (int i = 0; i < writes.size(); i++) succeed(i);
+
+        // Ten delivery chunks, then the log entry
+        assertEquals(11, writes.size());
+        assertEquals(5000, task.getResult().getDelivered());
+    }
+
+    @Test
+    public void failedChunk_isRetriedWithBackoff() {
+        NotificationFanout fanout = new NotificationFanout(root, 2, scheduler);
+
+        Task<NotificationFanout.Delivery> task = fanout.send(EVENT_ID, NotificationType.CANCELLED, MSG,
+                Arrays.asList("u1", "u2", "u3"));
+        fail(0);
+        assertEquals(1, writes.size());
+        retries.get(0).run();
+        fail(1);
+        retries.get(1).run();
+        succeed(2);
+
+        assertEquals(Arrays.asList(NotificationFanout.BASE_BACKOFF_MS, NotificationFanout.BASE_BACKOFF_MS * 2),
+                delays);
+        assertEquals(writes.get(0).updates, writes.get(2).updates);
+        succeed(3);
+        succeed(4);
+        assertEquals(3, task.getResult().getDelivered());
+    }
+
+    @Test
+    public void exhaustedChunk_isSkipped_andNotCounted() {
+        NotificationFanout fanout = new NotificationFanout(root, 2, scheduler);
+
+        Task<NotificationFanout.Delivery> task = fanout.send(EVENT_ID, NotificationType.CANCELLED, MSG,
+                Arrays.asList("u1", "u2", "u3"));
+        for (int attempt = 1; attempt < NotificationFanout.MAX_ATTEMPTS; attempt++) {
+            fail(writes.size() - 1);
+            retries.get(retries.size() - 1).run();
+        }
+        fail(writes.size() - 1);
+        succeed(writes.size() - 1);
+
+        Map<?, ?> logged = (Map<?, ?>) writes.get(writes.size() - 1).updates.get("NotificationLog/" + KEY);
+        assertEquals(1, logged.get("recipients"));
+        succeed(writes.size() - 1);
+
+        assertTrue(task.isSuccessful());
+        assertEquals(1, task.getResult().getDelivered());
+        assertEquals(3, task.getResult().getRecipients());
+        assertFalse(task.getResult().isComplete());
+    }
+
+    @Test
+    public void noRecipients_writesNothing() {
+        Task<NotificationFanout.Delivery> task = new NotificationFanout(root, 2, scheduler)
+                .send(EVENT_ID, NotificationType.INVITED, MSG, Collections.emptyList());
+
+        assertTrue(writes.isEmpty());
+        assertEquals(0, task.getResult().getDelivered());
+        assertTrue(task.getResult().isComplete());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** The recipients of one chunk, in id order. */
+    private List<String> recipients(int index) {
+        List<String> users = new ArrayList<>();
+        for (String path : writes.get(index).updates.keySet()) {
+            if (path.startsWith("Notification/")) users.add(path.split("/")[1]);
+        }
+        Collections.sort(users);
+        return users;
+    }
+
+    private void succeed(int index) {
+        writes.get(index).listener.onComplete(null, root);
+    }
+
+    private void fail(int index) {
+        DatabaseError error = mock(DatabaseError.class);
+        when(error.toException()).thenReturn(new DatabaseException("permission denied"));
+        when(error.getMessage()).thenReturn("permission denied");
+        writes.get(index).listener.onComplete(error, root);
+    }
+}
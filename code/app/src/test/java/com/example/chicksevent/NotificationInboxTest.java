@@ -0,0 +1,326 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.Notification;
+import com.example.chicksevent.misc.NotificationInbox;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link NotificationInbox}.
+ *
+ * <p>
+ * Every read and write returns a mocked task that completes as soon as a listener is attached,
+ * so each {@code loadNext()} resolves synchronously.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>The first page is the newest {@code limitToLast(pageSize)} entries, newest first</li>
+ *   <li>Older pages continue with {@code endBefore(oldestKey)} until a short page ends the inbox</li>
+ *   <li>Legacy {@code {eventId}/{type}/message} entries are converted once, with the marker set</li>
+ *   <li>Live updates watch {@code startAt(oldestKey)} of the first page and map child events to
+ *       upserts and removals</li>
+ *   <li>The unread counter is one keyed read and is reset to zero</li>
+ *   <li>A delivery writes the entry and increments the counter</li>
+ *   <li>Removing a deleted event's entries keeps the given keys and decrements the counter only
+ *       for the newest, unread ones</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class NotificationInboxTest {
+
+    private static final String UID = "u1";
+
+    // Notifications build their own services, so Firebase is statically mocked
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+
+    private FirebaseService service;
+    private DatabaseReference inbox;
+    private DatabaseReference marker;
+    private DatabaseReference unread;
+    private Query byKey;
+    private NotificationInbox notificationInbox;
+
+    @Before
+    public void setUp() {
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+
+        service = mock(FirebaseService.class);
+        DatabaseReference notificationRoot = mock(DatabaseReference.class);
+        DatabaseReference root = mock(DatabaseReference.class);
+        DatabaseReference markers = mock(DatabaseReference.class);
+        DatabaseReference unreadRoot = mock(DatabaseReference.class);
+        inbox = mock(DatabaseReference.class);
+        marker = mock(DatabaseReference.class);
+        unread = mock(DatabaseReference.class);
+        byKey = mock(Query.class);
+
+        when(service.getReference()).thenReturn(notificationRoot);
+        when(notificationRoot.getRoot()).thenReturn(root);
+        when(notificationRoot.child(UID)).thenReturn(inbox);
+        when(root.child("Migrations/inbox")).thenReturn(markers);
+        when(markers.child(UID)).thenReturn(marker);
+        when(root.child("UnreadCount")).thenReturn(unreadRoot);
+        when(unreadRoot.child(UID)).thenReturn(unread);
+        when(inbox.orderByKey()).thenReturn(byKey);
+
+        notificationInbox = new NotificationInbox(service, UID, 2);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void pages_areNewestFirst_andContinueBeforeTheOldestKey() {
+        migrated();
+        Query newest = mock(Query.class);
+        Query before = mock(Query.class);
+        Query older = mock(Query.class);
+        when(byKey.limitToLast(2)).thenReturn(newest);
+        when(byKey.endBefore("k3")).thenReturn(before);
+        when(before.limitToLast(2)).thenReturn(older);
+        Task<DataSnapshot> newestRead = done(list(entry("k3", "E3"), entry("k4", "E4")));
+        Task<DataSnapshot> olderRead = done(list(entry("k1", "E1")));
+        when(newest.get()).thenReturn(newestRead);
+        when(older.get()).thenReturn(olderRead);
+
+        List<Notification> first = notificationInbox.loadNext().getResult();
+        assertEquals("k4", first.get(0).getNotificationId());
+        assertEquals("k3", first.get(1).getNotificationId());
+        assertEquals("E4", first.get(0).getEventId());
+        assertTrue(notificationInbox.hasNext());
+
+        List<Notification> second = notificationInbox.loadNext().getResult();
+        assertEquals(1, second.size());
+        assertEquals("k1", second.get(0).getNotificationId());
+        assertFalse(notificationInbox.hasNext());
+
+        assertTrue(notificationInbox.loadNext().getResult().isEmpty());
+        verify(older, times(1)).get();
+        verify(marker, times(1)).get();
+        verify(service, never()).updateMultiPath(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void legacyEntries_areConvertedOnce_beforeTheFirstPage() {
+        Task<DataSnapshot> markerRead = done(snapshot(null));
+        when(marker.get()).thenReturn(markerRead);
+
+        DataSnapshot message = snapshot("You were selected");
+        DataSnapshot typed = mock(DataSnapshot.class);
+        when(typed.getKey()).thenReturn("INVITED");
+        when(typed.child("message")).thenReturn(message);
+        DataSnapshot legacy = mock(DataSnapshot.class);
+        when(legacy.getKey()).thenReturn("E1");
+        when(legacy.getChildren()).thenReturn(Collections.singletonList(typed));
+        Task<DataSnapshot> inboxRead = done(list(legacy));
+        when(inbox.get()).thenReturn(inboxRead);
+
+        DatabaseReference pushed = mock(DatabaseReference.class);
+        when(inbox.push()).thenReturn(pushed);
+        when(pushed.getKey()).thenReturn("-M1");
+        Task<Void> written = done(null);
+        when(service.updateMultiPath(anyMap())).thenReturn(written);
+
+        Query newest = mock(Query.class);
+        when(byKey.limitToLast(2)).thenReturn(newest);
+        Task<DataSnapshot> pageRead = done(list(entry("-M1", "E1")));
+        when(newest.get()).thenReturn(pageRead);
+
+        List<Notification> page = notificationInbox.loadNext().getResult();
+
+        ArgumentCaptor<Map<String, Object>> cap = ArgumentCaptor.forClass((Class) Map.class);
+        verify(service, times(1)).updateMultiPath(cap.capture());
+        Map<String, Object> updates = cap.getValue();
+        Map<?, ?> converted = (Map<?, ?>) updates.get("Notification/" + UID + "/-M1");
+        assertEquals("E1", converted.get("eventId"));
+        assertEquals("INVITED", converted.get("type"));
+        assertEquals("You were selected", converted.get("message"));
+        assertTrue(updates.containsKey("Notification/" + UID + "/E1"));
+        assertNull(updates.get("Notification/" + UID + "/E1"));
+        assertEquals(true, updates.get("Migrations/inbox/" + UID));
+        assertTrue(updates.containsKey("NotificationLog/-M1"));
+        assertEquals(1, page.size());
+    }
+
+    @Test
+    public void listen_watchesFirstPageAndNewer_andForwardsChildEvents() {
+        migrated();
+        Query newest = mock(Query.class);
+        Query live = mock(Query.class);
+        when(byKey.limitToLast(2)).thenReturn(newest);
+        when(byKey.startAt("k3")).thenReturn(live);
+        Task<DataSnapshot> newestRead = done(list(entry("k3", "E3"), entry("k4", "E4")));
+        when(newest.get()).thenReturn(newestRead);
+        notificationInbox.loadNext();
+
+        List<String> upserted = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        notificationInbox.listen(new NotificationInbox.Listener() {
+            @Override public void onNotificationUpserted(Notification n) { upserted.add(n.getNotificationId()); }
+            @Override public void onNotificationRemoved(String id) { removed.add(id); }
+        });
+
+        ArgumentCaptor<ChildEventListener> cap = ArgumentCaptor.forClass(ChildEventListener.class);
+        verify(live).addChildEventListener(cap.capture());
+        ChildEventListener listener = cap.getValue();
+        DataSnapshot fresh = entry("k5", "E5");
+        DataSnapshot gone = entry("k3", "E3");
+        listener.onChildAdded(fresh, "k4");
+        listener.onChildRemoved(gone);
+
+        assertEquals(Collections.singletonList("k5"), upserted);
+        assertEquals(Collections.singletonList("k3"), removed);
+
+        notificationInbox.stopListening();
+        verify(live).removeEventListener(listener);
+    }
+
+    @Test
+    public void unreadCount_isOneKeyedRead_andIsReset() {
+        Task<DataSnapshot> read = done(snapshot(3L));
+        when(unread.get()).thenReturn(read);
+
+        assertEquals(Integer.valueOf(3), notificationInbox.getUnreadCount().getResult());
+
+        notificationInbox.markAllRead();
+        verify(unread).setValue(0);
+    }
+
+    @Test
+    public void delete_removesOnlyThatEntry() {
+        notificationInbox.delete(new Notification("k4", UID, "E4", NotificationType.WAITING, "hi"));
+
+        verify(service).deleteEntry(UID + "/k4");
+    }
+
+    @Test
+    public void putDelivery_writesEntryAndIncrementsCounter() {
+        Map<String, Object> updates = new HashMap<>();
+
+        NotificationInbox.putDelivery(updates, UID, "-K1", "E1", NotificationType.CANCELLED, "Sorry");
+
+        assertEquals(2, updates.size());
+        Map<?, ?> entry = (Map<?, ?>) updates.get("Notification/" + UID + "/-K1");
+        assertEquals("E1", entry.get("eventId"));
+        assertEquals("CANCELLED", entry.get("type"));
+        assertEquals("Sorry", entry.get("message"));
+        assertTrue(entry.containsKey("createdAt"));
+        assertTrue(updates.containsKey("UnreadCount/" + UID));
+    }
+
+    @Test
+    public void putEventRemoval_keepsNotices_andDecrementsOnlyRemovedUnread() {
+        Map<String, Object> updates = new HashMap<>();
+        DataSnapshot legacy = mock(DataSnapshot.class);
+        when(legacy.getKey()).thenReturn("E1");
+        when(legacy.hasChild("eventId")).thenReturn(false);
+        // The newest three push-keyed entries are unread: -K4 (the notice), -K3 and -K2
+        DataSnapshot inbox = list(entry("-K1", "E1"), entry("-K2", "E2"), entry("-K3", "E1"),
+                entry("-K4", "E1"), legacy);
+
+        int removed = NotificationInbox.putEventRemoval(updates, UID, inbox, 3, "E1",
+                Collections.singleton("-K4"));
+
+        assertEquals(3, removed);
+        assertTrue(updates.containsKey("Notification/" + UID + "/-K1"));
+        assertTrue(updates.containsKey("Notification/" + UID + "/-K3"));
+        assertTrue(updates.containsKey("Notification/" + UID + "/E1"));
+        assertFalse(updates.containsKey("Notification/" + UID + "/-K2"));
+        assertFalse(updates.containsKey("Notification/" + UID + "/-K4"));
+        assertEquals(ServerValue.increment(-1), updates.get("UnreadCount/" + UID));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Marks this user's inbox as already migrated. */
+    private void migrated() {
+        Task<DataSnapshot> markerRead = done(snapshot(true));
+        when(marker.get()).thenReturn(markerRead);
+    }
+
+    /** A mocked successful task that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static <T> Task<T> done(T result) {
+        Task<T> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        doAnswer(inv -> {
+            ((OnCompleteListener<T>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
+    private static DataSnapshot snapshot(Object value) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getValue()).thenReturn(value);
+        when(snap.exists()).thenReturn(value != null);
+        return snap;
+    }
+
+    /** A push-keyed inbox entry. */
+    private static DataSnapshot entry(String key, String eventId) {
+        DataSnapshot entry = mock(DataSnapshot.class);
+        DataSnapshot eventIdChild = snapshot(eventId);
+        DataSnapshot typeChild = snapshot("INVITED");
+        DataSnapshot messageChild = snapshot("hi");
+        DataSnapshot createdAtChild = snapshot(1L);
+        when(entry.getKey()).thenReturn(key);
+        when(entry.hasChild("eventId")).thenReturn(true);
+        when(entry.child("eventId")).thenReturn(eventIdChild);
+        when(entry.child("type")).thenReturn(typeChild);
+        when(entry.child("message")).thenReturn(messageChild);
+        when(entry.child("createdAt")).thenReturn(createdAtChild);
+        return entry;
+    }
+
+    /** A query result whose children are {@code children}, in order. */
+    private static DataSnapshot list(DataSnapshot... children) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        List<DataSnapshot> list = Arrays.asList(children);
+        when(snap.getChildren()).thenReturn(list);
+        return snap;
+    }
+}
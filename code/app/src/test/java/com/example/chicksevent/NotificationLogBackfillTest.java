@@ -0,0 +1,280 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.NotificationLogBackfill;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link NotificationLogBackfill}.
+ *
+ * <p>
+ * Every read and write returns a mocked task that completes as soon as a listener is attached,
+ * so each {@code run()} resolves synchronously.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>The marker short-circuits the walk</li>
+ *   <li>Users are paged with {@code limitToFirst} and {@code startAfter}</li>
+ *   <li>Legacy entries are converted page by page; pre-log sends are logged once, at the end,
+ *       with their recipients counted across pages</li>
+ *   <li>Sends at or after the oldest log entry are left alone</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class NotificationLogBackfillTest {
+
+    // Services are built in the default constructors, so Firebase is statically mocked
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+
+    private FirebaseService service;
+    private DatabaseReference inboxes;
+    private DatabaseReference root;
+    private DatabaseReference marker;
+    private DatabaseReference logRoot;
+
+    @Before
+    public void setUp() {
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+
+        service = mock(FirebaseService.class);
+        inboxes = mock(DatabaseReference.class);
+        root = mock(DatabaseReference.class);
+        marker = mock(DatabaseReference.class);
+        logRoot = mock(DatabaseReference.class);
+        when(service.getReference()).thenReturn(inboxes);
+        when(inboxes.getRoot()).thenReturn(root);
+        when(root.child("Migrations/notificationLog")).thenReturn(marker);
+        when(root.child("NotificationLog")).thenReturn(logRoot);
+        Task<Void> written = done(null);
+        when(service.updateMultiPath(anyMap())).thenReturn(written);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void marker_skipsTheWalk() {
+        Task<DataSnapshot> markerRead = done(exists(true));
+        when(marker.get()).thenReturn(markerRead);
+
+        int added = new NotificationLogBackfill(service, 2).run().getResult();
+
+        assertEquals(0, added);
+        verify(inboxes, never()).orderByKey();
+        verify(service, never()).updateMultiPath(anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void walk_convertsLegacyPerPage_andLogsPreLogSendsOnceAtTheEnd() {
+        Task<DataSnapshot> markerRead = done(exists(false));
+        when(marker.get()).thenReturn(markerRead);
+        stubOldestLogEntry("-K5");
+
+        // u1 and u2 share the broadcast -K1; u1's -K6 was logged when it was sent;
+        // u2 still has a legacy entry; u3 on the next page also got -K1, and alone -K2
+        DataSnapshot u1 = inbox("u1", pushed("-K1", "E1", 7L), pushed("-K6", "E2", 9L));
+        DataSnapshot u2 = inbox("u2", pushed("-K1", "E1", 7L), legacy("E3", "INVITED", "hey"));
+        DataSnapshot u3 = inbox("u3", pushed("-K1", "E1", 7L), pushed("-K2", "E1", 8L));
+        stubPages(list(u1, u2), list(u3));
+        DatabaseReference u2Inbox = mock(DatabaseReference.class);
+        DatabaseReference minted = mock(DatabaseReference.class);
+        when(inboxes.child("u2")).thenReturn(u2Inbox);
+        when(u2Inbox.push()).thenReturn(minted);
+        when(minted.getKey()).thenReturn("-K9");
+        when(inboxes.child("u1")).thenReturn(mock(DatabaseReference.class));
+        when(inboxes.child("u3")).thenReturn(mock(DatabaseReference.class));
+
+        int added = new NotificationLogBackfill(service, 2).run().getResult();
+
+        // -K9 converted, then -K1 and -K2 logged
+        assertEquals(3, added);
+        ArgumentCaptor<Map<String, Object>> writes = ArgumentCaptor.forClass(Map.class);
+        verify(service, times(3)).updateMultiPath(writes.capture());
+        List<Map<String, Object>> all = writes.getAllValues();
+
+        Map<String, Object> firstPage = all.get(0);
+        assertTrue(firstPage.containsKey("Notification/u2/-K9"));
+        assertTrue(firstPage.containsKey("NotificationLog/-K9"));
+        assertTrue(firstPage.containsKey("Notification/u2/E3"));
+        assertNull(firstPage.get("Notification/u2/E3"));
+        assertEquals(true, firstPage.get("Migrations/inbox/u1"));
+        assertFalse(firstPage.containsKey("Migrations/notificationLog"));
+
+        Map<String, Object> last = all.get(2);
+        Map<?, ?> broadcast = (Map<?, ?>) last.get("NotificationLog/-K1");
+        assertEquals(3, broadcast.get("recipients"));
+        assertFalse(broadcast.containsKey("userId"));
+        assertEquals(7L, broadcast.get("createdAt"));
+        Map<?, ?> single = (Map<?, ?>) last.get("NotificationLog/-K2");
+        assertEquals("u3", single.get("userId"));
+        assertEquals(1, single.get("recipients"));
+        assertFalse(last.containsKey("NotificationLog/-K6"));
+        assertEquals(true, last.get("Migrations/notificationLog"));
+    }
+
+    @Test
+    public void failedPageRead_failsWithoutSettingTheMarker() {
+        Task<DataSnapshot> markerRead = done(exists(false));
+        when(marker.get()).thenReturn(markerRead);
+        stubOldestLogEntry(null);
+        Query byKey = mock(Query.class);
+        Query first = mock(Query.class);
+        when(inboxes.orderByKey()).thenReturn(byKey);
+        when(byKey.limitToFirst(2)).thenReturn(first);
+        Task<DataSnapshot> failed = failed();
+        when(first.get()).thenReturn(failed);
+
+        Task<Integer> run = new NotificationLogBackfill(service, 2).run();
+
+        assertFalse(run.isSuccessful());
+        verify(service, never()).updateMultiPath(anyMap());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** A mocked successful task that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static <T> Task<T> done(T result) {
+        Task<T> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        doAnswer(inv -> {
+            ((OnCompleteListener<T>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
+    /** A mocked failed task that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static <T> Task<T> failed() {
+        Task<T> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(false);
+        when(task.getException()).thenReturn(new Exception("offline"));
+        doAnswer(inv -> {
+            ((OnCompleteListener<T>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
+    private void stubOldestLogEntry(String key) {
+        Query byKey = mock(Query.class);
+        Query oldest = mock(Query.class);
+        when(logRoot.orderByKey()).thenReturn(byKey);
+        when(byKey.limitToFirst(1)).thenReturn(oldest);
+        DataSnapshot entry = mock(DataSnapshot.class);
+        when(entry.getKey()).thenReturn(key);
+        Task<DataSnapshot> read = done(key != null ? list(entry) : list());
+        when(oldest.get()).thenReturn(read);
+    }
+
+    /** Stubs the first page and the page after its last user. */
+    private void stubPages(DataSnapshot firstPage, DataSnapshot secondPage) {
+        Query byKey = mock(Query.class);
+        Query first = mock(Query.class);
+        Query after = mock(Query.class);
+        Query second = mock(Query.class);
+        when(inboxes.orderByKey()).thenReturn(byKey);
+        when(byKey.limitToFirst(2)).thenReturn(first);
+        when(byKey.startAfter("u2")).thenReturn(after);
+        when(after.limitToFirst(2)).thenReturn(second);
+        Task<DataSnapshot> firstRead = done(firstPage);
+        Task<DataSnapshot> secondRead = done(secondPage);
+        when(first.get()).thenReturn(firstRead);
+        when(second.get()).thenReturn(secondRead);
+    }
+
+    private static DataSnapshot exists(boolean exists) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(exists);
+        return snap;
+    }
+
+    private static DataSnapshot value(Object value) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getValue()).thenReturn(value);
+        return snap;
+    }
+
+    /** A push-keyed inbox entry. */
+    private static DataSnapshot pushed(String key, String eventId, long createdAt) {
+        DataSnapshot entry = mock(DataSnapshot.class);
+        DataSnapshot eventIdChild = value(eventId);
+        DataSnapshot typeChild = value("INVITED");
+        DataSnapshot messageChild = value("hi");
+        DataSnapshot createdAtChild = value(createdAt);
+        when(entry.getKey()).thenReturn(key);
+        when(entry.hasChild("eventId")).thenReturn(true);
+        when(entry.child("eventId")).thenReturn(eventIdChild);
+        when(entry.child("type")).thenReturn(typeChild);
+        when(entry.child("message")).thenReturn(messageChild);
+        when(entry.child("createdAt")).thenReturn(createdAtChild);
+        return entry;
+    }
+
+    /** A legacy {@code {eventId}/{type}/message} inbox entry. */
+    private static DataSnapshot legacy(String eventId, String type, String message) {
+        DataSnapshot typed = mock(DataSnapshot.class);
+        DataSnapshot messageChild = value(message);
+        when(typed.getKey()).thenReturn(type);
+        when(typed.child("message")).thenReturn(messageChild);
+        DataSnapshot entry = mock(DataSnapshot.class);
+        when(entry.getKey()).thenReturn(eventId);
+        when(entry.hasChild("eventId")).thenReturn(false);
+        List<DataSnapshot> types = Collections.singletonList(typed);
+        when(entry.getChildren()).thenReturn(types);
+        return entry;
+    }
+
+    private static DataSnapshot inbox(String userId, DataSnapshot... entries) {
+        DataSnapshot snap = list(entries);
+        when(snap.getKey()).thenReturn(userId);
+        return snap;
+    }
+
+    /** A query result whose children are {@code children}, in order. */
+    private static DataSnapshot list(DataSnapshot... children) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        List<DataSnapshot> list = Arrays.asList(children);
+        when(snap.getChildren()).thenReturn(list);
+        return snap;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.Notification;
+import com.example.chicksevent.misc.NotificationLog;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link NotificationLog}.
+ *
+ * <p>
+ * Every read returns a mocked task that completes as soon as a listener is attached, so each
+ * {@code loadNext()} resolves synchronously.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>The unfiltered log pages newest first by key</li>
+ *   <li>A filtered log is one {@code orderByChild} range, continued with
+ *       {@code endBefore(value, oldestKey)}</li>
+ *   <li>A log entry records the send, with a user id only for single deliveries</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class NotificationLogTest {
+
+    // Notifications build their own services, so Firebase is statically mocked
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+
+    private FirebaseService service;
+    private DatabaseReference logRoot;
+
+    @Before
+    public void setUp() {
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+
+        service = mock(FirebaseService.class);
+        logRoot = mock(DatabaseReference.class);
+        when(service.getReference()).thenReturn(logRoot);
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void unfilteredLog_pagesNewestFirstByKey() {
+        Query byKey = mock(Query.class);
+        Query newest = mock(Query.class);
+        Query before = mock(Query.class);
+        Query older = mock(Query.class);
+        when(logRoot.orderByKey()).thenReturn(byKey);
+        when(byKey.limitToLast(2)).thenReturn(newest);
+        when(byKey.endBefore("k2")).thenReturn(before);
+        when(before.limitToLast(2)).thenReturn(older);
+        Task<DataSnapshot> newestRead = done(list(entry("k2", "E1", "u1"), entry("k3", "E2", null)));
+        Task<DataSnapshot> olderRead = done(list(entry("k1", "E1", "u2")));
+        when(newest.get()).thenReturn(newestRead);
+        when(older.get()).thenReturn(olderRead);
+
+        NotificationLog log = new NotificationLog(service, null, null, 2);
+
+        List<Notification> first = log.loadNext().getResult();
+        assertEquals("k3", first.get(0).getNotificationId());
+        assertNull(first.get(0).getUserId());
+        assertEquals("k2", first.get(1).getNotificationId());
+        assertEquals("u1", first.get(1).getUserId());
+        assertTrue(log.hasNext());
+
+        List<Notification> second = log.loadNext().getResult();
+        assertEquals(1, second.size());
+        assertFalse(log.hasNext());
+        assertTrue(log.loadNext().getResult().isEmpty());
+    }
+
+    @Test
+    public void filteredLog_isOneChildRange_continuedByValueAndKey() {
+        Query byEvent = mock(Query.class);
+        Query from = mock(Query.class);
+        Query exact = mock(Query.class);
+        Query before = mock(Query.class);
+        Query newest = mock(Query.class);
+        Query older = mock(Query.class);
+        when(logRoot.orderByChild("eventId")).thenReturn(byEvent);
+        when(byEvent.startAt("E1")).thenReturn(from);
+        when(from.endAt("E1")).thenReturn(exact);
+        when(from.endBefore("E1", "k2")).thenReturn(before);
+        when(exact.limitToLast(2)).thenReturn(newest);
+        when(before.limitToLast(2)).thenReturn(older);
+        Task<DataSnapshot> newestRead = done(list(entry("k2", "E1", "u1"), entry("k5", "E1", "u1")));
+        Task<DataSnapshot> olderRead = done(list());
+        when(newest.get()).thenReturn(newestRead);
+        when(older.get()).thenReturn(olderRead);
+
+        NotificationLog log = new NotificationLog(service, NotificationLog.EVENT_FIELD, "E1", 2);
+
+        assertEquals(2, log.loadNext().getResult().size());
+        assertTrue(log.loadNext().getResult().isEmpty());
+        assertFalse(log.hasNext());
+        verify(logRoot, never()).orderByKey();
+    }
+
+    @Test
+    public void putEntry_recordsTheSend() {
+        Map<String, Object> updates = new HashMap<>();
+
+        NotificationLog.putEntry(updates, "-K1", "E1", NotificationType.INVITED, "Hi", null, 40);
+        NotificationLog.putEntry(updates, "-K2", "E1", NotificationType.SYSTEM, "Bye", "u1", 1);
+
+        Map<?, ?> broadcast = (Map<?, ?>) updates.get("NotificationLog/-K1");
+        assertEquals("E1", broadcast.get("eventId"));
+        assertEquals("INVITED", broadcast.get("type"));
+        assertEquals(40, broadcast.get("recipients"));
+        assertFalse(broadcast.containsKey("userId"));
+        assertTrue(broadcast.containsKey("createdAt"));
+        assertEquals("u1", ((Map<?, ?>) updates.get("NotificationLog/-K2")).get("userId"));
+    }
+
+    // -------------------- helpers --------------------
+
+    /** A mocked successful task that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static <T> Task<T> done(T result) {
+        Task<T> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        doAnswer(inv -> {
+            ((OnCompleteListener<T>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
+    private static DataSnapshot snapshot(Object value) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getValue()).thenReturn(value);
+        return snap;
+    }
+
+    /** A log entry; {@code userId} is {@code null} for a broadcast. */
+    private static DataSnapshot entry(String key, String eventId, String userId) {
+        DataSnapshot entry = mock(DataSnapshot.class);
+        DataSnapshot eventIdChild = snapshot(eventId);
+        DataSnapshot userIdChild = snapshot(userId);
+        DataSnapshot typeChild = snapshot("INVITED");
+        DataSnapshot messageChild = snapshot("hi");
+        DataSnapshot createdAtChild = snapshot(1L);
+        when(entry.getKey()).thenReturn(key);
+        when(entry.child("eventId")).thenReturn(eventIdChild);
+        when(entry.child("userId")).thenReturn(userIdChild);
+        when(entry.child("type")).thenReturn(typeChild);
+        when(entry.child("message")).thenReturn(messageChild);
+        when(entry.child("createdAt")).thenReturn(createdAtChild);
+        return entry;
+    }
+
+    /** A query result whose children are {@code children}, in order. */
+    private static DataSnapshot list(DataSnapshot... children) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        List<DataSnapshot> list = Arrays.asList(children);
+        when(snap.getChildren()).thenReturn(list);
+        return snap;
+    }
+}
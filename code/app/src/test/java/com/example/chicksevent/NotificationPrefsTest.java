@@ -0,0 +1,173 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.NotificationPrefs;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link NotificationPrefs}.
+ *
+ * <p>
+ * Each keyed read returns a task the test completes by hand, so the tests control how many
+ * reads are outstanding and in which order they answer.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Only the recipients' index entries are read, a bounded number at a time</li>
+ *   <li>Enabled recipients are returned in input order, whatever order the reads answer in</li>
+ *   <li>A missing index entry falls back to the profile flag and backfills the index</li>
+ *   <li>Failed reads and missing profiles leave the recipient out</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class NotificationPrefsTest {
+
+    /** A mocked read whose outcome the test sets. */
+    private static final class Read {
+        @SuppressWarnings("unchecked")
+        final Task<DataSnapshot> task = mock(Task.class);
+        OnCompleteListener<DataSnapshot> listener;
+
+        @SuppressWarnings("unchecked")
+        Read() {
+            doAnswer(inv -> {
+                listener = inv.getArgument(0);
+                return task;
+            }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        }
+
+        void answer(Object value) {
+            DataSnapshot snap = mock(DataSnapshot.class);
+            when(snap.getValue()).thenReturn(value);
+            when(task.isSuccessful()).thenReturn(true);
+            when(task.getResult()).thenReturn(snap);
+            listener.onComplete(task);
+        }
+
+        void fail() {
+            when(task.isSuccessful()).thenReturn(false);
+            when(task.getException()).thenReturn(new Exception("offline"));
+            listener.onComplete(task);
+        }
+    }
+
+    private static final List<String> USERS = Arrays.asList("u1", "u2", "u3", "u4", "old", "gone");
+
+    private final Map<String, Read> prefReads = new HashMap<>();
+    private final Map<String, Read> profileReads = new HashMap<>();
+    private final Map<String, DatabaseReference> prefRefs = new HashMap<>();
+    private final List<String> readOrder = new ArrayList<>();
+    private final List<String> profileOrder = new ArrayList<>();
+
+    private NotificationPrefs prefs;
+
+    @Before
+    public void setUp() {
+        FirebaseService prefsService = mock(FirebaseService.class);
+        FirebaseService userService = mock(FirebaseService.class);
+        DatabaseReference prefsRoot = mock(DatabaseReference.class);
+        DatabaseReference userRoot = mock(DatabaseReference.class);
+        when(prefsService.getReference()).thenReturn(prefsRoot);
+        when(userService.getReference()).thenReturn(userRoot);
+
+        for (String uid : USERS) {
+            Read prefRead = new Read();
+            DatabaseReference prefRef = mock(DatabaseReference.class);
+            when(prefRef.get()).thenAnswer(i -> {
+                readOrder.add(uid);
+                return prefRead.task;
+            });
+            when(prefsRoot.child(uid)).thenReturn(prefRef);
+            prefReads.put(uid, prefRead);
+            prefRefs.put(uid, prefRef);
+
+            Read profileRead = new Read();
+            DatabaseReference user = mock(DatabaseReference.class);
+            DatabaseReference flag = mock(DatabaseReference.class);
+            when(userRoot.child(uid)).thenReturn(user);
+            when(user.child("notificationsEnabled")).thenReturn(flag);
+            when(flag.get()).thenAnswer(i -> {
+                profileOrder.add(uid);
+                return profileRead.task;
+            });
+            profileReads.put(uid, profileRead);
+        }
+
+        prefs = new NotificationPrefs(prefsService, userService, 2);
+    }
+
+    @Test
+    public void reads_areBounded_andResultKeepsInputOrder() {
+        Task<List<String>> task = prefs.enabledAmong(Arrays.asList("u1", "u2", "u3", "u4"));
+
+        assertEquals(Arrays.asList("u1", "u2"), readOrder);
+        prefReads.get("u2").answer(true);
+        assertEquals(Arrays.asList("u1", "u2", "u3"), readOrder);
+        prefReads.get("u3").answer(false);
+        prefReads.get("u4").answer(true);
+        assertFalse(task.isComplete());
+
+        prefReads.get("u1").answer(true);
+        assertTrue(task.isSuccessful());
+        assertEquals(Arrays.asList("u1", "u2", "u4"), task.getResult());
+        assertTrue(profileOrder.isEmpty());
+    }
+
+    @Test
+    public void missingEntry_fallsBackToProfile_andBackfillsIndex() {
+        Task<List<String>> task = prefs.enabledAmong(Arrays.asList("old", "gone"));
+
+        prefReads.get("old").answer(null);
+        prefReads.get("gone").answer(null);
+        profileReads.get("old").answer(true);
+        profileReads.get("gone").answer(null);
+
+        assertEquals(Collections.singletonList("old"), task.getResult());
+        verify(prefRefs.get("old")).setValue(true);
+        verify(prefRefs.get("gone"), never()).setValue(any());
+    }
+
+    @Test
+    public void failedRead_leavesRecipientOut() {
+        Task<List<String>> task = prefs.enabledAmong(Arrays.asList("u1", "u2"));
+
+        prefReads.get("u1").fail();
+        prefReads.get("u2").answer(true);
+
+        assertEquals(Collections.singletonList("u2"), task.getResult());
+    }
+
+    @Test
+    public void noRecipients_readsNothing() {
+        Task<List<String>> task = prefs.enabledAmong(Collections.emptyList());
+
+        assertTrue(task.isSuccessful());
+        assertTrue(task.getResult().isEmpty());
+        assertTrue(readOrder.isEmpty());
+    }
+}
@@ -4,12 +4,13 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import com.example.chicksevent.enums.NotificationType;
+import com.example.chicksevent.misc.Event;
+import com.example.chicksevent.misc.EventLookup;
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Notification;
 import com.google.android.gms.tasks.Continuation;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
@@ -19,10 +20,7 @@ import org.junit.Test;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for {@link Notification}.
@@ -38,14 +36,14 @@ import java.util.List;
  * <ul>
  *   <li>{@code createNotification()} correctly writes to the expected Firebase path and payload</li>
  *   <li>Constructor getters return consistent values for all fields</li>
- *   <li>{@code getEventName()} properly resolves the event name when found in mock snapshots</li>
+ *   <li>{@code getEventName()} resolves the event name through a single keyed {@link EventLookup} call</li>
  *   <li>Graceful handling of missing or unmatched event IDs (returns "NO NAME")</li>
  * </ul>
  *
  * <h2>Testing Approach</h2>
  * <ul>
  *   <li>Mocks {@link FirebaseDatabase#getInstance(String)} to prevent real Firebase initialization</li>
- *   <li>Injects {@link FirebaseService} mocks using reflection to isolate test scope</li>
+ *   <li>Injects {@link FirebaseService} and {@link EventLookup} mocks using reflection to isolate test scope</li>
  *   <li>Replaces {@link Task#continueWith(Continuation)} with synchronous lambda evaluation</li>
  * </ul>
  *
@@ -76,7 +74,7 @@ public class NotificationTest {
 
     // Service mocks to inject
     private FirebaseService mockNotifSvc;
-    private FirebaseService mockEventSvc;
+    private EventLookup mockLookup;
 
     @Before
     public void setUp() {
@@ -98,13 +96,12 @@ public class NotificationTest {
 
         // Inject controllable service mocks
         mockNotifSvc = mock(FirebaseService.class);
-        mockEventSvc = mock(FirebaseService.class);
+        mockLookup   = mock(EventLookup.class);
 
         when(mockNotifSvc.getReference()).thenReturn(mockNotifRef);
-        when(mockEventSvc.getReference()).thenReturn(mockEventRef);
 
         setPrivate(notification, "notificationService", mockNotifSvc);
-        setPrivate(notification, "eventService",        mockEventSvc);
+        setPrivate(notification, "eventLookup",         mockLookup);
     }
 
     @After
@@ -116,20 +113,31 @@ public class NotificationTest {
 
     @Test
     public void createNotification_writesMessageUnderCorrectPath() {
-        doNothing().when(mockNotifSvc).updateSubCollectionEntry(
-                anyString(), anyString(), anyString(), any(HashMap.class));
+        DatabaseReference inbox = mock(DatabaseReference.class);
+        DatabaseReference pushed = mock(DatabaseReference.class);
+        when(mockNotifRef.child(UID)).thenReturn(inbox);
+        when(inbox.push()).thenReturn(pushed);
+        when(pushed.getKey()).thenReturn("-K1");
+        when(mockNotifSvc.updateMultiPath(anyMap())).thenReturn(Tasks.forResult(null));
 
         notification.createNotification();
 
         // Explicitly typed captor to match method signature
-        org.mockito.ArgumentCaptor<HashMap<String, Object>> cap =
-                org.mockito.ArgumentCaptor.forClass((Class) (Class<?>) HashMap.class);
-
-        verify(mockNotifSvc, times(1)).updateSubCollectionEntry(
-                eq(UID), eq(EID), eq(NotificationType.INVITED.toString()), cap.capture());
-
-        HashMap<String, Object> sent = cap.getValue();
-        assertEquals(MSG, sent.get("message"));
+        org.mockito.ArgumentCaptor<Map<String, Object>> cap =
+                org.mockito.ArgumentCaptor.forClass((Class) (Class<?>) Map.class);
+
+        verify(mockNotifSvc, times(1)).updateMultiPath(cap.capture());
+
+        Map<String, Object> sent = cap.getValue();
+        Map<?, ?> entry = (Map<?, ?>) sent.get("Notification/" + UID + "/-K1");
+        assertEquals(MSG, entry.get("message"));
+        assertEquals(EID, entry.get("eventId"));
+        assertEquals(NotificationType.INVITED.toString(), entry.get("type"));
+        assertTrue(sent.containsKey("UnreadCount/" + UID));
+        Map<?, ?> logged = (Map<?, ?>) sent.get("NotificationLog/-K1");
+        assertEquals(UID, logged.get("userId"));
+        assertEquals(1, logged.get("recipients"));
+        assertEquals("-K1", notification.getNotificationId());
     }
 
     // -------------------- getters (sync) --------------------
@@ -146,55 +154,22 @@ public class NotificationTest {
 
     @Test
     public void getEventName_returnsNameWhenPresent() {
-        // Build a fake /Event snapshot with a child matching EID that has {"name":"Party"}
-        DataSnapshot root  = mock(DataSnapshot.class);
-        DataSnapshot child = mock(DataSnapshot.class);
-
-        when(child.getKey()).thenReturn(EID);
-        HashMap<String, String> value = new HashMap<>();
-        value.put("name", "Party");
-        when(child.getValue()).thenReturn(value);
-        when(root.getChildren()).thenAnswer(i -> iterable(child));
-
-        // Return a mocked Task<DataSnapshot> so we can short-circuit continueWith(...)
-        @SuppressWarnings("unchecked")
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(mockEventRef.get()).thenReturn(mockGetTask);
-
-        // When Notification calls mockGetTask.continueWith(...),
-        // run the continuation immediately with a completed Task(root),
-        // and return a completed Task<String> with the continuation's result.
-        when(mockGetTask.continueWith(any())).thenAnswer(inv -> {
-            @SuppressWarnings("unchecked")
-            Continuation<DataSnapshot, String> cont = (Continuation<DataSnapshot, String>) inv.getArgument(0);
-            String out = cont.then(Tasks.forResult(root));
-            return Tasks.forResult(out);
-        });
+        Event party = mock(Event.class);
+        when(party.getName()).thenReturn("Party");
+        stubLookup(party);
 
         Task<String> t = notification.getEventName();
         assertTrue(t.isComplete());
         assertEquals("Party", t.getResult());
+
+        // One keyed lookup; the /Event root is never scanned
+        verify(mockLookup, times(1)).get(EID);
+        verify(mockEventRef, never()).get();
     }
 
     @Test
     public void getEventName_returnsNoNameWhenMissing() {
-        DataSnapshot root  = mock(DataSnapshot.class);
-        DataSnapshot child = mock(DataSnapshot.class);
-
-        when(child.getKey()).thenReturn("some-other-id");
-        when(child.getValue()).thenReturn(new HashMap<String, String>());
-        when(root.getChildren()).thenAnswer(i -> iterable(child));
-
-        @SuppressWarnings("unchecked")
-        Task<DataSnapshot> mockGetTask = mock(Task.class);
-        when(mockEventRef.get()).thenReturn(mockGetTask);
-
-        when(mockGetTask.continueWith(any())).thenAnswer(inv -> {
-            @SuppressWarnings("unchecked")
-            Continuation<DataSnapshot, String> cont = (Continuation<DataSnapshot, String>) inv.getArgument(0);
-            String out = cont.then(Tasks.forResult(root));
-            return Tasks.forResult(out);
-        });
+        stubLookup(null);
 
         Task<String> t = notification.getEventName();
         assertTrue(t.isComplete());
@@ -213,13 +188,18 @@ public class NotificationTest {
         }
     }
 
-    /** Iterable wrapper so Mockito can iterate root.getChildren(). */
-    private static Iterable<DataSnapshot> iterable(DataSnapshot... snaps) {
-        List<DataSnapshot> list = Arrays.asList(snaps);
-        return new Iterable<DataSnapshot>() {
-            @Override public Iterator<DataSnapshot> iterator() {
-                return list.iterator();
-            }
-        };
+    /**
+     * Makes the injected {@link EventLookup} resolve {@link #EID} to {@code event}, running
+     * {@code continueWith(...)} synchronously.
+     */
+    private void stubLookup(Event event) {
+        @SuppressWarnings("unchecked")
+        Task<Event> lookupTask = mock(Task.class);
+        when(mockLookup.get(EID)).thenReturn(lookupTask);
+        when(lookupTask.continueWith(any())).thenAnswer(inv -> {
+            @SuppressWarnings("unchecked")
+            Continuation<Event, String> cont = (Continuation<Event, String>) inv.getArgument(0);
+            return Tasks.forResult(cont.then(Tasks.forResult(event)));
+        });
     }
 }
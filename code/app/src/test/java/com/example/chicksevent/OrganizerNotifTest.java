@@ -123,7 +123,7 @@ public class OrganizerNotifTest {
     public void sendSelectedNotification_delegatesToInvitedBucket() {
         Organizer spyOrg = spy(organizer);
 
-        doNothing().when(spyOrg).sendWaitingListNotification(
+        doReturn(null).when(spyOrg).sendWaitingListNotification(
                 eq(EntrantStatus.INVITED), anyString());
 
         spyOrg.sendSelectedNotification(MSG);
@@ -136,7 +136,7 @@ public class OrganizerNotifTest {
     public void sendCancelledNotification_delegatesToCancelledBucket() {
         Organizer spyOrg = spy(organizer);
 
-        doNothing().when(spyOrg).sendWaitingListNotification(
+        doReturn(null).when(spyOrg).sendWaitingListNotification(
                 eq(EntrantStatus.CANCELLED), anyString());
 
         spyOrg.sendCancelledNotification(MSG);
@@ -173,7 +173,7 @@ public class OrganizerTest {
         Organizer spyOrg = spy(organizer);
 
         // We only want to intercept the status-specific overload; leave others real
-        doNothing().when(spyOrg).sendWaitingListNotification(eq(EntrantStatus.INVITED), anyString());
+        doReturn(null).when(spyOrg).sendWaitingListNotification(eq(EntrantStatus.INVITED), anyString());
 
         spyOrg.sendSelectedNotification("msg");
         verify(spyOrg, times(1))
@@ -184,7 +184,7 @@ public class OrganizerTest {
     public void sendWaitingListNotification_defaultOverload_usesWAITING() throws Exception {
         Organizer spyOrg = spy(organizer);
 
-        doNothing().when(spyOrg).sendWaitingListNotification(eq(EntrantStatus.WAITING), anyString());
+        doReturn(null).when(spyOrg).sendWaitingListNotification(eq(EntrantStatus.WAITING), anyString());
 
         spyOrg.sendWaitingListNotification("hello");
         verify(spyOrg, times(1))
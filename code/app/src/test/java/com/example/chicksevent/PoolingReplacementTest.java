@@ -1,23 +1,33 @@
 package com.example.chicksevent;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.os.Handler;
+
 import com.example.chicksevent.misc.FirebaseService;
 import com.example.chicksevent.misc.Lottery;
+import com.example.chicksevent.misc.StatusCounters;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseException;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.ServerValue;
 
 import org.junit.After;
 import org.junit.Before;
@@ -26,9 +36,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Unit tests for {@link Lottery} replacement applicant functionality.
@@ -41,6 +53,7 @@ import java.util.Map;
  *     <li>The fragment identifies cancelled or rejected entrants correctly.</li>
  *     <li>A replacement applicant is selected and added to the final list appropriately.</li>
  *     <li>Adapter and UI updates correctly reflect the replacement in the list.</li>
+ *     <li>The limit and counter reads are issued together with {@code get()}; failures and timeouts reach the caller.</li>
  *     <li>No real Firebase interactions are required; all entrant and pool data are mocked.</li>
  * </ul>
  *
@@ -57,6 +70,8 @@ public class PoolingReplacementTest {
     private FirebaseDatabase mockDb;
 
     private DatabaseReference waitingRoot;
+    private DatabaseReference dbRoot;
+    private DatabaseReference counterRoot;
     private DatabaseReference waitingEventRef;
     private DatabaseReference waitingStatusRef;
     private DatabaseReference eventRoot;
@@ -66,6 +81,7 @@ public class PoolingReplacementTest {
     private Lottery lottery;
     private FirebaseService mockWaitingSvc;
     private FirebaseService mockEventSvc;
+    private FirebaseService mockCounterSvc;
 
     @Before
     public void setUp() throws Exception {
@@ -73,6 +89,8 @@ public class PoolingReplacementTest {
         mockDb = mock(FirebaseDatabase.class);
 
         waitingRoot      = mock(DatabaseReference.class);
+        dbRoot           = mock(DatabaseReference.class);
+        counterRoot      = mock(DatabaseReference.class);
         waitingEventRef  = mock(DatabaseReference.class);
         waitingStatusRef = mock(DatabaseReference.class);
         eventRoot        = mock(DatabaseReference.class);
@@ -89,12 +107,16 @@ public class PoolingReplacementTest {
 
         mockWaitingSvc = mock(FirebaseService.class);
         mockEventSvc   = mock(FirebaseService.class);
+        mockCounterSvc = mock(FirebaseService.class);
 
         when(mockWaitingSvc.getReference()).thenReturn(waitingRoot);
         when(mockEventSvc.getReference()).thenReturn(eventRoot);
+        when(mockCounterSvc.getReference()).thenReturn(counterRoot);
+        when(waitingRoot.getRoot()).thenReturn(dbRoot);
 
         setPrivate(lottery, "waitingListService", mockWaitingSvc);
         setPrivate(lottery, "eventService",       mockEventSvc);
+        setPrivate(lottery, "counterService",     mockCounterSvc);
 
         when(waitingRoot.child(EVENT_ID)).thenReturn(waitingEventRef);
         when(waitingEventRef.child("WAITING")).thenReturn(waitingStatusRef);
@@ -116,15 +138,12 @@ public class PoolingReplacementTest {
         when(waitSnap.exists()).thenReturn(false);
         when(waitSnap.getChildren()).thenAnswer(i -> iterable());
 
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(waitSnap);
-            return null;
-        }).when(waitingStatusRef).addListenerForSingleValueEvent(any());
+        Task<DataSnapshot> waitRead = done(waitSnap);
+        when(waitingStatusRef.get()).thenReturn(waitRead);
 
         lottery.poolReplacement(5);
 
-        verify(waitingRoot, never()).updateChildren(anyMap(), any());
+        verify(dbRoot, never()).updateChildren(anyMap(), any());
     }
 
     @Test
@@ -141,26 +160,23 @@ public class PoolingReplacementTest {
 
         when(waitSnap.getChildren()).thenAnswer(i -> iterable(u1, u2, u3));
 
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(waitSnap);
-            return null;
-        }).when(waitingStatusRef).addListenerForSingleValueEvent(any());
+        Task<DataSnapshot> waitRead = done(waitSnap);
+        when(waitingStatusRef.get()).thenReturn(waitRead);
 
         doAnswer(inv -> {
             @SuppressWarnings("unchecked")
             Map<String, Object> map = inv.getArgument(0);
             DatabaseReference.CompletionListener cl = inv.getArgument(1);
-            cl.onComplete(null, waitingRoot);
+            cl.onComplete(null, dbRoot);
             return null;
-        }).when(waitingRoot).updateChildren(anyMap(), any());
+        }).when(dbRoot).updateChildren(anyMap(), any());
 
         ArgumentCaptor<Map<String, Object>> mapCap =
                 ArgumentCaptor.forClass((Class) Map.class);
 
         lottery.poolReplacement(2);
 
-        verify(waitingRoot).updateChildren(mapCap.capture(), any());
+        verify(dbRoot).updateChildren(mapCap.capture(), any());
         Map<String, Object> updates = mapCap.getValue();
 
         // 2 invited, 1 uninvited, all removed from WAITING
@@ -175,6 +191,11 @@ public class PoolingReplacementTest {
                 assertNull(updates.get(k));
             }
         });
+
+        // Counters move with the membership change
+        assertEquals(ServerValue.increment(-3), updates.get("Counters/" + EVENT_ID + "/WAITING"));
+        assertEquals(ServerValue.increment(2), updates.get("Counters/" + EVENT_ID + "/INVITED"));
+        assertEquals(ServerValue.increment(1), updates.get("Counters/" + EVENT_ID + "/UNINVITED"));
     }
 
     @Test
@@ -184,12 +205,128 @@ public class PoolingReplacementTest {
 
         lottery.poolReplacementAuto();
 
-        verify(waitingRoot, never()).updateChildren(anyMap(), any());
+        verify(dbRoot, never()).updateChildren(anyMap(), any());
     }
 
 
+    @Test
+    public void getCounts_issuesBothReadsAtOnce_andJoinsInAnyOrder() throws Exception {
+        Handler timeouts = mock(Handler.class);
+        setPrivate(lottery, "timeouts", timeouts);
+        DatabaseReference countersRef = mock(DatabaseReference.class);
+        when(counterRoot.child(EVENT_ID)).thenReturn(countersRef);
+        HeldRead limitRead = new HeldRead();
+        HeldRead counterRead = new HeldRead();
+        when(entrantLimitRef.get()).thenReturn(limitRead.task);
+        when(countersRef.get()).thenReturn(counterRead.task);
+
+        int[][] counts = { null };
+        List<Exception> errors = new ArrayList<>();
+        lottery.getCounts((invited, limit, waiting) -> counts[0] = new int[] { invited, limit, waiting }, errors::add);
+
+        // Both reads are out before either has answered
+        assertTrue(limitRead.isPending());
+        assertTrue(counterRead.isPending());
+
+        counterRead.answer(counterSnap(2, 4));
+        assertNull(counts[0]);
+        limitRead.answer(limitSnap(5));
+
+        assertArrayEquals(new int[] { 2, 5, 4 }, counts[0]);
+        assertTrue(errors.isEmpty());
+        verify(timeouts).removeCallbacks(any(Runnable.class));
+    }
+
+    @Test
+    public void getCounts_failedRead_reachesCaller() throws Exception {
+        setPrivate(lottery, "timeouts", mock(Handler.class));
+        DatabaseReference countersRef = mock(DatabaseReference.class);
+        when(counterRoot.child(EVENT_ID)).thenReturn(countersRef);
+        HeldRead limitRead = new HeldRead();
+        HeldRead counterRead = new HeldRead();
+        when(entrantLimitRef.get()).thenReturn(limitRead.task);
+        when(countersRef.get()).thenReturn(counterRead.task);
+
+        List<Exception> errors = new ArrayList<>();
+        lottery.getCounts((invited, limit, waiting) -> fail("counts delivered despite failure"), errors::add);
+        limitRead.fail(new DatabaseException("permission denied"));
+
+        assertEquals(1, errors.size());
+        assertEquals("permission denied", errors.get(0).getMessage());
+    }
+
+    @Test
+    public void getCounts_timesOut_andIgnoresLateAnswers() throws Exception {
+        Handler timeouts = mock(Handler.class);
+        setPrivate(lottery, "timeouts", timeouts);
+        DatabaseReference countersRef = mock(DatabaseReference.class);
+        when(counterRoot.child(EVENT_ID)).thenReturn(countersRef);
+        HeldRead limitRead = new HeldRead();
+        HeldRead counterRead = new HeldRead();
+        when(entrantLimitRef.get()).thenReturn(limitRead.task);
+        when(countersRef.get()).thenReturn(counterRead.task);
+
+        List<Exception> errors = new ArrayList<>();
+        lottery.getCounts((invited, limit, waiting) -> fail("counts delivered after timeout"), errors::add);
+
+        ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(timeouts).postDelayed(timeout.capture(), eq(Lottery.COUNTS_TIMEOUT_MS));
+        timeout.getValue().run();
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof TimeoutException);
+
+        limitRead.answer(limitSnap(5));
+        counterRead.answer(counterSnap(2, 4));
+        assertEquals(1, errors.size());
+    }
+
     // -------------------- HELPERS --------------------
 
+    /** A mocked successful read that completes each listener as it is attached. */
+    @SuppressWarnings("unchecked")
+    private static Task<DataSnapshot> done(DataSnapshot result) {
+        Task<DataSnapshot> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(true);
+        when(task.getResult()).thenReturn(result);
+        doAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(task);
+            return task;
+        }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        return task;
+    }
+
+    /** A mocked read that holds its listener until the test answers or fails it. */
+    private static final class HeldRead {
+        @SuppressWarnings("unchecked")
+        final Task<DataSnapshot> task = mock(Task.class);
+        OnCompleteListener<DataSnapshot> listener;
+
+        @SuppressWarnings("unchecked")
+        HeldRead() {
+            doAnswer(inv -> {
+                listener = inv.getArgument(0);
+                return task;
+            }).when(task).addOnCompleteListener(any(OnCompleteListener.class));
+        }
+
+        boolean isPending() {
+            return listener != null;
+        }
+
+        void answer(DataSnapshot result) {
+            when(task.isSuccessful()).thenReturn(true);
+            when(task.getResult()).thenReturn(result);
+            listener.onComplete(task);
+        }
+
+        void fail(Exception e) {
+            when(task.isSuccessful()).thenReturn(false);
+            when(task.getException()).thenReturn(e);
+            listener.onComplete(task);
+        }
+    }
+
     private static void setPrivate(Object target, String fieldName, Object value) throws Exception {
         Field f = target.getClass().getDeclaredField(fieldName);
         f.setAccessible(true);
@@ -201,10 +338,32 @@ public class PoolingReplacementTest {
         return () -> list.iterator();
     }
 
+    private static DataSnapshot limitSnap(int limit) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(true);
+        when(snap.getValue(Integer.class)).thenReturn(limit);
+        return snap;
+    }
+
+    private static DataSnapshot counterSnap(int invitedCount, int waitingCount) {
+        DataSnapshot inv = mock(DataSnapshot.class);
+        when(inv.getKey()).thenReturn("INVITED");
+        when(inv.getValue()).thenReturn((long) invitedCount);
+
+        DataSnapshot wait = mock(DataSnapshot.class);
+        when(wait.getKey()).thenReturn("WAITING");
+        when(wait.getValue()).thenReturn((long) waitingCount);
+
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(true);
+        when(snap.hasChild(StatusCounters.MARKER)).thenReturn(true);
+        when(snap.getChildren()).thenAnswer(i -> iterable(inv, wait));
+        return snap;
+    }
+
     /**
      * Mock the counts used by poolReplacementAuto.
-     * It triggers listeners for /Event/EVENT_ID/entrantLimit,
-     * /WaitingList/EVENT_ID/INVITED, /WaitingList/EVENT_ID/WAITING
+     * It answers the get() reads of /Event/EVENT_ID/entrantLimit and /Counters/EVENT_ID.
      */
     private void mockCounts(int invitedCount, int limit, int waitingCount) {
         // ----- Limit snapshot -----
@@ -212,34 +371,28 @@ public class PoolingReplacementTest {
         when(limitSnap.exists()).thenReturn(true);
         when(limitSnap.getValue(Integer.class)).thenReturn(limit);
 
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(limitSnap);
-            return null;
-        }).when(entrantLimitRef).addListenerForSingleValueEvent(any());
+        Task<DataSnapshot> limitRead = done(limitSnap);
+        when(entrantLimitRef.get()).thenReturn(limitRead);
 
-        // ----- Invited snapshot -----
-        DatabaseReference invitedRef = mock(DatabaseReference.class);
-        when(waitingEventRef.child("INVITED")).thenReturn(invitedRef);
+        // ----- Counter snapshot -----
+        DatabaseReference countersRef = mock(DatabaseReference.class);
+        when(counterRoot.child(EVENT_ID)).thenReturn(countersRef);
 
         DataSnapshot invSnap = mock(DataSnapshot.class);
-        when(invSnap.getChildrenCount()).thenReturn((long) invitedCount);
-
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(invSnap);
-            return null;
-        }).when(invitedRef).addListenerForSingleValueEvent(any());
+        when(invSnap.getKey()).thenReturn("INVITED");
+        when(invSnap.getValue()).thenReturn((long) invitedCount);
 
-        // ----- Waiting snapshot -----
         DataSnapshot waitSnap = mock(DataSnapshot.class);
-        when(waitSnap.getChildrenCount()).thenReturn((long) waitingCount);
+        when(waitSnap.getKey()).thenReturn("WAITING");
+        when(waitSnap.getValue()).thenReturn((long) waitingCount);
 
-        doAnswer(inv -> {
-            ValueEventListener l = inv.getArgument(0);
-            l.onDataChange(waitSnap);
-            return null;
-        }).when(waitingStatusRef).addListenerForSingleValueEvent(any());
+        DataSnapshot counterSnap = mock(DataSnapshot.class);
+        when(counterSnap.exists()).thenReturn(true);
+        when(counterSnap.hasChild(StatusCounters.MARKER)).thenReturn(true);
+        when(counterSnap.getChildren()).thenAnswer(i -> iterable(invSnap, waitSnap));
+
+        Task<DataSnapshot> counterRead = done(counterSnap);
+        when(countersRef.get()).thenReturn(counterRead);
     }
 
 }
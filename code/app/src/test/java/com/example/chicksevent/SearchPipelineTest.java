@@ -0,0 +1,191 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.SearchPipeline;
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link SearchPipeline}.
+ *
+ * <p>
+ * The scheduler only records debounced work and each query returns a task the test completes
+ * by hand, so the tests control both timing and the order in which results arrive.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>A burst of debounced submissions runs a single query, the last one</li>
+ *   <li>A newer query cancels the token of the one in flight</li>
+ *   <li>Stale results are dropped even when they arrive after the newest one</li>
+ *   <li>Failures of the newest query reach the receiver</li>
+ *   <li>Cancelling drops both pending and in-flight queries</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class SearchPipelineTest {
+
+    /** Debounced work recorded by the scheduler, run with {@link #runScheduled()}. */
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    /** One entry per started query. */
+    private final List<Started> started = new ArrayList<>();
+
+    private final List<String> delivered = new ArrayList<>();
+    private final List<Exception> errors = new ArrayList<>();
+
+    private SearchPipeline<String> pipeline;
+
+    /** A started query: its label, the token it was given and the listener awaiting its result. */
+    private static final class Started {
+        final String label;
+        final CancellationToken token;
+        final Task<String> task;
+        OnCompleteListener<String> listener;
+
+        Started(String label, CancellationToken token, Task<String> task) {
+            this.label = label;
+            this.token = token;
+            this.task = task;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        pipeline = new SearchPipeline<>((task, delayMs) -> scheduled.add(task), 250,
+                new SearchPipeline.Receiver<String>() {
+                    @Override
+                    public void onResult(String result) {
+                        delivered.add(result);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        errors.add(e);
+                    }
+                });
+    }
+
+    @Test
+    public void burstOfKeystrokes_runsOnlyTheLastQuery() {
+        pipeline.submit(query("j"));
+        pipeline.submit(query("ja"));
+        pipeline.submit(query("jaz"));
+        assertTrue(started.isEmpty());
+
+        runScheduled();
+
+        assertEquals(1, started.size());
+        assertEquals("jaz", started.get(0).label);
+        succeed(0, "jaz-result");
+        assertEquals(Collections.singletonList("jaz-result"), delivered);
+    }
+
+    @Test
+    public void newerQuery_cancelsInFlightToken_andStaleResultIsDropped() {
+        pipeline.submitNow(query("slow"));
+        pipeline.submitNow(query("fast"));
+
+        assertTrue(started.get(0).token.isCancellationRequested());
+        assertFalse(started.get(1).token.isCancellationRequested());
+
+        // The newer query answers first; the superseded one arrives late
+        succeed(1, "fast-result");
+        succeed(0, "slow-result");
+
+        assertEquals(Collections.singletonList("fast-result"), delivered);
+    }
+
+    @Test
+    public void debouncedSubmission_supersedesQueryInFlight() {
+        pipeline.submitNow(query("apply"));
+        pipeline.submit(query("typed"));
+
+        assertTrue(started.get(0).token.isCancellationRequested());
+        succeed(0, "apply-result");
+        assertTrue(delivered.isEmpty());
+
+        runScheduled();
+        succeed(1, "typed-result");
+        assertEquals(Collections.singletonList("typed-result"), delivered);
+    }
+
+    @Test
+    public void failureOfNewestQuery_reachesReceiver() {
+        pipeline.submitNow(query("q"));
+        Exception boom = new Exception("offline");
+
+        fail(0, boom);
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, errors.size());
+        assertSame(boom, errors.get(0));
+    }
+
+    @Test
+    public void cancel_dropsPendingAndInFlightQueries() {
+        pipeline.submitNow(query("in-flight"));
+        pipeline.submit(query("pending"));
+        pipeline.cancel();
+
+        runScheduled();
+        assertEquals(1, started.size());
+
+        succeed(0, "late");
+        assertTrue(delivered.isEmpty());
+        assertTrue(errors.isEmpty());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** @return a query that records its start and completes when the test says so */
+    @SuppressWarnings("unchecked")
+    private SearchPipeline.Query<String> query(String label) {
+        return token -> {
+            Task<String> task = mock(Task.class);
+            Started s = new Started(label, token, task);
+            when(task.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+                s.listener = inv.getArgument(0);
+                return task;
+            });
+            started.add(s);
+            return task;
+        };
+    }
+
+    private void succeed(int index, String result) {
+        Started s = started.get(index);
+        when(s.task.isSuccessful()).thenReturn(true);
+        when(s.task.getResult()).thenReturn(result);
+        s.listener.onComplete(s.task);
+    }
+
+    private void fail(int index, Exception e) {
+        Started s = started.get(index);
+        when(s.task.isSuccessful()).thenReturn(false);
+        when(s.task.getException()).thenReturn(e);
+        s.listener.onComplete(s.task);
+    }
+
+    private void runScheduled() {
+        List<Runnable> due = new ArrayList<>(scheduled);
+        scheduled.clear();
+        for (Runnable r : due) r.run();
+    }
+}
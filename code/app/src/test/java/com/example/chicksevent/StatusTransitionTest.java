@@ -0,0 +1,246 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.enums.EntrantStatus;
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.StatusTransition;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link StatusTransition}.
+ *
+ * <p>
+ * Claim transactions on old entries are held until the test answers them, so the tests can
+ * check that the single write waits for every claim.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Many moves become one update with aggregated counter deltas</li>
+ *   <li>Payloads travel with the entrant into the new bucket</li>
+ *   <li>Carried payloads are claimed in parallel and written once, after the last claim</li>
+ *   <li>A claim removes the old entry itself, so the update does not delete it again</li>
+ *   <li>A move whose old entry is missing is dropped</li>
+ *   <li>A failed claim drops its move and fails the commit; claimed moves are still written</li>
+ *   <li>No-op moves and empty transitions write nothing</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class StatusTransitionTest {
+
+    private static final String EVENT_ID = "E1";
+
+    private FirebaseService waitingListService;
+    private DatabaseReference waitingListRef;
+
+    /** Pending claim transactions by entrant id, answered with {@link #answer}. */
+    private final Map<String, Transaction.Handler> pendingClaims = new HashMap<>();
+
+    /** Values the claims left behind, by entrant id. */
+    private final Map<String, Object> claimWrites = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        waitingListRef = mock(DatabaseReference.class, RETURNS_DEEP_STUBS);
+        waitingListService = mock(FirebaseService.class);
+        when(waitingListService.getReference()).thenReturn(waitingListRef);
+        when(waitingListService.updateMultiPath(any())).thenReturn(Tasks.forResult(null));
+    }
+
+    @Test
+    public void explicitMoves_becomeOneUpdate_withAggregatedCounters() {
+        Map<String, Object> located = new HashMap<>();
+        located.put("latitude", 53.5461);
+        located.put("longitude", -113.4938);
+
+        Map<String, Object> updates = new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.WAITING, EntrantStatus.INVITED, located)
+                .move("u2", EntrantStatus.WAITING, EntrantStatus.INVITED, Boolean.TRUE)
+                .move("u3", EntrantStatus.WAITING, EntrantStatus.UNINVITED, null)
+                .toUpdates();
+
+        assertEquals(located, updates.get(wl("INVITED", "u1")));
+        assertEquals(Boolean.TRUE, updates.get(wl("INVITED", "u2")));
+        assertTrue(updates.get(wl("UNINVITED", "u3")) instanceof Map);
+        for (String id : new String[] { "u1", "u2", "u3" }) {
+            assertTrue(updates.containsKey(wl("WAITING", id)));
+            assertNull(updates.get(wl("WAITING", id)));
+        }
+        assertEquals("INVITED", updates.get("UserEvents/u1/" + EVENT_ID));
+        assertEquals("UNINVITED", updates.get("UserEvents/u3/" + EVENT_ID));
+
+        assertEquals(ServerValue.increment(-3), updates.get("Counters/" + EVENT_ID + "/WAITING"));
+        assertEquals(ServerValue.increment(2), updates.get("Counters/" + EVENT_ID + "/INVITED"));
+        assertEquals(ServerValue.increment(1), updates.get("Counters/" + EVENT_ID + "/UNINVITED"));
+    }
+
+    @Test
+    public void carriedPayloads_areClaimedInParallel_andWrittenOnce() {
+        stubClaim("INVITED", "u1");
+        stubClaim("INVITED", "u2");
+        Map<String, Object> u1Entry = new HashMap<>();
+        u1Entry.put("latitude", 1.5);
+        u1Entry.put("longitude", 2.5);
+
+        new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.INVITED, EntrantStatus.CANCELLED)
+                .move("u2", EntrantStatus.INVITED, EntrantStatus.CANCELLED)
+                .commit(waitingListService);
+
+        // Both claims are on the wire before either answers
+        assertEquals(2, pendingClaims.size());
+
+        answer("u1", true, u1Entry);
+        verify(waitingListService, never()).updateMultiPath(any());
+
+        // u2 was already moved elsewhere: its old node is gone
+        answer("u2", false, null);
+
+        Map<String, Object> updates = captureUpdate();
+        assertEquals(u1Entry, updates.get(wl("CANCELLED", "u1")));
+        // The claim already removed the old entry
+        assertTrue(claimWrites.containsKey("u1"));
+        assertNull(claimWrites.get("u1"));
+        assertFalse(updates.containsKey(wl("INVITED", "u1")));
+        assertFalse(updates.containsKey(wl("CANCELLED", "u2")));
+        assertFalse(updates.containsKey(wl("INVITED", "u2")));
+        assertFalse(updates.containsKey("UserEvents/u2/" + EVENT_ID));
+        assertEquals(ServerValue.increment(-1), updates.get("Counters/" + EVENT_ID + "/INVITED"));
+        assertEquals(ServerValue.increment(1), updates.get("Counters/" + EVENT_ID + "/CANCELLED"));
+    }
+
+    @Test
+    public void everyEntryMissing_writesNothing() {
+        stubClaim("INVITED", "u1");
+
+        Task<Void> commit = new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.INVITED, EntrantStatus.ACCEPTED)
+                .commit(waitingListService);
+        answer("u1", false, null);
+
+        assertTrue(commit.isSuccessful());
+        verify(waitingListService, never()).updateMultiPath(any());
+    }
+
+    @Test
+    public void failedClaim_failsCommit_afterWritingClaimedMoves() {
+        stubClaim("INVITED", "u1");
+        stubClaim("INVITED", "u2");
+
+        Task<Void> commit = new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.INVITED, EntrantStatus.CANCELLED)
+                .move("u2", EntrantStatus.INVITED, EntrantStatus.CANCELLED)
+                .commit(waitingListService);
+        failClaim("u1");
+        answer("u2", true, Boolean.TRUE);
+
+        assertTrue(commit.isComplete());
+        assertFalse(commit.isSuccessful());
+
+        // u2 is out of INVITED already, so it has to land in CANCELLED; u1 was never moved
+        Map<String, Object> updates = captureUpdate();
+        assertEquals(Boolean.TRUE, updates.get(wl("CANCELLED", "u2")));
+        assertFalse(updates.containsKey(wl("CANCELLED", "u1")));
+        assertFalse(updates.containsKey("UserEvents/u1/" + EVENT_ID));
+        assertEquals(ServerValue.increment(-1), updates.get("Counters/" + EVENT_ID + "/INVITED"));
+    }
+
+    @Test
+    public void noOpMoves_writeNothing() {
+        StatusTransition transition = new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.WAITING, EntrantStatus.WAITING)
+                .move("u2", EntrantStatus.INVITED, EntrantStatus.INVITED, Boolean.TRUE);
+
+        assertTrue(transition.isEmpty());
+        assertTrue(transition.commit(waitingListService).isSuccessful());
+        verify(waitingListService, never()).updateMultiPath(any());
+        verify(waitingListService, never()).getReference();
+    }
+
+    @Test
+    public void explicitMoves_commitWithoutReading() {
+        StatusTransition transition = new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.WAITING, EntrantStatus.INVITED, Boolean.TRUE);
+        assertFalse(transition.isEmpty());
+
+        transition.commit(waitingListService);
+
+        verify(waitingListService, never()).getReference();
+        assertEquals(Boolean.TRUE, captureUpdate().get(wl("INVITED", "u1")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void toUpdates_beforePayloadRead_throws() {
+        new StatusTransition(EVENT_ID)
+                .move("u1", EntrantStatus.INVITED, EntrantStatus.ACCEPTED)
+                .toUpdates();
+    }
+
+    // -------------------- helpers --------------------
+
+    /**
+     * Holds the transaction on {@code WaitingList/E1/{status}/{uid}} until {@link #answer} or
+     * {@link #failClaim} is called.
+     */
+    private void stubClaim(String status, String uid) {
+        DatabaseReference entry = waitingListRef.child(EVENT_ID).child(status).child(uid);
+        doAnswer(inv -> {
+            pendingClaims.put(uid, inv.getArgument(0));
+            return null;
+        }).when(entry).runTransaction(any(Transaction.Handler.class));
+    }
+
+    /** Runs the held claim against an entry that holds {@code value}, or none, and commits it. */
+    private void answer(String uid, boolean exists, Object value) {
+        Transaction.Handler handler = pendingClaims.get(uid);
+        MutableData current = mock(MutableData.class);
+        when(current.getValue()).thenReturn(exists ? value : null);
+        doAnswer(set -> {
+            claimWrites.put(uid, set.getArgument(0));
+            return null;
+        }).when(current).setValue(any());
+        handler.doTransaction(current);
+        handler.onComplete(null, true, null);
+    }
+
+    private void failClaim(String uid) {
+        pendingClaims.get(uid).onComplete(DatabaseError.fromException(new Exception("offline")), false, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> captureUpdate() {
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(waitingListService, times(1)).updateMultiPath(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String wl(String status, String uid) {
+        return "WaitingList/" + EVENT_ID + "/" + status + "/" + uid;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.TagIndex;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link TagIndex}.
+ *
+ * <p>
+ * Every read answers synchronously from mocked snapshots, so the returned tasks are complete
+ * when the call returns.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Tags are split and normalized the same way the search screen splits its input</li>
+ *   <li>Editing tags deletes the entries of dropped tags and adds the new ones</li>
+ *   <li>A query reads only the requested buckets and unions their ids</li>
+ *   <li>A missing migration marker triggers one rebuild from the catalogue, shared by queries
+ *       issued while it runs</li>
+ *   <li>A failed marker read fails the query without rebuilding</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class TagIndexTest {
+
+    private FirebaseService tagService;
+    private FirebaseService eventService;
+    private DatabaseReference tagRef;
+    private DatabaseReference markerRef;
+    private DatabaseReference eventRef;
+    private TagIndex index;
+
+    @Before
+    public void setUp() {
+        tagRef = mock(DatabaseReference.class);
+        markerRef = mock(DatabaseReference.class);
+        DatabaseReference dbRoot = mock(DatabaseReference.class);
+        when(tagRef.getRoot()).thenReturn(dbRoot);
+        when(dbRoot.child("Migrations/tags")).thenReturn(markerRef);
+
+        tagService = mock(FirebaseService.class);
+        when(tagService.getReference()).thenReturn(tagRef);
+        when(tagService.updateMultiPath(any())).thenAnswer(inv -> written());
+
+        eventRef = mock(DatabaseReference.class);
+        eventService = mock(FirebaseService.class);
+        when(eventService.getReference()).thenReturn(eventRef);
+
+        index = new TagIndex(tagService, eventService);
+    }
+
+    @Test
+    public void parse_splitsAndNormalizes() {
+        Set<String> keys = TagIndex.parse(" Sports, music  sports,,Board.Games ");
+
+        assertEquals(Arrays.asList("sports", "music", "boardgames"), new ArrayList<>(keys));
+        assertTrue(TagIndex.parse(null).isEmpty());
+        assertNull(TagIndex.normalize("  "));
+    }
+
+    @Test
+    public void putChanges_movesEntriesForEditedTags() {
+        Map<String, Object> updates = new HashMap<>();
+
+        TagIndex.putChanges(updates, "E1", "sports,music", "Music,art");
+
+        assertEquals(2, updates.size());
+        assertTrue(updates.containsKey("Tags/sports/E1"));
+        assertNull(updates.get("Tags/sports/E1"));
+        assertEquals(Boolean.TRUE, updates.get("Tags/art/E1"));
+    }
+
+    @Test
+    public void eventIdsFor_readsOnlyRequestedBuckets() {
+        stubRead(markerRef, snapshot(true));
+        DatabaseReference sports = bucket("sports", "E1", "E2");
+        DatabaseReference music = bucket("music", "E2", "E3");
+        DatabaseReference art = bucket("art", "E9");
+
+        Task<Set<String>> t = index.eventIdsFor(Arrays.asList("Sports", "music", "SPORTS"));
+
+        assertTrue(t.isSuccessful());
+        assertEquals(Arrays.asList("E1", "E2", "E3"), new ArrayList<>(t.getResult()));
+        verify(sports, times(1)).get();
+        verify(music, times(1)).get();
+        verify(art, never()).get();
+        verify(eventRef, never()).get();
+    }
+
+    @Test
+    public void missingMarker_rebuildsOnceFromCatalogue() {
+        stubRead(markerRef, snapshot(false));
+        DataSnapshot catalogue = snapshot(true);
+        List<DataSnapshot> events = new ArrayList<>();
+        events.add(event("E1", "sports"));
+        events.add(event("E2", "Music, sports"));
+        events.add(event("E3", null));
+        when(catalogue.getChildren()).thenReturn(events);
+        stubRead(eventRef, catalogue);
+        bucket("sports", "E1", "E2");
+
+        index.eventIdsFor(Arrays.asList("sports"));
+        index.eventIdsFor(Arrays.asList("sports"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(tagService, times(1)).updateMultiPath(captor.capture());
+        Map<String, Object> updates = captor.getValue();
+        assertEquals(Boolean.TRUE, updates.get("Tags/sports/E1"));
+        assertEquals(Boolean.TRUE, updates.get("Tags/sports/E2"));
+        assertEquals(Boolean.TRUE, updates.get("Tags/music/E2"));
+        assertEquals(Boolean.TRUE, updates.get("Migrations/tags"));
+        assertEquals(4, updates.size());
+        verify(eventRef, times(1)).get();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void concurrentQueries_shareOneRebuild() {
+        stubRead(markerRef, snapshot(false));
+        Task<DataSnapshot> catalogueRead = mock(Task.class);
+        List<OnCompleteListener<DataSnapshot>> waiting = new ArrayList<>();
+        when(eventRef.get()).thenReturn(catalogueRead);
+        when(catalogueRead.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            waiting.add(inv.getArgument(0));
+            return catalogueRead;
+        });
+        bucket("sports", "E1");
+
+        Task<Set<String>> first = index.eventIdsFor(Arrays.asList("sports"));
+        Task<Set<String>> second = index.eventIdsFor(Arrays.asList("sports"));
+        assertFalse(first.isComplete());
+
+        DataSnapshot catalogue = snapshot(true);
+        when(catalogue.getChildren()).thenReturn(Arrays.asList(event("E1", "sports")));
+        when(catalogueRead.isSuccessful()).thenReturn(true);
+        when(catalogueRead.getResult()).thenReturn(catalogue);
+        for (OnCompleteListener<DataSnapshot> l : waiting) l.onComplete(catalogueRead);
+
+        assertEquals(Arrays.asList("E1"), new ArrayList<>(first.getResult()));
+        assertEquals(Arrays.asList("E1"), new ArrayList<>(second.getResult()));
+        verify(markerRef, times(1)).get();
+        verify(eventRef, times(1)).get();
+        verify(tagService, times(1)).updateMultiPath(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void failedMarkerRead_failsWithoutRebuilding() {
+        Task<DataSnapshot> read = mock(Task.class);
+        when(markerRef.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(false);
+        when(read.getException()).thenReturn(new Exception("offline"));
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+
+        Task<Set<String>> t = index.eventIdsFor(Arrays.asList("sports"));
+
+        assertTrue(t.isComplete());
+        assertFalse(t.isSuccessful());
+        verify(eventRef, never()).get();
+        verify(tagService, never()).updateMultiPath(any());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** Stubs {@code Tags/{key}} with one child per id and returns its reference. */
+    private DatabaseReference bucket(String key, String... ids) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(tagRef.child(key)).thenReturn(ref);
+        DataSnapshot snap = snapshot(true);
+        List<DataSnapshot> children = new ArrayList<>();
+        for (String id : ids) {
+            DataSnapshot child = mock(DataSnapshot.class);
+            when(child.getKey()).thenReturn(id);
+            children.add(child);
+        }
+        when(snap.getChildren()).thenReturn(children);
+        stubRead(ref, snap);
+        return ref;
+    }
+
+    private static DataSnapshot event(String id, String tag) {
+        DataSnapshot event = mock(DataSnapshot.class);
+        DataSnapshot tagSnap = mock(DataSnapshot.class);
+        when(event.getKey()).thenReturn(id);
+        when(event.child("tag")).thenReturn(tagSnap);
+        when(tagSnap.getValue()).thenReturn(tag);
+        return event;
+    }
+
+    private static DataSnapshot snapshot(boolean exists) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.exists()).thenReturn(exists);
+        return snap;
+    }
+
+    /** @return a write task that completes as soon as a listener is attached */
+    @SuppressWarnings("unchecked")
+    private static Task<Void> written() {
+        Task<Void> write = mock(Task.class);
+        when(write.isSuccessful()).thenReturn(true);
+        when(write.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<Void>) inv.getArgument(0)).onComplete(write);
+            return write;
+        });
+        return write;
+    }
+
+    /** Makes {@code ref.get()} answer immediately with {@code result}. */
+    @SuppressWarnings("unchecked")
+    private static void stubRead(DatabaseReference ref, DataSnapshot result) {
+        Task<DataSnapshot> read = mock(Task.class);
+        when(ref.get()).thenReturn(read);
+        when(read.isSuccessful()).thenReturn(true);
+        when(read.getResult()).thenReturn(result);
+        when(read.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<DataSnapshot>) inv.getArgument(0)).onComplete(read);
+            return read;
+        });
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.UserEventsIndex;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link UserEventsIndex}.
+ *
+ * <p>
+ * Reads answer from mocked snapshots. The waiting-list read can be held, so the tests can
+ * issue a second query while the rebuild is still in flight.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>With the marker present, a query is one keyed read of the user's node</li>
+ *   <li>A missing marker rebuilds the index once from the waiting lists, shared by every
+ *       caller that arrives while it runs</li>
+ *   <li>A failed marker read fails the query without rebuilding</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class UserEventsIndexTest {
+
+    private FirebaseService indexService;
+    private FirebaseService waitingListService;
+    private DatabaseReference indexRef;
+    private DatabaseReference markerRef;
+    private DatabaseReference waitingListRef;
+    private UserEventsIndex index;
+
+    @Before
+    public void setUp() {
+        indexRef = mock(DatabaseReference.class);
+        markerRef = mock(DatabaseReference.class);
+        DatabaseReference dbRoot = mock(DatabaseReference.class);
+        when(indexRef.getRoot()).thenReturn(dbRoot);
+        when(dbRoot.child("Migrations/userEvents")).thenReturn(markerRef);
+
+        indexService = mock(FirebaseService.class);
+        when(indexService.getReference()).thenReturn(indexRef);
+        when(indexService.updateMultiPath(any())).thenAnswer(inv -> completed(true, null));
+
+        waitingListRef = mock(DatabaseReference.class);
+        waitingListService = mock(FirebaseService.class);
+        when(waitingListService.getReference()).thenReturn(waitingListRef);
+
+        index = new UserEventsIndex(indexService, waitingListService);
+    }
+
+    @Test
+    public void builtIndex_isOneKeyedRead() {
+        stubRead(markerRef, completed(true, snapshot("Migrations/userEvents")));
+        stubUser("u1", "E1", "E2");
+
+        Task<Set<String>> ids = index.eventIdsFor("u1");
+
+        assertEquals(Arrays.asList("E1", "E2"), new ArrayList<>(ids.getResult()));
+        verify(waitingListRef, never()).get();
+        verify(indexService, never()).updateMultiPath(any());
+    }
+
+    @Test
+    public void missingMarker_rebuildsOnce_forConcurrentCallers() {
+        stubRead(markerRef, completed(true, missing()));
+        Held<DataSnapshot> lists = new Held<>();
+        when(waitingListRef.get()).thenReturn(lists.task);
+        stubUser("u1", "E1");
+
+        Task<Set<String>> first = index.eventIdsFor("u1");
+        Task<Set<String>> second = index.eventIdsFor("u1");
+        assertFalse(first.isComplete());
+
+        lists.answer(snapshot("WaitingList",
+                snapshot("E1", snapshot("WAITING", snapshot("u1"), snapshot("u2"))),
+                snapshot("E2", snapshot("INVITED", snapshot("u2")))));
+
+        assertEquals(Collections.singletonList("E1"), new ArrayList<>(first.getResult()));
+        assertEquals(Collections.singletonList("E1"), new ArrayList<>(second.getResult()));
+        verify(markerRef, times(1)).get();
+        verify(waitingListRef, times(1)).get();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(indexService, times(1)).updateMultiPath(captor.capture());
+        Map<String, Object> updates = captor.getValue();
+        assertEquals("WAITING", updates.get("UserEvents/u1/E1"));
+        assertEquals("WAITING", updates.get("UserEvents/u2/E1"));
+        assertEquals("INVITED", updates.get("UserEvents/u2/E2"));
+        assertEquals(Boolean.TRUE, updates.get("Migrations/userEvents"));
+
+        // Later queries skip the marker
+        index.eventIdsFor("u1");
+        verify(markerRef, times(1)).get();
+    }
+
+    @Test
+    public void failedMarkerRead_failsWithoutRebuilding() {
+        stubRead(markerRef, completed(false, null));
+
+        Task<Set<String>> ids = index.eventIdsFor("u1");
+
+        assertTrue(ids.isComplete());
+        assertFalse(ids.isSuccessful());
+        verify(waitingListRef, never()).get();
+        verify(indexService, never()).updateMultiPath(any());
+    }
+
+    // -------------------- helpers --------------------
+
+    /** A task whose listeners are held until {@link #answer} is called. */
+    private static final class Held<T> {
+        @SuppressWarnings("unchecked")
+        final Task<T> task = mock(Task.class);
+        final List<OnCompleteListener<T>> listeners = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        Held() {
+            when(task.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+                listeners.add(inv.getArgument(0));
+                return task;
+            });
+        }
+
+        void answer(T result) {
+            when(task.isSuccessful()).thenReturn(true);
+            when(task.getResult()).thenReturn(result);
+            for (OnCompleteListener<T> l : listeners) l.onComplete(task);
+        }
+    }
+
+    /** Stubs {@code UserEvents/{uid}} with one child per event id. */
+    private void stubUser(String uid, String... eventIds) {
+        DatabaseReference ref = mock(DatabaseReference.class);
+        when(indexRef.child(uid)).thenReturn(ref);
+        DataSnapshot[] children = new DataSnapshot[eventIds.length];
+        for (int i = 0; i < eventIds.length; i++) children[i] = snapshot(eventIds[i]);
+        stubRead(ref, completed(true, snapshot(uid, children)));
+    }
+
+    /** An existing snapshot named {@code key} with the given children. */
+    private static DataSnapshot snapshot(String key, DataSnapshot... children) {
+        DataSnapshot snap = mock(DataSnapshot.class);
+        when(snap.getKey()).thenReturn(key);
+        when(snap.exists()).thenReturn(true);
+        when(snap.getChildren()).thenReturn(Arrays.asList(children));
+        return snap;
+    }
+
+    private static DataSnapshot missing() {
+        return mock(DataSnapshot.class);
+    }
+
+    /** @return a task that completes as soon as a listener is attached */
+    @SuppressWarnings("unchecked")
+    private static <T> Task<T> completed(boolean successful, T result) {
+        Task<T> task = mock(Task.class);
+        when(task.isSuccessful()).thenReturn(successful);
+        when(task.getResult()).thenReturn(result);
+        if (!successful) when(task.getException()).thenReturn(new Exception("offline"));
+        when(task.addOnCompleteListener(any(OnCompleteListener.class))).thenAnswer(inv -> {
+            ((OnCompleteListener<T>) inv.getArgument(0)).onComplete(task);
+            return task;
+        });
+        return task;
+    }
+
+    private static void stubRead(DatabaseReference ref, Task<DataSnapshot> read) {
+        when(ref.get()).thenReturn(read);
+    }
+}
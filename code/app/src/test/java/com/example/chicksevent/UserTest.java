@@ -20,6 +20,7 @@ import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Unit tests for {@link User}.
@@ -121,23 +122,26 @@ public class UserTest {
     }
 
     @Test
-    public void updateProfile_success_callsEditEntryWithTrimmedValues() {
+    public void updateProfile_success_writesTrimmedValuesAndPrefsInOneUpdate() {
         boolean ok = user.updateProfile(" Alice ", " alice@example.com ", " 555-0100 ", true);
         assertTrue(ok);
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<HashMap<String, Object>> cap =
-                ArgumentCaptor.forClass((Class) HashMap.class);
-
-        verify(mockUserSvc).editEntry(eq(UID), cap.capture());
-
-        HashMap<String, Object> sent = cap.getValue();
-        assertEquals("Alice", sent.get("name"));
-        assertEquals("alice@example.com", sent.get("email"));
-        assertEquals("555-0100", sent.get("phoneNumber"));
-        assertEquals(UID, sent.get("uid"));
-        assertEquals(true, sent.get("notificationsEnabled"));
-        assertEquals(false, sent.get("bannedFromOrganizer")); // default should be false
+        ArgumentCaptor<Map<String, Object>> cap =
+                ArgumentCaptor.forClass((Class) Map.class);
+
+        verify(mockUserSvc, times(1)).updateMultiPath(cap.capture());
+        verify(mockUserSvc, never()).editEntry(anyString(), any(HashMap.class));
+
+        Map<String, Object> sent = cap.getValue();
+        String profile = "User/" + UID + "/";
+        assertEquals("Alice", sent.get(profile + "name"));
+        assertEquals("alice@example.com", sent.get(profile + "email"));
+        assertEquals("555-0100", sent.get(profile + "phoneNumber"));
+        assertEquals(UID, sent.get(profile + "uid"));
+        assertEquals(true, sent.get(profile + "notificationsEnabled"));
+        assertEquals(false, sent.get(profile + "bannedFromOrganizer")); // default should be false
+        assertEquals(true, sent.get("NotificationPrefs/" + UID));
     }
 
     @Test
@@ -145,7 +149,7 @@ public class UserTest {
         assertFalse(user.updateProfile(" ", "x@x", null, true));
         assertFalse(user.updateProfile("Bob", "   ", null, true));
 
-        verify(mockUserSvc, never()).editEntry(anyString(), any(HashMap.class));
+        verify(mockUserSvc, never()).updateMultiPath(any());
     }
 
     @Test
@@ -153,7 +157,7 @@ public class UserTest {
         // Force userId empty via reflection to trigger guard
         setPrivate(user, "userId", "");
         assertFalse(user.updateProfile("Alice", "a@b", null, true));
-        verify(mockUserSvc, never()).editEntry(anyString(), any(HashMap.class));
+        verify(mockUserSvc, never()).updateMultiPath(any());
     }
 
     @Test
@@ -161,19 +165,21 @@ public class UserTest {
         user.createMockUser();
 
         @SuppressWarnings("unchecked")
-        ArgumentCaptor<HashMap<String, Object>> cap =
-                ArgumentCaptor.forClass((Class) HashMap.class);
+        ArgumentCaptor<Map<String, Object>> cap =
+                ArgumentCaptor.forClass((Class) Map.class);
 
         // createMockUser sets userId to "test-user-id" and calls updateProfile(...)
-        verify(mockUserSvc).editEntry(eq("test-user-id"), cap.capture());
-
-        HashMap<String, Object> sent = cap.getValue();
-        assertEquals("test-user", sent.get("name"));
-        assertEquals("test-email@gmail.com", sent.get("email"));
-        assertEquals("123-456-7890", sent.get("phoneNumber"));
-        assertEquals(false, sent.get("notificationsEnabled"));
-        assertEquals("test-user-id", sent.get("uid"));
-        assertEquals(false, sent.get("bannedFromOrganizer")); // default should be false
+        verify(mockUserSvc).updateMultiPath(cap.capture());
+
+        Map<String, Object> sent = cap.getValue();
+        String profile = "User/test-user-id/";
+        assertEquals("test-user", sent.get(profile + "name"));
+        assertEquals("test-email@gmail.com", sent.get(profile + "email"));
+        assertEquals("123-456-7890", sent.get(profile + "phoneNumber"));
+        assertEquals(false, sent.get(profile + "notificationsEnabled"));
+        assertEquals("test-user-id", sent.get(profile + "uid"));
+        assertEquals(false, sent.get(profile + "bannedFromOrganizer")); // default should be false
+        assertEquals(false, sent.get("NotificationPrefs/test-user-id"));
     }
 
     // -------------------- isBannedFromOrganizer --------------------
@@ -0,0 +1,216 @@
+package com.example.chicksevent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.chicksevent.misc.FirebaseService;
+import com.example.chicksevent.misc.WriteBatcher;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link WriteBatcher} and batched {@link FirebaseService} writes.
+ *
+ * <p>
+ * The database root is a mock that records every multi-path update and holds its completion
+ * listener, so the tests decide when a batch "commits". The flush window is driven by hand
+ * through a fake {@link WriteBatcher.Scheduler}.
+ * </p>
+ *
+ * <h2>Behaviours verified</h2>
+ * <ul>
+ *   <li>Writes in one window become a single root-level {@code updateChildren}</li>
+ *   <li>Each write's task completes when its batch commits, or fails with it</li>
+ *   <li>Overlapping paths split batches so issue order is preserved</li>
+ *   <li>Increments to the same path are summed rather than replaced</li>
+ *   <li>Batch size and latency are reported to the listener</li>
+ *   <li>Batched service methods address root-relative paths</li>
+ * </ul>
+ *
+ * @author Jinn Kasai
+ */
+public class WriteBatcherTest {
+
+    private MockedStatic<FirebaseDatabase> firebaseDbStatic;
+    private DatabaseReference root;
+    private WriteBatcher batcher;
+
+    /** Multi-path maps sent to the root, in order. */
+    private final List<Map<String, Object>> commits = new ArrayList<>();
+
+    /** Completion listeners of those commits, in order. */
+    private final List<DatabaseReference.CompletionListener> acks = new ArrayList<>();
+
+    /** Flushes handed to the scheduler but not yet run. */
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        root = mock(DatabaseReference.class);
+        doAnswer(inv -> {
+            commits.add(new HashMap<>((Map<String, Object>) inv.getArgument(0)));
+            acks.add(inv.getArgument(1));
+            return null;
+        }).when(root).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
+
+        batcher = new WriteBatcher(root, 50, (task, delayMs) -> scheduled.add(task));
+
+        // Batched services still resolve their own root reference at construction
+        firebaseDbStatic = mockStatic(FirebaseDatabase.class);
+        FirebaseDatabase mockDb = mock(FirebaseDatabase.class);
+        firebaseDbStatic.when(FirebaseDatabase::getInstance).thenReturn(mockDb);
+        when(mockDb.getReference(anyString())).thenAnswer(inv -> mock(DatabaseReference.class));
+    }
+
+    @After
+    public void tearDown() {
+        if (firebaseDbStatic != null) firebaseDbStatic.close();
+    }
+
+    @Test
+    public void writesInOneWindow_becomeOneUpdate() {
+        List<Task<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(batcher.update(single("Notification/u" + i + "/E1/INVITED/message", "hi")));
+        }
+        verify(root, never()).updateChildren(anyMap(), any(DatabaseReference.CompletionListener.class));
+        assertEquals(1, scheduled.size());
+
+        runScheduled();
+
+        assertEquals(1, commits.size());
+        assertEquals(100, commits.get(0).size());
+        assertFalse(tasks.get(0).isComplete());
+
+        acks.get(0).onComplete(null, root);
+        for (Task<Void> t : tasks) assertTrue(t.isSuccessful());
+    }
+
+    @Test
+    public void failedBatch_failsEveryWrite() {
+        Task<Void> a = batcher.update(single("User/u1/name", "A"));
+        Task<Void> b = batcher.update(single("User/u2/name", "B"));
+        batcher.flush();
+
+        acks.get(0).onComplete(DatabaseError.fromException(new Exception("denied")), root);
+
+        assertTrue(a.isComplete());
+        assertFalse(a.isSuccessful());
+        assertFalse(b.isSuccessful());
+    }
+
+    @Test
+    public void overlappingPaths_splitBatchesInOrder() {
+        batcher.update(single("Notification/u1/E1/SYSTEM/message", "cancelled"));
+        batcher.update(single("Notification/u2/E1/SYSTEM/message", "cancelled"));
+        // Ancestor of a buffered path: the buffer must reach the server first
+        batcher.update(single("Notification/u1/E1", null));
+        batcher.flush();
+
+        assertEquals(2, commits.size());
+        assertEquals(2, commits.get(0).size());
+        assertTrue(commits.get(1).containsKey("Notification/u1/E1"));
+        assertNull(commits.get(1).get("Notification/u1/E1"));
+    }
+
+    @Test
+    public void incrementsToOnePath_areSummed() {
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> delivery = new HashMap<>();
+            delivery.put("Notification/u1/-K" + i + "/message", "hi");
+            delivery.put("UnreadCount/u1", ServerValue.increment(1));
+            batcher.update(delivery);
+        }
+        batcher.update(single("UnreadCount/u1", ServerValue.increment(-1)));
+        batcher.flush();
+
+        assertEquals(1, commits.size());
+        assertEquals(ServerValue.increment(2), commits.get(0).get("UnreadCount/u1"));
+    }
+
+    @Test
+    public void incrementOntoPendingValue_splitsBatches() {
+        batcher.update(single("UnreadCount/u1", 0));
+        batcher.update(single("UnreadCount/u1", ServerValue.increment(1)));
+        batcher.flush();
+
+        assertEquals(2, commits.size());
+        assertEquals(0, commits.get(0).get("UnreadCount/u1"));
+        assertEquals(ServerValue.increment(1), commits.get(1).get("UnreadCount/u1"));
+    }
+
+    @Test
+    public void listener_receivesBatchSize() {
+        int[] reported = new int[2];
+        batcher.setListener((writes, paths, latencyMs, error) -> {
+            reported[0] = writes;
+            reported[1] = paths;
+        });
+
+        Map<String, Object> two = new HashMap<>();
+        two.put("User/u1/a", 1);
+        two.put("User/u1/b", 2);
+        batcher.update(two);
+        batcher.update(single("User/u2/a", 3));
+        batcher.flush();
+        acks.get(0).onComplete(null, root);
+
+        assertEquals(2, reported[0]);
+        assertEquals(3, reported[1]);
+    }
+
+    @Test
+    public void batchedService_writesRootRelativePaths() {
+        FirebaseService notifications = new FirebaseService("Notification", batcher);
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("message", "You were selected");
+        notifications.updateSubCollectionEntry("u1", "E1", "INVITED", data);
+        notifications.deleteSubCollectionEntry("u2", "E1", "WAITING");
+        runScheduled();
+
+        Map<String, Object> sent = commits.get(0);
+        assertEquals("You were selected", sent.get("Notification/u1/E1/INVITED/message"));
+        assertTrue(sent.containsKey("Notification/u2/E1/WAITING"));
+        assertNull(sent.get("Notification/u2/E1/WAITING"));
+    }
+
+    // -------------------- helpers --------------------
+
+    private void runScheduled() {
+        List<Runnable> due = new ArrayList<>(scheduled);
+        scheduled.clear();
+        for (Runnable r : due) r.run();
+    }
+
+    private static Map<String, Object> single(String path, Object value) {
+        Map<String, Object> m = new HashMap<>();
+        m.put(path, value);
+        return m;
+    }
+}